@@ -14,25 +14,38 @@
 package com.facebook.presto.release;
 
 import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.stats.Operation;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
+import io.airlift.units.Duration;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+import static com.facebook.presto.release.stats.ReleaseStats.getCommandName;
+import static com.facebook.presto.release.stats.ReleaseStats.startCommand;
+import static com.facebook.presto.release.stats.ReleaseStats.startPipeline;
 import static com.google.common.io.Files.asCharSource;
 import static com.google.common.io.MoreFiles.asCharSource;
+import static java.lang.ProcessBuilder.Redirect.appendTo;
 import static java.lang.String.format;
 import static java.lang.Thread.currentThread;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.joining;
 
 public abstract class AbstractCommands
@@ -42,12 +55,14 @@ public abstract class AbstractCommands
     private final String executable;
     private final Map<String, String> environment;
     private final File directory;
+    private final Duration timeout;
 
-    public AbstractCommands(String executable, Map<String, String> environment, File directory)
+    public AbstractCommands(String executable, Map<String, String> environment, File directory, Duration timeout)
     {
         this.executable = requireNonNull(executable, "executable is null");
         this.environment = requireNonNull(environment, "environment is null");
         this.directory = requireNonNull(directory, "directory is null");
+        this.timeout = requireNonNull(timeout, "timeout is null");
     }
 
     protected String command(String... arguments)
@@ -63,15 +78,118 @@ public abstract class AbstractCommands
                         .addAll(arguments)
                         .build(),
                 environment,
-                directory);
+                directory,
+                timeout);
     }
 
-    public static String command(List<String> command, Map<String, String> environment, File workingDirectory)
+    protected void command(List<String> arguments, Consumer<String> lines)
+    {
+        command(
+                ImmutableList.<String>builder()
+                        .add(executable)
+                        .addAll(arguments)
+                        .build(),
+                lines,
+                environment,
+                directory,
+                timeout);
+    }
+
+    protected String pipe(List<String> producerArguments, List<String> consumerArguments)
+    {
+        return pipe(
+                ImmutableList.<String>builder().add(executable).addAll(producerArguments).build(),
+                ImmutableList.<String>builder().add(executable).addAll(consumerArguments).build(),
+                environment,
+                directory,
+                timeout);
+    }
+
+    /**
+     * Run {@code producer} with its output streamed into the input of {@code consumer}, like a shell pipeline, and return
+     * the output of {@code consumer}. The output of {@code producer} is never held in memory or written to disk. Both
+     * commands are killed when the pipeline runs longer than {@code timeout}. The pipeline is recorded in the statistics
+     * as a whole, e.g. {@code git log | patch-id}, since its duration, status and timeouts belong to both commands.
+     */
+    public static String pipe(List<String> producer, List<String> consumer, Map<String, String> environment, File workingDirectory, Duration timeout)
+    {
+        String commandLine = formatCommand(producer) + " | " + formatCommand(consumer);
+
+        File logFile = null;
+        File errorFile = null;
+        try (Operation operation = startPipeline(producer, consumer)) {
+            logFile = Files.createTempFile("presto-release-log", "").toFile();
+            errorFile = Files.createTempFile("presto-release-error", "").toFile();
+            log.info(format("Running Command: %s; Log: %s", commandLine, logFile.getAbsolutePath()));
+
+            ProcessBuilder producerBuilder = new ProcessBuilder(producer).directory(workingDirectory).redirectError(appendTo(errorFile));
+            ProcessBuilder consumerBuilder = new ProcessBuilder(consumer).directory(workingDirectory).redirectOutput(logFile).redirectError(appendTo(errorFile));
+            environment.forEach(producerBuilder.environment()::put);
+            environment.forEach(consumerBuilder.environment()::put);
+            Process consumerProcess = consumerBuilder.start();
+            Process producerProcess;
+            try {
+                producerProcess = producerBuilder.start();
+            }
+            catch (IOException e) {
+                consumerProcess.destroy();
+                throw e;
+            }
+
+            Thread transfer = new Thread(() -> {
+                try (InputStream input = producerProcess.getInputStream(); OutputStream output = consumerProcess.getOutputStream()) {
+                    ByteStreams.copy(input, output);
+                }
+                catch (IOException e) {
+                    // The consumer exited early, its exit value tells why
+                    log.debug(e, "Failed to stream the output of %s", formatCommand(producer));
+                }
+            }, "pipe-" + getCommandName(producer));
+            transfer.start();
+            waitFor(ImmutableList.of(producerProcess, consumerProcess), commandLine, timeout, operation);
+            transfer.join();
+
+            int exitValue = producerProcess.exitValue() != 0 ? producerProcess.exitValue() : consumerProcess.exitValue();
+            operation.setStatus(exitValue);
+            if (exitValue != 0) {
+                try {
+                    log.error(asCharSource(errorFile.toPath(), UTF_8).read());
+                }
+                catch (IOException e) {
+                    log.error(e, "Failed to print the content of error file: %s", errorFile);
+                }
+                throw new CommandException(exitValue);
+            }
+
+            log.info(format("Finished running command: %s", commandLine));
+            operation.addOutputBytes(logFile.length());
+            operation.succeeded();
+            return asCharSource(logFile, UTF_8).read();
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        catch (InterruptedException e) {
+            currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        finally {
+            deleteTemporaryFile(logFile);
+            deleteTemporaryFile(errorFile);
+        }
+    }
+
+    /**
+     * Run {@code command} and return its output. The command is killed, with the processes it started, when it runs
+     * longer than {@code timeout} or when the calling thread is interrupted.
+     */
+    public static String command(List<String> command, Map<String, String> environment, File workingDirectory, Duration timeout)
     {
         String commandLine = formatCommand(command);
 
-        try {
-            File logFile = Files.createTempFile("presto-release-log", "").toFile();
+        File logFile = null;
+        try (Operation operation = startCommand(command)) {
+            logFile = Files.createTempFile("presto-release-log", "").toFile();
             log.info(format("Running Command: %s; Log: %s", commandLine, logFile.getAbsolutePath()));
 
             ProcessBuilder processBuilder = new ProcessBuilder(command);
@@ -79,7 +197,8 @@ public abstract class AbstractCommands
             environment.forEach(processEnvironment::put);
             Process process = processBuilder.directory(workingDirectory).redirectOutput(logFile).start();
 
-            process.waitFor();
+            waitFor(ImmutableList.of(process), commandLine, timeout, operation);
+            operation.setStatus(process.exitValue());
 
             if (process.exitValue() != 0) {
                 try {
@@ -96,6 +215,8 @@ public abstract class AbstractCommands
             process.waitFor();
 
             log.info(format("Finished running command: %s", commandLine));
+            operation.addOutputBytes(logFile.length());
+            operation.succeeded();
             return asCharSource(logFile, UTF_8).read();
         }
         catch (IOException e) {
@@ -105,6 +226,115 @@ public abstract class AbstractCommands
             currentThread().interrupt();
             throw new RuntimeException(e);
         }
+        finally {
+            deleteTemporaryFile(logFile);
+        }
+    }
+
+    /**
+     * Run {@code command} and pass each line of its output to {@code lines} as the command writes it, on a thread reading
+     * the output, so that the output is never held in memory or written to disk. The command is killed when it runs
+     * longer than {@code timeout}, when the calling thread is interrupted, or when {@code lines} fails.
+     */
+    public static void command(List<String> command, Consumer<String> lines, Map<String, String> environment, File workingDirectory, Duration timeout)
+    {
+        String commandLine = formatCommand(command);
+
+        File errorFile = null;
+        try (Operation operation = startCommand(command)) {
+            errorFile = Files.createTempFile("presto-release-error", "").toFile();
+            log.info(format("Running Command: %s; Streaming its output", commandLine));
+
+            ProcessBuilder processBuilder = new ProcessBuilder(command).directory(workingDirectory).redirectError(appendTo(errorFile));
+            environment.forEach(processBuilder.environment()::put);
+            Process process = processBuilder.start();
+
+            AtomicLong outputBytes = new AtomicLong();
+            AtomicReference<RuntimeException> failure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8))) {
+                    for (String line = output.readLine(); line != null; line = output.readLine()) {
+                        outputBytes.addAndGet(line.length() + 1);
+                        lines.accept(line);
+                    }
+                }
+                catch (IOException e) {
+                    // The command was killed, its exit value tells why
+                    log.debug(e, "Failed to read the output of %s", commandLine);
+                }
+                catch (RuntimeException e) {
+                    failure.set(e);
+                    ProcessTree.destroy(process);
+                }
+            }, "output-" + getCommandName(command));
+            reader.start();
+            waitFor(ImmutableList.of(process), commandLine, timeout, operation);
+            reader.join();
+            operation.setStatus(process.exitValue());
+
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            if (process.exitValue() != 0) {
+                try {
+                    log.error(asCharSource(errorFile.toPath(), UTF_8).read());
+                }
+                catch (IOException e) {
+                    log.error(e, "Failed to print the content of error file: %s", errorFile);
+                }
+                throw new CommandException(process.exitValue());
+            }
+
+            log.info(format("Finished running command: %s", commandLine));
+            operation.addOutputBytes(outputBytes.get());
+            operation.succeeded();
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        catch (InterruptedException e) {
+            currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        finally {
+            deleteTemporaryFile(errorFile);
+        }
+    }
+
+    /**
+     * Wait for {@code processes} to exit. When {@code timeout} elapses first, or the thread is interrupted, e.g. because
+     * the task running the command was aborted, the processes are destroyed with all their descendants.
+     */
+    private static void waitFor(List<Process> processes, String commandLine, Duration timeout, Operation operation)
+            throws InterruptedException
+    {
+        processes.forEach(ProcessTree::register);
+        try {
+            long deadline = System.nanoTime() + timeout.roundTo(NANOSECONDS);
+            for (Process process : processes) {
+                if (!process.waitFor(deadline - System.nanoTime(), NANOSECONDS)) {
+                    log.error("Command timed out after %s: %s", timeout, commandLine);
+                    operation.timedOut();
+                    processes.forEach(ProcessTree::destroy);
+                    throw new CommandTimeoutException(commandLine, timeout);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            log.warn("Interrupted, destroying command: %s", commandLine);
+            processes.forEach(ProcessTree::destroy);
+            throw e;
+        }
+        finally {
+            processes.forEach(ProcessTree::unregister);
+        }
+    }
+
+    private static void deleteTemporaryFile(File file)
+    {
+        if (file != null && !file.delete() && file.exists()) {
+            log.warn("Failed to delete %s", file);
+        }
     }
 
     public static String formatCommand(List<String> command)
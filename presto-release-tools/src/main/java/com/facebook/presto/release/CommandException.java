@@ -20,4 +20,9 @@ public class CommandException
     {
         super("Command failed with exit code " + exitCode);
     }
+
+    protected CommandException(String message)
+    {
+        super(message);
+    }
 }
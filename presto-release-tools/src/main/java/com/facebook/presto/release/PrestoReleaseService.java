@@ -15,8 +15,12 @@ package com.facebook.presto.release;
 
 import com.facebook.presto.release.tasks.CheckReleaseNotesCommand;
 import com.facebook.presto.release.tasks.CutReleaseCommand;
+import com.facebook.presto.release.tasks.ExportReleaseNotesSnapshotCommand;
 import com.facebook.presto.release.tasks.FinalizeReleaseCommand;
 import com.facebook.presto.release.tasks.GenerateReleaseNotesCommand;
+import com.facebook.presto.release.tasks.HotfixCandidatesCommand;
+import com.facebook.presto.release.tasks.IndexReleaseNotesCommand;
+import com.facebook.presto.release.tasks.SearchReleaseNotesCommand;
 import io.airlift.airline.Cli;
 import io.airlift.airline.Help;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
@@ -36,7 +40,11 @@ public class PrestoReleaseService
                 .withDefaultCommand(Help.class)
                 .withCommand(Help.class)
                 .withCommand(GenerateReleaseNotesCommand.class)
+                .withCommand(ExportReleaseNotesSnapshotCommand.class)
                 .withCommand(CheckReleaseNotesCommand.class)
+                .withCommand(IndexReleaseNotesCommand.class)
+                .withCommand(SearchReleaseNotesCommand.class)
+                .withCommand(HotfixCandidatesCommand.class)
                 .withCommand(CutReleaseCommand.class)
                 .withCommand(FinalizeReleaseCommand.class)
                 .build();
@@ -0,0 +1,166 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release;
+
+import com.facebook.airlift.log.Logger;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.Thread.currentThread;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Termination of commands with all their descendants, e.g. the {@code ssh} of a {@code git fetch} or the JVMs forked by
+ * Maven, which keep running when only their parent is killed. The descendants are listed with {@code ps} and signaled
+ * with {@code kill}, which works the same on Java 8, and only the command itself is killed where they are missing.
+ * Commands still running when the JVM exits are killed as well.
+ */
+final class ProcessTree
+{
+    private static final Logger log = Logger.get(ProcessTree.class);
+
+    private static final long GRACE_PERIOD_NANOS = SECONDS.toNanos(5);
+    private static final Splitter WHITESPACE = Splitter.onPattern("\\s+").omitEmptyStrings();
+    private static final Set<Process> RUNNING = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> RUNNING.forEach(ProcessTree::destroy), "destroy-commands"));
+    }
+
+    private ProcessTree() {}
+
+    public static void register(Process process)
+    {
+        RUNNING.add(process);
+    }
+
+    public static void unregister(Process process)
+    {
+        RUNNING.remove(process);
+    }
+
+    /**
+     * Ask {@code process} and its descendants to terminate, and kill them after a grace period, so git has a chance to
+     * remove its lock files.
+     */
+    public static void destroy(Process process)
+    {
+        // Listed before the command is killed, since its descendants are reparented once it exits
+        List<Long> descendants = getPid(process).map(ProcessTree::listDescendants).orElse(ImmutableList.of());
+        process.destroy();
+        signal("TERM", descendants);
+        try {
+            process.waitFor(GRACE_PERIOD_NANOS, NANOSECONDS);
+        }
+        catch (InterruptedException e) {
+            currentThread().interrupt();
+        }
+        process.destroyForcibly();
+        signal("KILL", descendants);
+    }
+
+    private static Optional<Long> getPid(Process process)
+    {
+        try {
+            // Process.pid() only exists since Java 9, before that the pid is a field of the Unix implementation
+            return Optional.of((Long) Process.class.getMethod("pid").invoke(process));
+        }
+        catch (NoSuchMethodException e) {
+            try {
+                Field pid = process.getClass().getDeclaredField("pid");
+                pid.setAccessible(true);
+                return Optional.of(((Number) pid.get(process)).longValue());
+            }
+            catch (ReflectiveOperationException | RuntimeException inner) {
+                log.debug(inner, "Failed to get the pid of %s", process);
+                return Optional.empty();
+            }
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug(e, "Failed to get the pid of %s", process);
+            return Optional.empty();
+        }
+    }
+
+    private static List<Long> listDescendants(long pid)
+    {
+        ListMultimap<Long, Long> children = ArrayListMultimap.create();
+        try {
+            for (String line : run(ImmutableList.of("ps", "-A", "-o", "pid=", "-o", "ppid="))) {
+                List<String> fields = WHITESPACE.splitToList(line);
+                if (fields.size() == 2) {
+                    children.put(Long.parseLong(fields.get(1)), Long.parseLong(fields.get(0)));
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            log.debug(e, "Failed to list the processes started by %s", pid);
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<Long> descendants = ImmutableList.builder();
+        Deque<Long> pending = new ArrayDeque<>(children.get(pid));
+        while (!pending.isEmpty()) {
+            long descendant = pending.poll();
+            descendants.add(descendant);
+            pending.addAll(children.get(descendant));
+        }
+        return descendants.build();
+    }
+
+    private static void signal(String signal, List<Long> pids)
+    {
+        if (pids.isEmpty()) {
+            return;
+        }
+        try {
+            // Processes that already exited are reported on the output, and ignored
+            run(ImmutableList.<String>builder().add("kill", "-" + signal).addAll(pids.stream().map(String::valueOf).iterator()).build());
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to send %s to processes %s", signal, pids);
+        }
+    }
+
+    private static List<String> run(List<String> command)
+            throws IOException
+    {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (InputStreamReader output = new InputStreamReader(process.getInputStream(), UTF_8)) {
+            List<String> lines = CharStreams.readLines(output);
+            process.waitFor();
+            return lines;
+        }
+        catch (InterruptedException e) {
+            process.destroyForcibly();
+            currentThread().interrupt();
+            return ImmutableList.of();
+        }
+    }
+}
@@ -15,12 +15,14 @@ package com.facebook.presto.release;
 
 import com.facebook.presto.release.git.Git;
 import com.facebook.presto.release.maven.MavenVersion;
+import com.facebook.presto.release.stats.TraceSpan;
 
 import java.io.File;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.presto.release.stats.ReleaseTrace.startSpan;
 import static com.google.common.base.Preconditions.checkState;
 
 public class ReleaseUtil
@@ -34,10 +36,12 @@ public class ReleaseUtil
      */
     public static void sanitizeRepository(Git git)
     {
-        checkState(git.status("-s").isEmpty(), "Uncommitted local changes are not allowed.");
-        git.checkout(Optional.of("master"), Optional.empty());
-        git.fastForwardUpstream("master");
-        git.fetchUpstream(Optional.empty());
+        try (TraceSpan ignored = startSpan("preflight", "sanitize-repository")) {
+            checkState(git.status("-s").isEmpty(), "Uncommitted local changes are not allowed.");
+            git.checkout(Optional.of("master"), Optional.empty());
+            git.fastForwardUpstream("master");
+            git.fetchUpstream(Optional.empty());
+        }
     }
 
     /**
@@ -49,24 +53,27 @@ public class ReleaseUtil
     }
 
     /**
-     * Check for tag validity for the given {@code releaseVersion}.
+     * Check for tag validity for the given {@code releaseVersion}, against the local tags fetched by
+     * {@link #sanitizeRepository(Git)}.
      */
     public static void checkTags(Git git, MavenVersion releaseVersion)
     {
-        List<String> tags = git.tag();
-        MavenVersion lastVersion = releaseVersion.isHotFixVersion()
-                ? releaseVersion.getLastMinorVersion()
-                : releaseVersion.getLastMajorVersion();
-        checkState(
-                tags.contains(lastVersion.getVersion()),
-                "Release version is [%s], but tag [%s] is not found.",
-                releaseVersion.getVersion(),
-                lastVersion);
-        checkState(
-                !tags.contains(releaseVersion.getVersion()),
-                "Release version is [%s], but tag [%s] already exists.",
-                releaseVersion.getVersion(),
-                releaseVersion.getVersion());
+        try (TraceSpan ignored = startSpan("preflight", "check-tags")) {
+            List<String> tags = git.tag();
+            MavenVersion lastVersion = releaseVersion.isHotFixVersion()
+                    ? releaseVersion.getLastMinorVersion()
+                    : releaseVersion.getLastMajorVersion();
+            checkState(
+                    tags.contains(lastVersion.getVersion()),
+                    "Release version is [%s], but tag [%s] is not found.",
+                    releaseVersion.getVersion(),
+                    lastVersion);
+            checkState(
+                    !tags.contains(releaseVersion.getVersion()),
+                    "Release version is [%s], but tag [%s] already exists.",
+                    releaseVersion.getVersion(),
+                    releaseVersion.getVersion());
+        }
     }
 
     public static File getPomFile(File directory)
@@ -79,12 +86,16 @@ public class ReleaseUtil
 
     public static void checkReleaseCut(Git git, MavenVersion version)
     {
-        checkState(!git.listUpstreamHeads(getReleaseBranch(version)).isEmpty(), "Release %s has not been cut", version.getMajorVersion());
+        try (TraceSpan ignored = startSpan("preflight", "check-release-cut")) {
+            checkState(git.getUpstreamRefs().hasHead(getReleaseBranch(version)), "Release %s has not been cut", version.getMajorVersion());
+        }
     }
 
     public static void checkReleaseNotCut(Git git, MavenVersion version)
     {
-        checkState(git.listUpstreamHeads(getReleaseBranch(version)).isEmpty(), "Release %s is already cut", version.getMajorVersion());
+        try (TraceSpan ignored = startSpan("preflight", "check-release-not-cut")) {
+            checkState(!git.getUpstreamRefs().hasHead(getReleaseBranch(version)), "Release %s is already cut", version.getMajorVersion());
+        }
     }
 
     public static String getReleaseBranch(MavenVersion version)
@@ -35,12 +35,22 @@ public class Commit
             @JsonProperty("author") GitActor author,
             @JsonProperty("message") String message,
             @JsonProperty("associatedPullRequests") Map<String, List<PullRequest>> associatedPullRequests)
+    {
+        this(id, author.getName(), getTitle(message), associatedPullRequests.get("nodes"));
+    }
+
+    public Commit(String id, String author, String title, List<PullRequest> associatedPullRequests)
     {
         this.id = requireNonNull(id, "id is null");
-        this.author = requireNonNull(author.getName(), "author is null");
+        this.author = requireNonNull(author, "author is null");
+        this.title = requireNonNull(title, "title is null");
+        this.associatedPullRequests = ImmutableList.copyOf(associatedPullRequests);
+    }
+
+    private static String getTitle(String message)
+    {
         message = message.trim();
-        this.title = message.contains("\n") ? message.substring(0, message.indexOf('\n')) : message;
-        this.associatedPullRequests = ImmutableList.copyOf(associatedPullRequests.get("nodes"));
+        return message.contains("\n") ? message.substring(0, message.indexOf('\n')) : message;
     }
 
     public String getId()
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+/**
+ * How the Github metadata of the commits of a release is collected.
+ */
+public enum CommitFetchStrategy
+{
+    /**
+     * Pick the cheapest of the other strategies, based on the size of the release range and the commits found in the
+     * snapshot cache, provided the remaining rate limit allows for its requests.
+     */
+    AUTO,
+    /**
+     * Read the commits from the snapshot cache only, without accessing Github.
+     */
+    SNAPSHOT,
+    /**
+     * Walk the history of the release branch, 30 commits with their pull requests per request.
+     */
+    HISTORY,
+    /**
+     * Look up the pull requests referenced by the commit titles, 50 per request. Commits that do not reference a
+     * pull request are looked up in batches.
+     */
+    BATCH,
+    /**
+     * Search the pull requests merged during the release, 100 per request, and match them to the local commits.
+     * Commits the search does not match are looked up in batches.
+     */
+    SEARCH,
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.facebook.airlift.log.Logger;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import javax.inject.Inject;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Collect the Github commits and pull requests of a release range listed by the local {@code git log}.
+ */
+public class CommitFetcher
+{
+    private static final Logger log = Logger.get(CommitFetcher.class);
+    private static final String BASE_BRANCH = "master";
+
+    /**
+     * Local commits matched and looked up together by {@link CommitFetchStrategy#BATCH} and {@link CommitFetchStrategy#SEARCH},
+     * so that only the pull requests of one chunk are held at a time.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    private final GithubAction githubAction;
+
+    @Inject
+    public CommitFetcher(GithubAction githubAction)
+    {
+        this.githubAction = requireNonNull(githubAction, "githubAction is null");
+    }
+
+    /**
+     * Fetch {@code localCommits}, listed newest first, with {@link CommitFetchStrategy#HISTORY},
+     * {@link CommitFetchStrategy#BATCH} or {@link CommitFetchStrategy#SEARCH}. The history walk returns every commit
+     * of {@code branch} down to the oldest of {@code localCommits}, the other strategies return exactly {@code localCommits}.
+     */
+    public List<Commit> fetchCommits(CommitFetchStrategy strategy, String repository, String branch, List<LocalCommit> localCommits)
+    {
+        ImmutableList.Builder<Commit> commits = ImmutableList.builder();
+        fetchCommits(strategy, repository, branch, localCommits, commits::add);
+        return commits.build();
+    }
+
+    /**
+     * Fetch {@code localCommits} as {@link #fetchCommits(CommitFetchStrategy, String, String, List)} does, passing each
+     * commit to {@code consumer} as soon as its chunk is resolved instead of collecting them.
+     */
+    public void fetchCommits(CommitFetchStrategy strategy, String repository, String branch, List<LocalCommit> localCommits, Consumer<Commit> consumer)
+    {
+        if (localCommits.isEmpty()) {
+            return;
+        }
+        switch (strategy) {
+            case HISTORY:
+                githubAction.listCommits(repository, branch, localCommits.get(localCommits.size() - 1).getId()).forEach(consumer);
+                return;
+            case BATCH:
+                Lists.partition(localCommits, CHUNK_SIZE).forEach(chunk -> batchCommits(repository, chunk, consumer));
+                return;
+            case SEARCH:
+                searchCommits(repository, localCommits, consumer);
+                return;
+            default:
+                throw new IllegalArgumentException("Unsupported fetch strategy: " + strategy);
+        }
+    }
+
+    private void batchCommits(String repository, List<LocalCommit> localCommits, Consumer<Commit> consumer)
+    {
+        List<Integer> numbers = localCommits.stream()
+                .map(LocalCommit::getPullRequestNumber)
+                .filter(OptionalInt::isPresent)
+                .map(OptionalInt::getAsInt)
+                .distinct()
+                .collect(toImmutableList());
+        Map<Integer, PullRequest> pullRequestByNumber = githubAction.getPullRequests(repository, numbers).stream()
+                .collect(toMap(PullRequest::getId, identity(), (first, second) -> first));
+
+        resolveCommits(repository, localCommits, localCommit -> {
+            OptionalInt number = localCommit.getPullRequestNumber();
+            return number.isPresent() ? pullRequestByNumber.get(number.getAsInt()) : null;
+        }, consumer);
+    }
+
+    private void searchCommits(String repository, List<LocalCommit> localCommits, Consumer<Commit> consumer)
+    {
+        // commit times of rebased commits are close to, but not exactly, the merge times
+        Instant mergedAfter = localCommits.stream().map(LocalCommit::getCommitTime).min(Instant::compareTo).get().minus(1, DAYS);
+        Instant mergedBefore = localCommits.stream().map(LocalCommit::getCommitTime).max(Instant::compareTo).get().plus(1, DAYS);
+        List<MergedPullRequest> merged = githubAction.searchMergedPullRequests(repository, BASE_BRANCH, mergedAfter, mergedBefore);
+
+        Map<String, PullRequest> pullRequestByMergeCommit = new HashMap<>();
+        Map<Integer, PullRequest> pullRequestByNumber = new HashMap<>();
+        for (MergedPullRequest pullRequest : merged) {
+            pullRequest.getMergeCommitId().ifPresent(id -> pullRequestByMergeCommit.put(id, pullRequest.getPullRequest()));
+            pullRequestByNumber.put(pullRequest.getPullRequest().getId(), pullRequest.getPullRequest());
+        }
+        log.info("Search found %s pull requests", merged.size());
+
+        // The search results cover the whole range, but the commits are matched and looked up a chunk at a time
+        Lists.partition(localCommits, CHUNK_SIZE).forEach(chunk -> resolveCommits(repository, chunk, localCommit -> {
+            PullRequest pullRequest = pullRequestByMergeCommit.get(localCommit.getId());
+            OptionalInt number = localCommit.getPullRequestNumber();
+            if (pullRequest == null && number.isPresent()) {
+                pullRequest = pullRequestByNumber.get(number.getAsInt());
+            }
+            return pullRequest;
+        }, consumer));
+    }
+
+    /**
+     * Attach the pull request found by {@code matcher} to each local commit, and look up the commits without a match.
+     */
+    private void resolveCommits(String repository, List<LocalCommit> localCommits, Function<LocalCommit, PullRequest> matcher, Consumer<Commit> consumer)
+    {
+        Map<String, Commit> commits = new HashMap<>();
+        List<String> unmatched = new ArrayList<>();
+        for (LocalCommit localCommit : localCommits) {
+            PullRequest pullRequest = matcher.apply(localCommit);
+            if (pullRequest == null) {
+                unmatched.add(localCommit.getId());
+            }
+            else {
+                commits.put(localCommit.getId(), new Commit(localCommit.getId(), localCommit.getAuthor(), localCommit.getTitle(), ImmutableList.of(pullRequest)));
+            }
+        }
+        log.info("Matched pull requests to %s of %s commits, looking up %s commits", commits.size(), localCommits.size(), unmatched.size());
+
+        if (!unmatched.isEmpty()) {
+            commits.putAll(githubAction.getCommits(repository, unmatched).stream()
+                    .collect(toMap(Commit::getId, identity(), (first, second) -> first)));
+        }
+        localCommits.stream()
+                .map(localCommit -> commits.getOrDefault(
+                        localCommit.getId(),
+                        new Commit(localCommit.getId(), localCommit.getAuthor(), localCommit.getTitle(), ImmutableList.of())))
+                .forEach(consumer);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.facebook.airlift.http.client.HeaderName;
+import com.facebook.airlift.http.client.Request;
+import com.facebook.airlift.http.client.Response;
+import com.facebook.airlift.http.client.ResponseHandler;
+import com.facebook.airlift.http.client.StringResponseHandler.StringResponse;
+import com.google.common.collect.ListMultimap;
+import com.google.common.io.CountingInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.facebook.airlift.http.client.ResponseHandlerUtils.propagate;
+import static com.google.common.io.ByteStreams.toByteArray;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Read a response sent with {@code Content-Encoding: gzip} or {@code deflate} as a string. The airlift Jetty client
+ * does not decode content, so requests have to ask for compression with {@code Accept-Encoding} explicitly.
+ */
+public class DecompressingStringResponseHandler
+        implements ResponseHandler<DecompressingStringResponseHandler.DecompressedStringResponse, RuntimeException>
+{
+    public static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+
+    private static final DecompressingStringResponseHandler INSTANCE = new DecompressingStringResponseHandler();
+
+    public static DecompressingStringResponseHandler createDecompressingStringResponseHandler()
+    {
+        return INSTANCE;
+    }
+
+    private DecompressingStringResponseHandler() {}
+
+    @Override
+    public DecompressedStringResponse handleException(Request request, Exception exception)
+    {
+        throw propagate(request, exception);
+    }
+
+    @Override
+    public DecompressedStringResponse handle(Request request, Response response)
+    {
+        try (CountingInputStream wire = new CountingInputStream(response.getInputStream())) {
+            String encoding = response.getHeader("Content-Encoding");
+            byte[] body;
+            try (InputStream input = decode(wire, encoding == null ? "identity" : encoding.trim().toLowerCase(ENGLISH))) {
+                body = toByteArray(input);
+            }
+            return new DecompressedStringResponse(response.getStatusCode(), response.getStatusMessage(), response.getHeaders(), new String(body, UTF_8), wire.getCount());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream decode(InputStream input, String encoding)
+            throws IOException
+    {
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(input);
+            case "deflate":
+                return new InflaterInputStream(input);
+            case "identity":
+                return input;
+            default:
+                throw new IOException("Unsupported content encoding: " + encoding);
+        }
+    }
+
+    public static class DecompressedStringResponse
+            extends StringResponse
+    {
+        private final long transferredBytes;
+
+        public DecompressedStringResponse(int statusCode, String statusMessage, ListMultimap<HeaderName, String> headers, String body, long transferredBytes)
+        {
+            super(statusCode, statusMessage, headers, body);
+            this.transferredBytes = transferredBytes;
+        }
+
+        /**
+         * Size of the body as received, before decompression.
+         */
+        public long getTransferredBytes()
+        {
+            return transferredBytes;
+        }
+    }
+}
@@ -13,8 +13,11 @@
  */
 package com.facebook.presto.release.git;
 
+import java.io.File;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface Git
 {
@@ -28,25 +31,90 @@ public interface Git
 
     void add(String path);
 
+    /**
+     * Add a detached worktree at {@code directory} for {@code ref} without checking out any file.
+     */
+    void addWorktree(File directory, String ref);
+
     void checkout(Optional<String> ref, Optional<String> createBranch);
 
+    /**
+     * Check out {@code branch}, creating it or resetting it to {@code startPoint}.
+     */
+    void checkoutBranch(String branch, String startPoint);
+
     void commit(String commitTitle);
 
+    /**
+     * Commit with a message of several paragraphs, e.g. with trailers, and optionally without changes.
+     */
+    void commit(String message, boolean allowEmpty);
+
     void deleteBranch(String branch);
 
     void fastForwardUpstream(String ref);
 
+    void fetchOrigin(String ref);
+
     void fetchUpstream(Optional<String> ref);
 
-    List<String> listUpstreamHeads(String branch);
+    /**
+     * Return a {@link Git} operating on the worktree at {@code directory}, sharing the remotes of this repository.
+     */
+    Git forWorktree(File directory);
+
+    /**
+     * Return a snapshot of the upstream branches, taken with a single remote call.
+     * The snapshot is reused until the next fetch from or push to a remote.
+     */
+    GitRefs getUpstreamRefs();
+
+    /**
+     * Return the commits at the boundary of a shallow clone, whose parents are missing, or an empty set if the
+     * repository has its full history.
+     */
+    Set<String> getShallowCommits();
+
+    /**
+     * Return whether {@code ancestor} is reachable from {@code commit}, false as well when either of them is unknown.
+     */
+    boolean isAncestor(String ancestor, String commit);
 
     String log(String revisionRange, String... options);
 
+    /**
+     * Pass each line of the {@code git log} output to {@code lines} as git writes it, instead of returning the whole output.
+     */
+    void log(String revisionRange, Consumer<String> lines, String... options);
+
+    /**
+     * Return a {@code <patch-id> <commit-id>} line for each non-merge commit of {@code revisionRange}, newest first,
+     * computed by streaming {@code git log -p} into {@code git patch-id --stable}. Cherry-picks of a commit share its
+     * patch id, unless their diffs differ.
+     */
+    String patchIds(String revisionRange);
+
     void push(RemoteType remoteType, String branch, boolean tags);
 
+    void removeWorktree(File directory);
+
+    /**
+     * Return the object id of {@code revision}, e.g. {@code HEAD:<path>} for the tree of a directory.
+     */
+    String revParse(String revision);
+
+    /**
+     * Restrict the working tree to the given directories with a cone mode sparse checkout, and check out the files of
+     * those directories along with the files at the top level of the repository.
+     */
+    void sparseCheckout(List<String> directories);
+
     String status(String... options);
 
     String remoteUrl(String remote);
 
+    /**
+     * Return the local tags, which include the upstream tags as of the last fetch.
+     */
     List<String> tag();
 }
@@ -14,18 +14,28 @@
 package com.facebook.presto.release.git;
 
 import com.facebook.presto.release.AbstractCommands;
+import com.facebook.presto.release.CommandException;
+import com.facebook.presto.release.CommandTimeoutException;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static com.facebook.presto.release.git.Git.RemoteType.ORIGIN;
 import static com.facebook.presto.release.git.Git.RemoteType.UPSTREAM;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.lang.String.format;
 import static java.lang.System.lineSeparator;
 import static java.util.Arrays.asList;
@@ -38,15 +48,20 @@ public class GitCommands
     private static final Splitter LINE_SPLITTER = Splitter.on(lineSeparator()).trimResults().omitEmptyStrings();
 
     private final GitRepository repository;
+    private final GitConfig gitConfig;
+
+    private GitRefs upstreamRefs;
 
     public GitCommands(GitRepository repository, GitConfig gitConfig)
     {
         super(
                 gitConfig.getExecutable(),
                 getEnvironment(gitConfig.getSshKeyFile()),
-                repository.getDirectory());
+                repository.getDirectory(),
+                gitConfig.getCommandTimeout());
 
         this.repository = requireNonNull(repository, "repository is null");
+        this.gitConfig = gitConfig;
     }
 
     @Override
@@ -61,6 +76,12 @@ public class GitCommands
         command("add", path);
     }
 
+    @Override
+    public void addWorktree(File directory, String ref)
+    {
+        command("worktree", "add", "--no-checkout", "--detach", directory.getAbsolutePath(), ref);
+    }
+
     @Override
     public void checkout(Optional<String> ref, Optional<String> createBranch)
     {
@@ -70,12 +91,28 @@ public class GitCommands
         command(arguments.build());
     }
 
+    @Override
+    public void checkoutBranch(String branch, String startPoint)
+    {
+        command("checkout", "-B", branch, startPoint);
+    }
+
     @Override
     public void commit(String commitTitle)
     {
         command("commit", "-m", commitTitle);
     }
 
+    @Override
+    public void commit(String message, boolean allowEmpty)
+    {
+        ImmutableList.Builder<String> arguments = ImmutableList.<String>builder().add("commit");
+        if (allowEmpty) {
+            arguments.add("--allow-empty");
+        }
+        command(arguments.add("-m", message).build());
+    }
+
     @Override
     public void deleteBranch(String branch)
     {
@@ -88,9 +125,16 @@ public class GitCommands
         command("pull", "--ff-only", repository.getUpstreamName(), ref);
     }
 
+    @Override
+    public void fetchOrigin(String ref)
+    {
+        command("fetch", repository.getOriginName(), ref);
+    }
+
     @Override
     public void fetchUpstream(Optional<String> ref)
     {
+        invalidateUpstreamRefs();
         ImmutableList.Builder<String> arguments = ImmutableList.<String>builder()
                 .add("fetch")
                 .add(repository.getUpstreamName());
@@ -99,9 +143,61 @@ public class GitCommands
     }
 
     @Override
-    public List<String> listUpstreamHeads(String branch)
+    public Git forWorktree(File directory)
+    {
+        return new GitCommands(repository.withDirectory(directory), gitConfig);
+    }
+
+    @Override
+    public synchronized GitRefs getUpstreamRefs()
+    {
+        if (upstreamRefs == null) {
+            upstreamRefs = GitRefs.parseLsRemote(command("ls-remote", "--heads", repository.getUpstreamName()));
+        }
+        return upstreamRefs;
+    }
+
+    private synchronized void invalidateUpstreamRefs()
+    {
+        upstreamRefs = null;
+    }
+
+    @Override
+    public Set<String> getShallowCommits()
+    {
+        String path = command("rev-parse", "--git-path", "shallow").trim();
+        if (path.isEmpty()) {
+            return ImmutableSet.of();
+        }
+        Path shallow = repository.getDirectory().toPath().resolve(path);
+        if (!Files.isRegularFile(shallow)) {
+            return ImmutableSet.of();
+        }
+        try {
+            return Files.readAllLines(shallow).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .collect(toImmutableSet());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isAncestor(String ancestor, String commit)
     {
-        return LINE_SPLITTER.splitToList(command("ls-remote", "--heads", repository.getUpstreamName(), branch));
+        try {
+            command("merge-base", "--is-ancestor", ancestor, commit);
+            return true;
+        }
+        catch (CommandTimeoutException e) {
+            throw e;
+        }
+        catch (CommandException e) {
+            // exit code 1 when it is not an ancestor, 128 when a commit is unknown
+            return false;
+        }
     }
 
     @Override
@@ -114,10 +210,31 @@ public class GitCommands
                 .build());
     }
 
+    @Override
+    public void log(String revisionRange, Consumer<String> lines, String... options)
+    {
+        command(
+                ImmutableList.<String>builder()
+                        .add("log")
+                        .add(revisionRange)
+                        .addAll(asList(options))
+                        .build(),
+                lines);
+    }
+
+    @Override
+    public String patchIds(String revisionRange)
+    {
+        return pipe(
+                ImmutableList.of("log", "-p", "--no-merges", "--no-color", "--no-ext-diff", revisionRange),
+                ImmutableList.of("patch-id", "--stable"));
+    }
+
     @Override
     public void push(RemoteType remoteType, String branch, boolean tags)
     {
         checkArgument(remoteType == ORIGIN || remoteType == UPSTREAM, "Unsupported remote type: %s", remoteType);
+        invalidateUpstreamRefs();
         ImmutableList.Builder<String> arguments = ImmutableList.<String>builder()
                 .add("push")
                 .add(remoteType == ORIGIN ? repository.getOriginName() : repository.getUpstreamName())
@@ -130,18 +247,37 @@ public class GitCommands
     }
 
     @Override
-    public String status(String... options)
+    public void removeWorktree(File directory)
     {
-        return command(ImmutableList.<String>builder()
-                .add("status")
-                .addAll(asList(options))
+        command("worktree", "remove", "--force", directory.getAbsolutePath());
+    }
+
+    @Override
+    public String revParse(String revision)
+    {
+        return command("rev-parse", revision).trim();
+    }
+
+    @Override
+    public void sparseCheckout(List<String> directories)
+    {
+        command("sparse-checkout", "init", "--cone");
+        command(ImmutableList.<String>builder()
+                .add("sparse-checkout")
+                .add("set")
+                .addAll(directories)
                 .build());
+        // The worktree is added without a checkout, so its index is empty until it is read from HEAD
+        command("read-tree", "-mu", "HEAD");
     }
 
     @Override
-    public List<String> tag()
+    public String status(String... options)
     {
-        return LINE_SPLITTER.splitToList(command("tag"));
+        return command(ImmutableList.<String>builder()
+                .add("status")
+                .addAll(asList(options))
+                .build());
     }
 
     public static Map<String, String> getEnvironment(Optional<File> sshKeyFile)
@@ -157,4 +293,10 @@ public class GitCommands
     {
         return command("remote", "get-url", remote).trim();
     }
+
+    @Override
+    public List<String> tag()
+    {
+        return LINE_SPLITTER.splitToList(command("tag"));
+    }
 }
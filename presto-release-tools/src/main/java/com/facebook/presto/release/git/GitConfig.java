@@ -14,16 +14,21 @@
 package com.facebook.presto.release.git;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import io.airlift.units.Duration;
 
 import javax.validation.constraints.NotNull;
 
 import java.io.File;
 import java.util.Optional;
 
+import static java.util.concurrent.TimeUnit.HOURS;
+
 public class GitConfig
 {
     private String executable = "git";
     private File sshKeyFile;
+    private Duration commandTimeout = new Duration(1, HOURS);
 
     @NotNull
     public String getExecutable()
@@ -50,4 +55,18 @@ public class GitConfig
         this.sshKeyFile = sshKeyFile;
         return this;
     }
+
+    @NotNull
+    public Duration getCommandTimeout()
+    {
+        return commandTimeout;
+    }
+
+    @Config("git.command-timeout")
+    @ConfigDescription("Time after which a git command is killed, with the processes it started")
+    public GitConfig setCommandTimeout(Duration commandTimeout)
+    {
+        this.commandTimeout = commandTimeout;
+        return this;
+    }
 }
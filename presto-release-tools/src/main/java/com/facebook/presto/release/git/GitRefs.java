@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A point-in-time snapshot of the branches of a remote, indexed for constant time lookups.
+ */
+public class GitRefs
+{
+    private static final Splitter LINE_SPLITTER = Splitter.on('\n').trimResults().omitEmptyStrings();
+    private static final Splitter FIELD_SPLITTER = Splitter.on('\t').trimResults();
+    private static final String HEADS_PREFIX = "refs/heads/";
+
+    private final Set<String> heads;
+
+    public GitRefs(Set<String> heads)
+    {
+        this.heads = ImmutableSet.copyOf(requireNonNull(heads, "heads is null"));
+    }
+
+    /**
+     * Parse the output of {@code git ls-remote --heads}, e.g. {@code <sha>\trefs/heads/master}.
+     */
+    public static GitRefs parseLsRemote(String output)
+    {
+        ImmutableSet.Builder<String> heads = ImmutableSet.builder();
+        for (String line : LINE_SPLITTER.split(output)) {
+            List<String> fields = FIELD_SPLITTER.splitToList(line);
+            if (fields.size() != 2) {
+                continue;
+            }
+            String ref = fields.get(1);
+            if (ref.startsWith(HEADS_PREFIX)) {
+                heads.add(ref.substring(HEADS_PREFIX.length()));
+            }
+        }
+        return new GitRefs(heads.build());
+    }
+
+    public boolean hasHead(String branch)
+    {
+        return heads.contains(branch);
+    }
+
+    public Set<String> getHeads()
+    {
+        return heads;
+    }
+}
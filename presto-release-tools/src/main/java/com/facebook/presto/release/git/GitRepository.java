@@ -14,11 +14,14 @@
 package com.facebook.presto.release.git;
 
 import com.facebook.presto.release.git.GitRepositoryConfig.Protocol;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
 
 import javax.annotation.PostConstruct;
 
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
@@ -80,12 +83,21 @@ public class GitRepository
                 repositoryConfig.getAccessToken());
         File gitDirectory = getValidatedDirectoryForRemoteRepository(repositoryConfig, repositoryName);
         Map<String, String> environment = GitCommands.getEnvironment(gitConfig.getSshKeyFile());
+        Duration timeout = gitConfig.getCommandTimeout();
 
         Runnable initialization = () -> {
-            command(ImmutableList.of(gitConfig.getExecutable(), "clone", originUrl, gitDirectory.getAbsolutePath()), environment, new File(System.getProperty("user.dir")));
-            command(ImmutableList.of(gitConfig.getExecutable(), "remote", "add", repositoryConfig.getUpstreamName(), upstreamUrl), environment, gitDirectory);
+            File workingDirectory = new File(System.getProperty("user.dir"));
+            repositoryConfig.getReferenceMirror().ifPresent(mirror -> updateReferenceMirror(gitConfig.getExecutable(), new File(mirror), upstreamUrl, environment, workingDirectory, timeout));
+            command(getCloneCommand(gitConfig.getExecutable(), originUrl, gitDirectory, repositoryConfig), environment, workingDirectory, timeout);
+            command(ImmutableList.of(gitConfig.getExecutable(), "remote", "add", repositoryConfig.getUpstreamName(), upstreamUrl), environment, gitDirectory, timeout);
+            if (repositoryConfig.getCloneFilter().isPresent()) {
+                // Make fetches from upstream partial as well, otherwise the first fetch downloads the full history
+                String remoteKey = "remote." + repositoryConfig.getUpstreamName();
+                command(ImmutableList.of(gitConfig.getExecutable(), "config", remoteKey + ".promisor", "true"), environment, gitDirectory, timeout);
+                command(ImmutableList.of(gitConfig.getExecutable(), "config", remoteKey + ".partialclonefilter", repositoryConfig.getCloneFilter().get()), environment, gitDirectory, timeout);
+            }
             if (!repositoryConfig.getOriginName().equals("origin")) {
-                command(ImmutableList.of(gitConfig.getExecutable(), "remote", "add", repositoryConfig.getOriginName(), originUrl), environment, gitDirectory);
+                command(ImmutableList.of(gitConfig.getExecutable(), "remote", "add", repositoryConfig.getOriginName(), originUrl), environment, gitDirectory, timeout);
             }
         };
 
@@ -96,6 +108,37 @@ public class GitRepository
                 Optional.of(initialization));
     }
 
+    @VisibleForTesting
+    static List<String> getCloneCommand(String executable, String originUrl, File gitDirectory, GitRepositoryConfig repositoryConfig)
+    {
+        ImmutableList.Builder<String> command = ImmutableList.<String>builder()
+                .add(executable)
+                .add("clone");
+        repositoryConfig.getCloneFilter().ifPresent(filter -> command.add("--filter=" + filter));
+        if (repositoryConfig.getCloneDepth().isPresent()) {
+            checkArgument(repositoryConfig.getCloneDepth().get() > 0, "Invalid clone depth: %s", repositoryConfig.getCloneDepth().get());
+            command.add("--depth", String.valueOf(repositoryConfig.getCloneDepth().get()), "--no-single-branch");
+        }
+        // The mirror is pruned when it is updated, so the clone copies the objects it borrows instead of linking to them
+        repositoryConfig.getReferenceMirror().ifPresent(mirror -> command.add("--reference", new File(mirror).getAbsolutePath(), "--dissociate"));
+        return command.add(originUrl)
+                .add(gitDirectory.getAbsolutePath())
+                .build();
+    }
+
+    /**
+     * Create the mirror with {@code git clone --mirror} if it does not exist, otherwise bring it up to date with upstream.
+     */
+    private static void updateReferenceMirror(String executable, File mirror, String upstreamUrl, Map<String, String> environment, File workingDirectory, Duration timeout)
+    {
+        if (new File(mirror, "HEAD").exists()) {
+            command(ImmutableList.of(executable, "remote", "update", "--prune"), environment, mirror, timeout);
+        }
+        else {
+            command(ImmutableList.of(executable, "clone", "--mirror", upstreamUrl, mirror.getAbsolutePath()), environment, workingDirectory, timeout);
+        }
+    }
+
     private static String getRemoteUrl(String repository, Protocol protocol, Optional<String> accessToken)
     {
         checkArgument(REPOSITORY_PATTERN.matcher(repository).matches(), "Invalid repository name: %s, expect format <USER>/<REPO>");
@@ -122,6 +165,14 @@ public class GitRepository
         return directory;
     }
 
+    /**
+     * Return a repository with the same remotes located at another directory, e.g. a worktree of this repository.
+     */
+    public GitRepository withDirectory(File directory)
+    {
+        return new GitRepository(upstreamName, originName, directory, Optional.empty());
+    }
+
     private static File getValidatedDirectoryForFileRepository(GitRepositoryConfig config, String repositoryName)
     {
         File gitDirectory = new File(config.getDirectory().orElse(System.getProperty("user.dir")));
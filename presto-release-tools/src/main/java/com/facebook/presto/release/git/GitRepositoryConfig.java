@@ -41,6 +41,9 @@ public class GitRepositoryConfig
     private Optional<String> originRepository = Optional.empty();
     private Protocol protocol = HTTPS;
     private Optional<String> accessToken = Optional.empty();
+    private Optional<String> cloneFilter = Optional.empty();
+    private Optional<Integer> cloneDepth = Optional.empty();
+    private Optional<String> referenceMirror = Optional.empty();
 
     @NotNull
     public String getUpstreamName()
@@ -163,4 +166,46 @@ public class GitRepositoryConfig
         this.accessToken = Optional.ofNullable(accessToken);
         return this;
     }
+
+    @NotNull
+    public Optional<String> getCloneFilter()
+    {
+        return cloneFilter;
+    }
+
+    @Config("git.clone-filter")
+    @ConfigDescription("Partial clone filter used when initializing from remote, e.g. blob:none.")
+    public GitRepositoryConfig setCloneFilter(String cloneFilter)
+    {
+        this.cloneFilter = Optional.ofNullable(cloneFilter);
+        return this;
+    }
+
+    @NotNull
+    public Optional<Integer> getCloneDepth()
+    {
+        return cloneDepth;
+    }
+
+    @Config("git.clone-depth")
+    @ConfigDescription("Shallow clone depth used when initializing from remote. Release notes fail if the release range reaches past it.")
+    public GitRepositoryConfig setCloneDepth(Integer cloneDepth)
+    {
+        this.cloneDepth = Optional.ofNullable(cloneDepth);
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getReferenceMirror()
+    {
+        return referenceMirror;
+    }
+
+    @Config("git.reference-mirror")
+    @ConfigDescription("Directory of a local mirror of the upstream repository. The mirror is created or updated before cloning and used as a reference.")
+    public GitRepositoryConfig setReferenceMirror(String referenceMirror)
+    {
+        this.referenceMirror = Optional.ofNullable(referenceMirror);
+        return this;
+    }
 }
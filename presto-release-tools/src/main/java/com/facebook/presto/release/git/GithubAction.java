@@ -13,7 +13,9 @@
  */
 package com.facebook.presto.release.git;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface GithubAction
 {
@@ -22,8 +24,43 @@ public interface GithubAction
      */
     List<Commit> listCommits(String repository, String branch, String earliest);
 
+    /**
+     * Search the pull requests merged into {@code baseBranch} between {@code mergedAfter} and {@code mergedBefore}, inclusive.
+     */
+    List<MergedPullRequest> searchMergedPullRequests(String repository, String baseBranch, Instant mergedAfter, Instant mergedBefore);
+
+    /**
+     * Look up commits by id, in batches. Commits unknown to Github are omitted.
+     */
+    List<Commit> getCommits(String repository, List<String> commitIds);
+
+    /**
+     * Look up pull requests by number, in batches. Unknown pull requests are omitted.
+     */
+    List<PullRequest> getPullRequests(String repository, List<Integer> numbers);
+
+    /**
+     * Look up users by login, in one request per 100 logins. Unknown logins, such as those of bots, are omitted.
+     */
+    List<User> getUsers(List<String> logins);
+
+    /**
+     * Remaining Github API rate limit points of the current window.
+     */
+    int getRemainingRateLimit();
+
     /**
      * Create a pull request to merge from headRef to baseRef
      */
     PullRequest createPullRequest(String repository, String baseRef, String headRef, String title, String body);
+
+    /**
+     * Find the open pull request from the branch {@code headRefName}, of any fork.
+     */
+    Optional<PullRequest> getOpenPullRequest(String repository, String headRefName);
+
+    /**
+     * Replace the description of pull request {@code number}.
+     */
+    PullRequest updatePullRequest(String repository, int number, String body);
 }
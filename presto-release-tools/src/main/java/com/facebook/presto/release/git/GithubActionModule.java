@@ -15,10 +15,13 @@ package com.facebook.presto.release.git;
 
 import com.google.inject.Binder;
 import com.google.inject.Module;
+import io.airlift.units.Duration;
 
 import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
 import static com.facebook.airlift.http.client.HttpClientBinder.httpClientBinder;
 import static com.google.inject.Scopes.SINGLETON;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class GithubActionModule
         implements Module
@@ -27,7 +30,15 @@ public class GithubActionModule
     public void configure(Binder binder)
     {
         configBinder(binder).bindConfig(GithubConfig.class);
-        httpClientBinder(binder).bindHttpClient("github", ForGithub.class);
+        // Queries run one after the other over a pooled connection, so keep it open between them. Responses are
+        // read fully before they are parsed, so the request timeout bounds the transfer of large pages on slow links.
+        httpClientBinder(binder).bindHttpClient("github", ForGithub.class)
+                .withConfigDefaults(config -> config
+                        .setConnectTimeout(new Duration(10, SECONDS))
+                        .setIdleTimeout(new Duration(1, MINUTES))
+                        .setRequestTimeout(new Duration(2, MINUTES))
+                        .setMaxConnectionsPerServer(4));
         binder.bind(GithubAction.class).to(GithubGraphQlAction.class).in(SINGLETON);
+        binder.bind(CommitFetcher.class).in(SINGLETON);
     }
 }
@@ -14,13 +14,25 @@
 package com.facebook.presto.release.git;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import io.airlift.units.Duration;
 
 import javax.validation.constraints.NotNull;
 
+import java.net.URI;
+import java.util.Optional;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+
 public class GithubConfig
 {
     private String user;
     private String accessToken;
+    private URI apiUri = URI.create("https://api.github.com/graphql");
+    private CommitFetchStrategy fetchStrategy = CommitFetchStrategy.AUTO;
+    private Optional<String> snapshotCacheDirectory = Optional.empty();
+    private Optional<String> contributorCacheFile = Optional.empty();
+    private Duration contributorCacheTtl = new Duration(30, DAYS);
 
     @NotNull
     public String getUser()
@@ -47,4 +59,74 @@ public class GithubConfig
         this.accessToken = accessToken;
         return this;
     }
+
+    @NotNull
+    public URI getApiUri()
+    {
+        return apiUri;
+    }
+
+    @Config("github.api-uri")
+    @ConfigDescription("Github GraphQL API endpoint")
+    public GithubConfig setApiUri(URI apiUri)
+    {
+        this.apiUri = apiUri;
+        return this;
+    }
+
+    @NotNull
+    public CommitFetchStrategy getFetchStrategy()
+    {
+        return fetchStrategy;
+    }
+
+    @Config("github.fetch-strategy")
+    @ConfigDescription("How the commits and pull requests of a release are fetched: AUTO, SNAPSHOT, HISTORY, BATCH or SEARCH")
+    public GithubConfig setFetchStrategy(CommitFetchStrategy fetchStrategy)
+    {
+        this.fetchStrategy = fetchStrategy;
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getSnapshotCacheDirectory()
+    {
+        return snapshotCacheDirectory;
+    }
+
+    @Config("github.snapshot-cache-directory")
+    @ConfigDescription("Directory of release notes snapshots reused instead of fetching the commits they contain again")
+    public GithubConfig setSnapshotCacheDirectory(String snapshotCacheDirectory)
+    {
+        this.snapshotCacheDirectory = Optional.ofNullable(snapshotCacheDirectory);
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getContributorCacheFile()
+    {
+        return contributorCacheFile;
+    }
+
+    @Config("github.contributor-cache-file")
+    @ConfigDescription("File caching the display names of the Github users credited in release notes")
+    public GithubConfig setContributorCacheFile(String contributorCacheFile)
+    {
+        this.contributorCacheFile = Optional.ofNullable(contributorCacheFile);
+        return this;
+    }
+
+    @NotNull
+    public Duration getContributorCacheTtl()
+    {
+        return contributorCacheTtl;
+    }
+
+    @Config("github.contributor-cache-ttl")
+    @ConfigDescription("How long a cached display name is used before it is looked up again")
+    public GithubConfig setContributorCacheTtl(Duration contributorCacheTtl)
+    {
+        this.contributorCacheTtl = contributorCacheTtl;
+        return this;
+    }
 }
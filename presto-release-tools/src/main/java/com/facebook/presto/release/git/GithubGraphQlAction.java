@@ -14,33 +14,50 @@
 package com.facebook.presto.release.git;
 
 import com.facebook.airlift.http.client.HttpClient;
-import com.facebook.airlift.http.client.StringResponseHandler.StringResponse;
 import com.facebook.airlift.json.JsonCodec;
 import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.git.DecompressingStringResponseHandler.DecompressedStringResponse;
+import com.facebook.presto.release.stats.Operation;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 import javax.inject.Inject;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.airlift.http.client.JsonBodyGenerator.jsonBodyGenerator;
 import static com.facebook.airlift.http.client.Request.Builder.preparePost;
-import static com.facebook.airlift.http.client.StringResponseHandler.createStringResponseHandler;
 import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.presto.release.git.DecompressingStringResponseHandler.ACCEPTED_ENCODINGS;
+import static com.facebook.presto.release.git.DecompressingStringResponseHandler.createDecompressingStringResponseHandler;
+import static com.facebook.presto.release.git.GraphQlField.field;
+import static com.facebook.presto.release.git.GraphQlField.fields;
+import static com.facebook.presto.release.git.GraphQlField.on;
+import static com.facebook.presto.release.git.GraphQlQueryBuilder.mutation;
+import static com.facebook.presto.release.git.GraphQlQueryBuilder.query;
+import static com.facebook.presto.release.stats.ReleaseStats.startGithubRequest;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ObjectArrays.concat;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static java.util.UUID.randomUUID;
 import static javax.ws.rs.core.HttpHeaders.ACCEPT;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
 import static javax.ws.rs.core.HttpHeaders.AUTHORIZATION;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static javax.ws.rs.core.HttpHeaders.USER_AGENT;
@@ -50,78 +67,34 @@ public class GithubGraphQlAction
         implements GithubAction
 {
     private static final Logger log = Logger.get(GithubGraphQlAction.class);
-    private static final URI GRAPHQL_API_URI = URI.create("https://api.github.com/graphql");
-    private static final String LIST_COMMITS_QUERY = "{\n" +
-            "    repository(owner: \"%s\", name: \"%s\") {\n" +
-            "        ref(qualifiedName: \"%s\") {\n" +
-            "            target {\n" +
-            "                ... on Commit {\n" +
-            "                    history(first: 30, after: %s) {\n" +
-            "                        pageInfo {\n" +
-            "                            hasNextPage\n" +
-            "                            endCursor\n" +
-            "                        }\n" +
-            "                        edges {\n" +
-            "                            node {\n" +
-            "                                oid\n" +
-            "                                message\n" +
-            "                                author {\n" +
-            "                                    name\n" +
-            "                                }\n" +
-            "                                associatedPullRequests(first: 10) {\n" +
-            "                                    nodes {\n" +
-            "                                      number\n" +
-            "                                      title\n" +
-            "                                      url\n" +
-            "                                      body\n" +
-            "                                      author {\n" +
-            "                                          login\n" +
-            "                                      }\n" +
-            "                                      mergedBy {\n" +
-            "                                          ... on User {\n" +
-            "                                              login\n" +
-            "                                              name\n" +
-            "                                          }\n" +
-            "                                      }\n" +
-            "                                    }\n" +
-            "                                }\n" +
-            "                            }\n" +
-            "                        }\n" +
-            "                    }\n" +
-            "                }\n" +
-            "            }\n" +
-            "        }\n" +
-            "    }\n" +
-            "}\n";
-
-    private static final String CREATE_PULL_REQUEST_QUERY = "mutation($pr:CreatePullRequestInput!) {\n" +
-            "    createPullRequest(input:$pr) {\n" +
-            "        pullRequest {\n" +
-            "            number\n" +
-            "            title\n" +
-            "            url\n" +
-            "            body\n" +
-            "            author {\n" +
-            "                login\n" +
-            "            }\n" +
-            "            mergedBy {\n" +
-            "                ... on User {\n" +
-            "                    name\n" +
-            "                }\n" +
-            "            }\n" +
-            "        }\n" +
-            "    }\n" +
-            "}";
-
-    private static final String GET_REPOSITORY_ID_QUERY = "{\n" +
-            "    repository(owner: \"%s\", name: \"%s\") {\n" +
-            "        id\n" +
-            "    }\n" +
-            "}\n";
+    // The fields read by PullRequest, Commit and the page info of connections, and nothing else
+    private static final GraphQlField[] PULL_REQUEST_FIELDS = {
+            field("number"),
+            field("title"),
+            field("url"),
+            field("body"),
+            field("author", field("login")),
+            field("mergedBy", on("User", fields("login", "name")))};
+    private static final GraphQlField[] COMMIT_FIELDS = {
+            field("oid"),
+            field("message"),
+            field("author", field("name")),
+            field("associatedPullRequests", field("nodes", PULL_REQUEST_FIELDS)).withArgument("first", 10)};
+    private static final GraphQlField[] MERGED_PULL_REQUEST_FIELDS = concat(PULL_REQUEST_FIELDS, field("mergeCommit", field("oid")));
+    private static final GraphQlField PAGE_INFO = field("pageInfo", fields("hasNextPage", "endCursor"));
+    private static final GraphQlField RATE_LIMIT = field("rateLimit", fields("cost", "remaining"));
+
+    // Github returns at most 1000 results for a search, larger ranges are split
+    private static final int SEARCH_RESULT_LIMIT = 1000;
+    private static final int COMMIT_BATCH_SIZE = 50;
+    private static final int PULL_REQUEST_BATCH_SIZE = 50;
+    private static final int USER_BATCH_SIZE = 100;
 
     private final HttpClient httpClient;
+    private final URI apiUri;
     private final String user;
     private final String accessToken;
+    private final AtomicReference<OptionalInt> remainingRateLimit = new AtomicReference<>(OptionalInt.empty());
 
     @Inject
     public GithubGraphQlAction(
@@ -129,11 +102,12 @@ public class GithubGraphQlAction
             GithubConfig githubConfig)
     {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.apiUri = requireNonNull(githubConfig.getApiUri(), "apiUri is null");
         this.user = requireNonNull(githubConfig.getUser(), "githubUser is null");
         this.accessToken = requireNonNull(githubConfig.getAccessToken(), "accessToken is null");
     }
 
-    private String[] parseRepository(String repository)
+    private static String[] parseRepository(String repository)
     {
         String[] parts = repository.split("/");
         if (parts.length != 2) {
@@ -142,16 +116,41 @@ public class GithubGraphQlAction
         return parts;
     }
 
+    /**
+     * Select {@code repository(owner: $owner, name: $name)}, declaring both variables in the builder.
+     */
+    private static GraphQlField repository(GraphQlQueryBuilder builder, String repository, GraphQlField... selections)
+    {
+        String[] parts = parseRepository(repository);
+        return field("repository", selections)
+                .withArgument("owner", builder.variable("owner", "String!", parts[0]))
+                .withArgument("name", builder.variable("name", "String!", parts[1]));
+    }
+
     @Override
     public List<Commit> listCommits(String repository, String branch, String earliest)
     {
-        String[] parts = parseRepository(repository);
+        parseRepository(repository);
         String current = null;
+        int page = 0;
         ImmutableList.Builder<Commit> commits = ImmutableList.builder();
         TypeReference<Map<String, Map<String, Map<String, Map<String, Map<String, CommitHistory>>>>>> returnType = new TypeReference<Map<String, Map<String, Map<String, Map<String, Map<String, CommitHistory>>>>>>() {};
 
         while (true) {
-            CommitHistory history = githubApi(format(LIST_COMMITS_QUERY, parts[0], parts[1], branch, current == null ? "null" : format("\"%s\"", current)), Optional.empty(), returnType)
+            page++;
+            GraphQlQueryBuilder builder = query();
+            GraphQlVariable ref = builder.variable("ref", "String!", branch);
+            GraphQlVariable cursor = builder.variable("cursor", "String", current);
+            builder.select(
+                    repository(
+                            builder,
+                            repository,
+                            field("ref", field("target", on("Commit", field("history", PAGE_INFO, field("edges", field("node", COMMIT_FIELDS)))
+                                    .withArgument("first", 30)
+                                    .withArgument("after", cursor))))
+                                    .withArgument("qualifiedName", ref)),
+                    RATE_LIMIT);
+            CommitHistory history = githubApi("listCommits", page, builder.build(), returnType)
                     .get("data")
                     .get("repository")
                     .get("ref")
@@ -170,17 +169,161 @@ public class GithubGraphQlAction
         }
     }
 
+    @Override
+    public List<MergedPullRequest> searchMergedPullRequests(String repository, String baseBranch, Instant mergedAfter, Instant mergedBefore)
+    {
+        parseRepository(repository);
+        Map<Integer, MergedPullRequest> pullRequests = new LinkedHashMap<>();
+        searchMergedPullRequests(repository, baseBranch, mergedAfter.truncatedTo(ChronoUnit.SECONDS), mergedBefore.truncatedTo(ChronoUnit.SECONDS), pullRequests);
+        return ImmutableList.copyOf(pullRequests.values());
+    }
+
+    private void searchMergedPullRequests(String repository, String baseBranch, Instant mergedAfter, Instant mergedBefore, Map<Integer, MergedPullRequest> pullRequests)
+    {
+        String searchQuery = format("repo:%s is:pr is:merged base:%s merged:%s..%s", repository, baseBranch, mergedAfter, mergedBefore);
+        TypeReference<Map<String, Map<String, PullRequestSearchResults>>> returnType = new TypeReference<Map<String, Map<String, PullRequestSearchResults>>>() {};
+        String current = null;
+        int page = 0;
+
+        while (true) {
+            page++;
+            GraphQlQueryBuilder builder = query();
+            GraphQlVariable search = builder.variable("query", "String!", searchQuery);
+            GraphQlVariable cursor = builder.variable("cursor", "String", current);
+            builder.select(
+                    field("search", field("issueCount"), PAGE_INFO, field("nodes", on("PullRequest", MERGED_PULL_REQUEST_FIELDS)))
+                            .withEnumArgument("type", "ISSUE")
+                            .withArgument("query", search)
+                            .withArgument("first", 100)
+                            .withArgument("after", cursor),
+                    RATE_LIMIT);
+            PullRequestSearchResults results = githubApi("searchPullRequests", page, builder.build(), returnType)
+                    .get("data")
+                    .get("search");
+            if (page == 1 && results.getIssueCount() > SEARCH_RESULT_LIMIT && mergedBefore.getEpochSecond() > mergedAfter.getEpochSecond()) {
+                Instant middle = Instant.ofEpochSecond((mergedAfter.getEpochSecond() + mergedBefore.getEpochSecond()) / 2);
+                log.debug("Search for %s matches %s pull requests, splitting", searchQuery, results.getIssueCount());
+                searchMergedPullRequests(repository, baseBranch, mergedAfter, middle, pullRequests);
+                searchMergedPullRequests(repository, baseBranch, middle.plusSeconds(1), mergedBefore, pullRequests);
+                return;
+            }
+            for (MergedPullRequest pullRequest : results.getPullRequests()) {
+                pullRequests.putIfAbsent(pullRequest.getPullRequest().getId(), pullRequest);
+            }
+            if (!results.getPageInfo().isHasNextPage()) {
+                return;
+            }
+            current = results.getPageInfo().getEndCursor();
+        }
+    }
+
+    @Override
+    public List<Commit> getCommits(String repository, List<String> commitIds)
+    {
+        parseRepository(repository);
+        TypeReference<Map<String, Map<String, Map<String, Commit>>>> returnType = new TypeReference<Map<String, Map<String, Map<String, Commit>>>>() {};
+        ImmutableList.Builder<Commit> commits = ImmutableList.builder();
+        int page = 0;
+
+        for (List<String> batch : Lists.partition(commitIds, COMMIT_BATCH_SIZE)) {
+            page++;
+            GraphQlQueryBuilder builder = query();
+            GraphQlField[] objects = new GraphQlField[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                objects[i] = field("object", on("Commit", COMMIT_FIELDS))
+                        .withAlias("commit" + i)
+                        .withArgument("oid", builder.variable("oid" + i, "GitObjectID!", batch.get(i)));
+            }
+            builder.select(repository(builder, repository, objects), RATE_LIMIT);
+            Map<String, Commit> found = githubApi("getCommits", page, builder.build(), returnType)
+                    .get("data")
+                    .get("repository");
+            for (int i = 0; i < batch.size(); i++) {
+                Commit commit = found.get("commit" + i);
+                if (commit != null) {
+                    commits.add(commit);
+                }
+            }
+        }
+        return commits.build();
+    }
+
+    @Override
+    public List<PullRequest> getPullRequests(String repository, List<Integer> numbers)
+    {
+        parseRepository(repository);
+        TypeReference<Map<String, Map<String, Map<String, PullRequest>>>> returnType = new TypeReference<Map<String, Map<String, Map<String, PullRequest>>>>() {};
+        ImmutableList.Builder<PullRequest> pullRequests = ImmutableList.builder();
+        int page = 0;
+
+        for (List<Integer> batch : Lists.partition(numbers, PULL_REQUEST_BATCH_SIZE)) {
+            page++;
+            GraphQlQueryBuilder builder = query();
+            GraphQlField[] fields = new GraphQlField[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                fields[i] = field("pullRequest", PULL_REQUEST_FIELDS)
+                        .withAlias("pullRequest" + i)
+                        .withArgument("number", builder.variable("number" + i, "Int!", batch.get(i)));
+            }
+            builder.select(repository(builder, repository, fields), RATE_LIMIT);
+            Map<String, PullRequest> found = githubApi("getPullRequests", page, builder.build(), returnType)
+                    .get("data")
+                    .get("repository");
+            for (int i = 0; i < batch.size(); i++) {
+                PullRequest pullRequest = found.get("pullRequest" + i);
+                if (pullRequest != null) {
+                    pullRequests.add(pullRequest);
+                }
+            }
+        }
+        return pullRequests.build();
+    }
+
+    @Override
+    public List<User> getUsers(List<String> logins)
+    {
+        TypeReference<Map<String, Map<String, User>>> returnType = new TypeReference<Map<String, Map<String, User>>>() {};
+        ImmutableList.Builder<User> users = ImmutableList.builder();
+        int page = 0;
+
+        for (List<String> batch : Lists.partition(logins, USER_BATCH_SIZE)) {
+            page++;
+            GraphQlQueryBuilder builder = query();
+            for (int i = 0; i < batch.size(); i++) {
+                builder.select(field("user", fields("login", "name"))
+                        .withAlias("user" + i)
+                        .withArgument("login", builder.variable("login" + i, "String!", batch.get(i))));
+            }
+            builder.select(RATE_LIMIT);
+            Map<String, User> found = githubApi("getUsers", page, builder.build(), returnType).get("data");
+            for (int i = 0; i < batch.size(); i++) {
+                User user = found.get("user" + i);
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+        }
+        return users.build();
+    }
+
+    @Override
+    public int getRemainingRateLimit()
+    {
+        githubApi("getRateLimit", 0, query().select(RATE_LIMIT).build(), new TypeReference<Map<String, Object>>() {});
+        OptionalInt remaining = remainingRateLimit.get();
+        checkState(remaining.isPresent(), "Github did not return the rate limit");
+        return remaining.getAsInt();
+    }
+
     @Override
     public PullRequest createPullRequest(String repository, String baseRef, String headRef, String title, String body)
     {
-        String[] parts = parseRepository(repository);
         TypeReference<Map<String, Map<String, Map<String, String>>>> repoIdType =
                 new TypeReference<Map<String, Map<String, Map<String, String>>>>() {};
 
-        String repoId = githubApi(
-                String.format(GET_REPOSITORY_ID_QUERY, parts[0], parts[1]),
-                Optional.empty(),
-                repoIdType)
+        GraphQlQueryBuilder repositoryIdQuery = query();
+        repositoryIdQuery.select(repository(repositoryIdQuery, repository, field("id")), RATE_LIMIT);
+        String repoId = githubApi("getRepositoryId", 0, repositoryIdQuery.build(), repoIdType)
                 .get("data")
                 .get("repository")
                 .get("id");
@@ -194,46 +337,79 @@ public class GithubGraphQlAction
                 .put("title", title)
                 .put("body", body)
                 .build();
-        String variables;
-        try {
-            variables = new ObjectMapper().writeValueAsString(ImmutableMap.of("pr", pullRequestVariable));
-        }
-        catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
 
-        return githubApi(CREATE_PULL_REQUEST_QUERY, Optional.of(variables), new TypeReference<Map<String, Map<String, Map<String, PullRequest>>>>() {})
+        // A new pull request is not merged, so mergedBy is not requested
+        GraphQlQueryBuilder mutation = mutation();
+        GraphQlVariable input = mutation.variable("pr", "CreatePullRequestInput!", pullRequestVariable);
+        mutation.select(field("createPullRequest", field("pullRequest", field("number"), field("title"), field("url"), field("body"), field("author", field("login"))))
+                .withArgument("input", input));
+        return githubApi("createPullRequest", 0, mutation.build(), new TypeReference<Map<String, Map<String, Map<String, PullRequest>>>>() {})
                 .get("data")
                 .get("createPullRequest")
                 .get("pullRequest");
     }
 
+    @Override
+    public Optional<PullRequest> getOpenPullRequest(String repository, String headRefName)
+    {
+        GraphQlQueryBuilder builder = query();
+        GraphQlField pullRequests = field("pullRequests", field("nodes", PULL_REQUEST_FIELDS))
+                .withArgument("headRefName", builder.variable("head", "String!", headRefName))
+                .withEnumArgument("states", "OPEN")
+                .withArgument("first", 1);
+        builder.select(repository(builder, repository, pullRequests), RATE_LIMIT);
+        List<PullRequest> found = githubApi("getOpenPullRequest", 0, builder.build(), new TypeReference<Map<String, Map<String, Map<String, Map<String, List<PullRequest>>>>>>() {})
+                .get("data")
+                .get("repository")
+                .get("pullRequests")
+                .get("nodes");
+        return found.stream().findFirst();
+    }
+
+    @Override
+    public PullRequest updatePullRequest(String repository, int number, String body)
+    {
+        GraphQlQueryBuilder idQuery = query();
+        idQuery.select(repository(idQuery, repository, field("pullRequest", field("id")).withArgument("number", idQuery.variable("number", "Int!", number))), RATE_LIMIT);
+        Map<String, String> found = githubApi("getPullRequestId", 0, idQuery.build(), new TypeReference<Map<String, Map<String, Map<String, Map<String, String>>>>>() {})
+                .get("data")
+                .get("repository")
+                .get("pullRequest");
+        checkState(found != null, "Pull request #%s not found in %s", number, repository);
+
+        GraphQlQueryBuilder mutation = mutation();
+        GraphQlVariable input = mutation.variable("pr", "UpdatePullRequestInput!", ImmutableMap.of("pullRequestId", found.get("id"), "body", body));
+        mutation.select(field("updatePullRequest", field("pullRequest", field("number"), field("title"), field("url"), field("body"), field("author", field("login"))))
+                .withArgument("input", input));
+        return githubApi("updatePullRequest", 0, mutation.build(), new TypeReference<Map<String, Map<String, Map<String, PullRequest>>>>() {})
+                .get("data")
+                .get("updatePullRequest")
+                .get("pullRequest");
+    }
+
     protected <T> T githubApi(String query, Optional<String> variables, TypeReference<T> typeReference)
     {
-        StringResponse response = httpClient.execute(
-                preparePost()
-                        .setUri(GRAPHQL_API_URI)
-                        .addHeader(CONTENT_TYPE, APPLICATION_JSON)
-                        .addHeader(ACCEPT, APPLICATION_JSON)
-                        .addHeader(AUTHORIZATION, "token " + accessToken)
-                        .addHeader(USER_AGENT, "Presto")
-                        .setBodyGenerator(jsonBodyGenerator(GraphQlQuery.CODEC, new GraphQlQuery(query, variables)))
-                        .build(),
-                createStringResponseHandler());
-        int statusCode = response.getStatusCode();
-        if (statusCode >= 400) {
-            String statusMessage = response.getStatusMessage();
-            throw new RuntimeException("GraphQL request failed: " + statusCode + " " + statusMessage);
-        }
+        return githubApi("query", 0, new GraphQlQuery(query, variables), typeReference);
+    }
 
-        try {
+    private <T> T githubApi(String name, int page, GraphQlQuery query, TypeReference<T> typeReference)
+    {
+        try (Operation operation = startGithubRequest(name, page)) {
+            DecompressedStringResponse response = execute(query, operation);
             String body = response.getBody();
+            operation.addOutputBytes(body.getBytes(UTF_8).length);
+            operation.addTransferredBytes(response.getTransferredBytes());
             Map<String, Object> resp = new ObjectMapper().readValue(body, new TypeReference<Map<String, Object>>() {});
 
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> errors = resp.get("errors") == null ? null : (List<Map<String, Object>>) resp.get("errors");
             if (errors != null && !errors.isEmpty()) {
-                throw new RuntimeException("GraphQL error: " + errors);
+                // Lookups by number, id or login report each unknown object as an error next to the data of the others
+                if (resp.get("data") == null || !errors.stream().allMatch(error -> "NOT_FOUND".equals(error.get("type")))) {
+                    throw new RuntimeException("GraphQL error: " + errors);
+                }
+                log.debug("GraphQL objects not found: %s", errors);
+                resp.remove("errors");
             }
 
             @SuppressWarnings("unchecked")
@@ -245,7 +421,10 @@ public class GithubGraphQlAction
             }
 
             if (resp.containsKey("data")) {
-                return new ObjectMapper().convertValue(resp, typeReference);
+                recordRateLimit(resp.get("data"), operation);
+                T result = new ObjectMapper().convertValue(resp, typeReference);
+                operation.succeeded();
+                return result;
             }
 
             throw new RuntimeException("GraphQL no data: " + body);
@@ -255,6 +434,50 @@ public class GithubGraphQlAction
         }
     }
 
+    private DecompressedStringResponse execute(GraphQlQuery query, Operation operation)
+    {
+        DecompressedStringResponse response = httpClient.execute(
+                preparePost()
+                        .setUri(apiUri)
+                        .addHeader(CONTENT_TYPE, APPLICATION_JSON)
+                        .addHeader(ACCEPT, APPLICATION_JSON)
+                        .addHeader(ACCEPT_ENCODING, ACCEPTED_ENCODINGS)
+                        .addHeader(AUTHORIZATION, "token " + accessToken)
+                        .addHeader(USER_AGENT, "Presto")
+                        .setBodyGenerator(jsonBodyGenerator(GraphQlQuery.CODEC, query))
+                        .build(),
+                createDecompressingStringResponseHandler());
+        int statusCode = response.getStatusCode();
+        operation.setStatus(statusCode);
+        if (statusCode >= 400) {
+            throw new RuntimeException("GraphQL request failed: " + statusCode + " " + response.getStatusMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Strip the {@code rateLimit} field requested alongside queries from the data, and record the query cost and the
+     * remaining rate limit.
+     */
+    private void recordRateLimit(Object data, Operation operation)
+    {
+        if (!(data instanceof Map)) {
+            return;
+        }
+        Object rateLimit = ((Map<?, ?>) data).remove("rateLimit");
+        if (rateLimit instanceof Map) {
+            Object cost = ((Map<?, ?>) rateLimit).get("cost");
+            if (cost instanceof Number) {
+                operation.addCost(((Number) cost).longValue());
+            }
+            Object remaining = ((Map<?, ?>) rateLimit).get("remaining");
+            if (remaining instanceof Number) {
+                remainingRateLimit.set(OptionalInt.of(((Number) remaining).intValue()));
+            }
+            log.debug("GraphQL rate limit: %s", rateLimit);
+        }
+    }
+
     public static class GraphQlQuery
     {
         private static final JsonCodec<GraphQlQuery> CODEC = jsonCodec(GraphQlQuery.class);
@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.repeat;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable GraphQL selection: a field with an optional alias, arguments and sub-selections, or an inline fragment.
+ * Argument values are variables or integer and enum literals, so no user input is ever quoted into a document.
+ */
+public final class GraphQlField
+{
+    private static final Pattern NAME_PATTERN = Pattern.compile("[_A-Za-z][_0-9A-Za-z]*");
+
+    private final Optional<String> alias;
+    private final String name;
+    private final boolean inlineFragment;
+    private final Map<String, String> arguments;
+    private final List<GraphQlField> selections;
+
+    private GraphQlField(Optional<String> alias, String name, boolean inlineFragment, Map<String, String> arguments, List<GraphQlField> selections)
+    {
+        this.alias = requireNonNull(alias, "alias is null");
+        this.name = checkName(name);
+        this.inlineFragment = inlineFragment;
+        this.arguments = ImmutableMap.copyOf(requireNonNull(arguments, "arguments is null"));
+        this.selections = ImmutableList.copyOf(requireNonNull(selections, "selections is null"));
+        checkArgument(!inlineFragment || !selections.isEmpty(), "Inline fragment on %s has no selections", name);
+    }
+
+    public static GraphQlField field(String name, GraphQlField... selections)
+    {
+        return new GraphQlField(Optional.empty(), name, false, ImmutableMap.of(), ImmutableList.copyOf(selections));
+    }
+
+    /**
+     * Leaf fields, e.g. {@code fields("cost", "remaining")}.
+     */
+    public static GraphQlField[] fields(String... names)
+    {
+        GraphQlField[] fields = new GraphQlField[names.length];
+        for (int i = 0; i < names.length; i++) {
+            fields[i] = field(names[i]);
+        }
+        return fields;
+    }
+
+    /**
+     * Inline fragment {@code ... on type}.
+     */
+    public static GraphQlField on(String type, GraphQlField... selections)
+    {
+        return new GraphQlField(Optional.empty(), type, true, ImmutableMap.of(), ImmutableList.copyOf(selections));
+    }
+
+    public GraphQlField withAlias(String alias)
+    {
+        checkArgument(!inlineFragment, "Inline fragments cannot be aliased");
+        return new GraphQlField(Optional.of(checkName(alias)), name, false, arguments, selections);
+    }
+
+    public GraphQlField withArgument(String name, GraphQlVariable variable)
+    {
+        return withArgumentValue(name, variable.toString());
+    }
+
+    public GraphQlField withArgument(String name, int value)
+    {
+        return withArgumentValue(name, String.valueOf(value));
+    }
+
+    public GraphQlField withEnumArgument(String name, String value)
+    {
+        return withArgumentValue(name, checkName(value));
+    }
+
+    private GraphQlField withArgumentValue(String argument, String value)
+    {
+        checkArgument(!inlineFragment, "Inline fragments have no arguments");
+        Map<String, String> arguments = new LinkedHashMap<>(this.arguments);
+        checkArgument(arguments.put(checkName(argument), value) == null, "Duplicate argument %s of %s", argument, name);
+        return new GraphQlField(alias, name, false, arguments, selections);
+    }
+
+    void render(StringBuilder document, int depth)
+    {
+        document.append(repeat("  ", depth));
+        if (inlineFragment) {
+            document.append("... on ");
+        }
+        alias.ifPresent(alias -> document.append(alias).append(": "));
+        document.append(name);
+        if (!arguments.isEmpty()) {
+            document.append('(');
+            String separator = "";
+            for (Map.Entry<String, String> argument : arguments.entrySet()) {
+                document.append(separator).append(argument.getKey()).append(": ").append(argument.getValue());
+                separator = ", ";
+            }
+            document.append(')');
+        }
+        if (!selections.isEmpty()) {
+            document.append(" {\n");
+            for (GraphQlField selection : selections) {
+                selection.render(document, depth + 1);
+            }
+            document.append(repeat("  ", depth)).append('}');
+        }
+        document.append('\n');
+    }
+
+    private static String checkName(String name)
+    {
+        checkArgument(NAME_PATTERN.matcher(requireNonNull(name, "name is null")).matches(), "Invalid GraphQL name: %s", name);
+        return name;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.facebook.presto.release.git.GithubGraphQlAction.GraphQlQuery;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Build a GraphQL operation from {@link GraphQlField} selections, passing all values as variables.
+ * <pre>{@code
+ * GraphQlQueryBuilder builder = GraphQlQueryBuilder.query();
+ * GraphQlVariable owner = builder.variable("owner", "String!", "prestodb");
+ * GraphQlVariable name = builder.variable("name", "String!", "presto");
+ * GraphQlQuery query = builder
+ *         .select(field("repository", field("id")).withArgument("owner", owner).withArgument("name", name))
+ *         .build();
+ * }</pre>
+ */
+public final class GraphQlQueryBuilder
+{
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern NAME_PATTERN = Pattern.compile("[_A-Za-z][_0-9A-Za-z]*");
+
+    private final String operation;
+    private final Map<String, GraphQlVariable> variables = new LinkedHashMap<>();
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final List<GraphQlField> selections = new ArrayList<>();
+
+    private GraphQlQueryBuilder(String operation)
+    {
+        this.operation = requireNonNull(operation, "operation is null");
+    }
+
+    public static GraphQlQueryBuilder query()
+    {
+        return new GraphQlQueryBuilder("query");
+    }
+
+    public static GraphQlQueryBuilder mutation()
+    {
+        return new GraphQlQueryBuilder("mutation");
+    }
+
+    /**
+     * Declare variable {@code $name} of GraphQL {@code type} with {@code value}, which may be null for nullable types.
+     */
+    public GraphQlVariable variable(String name, String type, Object value)
+    {
+        checkArgument(NAME_PATTERN.matcher(name).matches(), "Invalid GraphQL name: %s", name);
+        checkArgument(!variables.containsKey(name), "Duplicate variable %s", name);
+        checkArgument(value != null || !type.endsWith("!"), "Variable %s of non-null type %s is null", name, type);
+        GraphQlVariable variable = new GraphQlVariable(name, type);
+        variables.put(name, variable);
+        values.put(name, value);
+        return variable;
+    }
+
+    public GraphQlQueryBuilder select(GraphQlField... fields)
+    {
+        selections.addAll(ImmutableList.copyOf(fields));
+        return this;
+    }
+
+    public GraphQlQueryBuilder select(List<GraphQlField> fields)
+    {
+        selections.addAll(fields);
+        return this;
+    }
+
+    public GraphQlQuery build()
+    {
+        checkState(!selections.isEmpty(), "No fields selected");
+        StringBuilder document = new StringBuilder(operation);
+        if (!variables.isEmpty()) {
+            document.append('(');
+            String separator = "";
+            for (GraphQlVariable variable : variables.values()) {
+                document.append(separator).append(variable).append(": ").append(variable.getType());
+                separator = ", ";
+            }
+            document.append(')');
+        }
+        document.append(" {\n");
+        for (GraphQlField selection : selections) {
+            selection.render(document, 1);
+        }
+        document.append("}\n");
+
+        if (values.isEmpty()) {
+            return new GraphQlQuery(document.toString(), Optional.empty());
+        }
+        try {
+            return new GraphQlQuery(document.toString(), Optional.of(MAPPER.writeValueAsString(values)));
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize variables", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A commit as listed by the local {@code git log}, without Github metadata.
+ */
+public class LocalCommit
+{
+    /**
+     * {@code git log} format parsed by {@link #parseLog(String)}.
+     */
+    public static final String LOG_FORMAT = "--format=%H%x00%an%x00%ct%x00%s";
+    private static final Pattern PULL_REQUEST_NUMBER_PATTERN = Pattern.compile("\\(#(\\d+)\\)$");
+
+    private final String id;
+    private final String author;
+    private final Instant commitTime;
+    private final String title;
+
+    public LocalCommit(String id, String author, Instant commitTime, String title)
+    {
+        this.id = requireNonNull(id, "id is null");
+        this.author = requireNonNull(author, "author is null");
+        this.commitTime = requireNonNull(commitTime, "commitTime is null");
+        this.title = requireNonNull(title, "title is null");
+    }
+
+    public static List<LocalCommit> parseLog(String log)
+    {
+        ImmutableList.Builder<LocalCommit> commits = ImmutableList.builder();
+        for (String line : Splitter.on('\n').omitEmptyStrings().split(log)) {
+            List<String> fields = Splitter.on('\0').splitToList(line);
+            checkArgument(fields.size() == 4, "Unexpected git log line: %s", line);
+            commits.add(new LocalCommit(fields.get(0).trim(), fields.get(1), Instant.ofEpochSecond(Long.parseLong(fields.get(2))), fields.get(3)));
+        }
+        return commits.build();
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public String getAuthor()
+    {
+        return author;
+    }
+
+    public Instant getCommitTime()
+    {
+        return commitTime;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    /**
+     * Number of the pull request referenced by the {@code (#<number>)} suffix that Github adds to the titles of
+     * squash merged commits.
+     */
+    public OptionalInt getPullRequestNumber()
+    {
+        Matcher matcher = PULL_REQUEST_NUMBER_PATTERN.matcher(title);
+        return matcher.find() ? OptionalInt.of(Integer.parseInt(matcher.group(1))) : OptionalInt.empty();
+    }
+}
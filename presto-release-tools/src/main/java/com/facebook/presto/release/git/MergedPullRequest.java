@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A merged pull request returned by a Github search, with the commit it was merged as.
+ */
+public class MergedPullRequest
+{
+    private final PullRequest pullRequest;
+    private final Optional<String> mergeCommitId;
+
+    @JsonCreator
+    public MergedPullRequest(
+            @JsonProperty("number") int id,
+            @JsonProperty("title") String title,
+            @JsonProperty("url") String url,
+            @JsonProperty("body") String description,
+            @JsonProperty("author") Actor author,
+            @JsonProperty("mergedBy") User mergedBy,
+            @JsonProperty("mergeCommit") Map<String, String> mergeCommit)
+    {
+        this(new PullRequest(id, title, url, description, author, mergedBy), Optional.ofNullable(mergeCommit).map(commit -> commit.get("oid")));
+    }
+
+    public MergedPullRequest(PullRequest pullRequest, Optional<String> mergeCommitId)
+    {
+        this.pullRequest = requireNonNull(pullRequest, "pullRequest is null");
+        this.mergeCommitId = requireNonNull(mergeCommitId, "mergeCommitId is null");
+    }
+
+    public PullRequest getPullRequest()
+    {
+        return pullRequest;
+    }
+
+    public Optional<String> getMergeCommitId()
+    {
+        return mergeCommitId;
+    }
+}
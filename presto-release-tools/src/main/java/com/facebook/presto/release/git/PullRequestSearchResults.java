@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+public class PullRequestSearchResults
+{
+    private final int issueCount;
+    private final PageInfo pageInfo;
+    private final List<MergedPullRequest> pullRequests;
+
+    @JsonCreator
+    public PullRequestSearchResults(
+            @JsonProperty("issueCount") int issueCount,
+            @JsonProperty("pageInfo") PageInfo pageInfo,
+            @JsonProperty("nodes") List<MergedPullRequest> pullRequests)
+    {
+        this.issueCount = issueCount;
+        this.pageInfo = requireNonNull(pageInfo, "pageInfo is null");
+        this.pullRequests = ImmutableList.copyOf(pullRequests);
+    }
+
+    public int getIssueCount()
+    {
+        return issueCount;
+    }
+
+    public PageInfo getPageInfo()
+    {
+        return pageInfo;
+    }
+
+    public List<MergedPullRequest> getPullRequests()
+    {
+        return pullRequests;
+    }
+}
@@ -30,7 +30,7 @@ public class MavenCommands
 
     public MavenCommands(MavenConfig mavenConfig, File directory)
     {
-        super(mavenConfig.getExecutable(), ImmutableMap.of(), directory);
+        super(mavenConfig.getExecutable(), ImmutableMap.of(), directory, mavenConfig.getCommandTimeout());
         this.options = ImmutableList.copyOf(mavenConfig.getOptions());
     }
 
@@ -17,15 +17,19 @@ import com.facebook.airlift.configuration.Config;
 import com.facebook.airlift.configuration.ConfigDescription;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
 
 import javax.validation.constraints.NotNull;
 
 import java.util.List;
 
+import static java.util.concurrent.TimeUnit.HOURS;
+
 public class MavenConfig
 {
     private String executable = "mvn";
     private List<String> options = ImmutableList.of();
+    private Duration commandTimeout = new Duration(3, HOURS);
 
     @NotNull
     public String getExecutable()
@@ -55,4 +59,18 @@ public class MavenConfig
         }
         return this;
     }
+
+    @NotNull
+    public Duration getCommandTimeout()
+    {
+        return commandTimeout;
+    }
+
+    @Config("maven.command-timeout")
+    @ConfigDescription("Time after which a Maven command is killed, with the processes it forked")
+    public MavenConfig setCommandTimeout(Duration commandTimeout)
+    {
+        this.commandTimeout = commandTimeout;
+        return this;
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+
+/**
+ * Flight recorder event classes. Only used when {@link ReleaseEvents#isAvailable()}.
+ */
+final class JfrEvents
+{
+    private JfrEvents() {}
+
+    public static Object begin(Operation operation)
+    {
+        Event event = operation.getCategory().equals("github") ? new GraphQlRequestEvent() : new CommandEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void commit(Object event, Operation operation)
+    {
+        if (event instanceof CommandEvent) {
+            CommandEvent commandEvent = (CommandEvent) event;
+            commandEvent.executable = operation.getCategory();
+            commandEvent.operation = operation.getName();
+            commandEvent.arguments = operation.getDetails();
+            commandEvent.exitCode = operation.getStatus();
+            commandEvent.outputBytes = operation.getOutputBytes();
+            commandEvent.succeeded = operation.isSucceeded();
+            commandEvent.timedOut = operation.isTimedOut();
+            commandEvent.commit();
+        }
+        else {
+            GraphQlRequestEvent requestEvent = (GraphQlRequestEvent) event;
+            requestEvent.operation = operation.getName();
+            requestEvent.page = operation.getPage();
+            requestEvent.cost = operation.getCost();
+            requestEvent.status = operation.getStatus();
+            requestEvent.retries = operation.getRetries();
+            requestEvent.responseBytes = operation.getOutputBytes();
+            requestEvent.transferredBytes = operation.getTransferredBytes();
+            requestEvent.succeeded = operation.isSucceeded();
+            requestEvent.commit();
+        }
+    }
+
+    public static Object beginStage(String stage)
+    {
+        StageEvent event = new StageEvent();
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    public static void commitStage(Object event)
+    {
+        ((StageEvent) event).commit();
+    }
+
+    public static Object startRecording()
+    {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName("presto-release");
+            recording.start();
+            return recording;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static void stopRecording(Object recording, File file)
+    {
+        try (Recording jfrRecording = (Recording) recording) {
+            jfrRecording.stop();
+            jfrRecording.dump(file.toPath());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Name("com.facebook.presto.release.Command")
+    @Label("Command")
+    @Category("Presto Release")
+    @Description("External git or Maven command")
+    static class CommandEvent
+            extends Event
+    {
+        @Label("Executable")
+        String executable;
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Arguments")
+        String arguments;
+
+        @Label("Exit Code")
+        int exitCode;
+
+        @Label("Output")
+        @DataAmount
+        long outputBytes;
+
+        @Label("Succeeded")
+        boolean succeeded;
+
+        @Label("Timed Out")
+        boolean timedOut;
+    }
+
+    @Name("com.facebook.presto.release.GraphQlRequest")
+    @Label("GraphQL Request")
+    @Category("Presto Release")
+    @Description("Github GraphQL request, including retries")
+    static class GraphQlRequestEvent
+            extends Event
+    {
+        @Label("Operation")
+        String operation;
+
+        @Label("Page")
+        int page;
+
+        @Label("Cost")
+        long cost;
+
+        @Label("Status")
+        int status;
+
+        @Label("Retries")
+        int retries;
+
+        @Label("Response Size")
+        @DataAmount
+        long responseBytes;
+
+        @Label("Transferred Size")
+        @Description("Response size on the wire, before decompression")
+        @DataAmount
+        long transferredBytes;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("com.facebook.presto.release.Stage")
+    @Label("Task Stage")
+    @Category("Presto Release")
+    static class StageEvent
+            extends Event
+    {
+        @Label("Stage")
+        String stage;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * One run of an external operation. Closing it records the operation in {@link OperationStats} and commits its
+ * flight recorder event. Operations that did not call {@link #succeeded()} are recorded as failed.
+ */
+public class Operation
+        implements AutoCloseable
+{
+    private final OperationStats stats;
+    private final String details;
+    private final int page;
+    private final Optional<Object> event;
+    private final long startNanos = System.nanoTime();
+
+    private long outputBytes;
+    private long transferredBytes;
+    private long cost;
+    private int retries;
+    private boolean timedOut;
+    private int status = -1;
+    private boolean succeeded;
+
+    Operation(OperationStats stats, String details, int page)
+    {
+        this.stats = requireNonNull(stats, "stats is null");
+        this.details = requireNonNull(details, "details is null");
+        this.page = page;
+        this.event = ReleaseEvents.begin(this);
+    }
+
+    public String getCategory()
+    {
+        return stats.getCategory();
+    }
+
+    public String getName()
+    {
+        return stats.getName();
+    }
+
+    public String getDetails()
+    {
+        return details;
+    }
+
+    public int getPage()
+    {
+        return page;
+    }
+
+    public long getOutputBytes()
+    {
+        return outputBytes;
+    }
+
+    public void addOutputBytes(long bytes)
+    {
+        outputBytes += bytes;
+    }
+
+    /**
+     * Bytes received over the network before decompression, 0 for local commands.
+     */
+    public long getTransferredBytes()
+    {
+        return transferredBytes;
+    }
+
+    public void addTransferredBytes(long bytes)
+    {
+        transferredBytes += bytes;
+    }
+
+    public long getCost()
+    {
+        return cost;
+    }
+
+    public void addCost(long cost)
+    {
+        this.cost += cost;
+    }
+
+    public int getRetries()
+    {
+        return retries;
+    }
+
+    public void addRetry()
+    {
+        retries++;
+    }
+
+    /**
+     * Whether the command was killed for running longer than its timeout.
+     */
+    public boolean isTimedOut()
+    {
+        return timedOut;
+    }
+
+    public void timedOut()
+    {
+        timedOut = true;
+    }
+
+    /**
+     * Exit code of a command or HTTP status of a request, -1 when unknown.
+     */
+    public int getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(int status)
+    {
+        this.status = status;
+    }
+
+    public boolean isSucceeded()
+    {
+        return succeeded;
+    }
+
+    public void succeeded()
+    {
+        succeeded = true;
+    }
+
+    @Override
+    public void close()
+    {
+        long endNanos = System.nanoTime();
+        stats.record(endNanos - startNanos, !succeeded);
+        stats.addOutputBytes(outputBytes);
+        stats.addTransferredBytes(transferredBytes);
+        stats.addCost(cost);
+        for (int i = 0; i < retries; i++) {
+            stats.addRetry();
+        }
+        if (timedOut) {
+            stats.addTimeout();
+        }
+        event.ifPresent(event -> ReleaseEvents.commit(event, this));
+        if (ReleaseTrace.isEnabled()) {
+            ReleaseTrace.addSpan(getCategory(), getCategory() + " " + getName(), startNanos, endNanos, ImmutableMap.<String, Object>builder()
+                    .put("details", details)
+                    .put("page", page)
+                    .put("status", status)
+                    .put("outputBytes", outputBytes)
+                    .put("transferredBytes", transferredBytes)
+                    .put("cost", cost)
+                    .put("retries", retries)
+                    .put("timedOut", timedOut)
+                    .put("succeeded", succeeded)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.facebook.airlift.stats.TimeDistribution;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Timings and counters of one kind of external operation, such as {@code git log} or a Github query.
+ */
+public class OperationStats
+{
+    private final String category;
+    private final String name;
+    private final TimeDistribution time = new TimeDistribution(MILLISECONDS);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong outputBytes = new AtomicLong();
+    private final AtomicLong transferredBytes = new AtomicLong();
+    private final AtomicLong cost = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public OperationStats(String category, String name)
+    {
+        this.category = requireNonNull(category, "category is null");
+        this.name = requireNonNull(name, "name is null");
+    }
+
+    public String getCategory()
+    {
+        return category;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void record(long nanos, boolean failed)
+    {
+        time.add(nanos);
+        totalNanos.addAndGet(nanos);
+        if (failed) {
+            failures.incrementAndGet();
+        }
+    }
+
+    public void addOutputBytes(long bytes)
+    {
+        outputBytes.addAndGet(bytes);
+    }
+
+    public void addTransferredBytes(long bytes)
+    {
+        transferredBytes.addAndGet(bytes);
+    }
+
+    public void addCost(long cost)
+    {
+        this.cost.addAndGet(cost);
+    }
+
+    public void addRetry()
+    {
+        retries.incrementAndGet();
+    }
+
+    public void addTimeout()
+    {
+        timeouts.incrementAndGet();
+    }
+
+    public ReleaseStatsReport.OperationReport getReport()
+    {
+        return new ReleaseStatsReport.OperationReport(
+                category,
+                name,
+                (long) time.getCount(),
+                failures.get(),
+                totalNanos.get() / 1_000_000,
+                time.getAvg(),
+                time.getP50(),
+                time.getP90(),
+                time.getP99(),
+                time.getMax(),
+                outputBytes.get(),
+                transferredBytes.get(),
+                cost.get(),
+                retries.get(),
+                timeouts.get());
+    }
+}
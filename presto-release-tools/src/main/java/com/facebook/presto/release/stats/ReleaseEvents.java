@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import java.util.Optional;
+
+/**
+ * Java Flight Recorder events of the release tools. The event classes are only loaded through {@link JfrEvents} when
+ * the JVM ships JFR, so the events are handled as plain objects outside of it.
+ */
+final class ReleaseEvents
+{
+    private static final boolean AVAILABLE = isJfrAvailable();
+
+    private ReleaseEvents() {}
+
+    public static boolean isAvailable()
+    {
+        return AVAILABLE;
+    }
+
+    public static Optional<Object> begin(Operation operation)
+    {
+        return AVAILABLE ? Optional.of(JfrEvents.begin(operation)) : Optional.empty();
+    }
+
+    public static void commit(Object event, Operation operation)
+    {
+        JfrEvents.commit(event, operation);
+    }
+
+    public static Optional<Object> beginStage(String stage)
+    {
+        return AVAILABLE ? Optional.of(JfrEvents.beginStage(stage)) : Optional.empty();
+    }
+
+    public static void commitStage(Object event)
+    {
+        JfrEvents.commitStage(event);
+    }
+
+    private static boolean isJfrAvailable()
+    {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
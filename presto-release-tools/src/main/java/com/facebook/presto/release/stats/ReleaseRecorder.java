@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.facebook.airlift.log.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Records the release run with Java Flight Recorder when {@code stats.recording-file} is set, using the JDK
+ * {@code profile} settings so that the release tool events line up with GC, thread and I/O events.
+ */
+public class ReleaseRecorder
+{
+    private static final Logger log = Logger.get(ReleaseRecorder.class);
+
+    private final Optional<File> recordingFile;
+    private Optional<Object> recording = Optional.empty();
+
+    @Inject
+    public ReleaseRecorder(ReleaseStatsConfig config)
+    {
+        this.recordingFile = config.getRecordingFile().map(File::new);
+    }
+
+    @PostConstruct
+    public synchronized void start()
+    {
+        if (recordingFile.isPresent()) {
+            checkState(ReleaseEvents.isAvailable(), "Java Flight Recorder is not available in this JVM");
+            recording = Optional.of(JfrEvents.startRecording());
+            log.info("Recording release run to %s", recordingFile.get().getAbsolutePath());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop()
+    {
+        if (recording.isPresent()) {
+            JfrEvents.stopRecording(recording.get(), recordingFile.get());
+            recording = Optional.empty();
+            log.info("Release run recording written to %s", recordingFile.get().getAbsolutePath());
+        }
+    }
+}
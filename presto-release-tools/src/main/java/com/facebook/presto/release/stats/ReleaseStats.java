@@ -0,0 +1,218 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.facebook.airlift.log.Logger;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Process-wide statistics of a release run: every external command, every Github request and the wall time of each
+ * task stage. Commands are run through static helpers, so the statistics live in a static registry instead of being
+ * injected.
+ */
+public final class ReleaseStats
+{
+    private static final Logger log = Logger.get(ReleaseStats.class);
+
+    // The user information of a URL, e.g. the access token of https://<token>@github.com/org/presto.git
+    private static final Pattern URL_USER_INFO = Pattern.compile("\\b([a-z][a-z0-9+.-]*://)[^/@\\s]+@", CASE_INSENSITIVE);
+
+    private static final ConcurrentMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private static final Map<String, StageStats> stages = new LinkedHashMap<>();
+    private static final Map<Thread, RunningStage> runningStages = new HashMap<>();
+    private static long startNanos = System.nanoTime();
+
+    private ReleaseStats() {}
+
+    public static OperationStats getOperationStats(String category, String name)
+    {
+        return operations.computeIfAbsent(format("%s %s", category, name), key -> new OperationStats(category, name));
+    }
+
+    /**
+     * Start timing an external command. The returned operation must be closed once the command completed.
+     */
+    public static Operation startCommand(List<String> command)
+    {
+        return new Operation(getOperationStats(getCommandCategory(command), getCommandName(command)), redactCommand(command), 0);
+    }
+
+    /**
+     * Start timing a pipeline of two commands, recorded under the category of {@code producer} and the names of both
+     * commands, e.g. {@code git log | patch-id}. The returned operation must be closed once both commands completed.
+     */
+    public static Operation startPipeline(List<String> producer, List<String> consumer)
+    {
+        return new Operation(
+                getOperationStats(getCommandCategory(producer), format("%s | %s", getCommandName(producer), getCommandName(consumer))),
+                format("%s | %s", redactCommand(producer), redactCommand(consumer)),
+                0);
+    }
+
+    /**
+     * Command line of {@code command} as recorded in statistics, flight recordings and traces, without the user
+     * information of its URL arguments, which may hold the credentials of a remote.
+     */
+    public static String redactCommand(List<String> command)
+    {
+        return command.stream()
+                .map(argument -> URL_USER_INFO.matcher(argument).replaceAll("$1"))
+                .collect(joining(" "));
+    }
+
+    /**
+     * Start timing a Github request. {@code page} is the 1-based page of paginated queries, 0 otherwise.
+     */
+    public static Operation startGithubRequest(String name, int page)
+    {
+        return new Operation(getOperationStats("github", name), name, page);
+    }
+
+    /**
+     * Name of an external command for statistics: the executable followed by its first non-option argument,
+     * e.g. {@code git log} or {@code mvn release:prepare}.
+     */
+    public static String getCommandName(List<String> command)
+    {
+        return command.stream()
+                .skip(1)
+                .filter(argument -> !argument.startsWith("-"))
+                .findFirst()
+                .orElse("");
+    }
+
+    public static String getCommandCategory(List<String> command)
+    {
+        return new File(command.get(0)).getName();
+    }
+
+    /**
+     * End the current stage of the calling thread, if any, and start timing {@code stage} on it. Stages are timed per
+     * thread, so a stage started on a companion thread neither ends nor is charged to the stage of the main thread.
+     */
+    public static synchronized void startStage(String stage)
+    {
+        endStage();
+        log.debug("Starting stage %s", stage);
+        runningStages.put(Thread.currentThread(), new RunningStage(stage, ReleaseEvents.beginStage(stage), System.nanoTime()));
+    }
+
+    /**
+     * End the current stage of the calling thread, if any.
+     */
+    public static synchronized void endStage()
+    {
+        RunningStage stage = runningStages.remove(Thread.currentThread());
+        if (stage != null) {
+            long endNanos = System.nanoTime();
+            stages.computeIfAbsent(stage.getName(), StageStats::new).record(endNanos - stage.getStartNanos());
+            ReleaseTrace.addSpan("stage", stage.getName(), stage.getStartNanos(), endNanos, ImmutableMap.of());
+            stage.getEvent().ifPresent(ReleaseEvents::commitStage);
+        }
+    }
+
+    public static synchronized ReleaseStatsReport getReport()
+    {
+        List<ReleaseStatsReport.OperationReport> operationReports = operations.values().stream()
+                .map(OperationStats::getReport)
+                .sorted(Comparator.comparing(ReleaseStatsReport.OperationReport::getTotalMillis).reversed())
+                .collect(toImmutableList());
+        List<ReleaseStatsReport.StageReport> stageReports = stages.values().stream()
+                .map(StageStats::getReport)
+                .collect(toImmutableList());
+        return new ReleaseStatsReport(
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                ImmutableList.copyOf(stageReports),
+                operationReports);
+    }
+
+    public static synchronized void reset()
+    {
+        operations.clear();
+        stages.clear();
+        runningStages.clear();
+        ReleaseTrace.reset();
+        startNanos = System.nanoTime();
+    }
+
+    private static class RunningStage
+    {
+        private final String name;
+        private final Optional<Object> event;
+        private final long startNanos;
+
+        public RunningStage(String name, Optional<Object> event, long startNanos)
+        {
+            this.name = name;
+            this.event = event;
+            this.startNanos = startNanos;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public Optional<Object> getEvent()
+        {
+            return event;
+        }
+
+        public long getStartNanos()
+        {
+            return startNanos;
+        }
+    }
+
+    private static class StageStats
+    {
+        private final String name;
+        private long count;
+        private long totalNanos;
+
+        public StageStats(String name)
+        {
+            this.name = name;
+        }
+
+        public void record(long nanos)
+        {
+            count++;
+            totalNanos += nanos;
+        }
+
+        public ReleaseStatsReport.StageReport getReport()
+        {
+            return new ReleaseStatsReport.StageReport(name, count, TimeUnit.NANOSECONDS.toMillis(totalNanos));
+        }
+    }
+}
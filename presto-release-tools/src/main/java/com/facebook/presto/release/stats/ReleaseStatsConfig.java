@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.Optional;
+
+public class ReleaseStatsConfig
+{
+    private Optional<String> reportFile = Optional.empty();
+    private Optional<String> recordingFile = Optional.empty();
+    private Optional<String> traceFile = Optional.empty();
+
+    @NotNull
+    public Optional<String> getReportFile()
+    {
+        return reportFile;
+    }
+
+    @Config("stats.report-file")
+    @ConfigDescription("JSON file to write the timings of the release run to")
+    public ReleaseStatsConfig setReportFile(String reportFile)
+    {
+        this.reportFile = Optional.ofNullable(reportFile);
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getRecordingFile()
+    {
+        return recordingFile;
+    }
+
+    @Config("stats.recording-file")
+    @ConfigDescription("Java Flight Recorder file to record the release run to")
+    public ReleaseStatsConfig setRecordingFile(String recordingFile)
+    {
+        this.recordingFile = Optional.ofNullable(recordingFile);
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getTraceFile()
+    {
+        return traceFile;
+    }
+
+    @Config("stats.trace-file")
+    @ConfigDescription("Chrome Trace Event file to write the timeline of the release run to")
+    public ReleaseStatsConfig setTraceFile(String traceFile)
+    {
+        this.traceFile = Optional.ofNullable(traceFile);
+        return this;
+    }
+}
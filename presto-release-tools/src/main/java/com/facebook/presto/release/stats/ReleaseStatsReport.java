@@ -0,0 +1,293 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+
+import java.util.List;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class ReleaseStatsReport
+{
+    private final long wallTimeMillis;
+    private final List<StageReport> stages;
+    private final List<OperationReport> operations;
+
+    @JsonCreator
+    public ReleaseStatsReport(
+            @JsonProperty("wallTimeMillis") long wallTimeMillis,
+            @JsonProperty("stages") List<StageReport> stages,
+            @JsonProperty("operations") List<OperationReport> operations)
+    {
+        this.wallTimeMillis = wallTimeMillis;
+        this.stages = ImmutableList.copyOf(requireNonNull(stages, "stages is null"));
+        this.operations = ImmutableList.copyOf(requireNonNull(operations, "operations is null"));
+    }
+
+    @JsonProperty
+    public long getWallTimeMillis()
+    {
+        return wallTimeMillis;
+    }
+
+    @JsonProperty
+    public List<StageReport> getStages()
+    {
+        return stages;
+    }
+
+    @JsonProperty
+    public List<OperationReport> getOperations()
+    {
+        return operations;
+    }
+
+    /**
+     * Human-readable summary, with operations ordered by total time.
+     */
+    public String toSummary()
+    {
+        StringBuilder summary = new StringBuilder(format("Release run took %s\n", formatMillis(wallTimeMillis)));
+        if (!stages.isEmpty()) {
+            summary.append(format("\n%-40s %6s %10s\n", "Stage", "Count", "Wall time"));
+            for (StageReport stage : stages) {
+                summary.append(format("%-40s %6s %10s\n", stage.getName(), stage.getCount(), formatMillis(stage.getTotalMillis())));
+            }
+        }
+        if (!operations.isEmpty()) {
+            summary.append(format(
+                    "\n%-40s %6s %6s %10s %10s %10s %10s %10s %10s %6s %7s %8s\n",
+                    "Operation", "Count", "Failed", "Total", "Avg", "p50", "p90", "p99", "Output", "Cost", "Retries", "Timeouts"));
+            for (OperationReport operation : operations) {
+                summary.append(format(
+                        "%-40s %6s %6s %10s %10s %10s %10s %10s %10s %10s %6s %7s %8s\n",
+                        operation.getCategory() + " " + operation.getName(),
+                        operation.getCount(),
+                        operation.getFailures(),
+                        formatMillis(operation.getTotalMillis()),
+                        formatMillis(operation.getAvgMillis()),
+                        formatMillis(operation.getP50Millis()),
+                        formatMillis(operation.getP90Millis()),
+                        formatMillis(operation.getP99Millis()),
+                        DataSize.succinctBytes(operation.getOutputBytes()),
+                        operation.getTransferredBytes() == 0 ? "-" : DataSize.succinctBytes(operation.getTransferredBytes()),
+                        operation.getCost(),
+                        operation.getRetries(),
+                        operation.getTimeouts()));
+            }
+        }
+        return summary.toString();
+    }
+
+    private static String formatMillis(double millis)
+    {
+        if (Double.isNaN(millis)) {
+            return "-";
+        }
+        return new Duration(millis, MILLISECONDS).convertToMostSuccinctTimeUnit().toString();
+    }
+
+    public static class StageReport
+    {
+        private final String name;
+        private final long count;
+        private final long totalMillis;
+
+        @JsonCreator
+        public StageReport(
+                @JsonProperty("name") String name,
+                @JsonProperty("count") long count,
+                @JsonProperty("totalMillis") long totalMillis)
+        {
+            this.name = requireNonNull(name, "name is null");
+            this.count = count;
+            this.totalMillis = totalMillis;
+        }
+
+        @JsonProperty
+        public String getName()
+        {
+            return name;
+        }
+
+        @JsonProperty
+        public long getCount()
+        {
+            return count;
+        }
+
+        @JsonProperty
+        public long getTotalMillis()
+        {
+            return totalMillis;
+        }
+    }
+
+    public static class OperationReport
+    {
+        private final String category;
+        private final String name;
+        private final long count;
+        private final long failures;
+        private final long totalMillis;
+        private final double avgMillis;
+        private final double p50Millis;
+        private final double p90Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+        private final long outputBytes;
+        private final long transferredBytes;
+        private final long cost;
+        private final long retries;
+        private final long timeouts;
+
+        @JsonCreator
+        public OperationReport(
+                @JsonProperty("category") String category,
+                @JsonProperty("name") String name,
+                @JsonProperty("count") long count,
+                @JsonProperty("failures") long failures,
+                @JsonProperty("totalMillis") long totalMillis,
+                @JsonProperty("avgMillis") double avgMillis,
+                @JsonProperty("p50Millis") double p50Millis,
+                @JsonProperty("p90Millis") double p90Millis,
+                @JsonProperty("p99Millis") double p99Millis,
+                @JsonProperty("maxMillis") double maxMillis,
+                @JsonProperty("outputBytes") long outputBytes,
+                @JsonProperty("transferredBytes") long transferredBytes,
+                @JsonProperty("cost") long cost,
+                @JsonProperty("retries") long retries,
+                @JsonProperty("timeouts") long timeouts)
+        {
+            this.category = requireNonNull(category, "category is null");
+            this.name = requireNonNull(name, "name is null");
+            this.count = count;
+            this.failures = failures;
+            this.totalMillis = totalMillis;
+            this.avgMillis = avgMillis;
+            this.p50Millis = p50Millis;
+            this.p90Millis = p90Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+            this.outputBytes = outputBytes;
+            this.transferredBytes = transferredBytes;
+            this.cost = cost;
+            this.retries = retries;
+            this.timeouts = timeouts;
+        }
+
+        @JsonProperty
+        public String getCategory()
+        {
+            return category;
+        }
+
+        @JsonProperty
+        public String getName()
+        {
+            return name;
+        }
+
+        @JsonProperty
+        public long getCount()
+        {
+            return count;
+        }
+
+        @JsonProperty
+        public long getFailures()
+        {
+            return failures;
+        }
+
+        @JsonProperty
+        public long getTotalMillis()
+        {
+            return totalMillis;
+        }
+
+        @JsonProperty
+        public double getAvgMillis()
+        {
+            return avgMillis;
+        }
+
+        @JsonProperty
+        public double getP50Millis()
+        {
+            return p50Millis;
+        }
+
+        @JsonProperty
+        public double getP90Millis()
+        {
+            return p90Millis;
+        }
+
+        @JsonProperty
+        public double getP99Millis()
+        {
+            return p99Millis;
+        }
+
+        @JsonProperty
+        public double getMaxMillis()
+        {
+            return maxMillis;
+        }
+
+        @JsonProperty
+        public long getOutputBytes()
+        {
+            return outputBytes;
+        }
+
+        /**
+         * Bytes received over the network before decompression.
+         */
+        @JsonProperty
+        public long getTransferredBytes()
+        {
+            return transferredBytes;
+        }
+
+        @JsonProperty
+        public long getCost()
+        {
+            return cost;
+        }
+
+        @JsonProperty
+        public long getRetries()
+        {
+            return retries;
+        }
+
+        /**
+         * Commands killed for running longer than their timeout, also counted as failures.
+         */
+        @JsonProperty
+        public long getTimeouts()
+        {
+            return timeouts;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.airlift.log.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.google.common.io.Files.asCharSink;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class ReleaseStatsReporter
+{
+    private static final Logger log = Logger.get(ReleaseStatsReporter.class);
+    private static final JsonCodec<ReleaseStatsReport> CODEC = jsonCodec(ReleaseStatsReport.class);
+
+    private final Optional<File> reportFile;
+    private final Optional<File> traceFile;
+
+    @Inject
+    public ReleaseStatsReporter(ReleaseStatsConfig config)
+    {
+        this.reportFile = config.getReportFile().map(File::new);
+        this.traceFile = config.getTraceFile().map(File::new);
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        if (traceFile.isPresent()) {
+            ReleaseTrace.enable();
+        }
+    }
+
+    public void report()
+    {
+        ReleaseStats.endStage();
+        ReleaseStatsReport report = ReleaseStats.getReport();
+        log.info("%s", report.toSummary());
+        if (reportFile.isPresent()) {
+            try {
+                asCharSink(reportFile.get(), UTF_8).write(CODEC.toJson(report));
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            log.info("Release run report written to %s", reportFile.get().getAbsolutePath());
+        }
+        if (traceFile.isPresent()) {
+            ReleaseTrace.write(traceFile.get());
+            log.info("Release run trace written to %s", traceFile.get().getAbsolutePath());
+        }
+    }
+}
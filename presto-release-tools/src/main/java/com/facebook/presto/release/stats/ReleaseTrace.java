@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timeline of a release run in the Chrome Trace Event format, loadable in {@code chrome://tracing} or Perfetto.
+ * Every span is a complete event on the lane of the thread that ran it, so spans nest by time: the command contains
+ * the task stages, which contain the git and Maven commands, Github requests and rendering phases. Spans are only
+ * collected once tracing has been enabled.
+ */
+public final class ReleaseTrace
+{
+    private static final int PROCESS_ID = 1;
+
+    private static final List<Map<String, Object>> events = new ArrayList<>();
+    private static final Map<Long, String> threads = new LinkedHashMap<>();
+    private static volatile boolean enabled;
+    private static long originNanos = System.nanoTime();
+
+    private ReleaseTrace() {}
+
+    public static synchronized void enable()
+    {
+        enabled = true;
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public static synchronized void reset()
+    {
+        enabled = false;
+        events.clear();
+        threads.clear();
+        originNanos = System.nanoTime();
+    }
+
+    public static TraceSpan startSpan(String category, String name)
+    {
+        return new TraceSpan(category, name, System.nanoTime());
+    }
+
+    public static void addSpan(String category, String name, long startNanos, long endNanos, Map<String, Object> arguments)
+    {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        synchronized (ReleaseTrace.class) {
+            threads.putIfAbsent(thread.getId(), thread.getName());
+            events.add(ImmutableMap.<String, Object>builder()
+                    .put("name", name)
+                    .put("cat", category)
+                    .put("ph", "X")
+                    .put("ts", toMicros(startNanos - originNanos))
+                    .put("dur", toMicros(endNanos - startNanos))
+                    .put("pid", PROCESS_ID)
+                    .put("tid", thread.getId())
+                    .put("args", arguments)
+                    .build());
+        }
+    }
+
+    public static synchronized List<Map<String, Object>> getEvents()
+    {
+        ImmutableList.Builder<Map<String, Object>> traceEvents = ImmutableList.builder();
+        traceEvents.add(ImmutableMap.of("name", "process_name", "ph", "M", "pid", PROCESS_ID, "args", ImmutableMap.of("name", "presto-release")));
+        threads.forEach((id, name) -> traceEvents.add(ImmutableMap.of("name", "thread_name", "ph", "M", "pid", PROCESS_ID, "tid", id, "args", ImmutableMap.of("name", name))));
+        traceEvents.addAll(events);
+        return traceEvents.build();
+    }
+
+    public static void write(File file)
+    {
+        try {
+            new ObjectMapper().writeValue(file, ImmutableMap.of("traceEvents", getEvents(), "displayTimeUnit", "ms"));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static double toMicros(long nanos)
+    {
+        return nanos / 1000.0;
+    }
+}
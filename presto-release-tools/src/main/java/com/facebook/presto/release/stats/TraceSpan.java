@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.google.common.collect.ImmutableMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A span of the {@link ReleaseTrace} timeline, added to the trace when closed.
+ */
+public class TraceSpan
+        implements AutoCloseable
+{
+    private final String category;
+    private final String name;
+    private final long startNanos;
+
+    TraceSpan(String category, String name, long startNanos)
+    {
+        this.category = requireNonNull(category, "category is null");
+        this.name = requireNonNull(name, "name is null");
+        this.startNanos = startNanos;
+    }
+
+    @Override
+    public void close()
+    {
+        ReleaseTrace.addSpan(category, name, startNanos, System.nanoTime(), ImmutableMap.of());
+    }
+}
@@ -30,6 +30,7 @@ import static com.facebook.presto.release.ReleaseUtil.getPomFile;
 import static com.facebook.presto.release.ReleaseUtil.sanitizeRepository;
 import static com.facebook.presto.release.git.Git.RemoteType.UPSTREAM;
 import static com.facebook.presto.release.maven.MavenVersionUtil.getVersionFromPom;
+import static com.facebook.presto.release.stats.ReleaseStats.startStage;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -60,20 +61,24 @@ public abstract class AbstractCutReleaseTask
     @Override
     public void run()
     {
+        startStage("preflight");
         sanitizeRepository(git);
         PrestoVersion version = PrestoVersion.create(getVersionFromPom(repository.getDirectory()));
         releaseVersion.ifPresent(mavenVersion -> checkVersion(mavenVersion, version));
         checkTags(git, version);
         checkReleaseNotCut(git, version);
 
+        startStage("update-versions");
         updatePom(getPomFile(repository.getDirectory()), version);
 
         String snapshotVersion = version.getNextMajorVersion().getSnapshotVersion();
         maven.setVersions(snapshotVersion);
+        startStage("push-master");
         git.add(".");
         git.commit(format("Prepare for next development iteration - %s", snapshotVersion));
         git.push(UPSTREAM, "master", false);
 
+        startStage("create-release-branch");
         String releaseBranch = "release-" + version.getVersion();
         git.checkout(Optional.of("HEAD~1"), Optional.of(releaseBranch));
         git.push(UPSTREAM, releaseBranch, false);
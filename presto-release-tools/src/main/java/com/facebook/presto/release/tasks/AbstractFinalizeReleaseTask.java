@@ -33,6 +33,7 @@ import static com.facebook.presto.release.ReleaseUtil.getReleaseBranch;
 import static com.facebook.presto.release.ReleaseUtil.sanitizeRepository;
 import static com.facebook.presto.release.git.Git.RemoteType.UPSTREAM;
 import static com.facebook.presto.release.maven.MavenVersionUtil.getVersionFromPom;
+import static com.facebook.presto.release.stats.ReleaseStats.startStage;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
@@ -75,6 +76,7 @@ public abstract class AbstractFinalizeReleaseTask<T extends MavenVersion>
     @Override
     public void run()
     {
+        startStage("preflight");
         sanitizeRepository(git);
         @SuppressWarnings("unchecked")
         T masterReleaseVersion = (T) versionFactory.create(getVersionFromPom(repository.getDirectory())).getLastMajorVersion();
@@ -85,6 +87,7 @@ public abstract class AbstractFinalizeReleaseTask<T extends MavenVersion>
         checkTags(git, version);
         checkReleaseCut(git, version);
 
+        startStage("checkout-release-branch");
         String releaseBranch = getReleaseBranch(version);
         try {
             git.deleteBranch(releaseBranch);
@@ -98,11 +101,13 @@ public abstract class AbstractFinalizeReleaseTask<T extends MavenVersion>
             checkVersion(version, branchReleaseVersion);
         }
 
+        startStage("release-prepare");
         updatePomBeforeReleasePrepare(getPomFile(repository.getDirectory()), version);
         maven.releasePrepare(version.getVersion(), version.getNextMinorVersion().getSnapshotVersion(), version.getVersion());
         maven.releaseClean();
         updatePomAfterReleasePrepare(getPomFile(repository.getDirectory()), version);
 
+        startStage("push-release");
         git.push(UPSTREAM, releaseBranch, true);
         log.info("Release finalized: %s", version.getVersion());
     }
@@ -16,8 +16,14 @@ package com.facebook.presto.release.tasks;
 import com.facebook.airlift.bootstrap.Bootstrap;
 import com.facebook.airlift.bootstrap.LifeCycleManager;
 import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.stats.ReleaseStats;
+import com.facebook.presto.release.stats.ReleaseStatsModule;
+import com.facebook.presto.release.stats.ReleaseStatsReporter;
+import com.facebook.presto.release.stats.TraceSpan;
+import com.google.common.collect.ImmutableList;
 import com.google.inject.Injector;
 import com.google.inject.Module;
+import io.airlift.airline.Command;
 import io.airlift.airline.Option;
 
 import javax.inject.Inject;
@@ -25,6 +31,7 @@ import javax.inject.Inject;
 import java.lang.reflect.Field;
 import java.util.List;
 
+import static com.facebook.presto.release.stats.ReleaseTrace.startSpan;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.base.Throwables.throwIfUnchecked;
@@ -35,6 +42,9 @@ public abstract class AbstractReleaseCommand
 {
     private static final Logger log = Logger.get(AbstractReleaseCommand.class);
 
+    @Inject
+    public StatsOptions statsOptions = new StatsOptions();
+
     protected abstract List<Module> getModules();
 
     protected abstract Class<? extends ReleaseTask> getReleaseTask();
@@ -44,10 +54,18 @@ public abstract class AbstractReleaseCommand
     {
         setConfigPropertiesFromOptions();
 
+        ReleaseStats.reset();
         Injector injector = null;
         try {
-            injector = new Bootstrap(getModules()).strictConfig().initialize();
-            injector.getInstance(getReleaseTask()).run();
+            injector = new Bootstrap(ImmutableList.<Module>builder()
+                    .addAll(getModules())
+                    .add(new ReleaseStatsModule())
+                    .build())
+                    .strictConfig()
+                    .initialize();
+            try (TraceSpan ignored = startSpan("command", getCommandName())) {
+                injector.getInstance(getReleaseTask()).run();
+            }
         }
         catch (Exception e) {
             throwIfUnchecked(e);
@@ -55,6 +73,12 @@ public abstract class AbstractReleaseCommand
         }
         finally {
             if (injector != null) {
+                try {
+                    injector.getInstance(ReleaseStatsReporter.class).report();
+                }
+                catch (RuntimeException e) {
+                    log.error(e, "Failed to report release run statistics");
+                }
                 try {
                     injector.getInstance(LifeCycleManager.class).stop();
                 }
@@ -65,6 +89,12 @@ public abstract class AbstractReleaseCommand
         }
     }
 
+    private String getCommandName()
+    {
+        Command command = getClass().getAnnotation(Command.class);
+        return command == null ? getClass().getSimpleName() : command.name();
+    }
+
     private void setConfigPropertiesFromOptions()
     {
         setConfigPropertiesFromOptions(this);
@@ -0,0 +1,204 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.git.Git;
+import com.google.common.base.Splitter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+import static com.google.common.hash.Hashing.murmur3_128;
+import static com.google.common.io.Files.createParentDirs;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persistent set of the emails of every author in the history, up to the last indexed commit. Emails are stored as
+ * 64 bit hashes in an open addressing table, so checking an author is a constant time lookup, and the index is
+ * extended with the authors of the commits since the last indexed one instead of reading the whole history again.
+ */
+public class AuthorIndex
+{
+    public static final String LOG_FORMAT = "--format=%ae";
+
+    private static final Logger log = Logger.get(AuthorIndex.class);
+    private static final int MAGIC = 0x41555458;
+    private static final int FORMAT_VERSION = 1;
+    private static final Splitter LINE_SPLITTER = Splitter.on('\n').trimResults().omitEmptyStrings();
+    // zero marks the empty slots of the table
+    private static final long EMPTY = 0;
+
+    private Optional<String> lastCommit;
+    private long[] table;
+    private int size;
+
+    private AuthorIndex(Optional<String> lastCommit, int expectedSize)
+    {
+        this.lastCommit = requireNonNull(lastCommit, "lastCommit is null");
+        this.table = new long[Integer.highestOneBit(Math.max(expectedSize, 8) * 2) * 2];
+    }
+
+    public static AuthorIndex empty()
+    {
+        return new AuthorIndex(Optional.empty(), 0);
+    }
+
+    public Optional<String> getLastCommit()
+    {
+        return lastCommit;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean contains(String email)
+    {
+        long key = key(email);
+        for (int slot = slot(key); ; slot = (slot + 1) & (table.length - 1)) {
+            if (table[slot] == key) {
+                return true;
+            }
+            if (table[slot] == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public void add(String email)
+    {
+        addKey(key(email));
+    }
+
+    /**
+     * Add the authors of the commits reachable from {@code commit} and not from the last indexed commit, the whole
+     * history on the first run. The index is rebuilt from the whole history when the last indexed commit is not an
+     * ancestor of {@code commit}, e.g. after a force push, since it may hold authors missing from the history.
+     */
+    public void extend(Git git, String commit)
+    {
+        if (lastCommit.isPresent() && lastCommit.get().equals(commit)) {
+            return;
+        }
+        if (lastCommit.isPresent() && !git.isAncestor(lastCommit.get(), commit)) {
+            log.warn("Last indexed commit %s is not an ancestor of %s, rebuilding the author index", lastCommit.get(), commit);
+            lastCommit = Optional.empty();
+            table = new long[table.length];
+            size = 0;
+        }
+        int previousSize = size;
+        String range = lastCommit.map(last -> format("%s..%s", last, commit)).orElse(commit);
+        for (String email : LINE_SPLITTER.split(git.log(range, LOG_FORMAT))) {
+            add(email);
+        }
+        log.info("Indexed %s new authors of %s, %s authors in total", size - previousSize, range, size);
+        lastCommit = Optional.of(commit);
+    }
+
+    private void addKey(long key)
+    {
+        if ((size + 1) * 2 > table.length) {
+            long[] previous = table;
+            table = new long[previous.length * 2];
+            size = 0;
+            for (long value : previous) {
+                if (value != EMPTY) {
+                    addKey(value);
+                }
+            }
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & (table.length - 1)) {
+            if (table[slot] == key) {
+                return;
+            }
+            if (table[slot] == EMPTY) {
+                table[slot] = key;
+                size++;
+                return;
+            }
+        }
+    }
+
+    private int slot(long key)
+    {
+        return (int) (key ^ (key >>> 32)) & (table.length - 1);
+    }
+
+    private static long key(String email)
+    {
+        long key = murmur3_128().hashString(email.trim().toLowerCase(ENGLISH), UTF_8).asLong();
+        return key == EMPTY ? 1 : key;
+    }
+
+    public static Optional<AuthorIndex> read(File file)
+    {
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                log.warn("Ignoring author index in an unknown format: %s", file);
+                return Optional.empty();
+            }
+            String lastCommit = input.readUTF();
+            int size = input.readInt();
+            AuthorIndex index = new AuthorIndex(Optional.of(lastCommit), size);
+            for (int key = 0; key < size; key++) {
+                index.addKey(input.readLong());
+            }
+            return Optional.of(index);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(File file)
+    {
+        requireNonNull(file, "file is null");
+        if (!lastCommit.isPresent()) {
+            return;
+        }
+        try {
+            createParentDirs(file);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(lastCommit.get());
+                output.writeInt(size);
+                for (long key : table) {
+                    if (key != EMPTY) {
+                        output.writeLong(key);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.lang.Long.parseLong;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Files changed, insertions and deletions of a release by module, the top level directory of the changed paths. The
+ * files are counted once per commit changing them.
+ */
+public class ChangeStatistics
+{
+    public static final String ROOT_MODULE = "/";
+
+    private static final Splitter LINE_SPLITTER = Splitter.on('\n');
+
+    private final Map<String, Counts> modules;
+
+    public ChangeStatistics(Map<String, Counts> modules)
+    {
+        this.modules = ImmutableMap.copyOf(requireNonNull(modules, "modules is null"));
+    }
+
+    /**
+     * Aggregate the {@code git log --numstat} output of a release, e.g. with {@link SectionSuggester#CHANGED_FILES_FORMAT}.
+     */
+    public static ChangeStatistics parse(String log)
+    {
+        Builder statistics = new Builder();
+        LINE_SPLITTER.split(log).forEach(statistics::add);
+        return statistics.build();
+    }
+
+    /**
+     * Counters by module, added to one {@code git log --numstat} line at a time.
+     */
+    public static class Builder
+    {
+        private final Map<String, Counts> modules = new HashMap<>();
+
+        public void add(String line)
+        {
+            int first = line.indexOf('\t');
+            if (first <= 0) {
+                return;
+            }
+            int second = line.indexOf('\t', first + 1);
+            if (second < 0) {
+                return;
+            }
+            String path = line.substring(second + 1);
+            int slash = path.indexOf('/');
+            // Binary files have "-" for insertions and deletions
+            modules.computeIfAbsent(slash < 0 ? ROOT_MODULE : path.substring(0, slash), module -> new Counts())
+                    .add(1, parseCount(line.substring(0, first)), parseCount(line.substring(first + 1, second)));
+        }
+
+        public ChangeStatistics build()
+        {
+            return new ChangeStatistics(modules);
+        }
+    }
+
+    private static long parseCount(String count)
+    {
+        return count.equals("-") ? 0 : parseLong(count);
+    }
+
+    public boolean isEmpty()
+    {
+        return modules.isEmpty();
+    }
+
+    /**
+     * Counts by module, the most changed module first.
+     */
+    public Map<String, Counts> getModules()
+    {
+        return modules.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, Counts>>comparingLong(entry -> -entry.getValue().getChangedLines())
+                        .thenComparing(Map.Entry::getKey))
+                .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Counts by section, ordered by {@code sectionComparator}. Modules without a section are left out.
+     */
+    public Map<String, Counts> getSections(Function<String, Optional<String>> sectionOfModule, Comparator<String> sectionComparator)
+    {
+        Map<String, Counts> sections = new TreeMap<>(sectionComparator);
+        modules.forEach((module, counts) -> sectionOfModule.apply(module)
+                .ifPresent(section -> sections.computeIfAbsent(section, key -> new Counts()).merge(counts)));
+        return ImmutableMap.copyOf(sections);
+    }
+
+    public static class Counts
+    {
+        private long files;
+        private long insertions;
+        private long deletions;
+
+        public Counts()
+        {
+        }
+
+        public Counts(long files, long insertions, long deletions)
+        {
+            this.files = files;
+            this.insertions = insertions;
+            this.deletions = deletions;
+        }
+
+        private void add(long files, long insertions, long deletions)
+        {
+            this.files += files;
+            this.insertions += insertions;
+            this.deletions += deletions;
+        }
+
+        private Counts merge(Counts other)
+        {
+            add(other.files, other.insertions, other.deletions);
+            return this;
+        }
+
+        public long getFiles()
+        {
+            return files;
+        }
+
+        public long getInsertions()
+        {
+            return insertions;
+        }
+
+        public long getDeletions()
+        {
+            return deletions;
+        }
+
+        public long getChangedLines()
+        {
+            return insertions + deletions;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if ((obj == null) || (getClass() != obj.getClass())) {
+                return false;
+            }
+            Counts o = (Counts) obj;
+            return files == o.files &&
+                    insertions == o.insertions &&
+                    deletions == o.deletions;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(files, insertions, deletions);
+        }
+
+        @Override
+        public String toString()
+        {
+            return files + " files, +" + insertions + " -" + deletions;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The files changed by each commit of a release, and the {@link ChangeStatistics} of the release, collected in a single
+ * pass over the output of {@code git log --numstat} with {@link SectionSuggester#CHANGED_FILES_FORMAT}.
+ */
+public class ChangedFiles
+{
+    private final Map<String, List<String>> filesByCommit;
+    private final ChangeStatistics statistics;
+
+    public ChangedFiles(Map<String, List<String>> filesByCommit, ChangeStatistics statistics)
+    {
+        this.filesByCommit = ImmutableMap.copyOf(requireNonNull(filesByCommit, "filesByCommit is null"));
+        this.statistics = requireNonNull(statistics, "statistics is null");
+    }
+
+    public static ChangedFiles parse(String log)
+    {
+        Collector collector = new Collector();
+        Splitter.on('\n').split(log).forEach(collector);
+        return collector.build();
+    }
+
+    /**
+     * Changed files by commit id.
+     */
+    public Map<String, List<String>> getFilesByCommit()
+    {
+        return filesByCommit;
+    }
+
+    public ChangeStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /**
+     * Collect the {@code git log} output one line at a time, as git writes it.
+     */
+    public static class Collector
+            implements Consumer<String>
+    {
+        private final ImmutableMap.Builder<String, List<String>> filesByCommit = ImmutableMap.builder();
+        private final ChangeStatistics.Builder statistics = new ChangeStatistics.Builder();
+        private String commit;
+        private final List<String> files = new ArrayList<>();
+
+        @Override
+        public void accept(String line)
+        {
+            if (line.startsWith("\0")) {
+                flush();
+                commit = line.substring(1).trim();
+            }
+            else if (!line.isEmpty() && commit != null) {
+                // numstat lines are <insertions>\t<deletions>\t<path>, name-only lines are just the path
+                int tab = line.indexOf('\t');
+                files.add(tab < 0 ? line : line.substring(line.indexOf('\t', tab + 1) + 1));
+                statistics.add(line);
+            }
+        }
+
+        private void flush()
+        {
+            if (commit != null) {
+                filesByCommit.put(commit, ImmutableList.copyOf(files));
+            }
+            files.clear();
+        }
+
+        public ChangedFiles build()
+        {
+            flush();
+            commit = null;
+            return new ChangedFiles(filesByCommit.build(), statistics.build());
+        }
+    }
+}
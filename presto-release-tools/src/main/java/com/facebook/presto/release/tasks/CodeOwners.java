@@ -0,0 +1,228 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.asCharSource;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * The rules of a Github {@code CODEOWNERS} file, compiled into regular expressions whose alternatives are the rules in
+ * reverse order, so the first alternative to match a path is the last matching rule, which wins as on Github. Rules
+ * anchored to a literal top level directory are only compiled into the expression of that directory, so a path is
+ * matched against the rules of its directory and the rules that may match anywhere, not against every rule.
+ */
+public class CodeOwners
+{
+    public static final List<String> LOCATIONS = ImmutableList.of(".github/CODEOWNERS", "CODEOWNERS", "docs/CODEOWNERS");
+
+    private static final String REGEX_METACHARACTERS = "\\.[]{}()<>*+-=!?^$|";
+    private static final String GLOB_CHARACTERS = "*?\\[";
+    private static final Splitter WHITESPACE = Splitter.on(Pattern.compile("\\s+")).omitEmptyStrings();
+
+    private final Map<String, RuleSet> rulesByDirectory;
+    private final RuleSet unanchoredRules;
+
+    private CodeOwners(Map<String, RuleSet> rulesByDirectory, RuleSet unanchoredRules)
+    {
+        this.rulesByDirectory = ImmutableMap.copyOf(requireNonNull(rulesByDirectory, "rulesByDirectory is null"));
+        this.unanchoredRules = requireNonNull(unanchoredRules, "unanchoredRules is null");
+    }
+
+    /**
+     * Read the {@code CODEOWNERS} file of the repository at {@code directory}, from the first location Github looks at.
+     */
+    public static Optional<CodeOwners> read(File directory)
+    {
+        for (String location : LOCATIONS) {
+            File file = new File(directory, location);
+            if (file.isFile()) {
+                try {
+                    return Optional.of(parse(asCharSource(file, UTF_8).readLines()));
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static CodeOwners parse(List<String> lines)
+    {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            List<String> fields = WHITESPACE.splitToList(line);
+            ImmutableList.Builder<String> owners = ImmutableList.builder();
+            for (String owner : fields.subList(1, fields.size())) {
+                if (owner.startsWith("#")) {
+                    break;
+                }
+                owners.add(owner);
+            }
+            rules.add(new Rule(fields.get(0), owners.build()));
+        }
+
+        // Each directory gets its own rules and the unanchored ones, in the original order
+        Map<String, List<Rule>> directoryRules = new HashMap<>();
+        List<Rule> unanchoredRules = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (rule.directory.isPresent()) {
+                directoryRules.computeIfAbsent(rule.directory.get(), key -> new ArrayList<>());
+            }
+        }
+        for (Rule rule : rules) {
+            if (rule.directory.isPresent()) {
+                directoryRules.get(rule.directory.get()).add(rule);
+            }
+            else {
+                unanchoredRules.add(rule);
+                directoryRules.values().forEach(list -> list.add(rule));
+            }
+        }
+        Map<String, RuleSet> rulesByDirectory = new HashMap<>();
+        directoryRules.forEach((directory, list) -> rulesByDirectory.put(directory, new RuleSet(list)));
+        return new CodeOwners(rulesByDirectory, new RuleSet(unanchoredRules));
+    }
+
+    /**
+     * Owners of {@code path}, relative to the repository root. A path matched by no rule, or by a rule without owners,
+     * has no owner.
+     */
+    public List<String> getOwners(String path)
+    {
+        int slash = path.indexOf('/');
+        return rulesByDirectory.getOrDefault(slash < 0 ? path : path.substring(0, slash), unanchoredRules).getOwners(path);
+    }
+
+    /**
+     * The literal top level directory, or file, a glob is anchored to, if any.
+     */
+    private static Optional<String> getTopLevelDirectory(String glob)
+    {
+        boolean anchored = glob.startsWith("/") || glob.substring(0, Math.max(glob.length() - 1, 0)).contains("/");
+        String body = glob.startsWith("/") ? glob.substring(1) : glob;
+        int slash = body.indexOf('/');
+        String directory = slash < 0 ? body : body.substring(0, slash);
+        if (!anchored || directory.isEmpty() || directory.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0)) {
+            return Optional.empty();
+        }
+        return Optional.of(directory);
+    }
+
+    /**
+     * Translate a gitignore style glob to a regular expression without capturing groups. Globs without a slash but at
+     * the end match at any depth, and globs matching a directory also match everything in it, except {@code dir/*}.
+     */
+    static String toRegex(String glob)
+    {
+        boolean anchored = glob.startsWith("/") || glob.substring(0, Math.max(glob.length() - 1, 0)).contains("/");
+        String body = glob.startsWith("/") ? glob.substring(1) : glob;
+        if (body.endsWith("/")) {
+            body = body.substring(0, body.length() - 1);
+        }
+
+        StringBuilder regex = new StringBuilder(anchored || body.startsWith("**/") ? "" : "(?:.*/)?");
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '*' && i + 1 < body.length() && body.charAt(i + 1) == '*') {
+                boolean followedBySlash = i + 2 < body.length() && body.charAt(i + 2) == '/';
+                regex.append(followedBySlash ? "(?:.*/)?" : ".*");
+                i += followedBySlash ? 2 : 1;
+            }
+            else if (c == '*') {
+                regex.append("[^/]*");
+            }
+            else if (c == '?') {
+                regex.append("[^/]");
+            }
+            else {
+                if (c == '\\' && i + 1 < body.length()) {
+                    c = body.charAt(++i);
+                }
+                if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                    regex.append('\\');
+                }
+                regex.append(c);
+            }
+        }
+        // like on Github, "docs/*" only matches the files directly in docs
+        return body.endsWith("/*") ? regex.toString() : regex.append("(?:/.*)?").toString();
+    }
+
+    private static class Rule
+    {
+        private final String glob;
+        private final List<String> owners;
+        private final Optional<String> directory;
+
+        public Rule(String glob, List<String> owners)
+        {
+            this.glob = requireNonNull(glob, "glob is null");
+            this.owners = ImmutableList.copyOf(requireNonNull(owners, "owners is null"));
+            this.directory = getTopLevelDirectory(glob);
+        }
+    }
+
+    private static class RuleSet
+    {
+        private final List<List<String>> owners;
+        private final Pattern pattern;
+
+        public RuleSet(List<Rule> rules)
+        {
+            List<Rule> reversed = Lists.reverse(rules);
+            this.owners = reversed.stream().map(rule -> rule.owners).collect(toImmutableList());
+            this.pattern = Pattern.compile(reversed.isEmpty() ? "(?!)" : reversed.stream()
+                    .map(rule -> "(" + toRegex(rule.glob) + ")")
+                    .collect(joining("|")));
+        }
+
+        public List<String> getOwners(String path)
+        {
+            Matcher matcher = pattern.matcher(path);
+            if (!matcher.matches()) {
+                return ImmutableList.of();
+            }
+            for (int group = 1; group <= matcher.groupCount(); group++) {
+                if (matcher.start(group) >= 0) {
+                    return owners.get(group - 1);
+                }
+            }
+            throw new IllegalStateException("No rule matched " + path);
+        }
+    }
+}
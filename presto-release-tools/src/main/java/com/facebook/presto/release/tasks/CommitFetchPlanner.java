@@ -0,0 +1,491 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.git.CommitFetchStrategy;
+import com.facebook.presto.release.git.CommitFetcher;
+import com.facebook.presto.release.git.GithubAction;
+import com.facebook.presto.release.git.GithubConfig;
+import com.facebook.presto.release.git.LocalCommit;
+import com.facebook.presto.release.git.PullRequest;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import io.airlift.units.Duration;
+
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.release.git.CommitFetchStrategy.AUTO;
+import static com.facebook.presto.release.git.CommitFetchStrategy.BATCH;
+import static com.facebook.presto.release.git.CommitFetchStrategy.HISTORY;
+import static com.facebook.presto.release.git.CommitFetchStrategy.SEARCH;
+import static com.facebook.presto.release.git.CommitFetchStrategy.SNAPSHOT;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Choose how the commits of a release are fetched. Commits found in the snapshot cache are reused, and the rest are
+ * fetched with the strategy estimated to need the fewest requests. Every request costs at least one rate limit point
+ * and one round trip, so fewer requests is both cheaper and faster, and a plan needing more requests than the remaining
+ * rate limit is not started. Only the association of the cached commits with their pull requests is reused: the pull
+ * requests themselves are fetched again in batches, since their descriptions may have been edited since they were cached.
+ */
+public class CommitFetchPlanner
+{
+    private static final Logger log = Logger.get(CommitFetchPlanner.class);
+
+    private static final int HISTORY_PAGE_SIZE = 30;
+    private static final int SEARCH_PAGE_SIZE = 100;
+    private static final int BATCH_SIZE = 50;
+    private static final String CACHE_FILE_SUFFIX = ".json.gz";
+
+    private final GithubAction githubAction;
+    private final CommitFetcher commitFetcher;
+    private final CommitFetchStrategy strategy;
+    private final Optional<File> snapshotCacheDirectory;
+    // Presto and its companion repositories are fetched concurrently, and share the rate limit
+    private final RateLimitBudget budget = new RateLimitBudget();
+
+    @Inject
+    public CommitFetchPlanner(GithubAction githubAction, CommitFetcher commitFetcher, GithubConfig config)
+    {
+        this(githubAction, commitFetcher, config.getFetchStrategy(), config.getSnapshotCacheDirectory().map(File::new));
+    }
+
+    public CommitFetchPlanner(GithubAction githubAction, CommitFetcher commitFetcher, CommitFetchStrategy strategy, Optional<File> snapshotCacheDirectory)
+    {
+        this.githubAction = requireNonNull(githubAction, "githubAction is null");
+        this.commitFetcher = requireNonNull(commitFetcher, "commitFetcher is null");
+        this.strategy = requireNonNull(strategy, "strategy is null");
+        this.snapshotCacheDirectory = requireNonNull(snapshotCacheDirectory, "snapshotCacheDirectory is null");
+    }
+
+    /**
+     * @param localCommits commits of the release on {@code branch}, newest first
+     */
+    public ReleaseNotesSnapshot fetchSnapshot(String version, String repository, String branch, List<LocalCommit> localCommits)
+    {
+        Map<String, Integer> localIndexes = new HashMap<>();
+        for (int index = 0; index < localCommits.size(); index++) {
+            localIndexes.putIfAbsent(localCommits.get(index).getId(), index);
+        }
+        // Row of each local commit in the cached table, or -1 if it is missing from the cache
+        int[] cachedRows = new int[localCommits.size()];
+        Arrays.fill(cachedRows, -1);
+        CommitTable table = fetchCommitTable(version, repository, branch, localCommits, localIndexes, cachedRows);
+        // Nothing is fetched when every commit is cached, so the cache is left as it is
+        if (snapshotCacheDirectory.isPresent() && Arrays.stream(cachedRows).anyMatch(row -> row < 0)) {
+            writeCache(version, repository, table, localIndexes);
+        }
+        return ReleaseNotesSnapshot.create(version, repository, table);
+    }
+
+    /**
+     * The commits in local order, or in the fetched order when none of them is cached. The cached and fetched tables
+     * are only held until the result is built.
+     */
+    private CommitTable fetchCommitTable(String version, String repository, String branch, List<LocalCommit> localCommits, Map<String, Integer> localIndexes, int[] cachedRows)
+    {
+        CommitTable cached = loadCachedCommits(version, repository, localIndexes, cachedRows);
+        List<LocalCommit> missing = IntStream.range(0, localCommits.size())
+                .filter(index -> cachedRows[index] < 0)
+                .mapToObj(localCommits::get)
+                .collect(toImmutableList());
+        if (snapshotCacheDirectory.isPresent()) {
+            log.info("Found %s of %s commits in the snapshot cache", localCommits.size() - missing.size(), localCommits.size());
+        }
+
+        // The snapshot strategy never accesses Github, the others refresh the pull requests of the reused commits
+        List<Integer> refreshed = strategy == SNAPSHOT ? ImmutableList.of() : IntStream.range(0, cached.getPullRequestCount())
+                .mapToObj(cached::getPullRequestNumber)
+                .collect(toImmutableList());
+        FetchPlan plan = plan(localCommits, missing, pages(refreshed.size(), BATCH_SIZE));
+        log.info("Fetch plan: %s", plan);
+
+        try {
+            // The first pull request added with a number is kept, so the refreshed pull requests replace the cached ones
+            CommitTable.Builder commits = CommitTable.builder();
+            if (!refreshed.isEmpty()) {
+                refreshPullRequests(repository, refreshed, commits);
+            }
+            if (plan.getStrategy() == SNAPSHOT) {
+                checkState(missing.isEmpty(), "%s commits are missing from the snapshot cache, e.g. %s", missing.size(), missing.isEmpty() ? "" : missing.get(0).getId());
+                Arrays.stream(cachedRows).forEach(row -> commits.addCommit(cached, row));
+            }
+            else if (missing.size() == localCommits.size()) {
+                commitFetcher.fetchCommits(plan.getStrategy(), repository, branch, missing, commits::addCommit);
+            }
+            else {
+                CommitTable.Builder fetchedBuilder = CommitTable.builder();
+                commitFetcher.fetchCommits(plan.getStrategy(), repository, branch, missing, fetchedBuilder::addCommit);
+                CommitTable fetched = fetchedBuilder.build();
+                int[] fetchedRows = new int[localCommits.size()];
+                Arrays.fill(fetchedRows, -1);
+                for (int row = 0; row < fetched.getCommitCount(); row++) {
+                    Integer index = localIndexes.get(fetched.getCommitId(row));
+                    if (index != null && fetchedRows[index] < 0) {
+                        fetchedRows[index] = row;
+                    }
+                }
+                for (int index = 0; index < localCommits.size(); index++) {
+                    if (cachedRows[index] >= 0) {
+                        commits.addCommit(cached, cachedRows[index]);
+                    }
+                    else if (fetchedRows[index] >= 0) {
+                        commits.addCommit(fetched, fetchedRows[index]);
+                    }
+                    else {
+                        LocalCommit commit = localCommits.get(index);
+                        commits.addCommit(commit.getId(), commit.getAuthor(), commit.getTitle());
+                    }
+                }
+            }
+
+            return commits.build();
+        }
+        finally {
+            budget.release(plan);
+        }
+    }
+
+    /**
+     * Write {@code table} to the cache file of the release. An update of the release notes only fetches the newest
+     * commits, so the commits cached by earlier runs are kept.
+     */
+    private void writeCache(String version, String repository, CommitTable table, Map<String, Integer> localIndexes)
+    {
+        checkState(snapshotCacheDirectory.get().isDirectory() || snapshotCacheDirectory.get().mkdirs(), "Failed to create snapshot cache directory %s", snapshotCacheDirectory.get());
+        File cacheFile = new File(snapshotCacheDirectory.get(), format("%s%s%s", getCacheFilePrefix(repository), version, CACHE_FILE_SUFFIX));
+        CommitTable cache = table;
+        if (cacheFile.exists()) {
+            // The history walk may return commits of the branch outside of the local range
+            Set<String> unlisted = IntStream.range(0, table.getCommitCount())
+                    .mapToObj(table::getCommitId)
+                    .filter(id -> !localIndexes.containsKey(id))
+                    .collect(toImmutableSet());
+            CommitTable previous = ReleaseNotesSnapshot.read(cacheFile, id -> !localIndexes.containsKey(id) && !unlisted.contains(id)).getCommitTable();
+            if (previous.getCommitCount() > 0) {
+                CommitTable.Builder merged = CommitTable.builder();
+                IntStream.range(0, table.getCommitCount()).forEach(row -> merged.addCommit(table, row));
+                IntStream.range(0, previous.getCommitCount()).forEach(row -> merged.addCommit(previous, row));
+                cache = merged.build();
+            }
+        }
+        // A fetch killed while writing, or a concurrent fetch of the same release, never leaves a truncated cache file
+        try {
+            File temporaryFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+            try {
+                ReleaseNotesSnapshot.create(version, repository, cache).write(temporaryFile);
+                Files.move(temporaryFile.toPath(), cacheFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+            }
+            finally {
+                Files.deleteIfExists(temporaryFile.toPath());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Repositories released together share the cache directory, so the cache files are named after the repository.
+     */
+    private static String getCacheFilePrefix(String repository)
+    {
+        return format("release-notes-snapshot-%s-", repository.substring(repository.indexOf('/') + 1));
+    }
+
+    /**
+     * Plan the fetch and reserve its requests from the shared budget, until the fetch releases them.
+     */
+    private FetchPlan plan(List<LocalCommit> localCommits, List<LocalCommit> missing, int refreshRequests)
+    {
+        if (strategy != AUTO) {
+            return budget.reserve(estimate(strategy, localCommits, missing, Optional.empty()).withAdditionalRequests(refreshRequests));
+        }
+        if (missing.isEmpty()) {
+            return budget.reserve(estimate(SNAPSHOT, localCommits, missing, Optional.empty()).withAdditionalRequests(refreshRequests));
+        }
+
+        OptionalInt remainingRateLimit = OptionalInt.empty();
+        Optional<Duration> latency = Optional.empty();
+        try {
+            long start = System.nanoTime();
+            remainingRateLimit = OptionalInt.of(githubAction.getRemainingRateLimit());
+            latency = Optional.of(new Duration(System.nanoTime() - start, NANOSECONDS).convertToMostSuccinctTimeUnit());
+        }
+        catch (RuntimeException e) {
+            log.warn("Failed to probe the Github rate limit: %s", e.getMessage());
+        }
+        return budget.reserve(localCommits, missing, refreshRequests, remainingRateLimit, latency);
+    }
+
+    /**
+     * The plan needing the fewest requests, including the {@code refreshRequests} refreshing the pull requests of the
+     * cached commits. The latency of a request only estimates the duration of the plans, which is proportional to their
+     * requests, and the remaining rate limit is a budget the chosen plan must fit in.
+     */
+    static FetchPlan plan(List<LocalCommit> localCommits, List<LocalCommit> missing, int refreshRequests, OptionalInt remainingRateLimit, Optional<Duration> latency)
+    {
+        List<FetchPlan> plans = ImmutableList.of(HISTORY, BATCH, SEARCH).stream()
+                .map(strategy -> estimate(strategy, localCommits, missing, latency).withAdditionalRequests(refreshRequests))
+                .sorted(Comparator.comparing(FetchPlan::getRequests))
+                .collect(toImmutableList());
+        log.info("Candidate plans: %s; remaining rate limit: %s",
+                plans.stream().map(FetchPlan::toString).collect(joining(", ")),
+                remainingRateLimit.isPresent() ? remainingRateLimit.getAsInt() : "unknown");
+        FetchPlan cheapest = plans.get(0);
+        // Every request costs at least one point, so a plan over the budget would fail part way, wasting the points it spent
+        checkState(
+                !remainingRateLimit.isPresent() || cheapest.getRequests() <= remainingRateLimit.getAsInt(),
+                "The cheapest fetch plan, %s, needs more requests than the %s remaining Github rate limit points. Retry after the rate limit resets.",
+                cheapest,
+                remainingRateLimit.orElse(0));
+        return cheapest;
+    }
+
+    static FetchPlan estimate(CommitFetchStrategy strategy, List<LocalCommit> localCommits, List<LocalCommit> missing, Optional<Duration> latency)
+    {
+        if (missing.isEmpty()) {
+            return new FetchPlan(SNAPSHOT, 0, latency);
+        }
+        // the commits are fetched a chunk at a time, and the batches of a chunk are not shared with the next
+        int pullRequestBatches = 0;
+        int commitBatches = 0;
+        for (List<LocalCommit> chunk : Lists.partition(missing, CommitFetcher.CHUNK_SIZE)) {
+            long unnumbered = chunk.stream().filter(commit -> !commit.getPullRequestNumber().isPresent()).count();
+            pullRequestBatches += pages(countPullRequests(chunk) - unnumbered, BATCH_SIZE);
+            commitBatches += pages(unnumbered, BATCH_SIZE);
+        }
+        switch (strategy) {
+            case SNAPSHOT:
+                return new FetchPlan(SNAPSHOT, 0, latency);
+            case HISTORY:
+                // the walk starts at the head of the branch and stops at the oldest missing commit
+                return new FetchPlan(HISTORY, pages(localCommits.indexOf(missing.get(missing.size() - 1)) + 1, HISTORY_PAGE_SIZE), latency);
+            case BATCH:
+                return new FetchPlan(BATCH, pullRequestBatches + commitBatches, latency);
+            case SEARCH:
+                // the search also returns the pull requests of the cached commits merged during the padded range
+                Instant mergedAfter = missing.stream().map(LocalCommit::getCommitTime).min(Instant::compareTo).get().minus(1, DAYS);
+                Instant mergedBefore = missing.stream().map(LocalCommit::getCommitTime).max(Instant::compareTo).get().plus(1, DAYS);
+                long searchResults = countPullRequests(localCommits.stream()
+                        .filter(commit -> !commit.getCommitTime().isBefore(mergedAfter) && !commit.getCommitTime().isAfter(mergedBefore))
+                        .collect(toImmutableList()));
+                return new FetchPlan(SEARCH, pages(searchResults, SEARCH_PAGE_SIZE) + commitBatches, latency);
+            default:
+                throw new IllegalArgumentException("Unsupported fetch strategy: " + strategy);
+        }
+    }
+
+    /**
+     * Commits without a pull request number may each belong to a different pull request.
+     */
+    private static long countPullRequests(List<LocalCommit> commits)
+    {
+        long numbered = commits.stream()
+                .map(LocalCommit::getPullRequestNumber)
+                .filter(OptionalInt::isPresent)
+                .mapToInt(OptionalInt::getAsInt)
+                .distinct()
+                .count();
+        return numbered + commits.stream().filter(commit -> !commit.getPullRequestNumber().isPresent()).count();
+    }
+
+    private static int pages(long items, int pageSize)
+    {
+        return (int) ((items + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Add the current state on Github of the pull requests numbered {@code numbers} to {@code commits}, a chunk at a time.
+     * Pull requests Github no longer returns are kept as cached, and so are all of them when the refresh fails, e.g.
+     * because the rate limit is exhausted.
+     */
+    private void refreshPullRequests(String repository, List<Integer> numbers, CommitTable.Builder commits)
+    {
+        int refreshed = 0;
+        try {
+            for (List<Integer> chunk : Lists.partition(numbers, CommitFetcher.CHUNK_SIZE)) {
+                for (PullRequest pullRequest : githubAction.getPullRequests(repository, chunk)) {
+                    commits.addPullRequest(pullRequest);
+                    refreshed++;
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            log.warn("Failed to refresh the %s pull requests of the cached commits, reusing the cached descriptions of %s: %s", numbers.size(), numbers.size() - refreshed, e.getMessage());
+            return;
+        }
+        log.info("Refreshed %s of %s pull requests of the cached commits", refreshed, numbers.size());
+    }
+
+    /**
+     * The cached commits of {@code repository} listed in {@code localIndexes}, setting the row of each in {@code cachedRows}.
+     * Only these commits and their pull requests are read from the cache files.
+     */
+    private CommitTable loadCachedCommits(String version, String repository, Map<String, Integer> localIndexes, int[] cachedRows)
+    {
+        CommitTable.Builder commits = CommitTable.builder();
+        if (!snapshotCacheDirectory.isPresent() || !snapshotCacheDirectory.get().isDirectory()) {
+            return commits.build();
+        }
+        // Versions start with a digit, so loading presto skips the files of presto-hive, which also start with its prefix
+        String prefix = getCacheFilePrefix(repository);
+        File[] files = snapshotCacheDirectory.get().listFiles((directory, name) -> name.startsWith(prefix)
+                && name.endsWith(CACHE_FILE_SUFFIX)
+                && name.length() > prefix.length() + CACHE_FILE_SUFFIX.length()
+                && Character.isDigit(name.charAt(prefix.length())));
+        if (files == null) {
+            return commits.build();
+        }
+        // The snapshot of the release itself holds most of its commits, and the newer versions are read before the
+        // older ones, which rarely share commits with it. Reading stops as soon as every commit is found.
+        Comparator<String> versions = (left, right) -> ReleaseNotesIndex.compareVersions(right, left);
+        List<File> ordered = Arrays.stream(files)
+                .sorted(Comparator.comparing((File file) -> !getCacheFileVersion(file, prefix).equals(version))
+                        .thenComparing(file -> getCacheFileVersion(file, prefix), versions))
+                .collect(toImmutableList());
+        int rows = 0;
+        for (File file : ordered) {
+            if (rows == localIndexes.size()) {
+                break;
+            }
+            try {
+                ReleaseNotesSnapshot snapshot = ReleaseNotesSnapshot.read(file, id -> localIndexes.containsKey(id) && cachedRows[localIndexes.get(id)] < 0);
+                if (!snapshot.getRepository().equals(repository)) {
+                    continue;
+                }
+                CommitTable table = snapshot.getCommitTable();
+                for (int row = 0; row < table.getCommitCount(); row++) {
+                    int index = localIndexes.get(table.getCommitId(row));
+                    if (cachedRows[index] < 0) {
+                        commits.addCommit(table, row);
+                        cachedRows[index] = rows++;
+                    }
+                }
+            }
+            catch (RuntimeException e) {
+                log.warn("Ignoring unreadable snapshot %s: %s", file, e.getMessage());
+            }
+        }
+        return commits.build();
+    }
+
+    private static String getCacheFileVersion(File file, String prefix)
+    {
+        return file.getName().substring(prefix.length(), file.getName().length() - CACHE_FILE_SUFFIX.length());
+    }
+
+    /**
+     * Rate limit points reserved by the fetches in progress. A plan must fit in the remaining rate limit less the points
+     * reserved by the other fetches. The remaining rate limit probed by a fetch may already reflect some of the points
+     * the other fetches spent, so the budget errs on the side of failing a plan that would have fit.
+     */
+    static class RateLimitBudget
+    {
+        private int reserved;
+
+        public synchronized FetchPlan reserve(List<LocalCommit> localCommits, List<LocalCommit> missing, int refreshRequests, OptionalInt remainingRateLimit, Optional<Duration> latency)
+        {
+            OptionalInt available = remainingRateLimit.isPresent() ? OptionalInt.of(Math.max(remainingRateLimit.getAsInt() - reserved, 0)) : OptionalInt.empty();
+            if (reserved > 0) {
+                log.info("%s rate limit points are reserved by the fetches in progress", reserved);
+            }
+            return reserve(plan(localCommits, missing, refreshRequests, available, latency));
+        }
+
+        public synchronized FetchPlan reserve(FetchPlan plan)
+        {
+            reserved += plan.getRequests();
+            return plan;
+        }
+
+        public synchronized void release(FetchPlan plan)
+        {
+            reserved -= plan.getRequests();
+        }
+
+        public synchronized int getReserved()
+        {
+            return reserved;
+        }
+    }
+
+    public static class FetchPlan
+    {
+        private final CommitFetchStrategy strategy;
+        private final int requests;
+        private final Optional<Duration> latency;
+        private final Optional<Duration> estimatedTime;
+
+        public FetchPlan(CommitFetchStrategy strategy, int requests, Optional<Duration> latency)
+        {
+            this.strategy = requireNonNull(strategy, "strategy is null");
+            this.requests = requests;
+            this.latency = latency;
+            this.estimatedTime = requireNonNull(latency, "latency is null")
+                    .map(duration -> new Duration(duration.getValue(NANOSECONDS) * requests, NANOSECONDS).convertToMostSuccinctTimeUnit());
+        }
+
+        public FetchPlan withAdditionalRequests(int additionalRequests)
+        {
+            return new FetchPlan(strategy, requests + additionalRequests, latency);
+        }
+
+        public CommitFetchStrategy getStrategy()
+        {
+            return strategy;
+        }
+
+        public int getRequests()
+        {
+            return requests;
+        }
+
+        public Optional<Duration> getEstimatedTime()
+        {
+            return estimatedTime;
+        }
+
+        @Override
+        public String toString()
+        {
+            return format("%s (%s requests%s)", strategy, requests, estimatedTime.map(time -> ", ~" + time).orElse(""));
+        }
+    }
+}
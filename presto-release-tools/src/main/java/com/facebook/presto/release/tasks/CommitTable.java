@@ -0,0 +1,287 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.git.Actor;
+import com.facebook.presto.release.git.Commit;
+import com.facebook.presto.release.git.PullRequest;
+import com.facebook.presto.release.git.User;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.ImmutableIntArray;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The commits and pull requests of a release, stored by column and referenced by index. Authors, logins and names are
+ * interned into a single string pool, ids, titles, URLs and descriptions are stored as UTF-8 in a {@link StringColumn}
+ * each, each pull request is stored once however many commits it is associated with, and the associations of the
+ * commits are ranges of a single array of pull request indexes.
+ */
+public class CommitTable
+{
+    private static final int NONE = -1;
+
+    private final List<String> strings;
+
+    private final StringColumn commitIds;
+    private final StringColumn commitTitles;
+    private final ImmutableIntArray commitAuthors;
+    // The pull requests of commit i are associations[associationOffsets[i]..associationOffsets[i + 1]]
+    private final ImmutableIntArray associationOffsets;
+    private final ImmutableIntArray associations;
+
+    private final ImmutableIntArray pullRequestNumbers;
+    private final StringColumn pullRequestTitles;
+    private final StringColumn pullRequestUrls;
+    private final StringColumn pullRequestBodies;
+    private final ImmutableIntArray pullRequestAuthorLogins;
+    private final ImmutableIntArray pullRequestMergedByLogins;
+    private final ImmutableIntArray pullRequestMergedByNames;
+
+    private CommitTable(Builder builder)
+    {
+        this.strings = ImmutableList.copyOf(builder.strings);
+        this.commitIds = builder.commitIds.build();
+        this.commitTitles = builder.commitTitles.build();
+        this.commitAuthors = builder.commitAuthors.build();
+        this.associationOffsets = builder.associationOffsets.build();
+        this.pullRequestNumbers = builder.pullRequestNumbers.build();
+        this.pullRequestTitles = builder.pullRequestTitles.build();
+        this.pullRequestUrls = builder.pullRequestUrls.build();
+        this.pullRequestBodies = builder.pullRequestBodies.build();
+        this.pullRequestAuthorLogins = builder.pullRequestAuthorLogins.build();
+        this.pullRequestMergedByLogins = builder.pullRequestMergedByLogins.build();
+        this.pullRequestMergedByNames = builder.pullRequestMergedByNames.build();
+
+        // Commits reference pull requests by number until every pull request is added
+        ImmutableIntArray numbers = builder.associations.build();
+        ImmutableIntArray.Builder associations = ImmutableIntArray.builder(numbers.length());
+        for (int commit = 0; commit < getCommitCount(); commit++) {
+            for (int association = associationOffsets.get(commit); association < associationOffsets.get(commit + 1); association++) {
+                Integer index = builder.pullRequestIndexes.get(numbers.get(association));
+                checkArgument(index != null, "Pull request #%s of commit %s is missing from snapshot", numbers.get(association), getCommitId(commit));
+                associations.add(index);
+            }
+        }
+        this.associations = associations.build();
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public int getCommitCount()
+    {
+        return commitAuthors.length();
+    }
+
+    public String getCommitId(int commit)
+    {
+        return commitIds.get(commit);
+    }
+
+    public String getCommitTitle(int commit)
+    {
+        return commitTitles.get(commit);
+    }
+
+    public String getCommitAuthor(int commit)
+    {
+        return strings.get(commitAuthors.get(commit));
+    }
+
+    /**
+     * Indexes of the pull requests associated with {@code commit}, in their original order.
+     */
+    public IntStream getPullRequests(int commit)
+    {
+        checkElementIndex(commit, getCommitCount());
+        return associations.subArray(associationOffsets.get(commit), associationOffsets.get(commit + 1)).stream();
+    }
+
+    public boolean hasPullRequests(int commit)
+    {
+        return associationOffsets.get(commit) < associationOffsets.get(commit + 1);
+    }
+
+    public int getPullRequestCount()
+    {
+        return pullRequestNumbers.length();
+    }
+
+    public int getPullRequestNumber(int pullRequest)
+    {
+        return pullRequestNumbers.get(pullRequest);
+    }
+
+    public String getPullRequestAuthorLogin(int pullRequest)
+    {
+        return strings.get(pullRequestAuthorLogins.get(pullRequest));
+    }
+
+    public Optional<String> getPullRequestMergedByLogin(int pullRequest)
+    {
+        int mergedByLogin = pullRequestMergedByLogins.get(pullRequest);
+        return mergedByLogin == NONE ? Optional.empty() : Optional.of(strings.get(mergedByLogin));
+    }
+
+    /**
+     * Build the {@link PullRequest} at {@code pullRequest}. Every call decodes a new instance, so callers build the pull
+     * requests they need once.
+     */
+    public PullRequest getPullRequest(int pullRequest)
+    {
+        int mergedByLogin = pullRequestMergedByLogins.get(pullRequest);
+        int mergedByName = pullRequestMergedByNames.get(pullRequest);
+        return new PullRequest(
+                pullRequestNumbers.get(pullRequest),
+                pullRequestTitles.get(pullRequest),
+                pullRequestUrls.get(pullRequest),
+                pullRequestBodies.get(pullRequest),
+                new Actor(getPullRequestAuthorLogin(pullRequest)),
+                mergedByLogin == NONE ? null : new User(strings.get(mergedByLogin), mergedByName == NONE ? null : strings.get(mergedByName)));
+    }
+
+    public static class Builder
+    {
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        private final StringColumn.Builder commitIds = StringColumn.builder();
+        private final StringColumn.Builder commitTitles = StringColumn.builder();
+        private final ImmutableIntArray.Builder commitAuthors = ImmutableIntArray.builder();
+        private final ImmutableIntArray.Builder associationOffsets = ImmutableIntArray.builder().add(0);
+        private final ImmutableIntArray.Builder associations = ImmutableIntArray.builder();
+        private int associationCount;
+
+        private final Map<Integer, Integer> pullRequestIndexes = new HashMap<>();
+        private final ImmutableIntArray.Builder pullRequestNumbers = ImmutableIntArray.builder();
+        private final StringColumn.Builder pullRequestTitles = StringColumn.builder();
+        private final StringColumn.Builder pullRequestUrls = StringColumn.builder();
+        private final StringColumn.Builder pullRequestBodies = StringColumn.builder();
+        private final ImmutableIntArray.Builder pullRequestAuthorLogins = ImmutableIntArray.builder();
+        private final ImmutableIntArray.Builder pullRequestMergedByLogins = ImmutableIntArray.builder();
+        private final ImmutableIntArray.Builder pullRequestMergedByNames = ImmutableIntArray.builder();
+
+        private Builder()
+        {
+        }
+
+        public boolean hasPullRequest(int number)
+        {
+            return pullRequestIndexes.containsKey(number);
+        }
+
+        /**
+         * Add a pull request, unless a pull request with the same number was already added.
+         */
+        public Builder addPullRequest(int number, String title, String url, String body, String authorLogin, Optional<String> mergedByLogin, Optional<String> mergedByName)
+        {
+            if (pullRequestIndexes.containsKey(number)) {
+                return this;
+            }
+            pullRequestIndexes.put(number, pullRequestIndexes.size());
+            pullRequestNumbers.add(number);
+            pullRequestTitles.add(requireNonNull(title, "title is null"));
+            pullRequestUrls.add(requireNonNull(url, "url is null"));
+            pullRequestBodies.add(requireNonNull(body, "body is null"));
+            pullRequestAuthorLogins.add(intern(requireNonNull(authorLogin, "authorLogin is null")));
+            pullRequestMergedByLogins.add(requireNonNull(mergedByLogin, "mergedByLogin is null").map(this::intern).orElse(NONE));
+            pullRequestMergedByNames.add(requireNonNull(mergedByName, "mergedByName is null").map(this::intern).orElse(NONE));
+            return this;
+        }
+
+        public Builder addPullRequest(PullRequest pullRequest)
+        {
+            return addPullRequest(
+                    pullRequest.getId(),
+                    pullRequest.getTitle(),
+                    pullRequest.getUrl(),
+                    pullRequest.getDescription(),
+                    pullRequest.getAuthorLogin(),
+                    pullRequest.getMergedBy().map(User::getLogin),
+                    pullRequest.getMergedBy().flatMap(User::getName));
+        }
+
+        /**
+         * Add a commit associated with the pull requests numbered {@code pullRequests}, which may be added before or
+         * after the commit.
+         */
+        public Builder addCommit(String id, String author, String title, int... pullRequests)
+        {
+            commitIds.add(requireNonNull(id, "id is null"));
+            commitTitles.add(requireNonNull(title, "title is null"));
+            commitAuthors.add(intern(requireNonNull(author, "author is null")));
+            associations.addAll(pullRequests);
+            associationCount += pullRequests.length;
+            associationOffsets.add(associationCount);
+            return this;
+        }
+
+        /**
+         * Add a commit with its pull requests. A pull request already added is kept as it was added.
+         */
+        public Builder addCommit(Commit commit)
+        {
+            commit.getAssociatedPullRequests().forEach(this::addPullRequest);
+            return addCommit(
+                    commit.getId(),
+                    commit.getAuthor(),
+                    commit.getTitle(),
+                    commit.getAssociatedPullRequests().stream().mapToInt(PullRequest::getId).toArray());
+        }
+
+        /**
+         * Copy {@code commit} of {@code table} with its pull requests. A pull request already added is kept as it was added.
+         */
+        public Builder addCommit(CommitTable table, int commit)
+        {
+            int[] numbers = table.getPullRequests(commit).map(table::getPullRequestNumber).toArray();
+            table.getPullRequests(commit)
+                    .filter(pullRequest -> !hasPullRequest(table.getPullRequestNumber(pullRequest)))
+                    .forEach(pullRequest -> addPullRequest(
+                            table.getPullRequestNumber(pullRequest),
+                            table.pullRequestTitles.get(pullRequest),
+                            table.pullRequestUrls.get(pullRequest),
+                            table.pullRequestBodies.get(pullRequest),
+                            table.getPullRequestAuthorLogin(pullRequest),
+                            table.getPullRequestMergedByLogin(pullRequest),
+                            Optional.of(table.pullRequestMergedByNames.get(pullRequest)).filter(name -> name != NONE).map(table.strings::get)));
+            return addCommit(table.getCommitId(commit), table.getCommitAuthor(commit), table.getCommitTitle(commit), numbers);
+        }
+
+        private int intern(String string)
+        {
+            return stringIndexes.computeIfAbsent(string, key -> {
+                strings.add(key);
+                return strings.size() - 1;
+            });
+        }
+
+        public CommitTable build()
+        {
+            return new CommitTable(this);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.git.GithubAction;
+import com.facebook.presto.release.git.GithubConfig;
+import com.facebook.presto.release.git.User;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.facebook.airlift.json.JsonCodec.mapJsonCodec;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.asCharSink;
+import static com.google.common.io.Files.asCharSource;
+import static com.google.common.io.Files.createParentDirs;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Resolve the display names of Github users credited in release notes. Names are kept in a persistent cache, and the
+ * logins missing from it or expired are looked up in one batched Github request.
+ */
+public class ContributorResolver
+{
+    private static final Logger log = Logger.get(ContributorResolver.class);
+    private static final JsonCodec<Map<String, CachedContributor>> CODEC = mapJsonCodec(String.class, CachedContributor.class);
+    private static final Pattern NAME_OVERRIDE_PATTERN = Pattern.compile("([^<>]+?)\\s*<([^<>\\s]+)>.*");
+
+    private final GithubAction githubAction;
+    private final Optional<File> cacheFile;
+    private final Duration cacheTtl;
+    private final Clock clock;
+
+    @Inject
+    public ContributorResolver(GithubAction githubAction, GithubConfig config)
+    {
+        this(githubAction, config.getContributorCacheFile().map(File::new), config.getContributorCacheTtl(), Clock.systemUTC());
+    }
+
+    public ContributorResolver(GithubAction githubAction, Optional<File> cacheFile, Duration cacheTtl, Clock clock)
+    {
+        this.githubAction = requireNonNull(githubAction, "githubAction is null");
+        this.cacheFile = requireNonNull(cacheFile, "cacheFile is null");
+        this.cacheTtl = requireNonNull(cacheTtl, "cacheTtl is null");
+        this.clock = requireNonNull(clock, "clock is null");
+    }
+
+    /**
+     * Names of the {@code logins} that have one on Github, keyed by login. Users without a name are omitted. Calls are
+     * serialized, so concurrent resolutions do not lose each other's updates of the cache file.
+     */
+    public synchronized Map<String, String> resolve(Collection<String> logins)
+    {
+        Map<String, CachedContributor> cache = new TreeMap<>(loadCache());
+        Instant now = clock.instant();
+        List<String> missing = logins.stream()
+                .distinct()
+                .filter(login -> !cache.containsKey(login) || cache.get(login).isExpired(now, cacheTtl))
+                .sorted()
+                .collect(toImmutableList());
+        if (!missing.isEmpty()) {
+            log.info("Looking up %s of %s contributors on Github", missing.size(), logins.stream().distinct().count());
+            // logins are case insensitive, and Github returns them in their canonical case
+            Map<String, User> users = new HashMap<>();
+            for (User user : githubAction.getUsers(missing)) {
+                users.put(user.getLogin().toLowerCase(ENGLISH), user);
+            }
+            for (String login : missing) {
+                Optional<String> name = Optional.ofNullable(users.get(login.toLowerCase(ENGLISH)))
+                        .flatMap(User::getName)
+                        .filter(value -> !value.trim().isEmpty());
+                cache.put(login, new CachedContributor(name, now.toEpochMilli()));
+            }
+            storeCache(cache);
+        }
+
+        ImmutableMap.Builder<String, String> names = ImmutableMap.builder();
+        logins.stream()
+                .distinct()
+                .forEach(login -> cache.get(login).getName().ifPresent(name -> names.put(login, name)));
+        return names.build();
+    }
+
+    /**
+     * Read display names that take precedence over the Github ones, in a {@code .mailmap} like format: one
+     * {@code Display Name <login>} per line. Blank lines and lines starting with {@code #} are ignored.
+     */
+    public static Map<String, String> readNameOverrides(File file)
+    {
+        try {
+            return parseNameOverrides(asCharSource(file, UTF_8).readLines());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Map<String, String> parseNameOverrides(List<String> lines)
+    {
+        Map<String, String> names = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Matcher matcher = NAME_OVERRIDE_PATTERN.matcher(line);
+            checkArgument(matcher.matches(), "Invalid name override on line %s, expected 'Display Name <login>': %s", i + 1, line);
+            names.put(matcher.group(2), matcher.group(1));
+        }
+        return ImmutableMap.copyOf(names);
+    }
+
+    private Map<String, CachedContributor> loadCache()
+    {
+        if (!cacheFile.isPresent() || !cacheFile.get().exists()) {
+            return ImmutableMap.of();
+        }
+        try {
+            return CODEC.fromJson(asCharSource(cacheFile.get(), UTF_8).read());
+        }
+        catch (IOException | IllegalArgumentException e) {
+            log.warn(e, "Ignoring unreadable contributor cache %s", cacheFile.get());
+            return ImmutableMap.of();
+        }
+    }
+
+    private void storeCache(Map<String, CachedContributor> cache)
+    {
+        if (!cacheFile.isPresent()) {
+            return;
+        }
+        try {
+            createParentDirs(cacheFile.get());
+            asCharSink(cacheFile.get(), UTF_8).write(CODEC.toJson(cache));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class CachedContributor
+    {
+        private final Optional<String> name;
+        private final long fetchedAtMillis;
+
+        @JsonCreator
+        public CachedContributor(
+                @JsonProperty("name") Optional<String> name,
+                @JsonProperty("fetchedAtMillis") long fetchedAtMillis)
+        {
+            this.name = requireNonNull(name, "name is null");
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+
+        @JsonProperty
+        public Optional<String> getName()
+        {
+            return name;
+        }
+
+        @JsonProperty
+        public long getFetchedAtMillis()
+        {
+            return fetchedAtMillis;
+        }
+
+        public boolean isExpired(Instant now, Duration ttl)
+        {
+            return now.toEpochMilli() - fetchedAtMillis >= ttl.toMillis();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.git.Git;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.asCharSink;
+import static com.google.common.io.Files.asCharSource;
+import static com.google.common.io.Files.createParentDirs;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Index of the configuration and session properties documented in the Sphinx docs, mapping each property name to a
+ * {@code :ref:} link to its labelled section, or a {@code :doc:} link to its page. Properties are documented either as
+ * a section title, e.g. {@code ``join_distribution_type``}, or as the first cell of a table row.
+ */
+public final class DocumentedProperties
+{
+    public static final String SPHINX_DIRECTORY = "presto-docs/src/main/sphinx";
+
+    private static final Logger log = Logger.get(DocumentedProperties.class);
+    private static final JsonCodec<CachedIndex> CODEC = jsonCodec(CachedIndex.class);
+    private static final String RELEASE_DIRECTORY = "release";
+    private static final Pattern LABEL = Pattern.compile("^\\.\\. _([^:]+):\\s*$");
+    static final Pattern ADORNMENT = Pattern.compile("^([=\\-^~\"'`#*+_])\\1+\\s*$");
+    private static final String PROPERTY = "([a-z][a-z0-9]*(?:[._-][a-z0-9]+)+)";
+    private static final Pattern TITLE = Pattern.compile("^``" + PROPERTY + "``\\s*$");
+    private static final Pattern TABLE_ROW = Pattern.compile("^\\s*(?:\\* - |\\| )?``" + PROPERTY + "``(?:\\s*\\||\\s|$)");
+
+    private DocumentedProperties() {}
+
+    /**
+     * Read the index of the docs checked out by {@code git}. With a {@code cacheFile}, the index is stored with the
+     * hash of the committed docs tree, and reused as long as it is unchanged. The docs are scanned from the working
+     * tree, so the cache is only used when they have no uncommitted change.
+     */
+    public static Map<String, String> read(Git git, Optional<File> cacheFile)
+    {
+        File directory = new File(git.getRepository().getDirectory(), SPHINX_DIRECTORY);
+        if (!directory.isDirectory()) {
+            return ImmutableMap.of();
+        }
+        if (!cacheFile.isPresent()) {
+            return scan(directory);
+        }
+
+        if (!git.status("--porcelain", "--", SPHINX_DIRECTORY).trim().isEmpty()) {
+            log.info("Not caching the documented properties, the docs have uncommitted changes");
+            return scan(directory);
+        }
+        String treeHash = git.revParse("HEAD:" + SPHINX_DIRECTORY);
+        Optional<CachedIndex> cached = loadCache(cacheFile.get());
+        if (cached.isPresent() && cached.get().getTreeHash().equals(treeHash)) {
+            log.info("Reusing the documented properties of docs tree %s", treeHash);
+            return cached.get().getLinks();
+        }
+        Map<String, String> links = scan(directory);
+        storeCache(cacheFile.get(), new CachedIndex(treeHash, links));
+        return links;
+    }
+
+    /**
+     * Scan the {@code .rst} files of {@code sphinxDirectory}, except the release notes. A property documented in a
+     * section title takes precedence over the table rows mentioning it.
+     */
+    public static Map<String, String> scan(File sphinxDirectory)
+    {
+        Path root = sphinxDirectory.toPath();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(path -> path.toString().endsWith(".rst"))
+                    .filter(path -> !root.relativize(path).startsWith(RELEASE_DIRECTORY))
+                    .sorted()
+                    .collect(toImmutableList());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<String, String> titleLinks = new TreeMap<>();
+        Map<String, String> tableLinks = new TreeMap<>();
+        for (Path file : files) {
+            String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+            String document = "/" + relative.substring(0, relative.length() - ".rst".length());
+            try {
+                scanDocument(document, asCharSource(file.toFile(), UTF_8).readLines(), titleLinks, tableLinks);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        tableLinks.putAll(titleLinks);
+        log.info("Found %s documented properties in %s files", tableLinks.size(), files.size());
+        return ImmutableMap.copyOf(tableLinks);
+    }
+
+    private static void scanDocument(String document, List<String> lines, Map<String, String> titleLinks, Map<String, String> tableLinks)
+    {
+        // a label applies to the next element, and is only kept if that element is a section title
+        Optional<String> pendingLabel = Optional.empty();
+        Optional<String> sectionLabel = Optional.empty();
+        for (int index = 0; index < lines.size(); index++) {
+            String line = lines.get(index);
+            Matcher label = LABEL.matcher(line);
+            if (label.matches()) {
+                pendingLabel = Optional.of(label.group(1));
+                continue;
+            }
+            if (line.trim().isEmpty() || ADORNMENT.matcher(line).matches()) {
+                continue;
+            }
+            if (index + 1 < lines.size() && ADORNMENT.matcher(lines.get(index + 1)).matches() && lines.get(index + 1).trim().length() >= line.trim().length()) {
+                sectionLabel = pendingLabel;
+                pendingLabel = Optional.empty();
+                Matcher title = TITLE.matcher(line.trim());
+                if (title.matches()) {
+                    titleLinks.putIfAbsent(title.group(1), link(title.group(1), sectionLabel, document));
+                }
+                index++;
+                continue;
+            }
+            pendingLabel = Optional.empty();
+            Matcher row = TABLE_ROW.matcher(line);
+            if (row.find()) {
+                tableLinks.putIfAbsent(row.group(1), link(row.group(1), sectionLabel, document));
+            }
+        }
+    }
+
+    private static String link(String property, Optional<String> label, String document)
+    {
+        return label.map(value -> format(":ref:`%s <%s>`", property, value))
+                .orElseGet(() -> format(":doc:`%s <%s>`", property, document));
+    }
+
+    private static Optional<CachedIndex> loadCache(File cacheFile)
+    {
+        if (!cacheFile.exists()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(CODEC.fromJson(asCharSource(cacheFile, UTF_8).read()));
+        }
+        catch (IOException | IllegalArgumentException e) {
+            log.warn(e, "Ignoring unreadable documented properties cache %s", cacheFile);
+            return Optional.empty();
+        }
+    }
+
+    private static void storeCache(File cacheFile, CachedIndex index)
+    {
+        try {
+            createParentDirs(cacheFile);
+            asCharSink(cacheFile, UTF_8).write(CODEC.toJson(index));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class CachedIndex
+    {
+        private final String treeHash;
+        private final Map<String, String> links;
+
+        @JsonCreator
+        public CachedIndex(
+                @JsonProperty("treeHash") String treeHash,
+                @JsonProperty("links") Map<String, String> links)
+        {
+            this.treeHash = requireNonNull(treeHash, "treeHash is null");
+            this.links = ImmutableMap.copyOf(requireNonNull(links, "links is null"));
+        }
+
+        @JsonProperty
+        public String getTreeHash()
+        {
+            return treeHash;
+        }
+
+        @JsonProperty
+        public Map<String, String> getLinks()
+        {
+            return links;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.tasks.GenerateReleaseNotesTask.ReleaseNoteItem;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Find the release notes of a section that are near-duplicates of each other, such as a note copied across a stack of
+ * pull requests. Notes are compared by the Jaccard similarity of their character shingles, but only the pairs sharing a
+ * band of their MinHash signatures are compared, so the cost grows with the number of notes, not the number of pairs.
+ */
+public final class DuplicateReleaseNotes
+{
+    public static final double DEFAULT_SIMILARITY = 0.8;
+
+    private static final int SHINGLE_LENGTH = 5;
+    private static final int BANDS = 16;
+    private static final int ROWS = 6;
+    private static final long[] HASH_MULTIPLIERS = new long[BANDS * ROWS];
+    private static final long[] HASH_INCREMENTS = new long[BANDS * ROWS];
+
+    static {
+        // fixed seed, so that the candidate pairs do not change between runs
+        Random random = new Random(42);
+        for (int i = 0; i < HASH_MULTIPLIERS.length; i++) {
+            HASH_MULTIPLIERS[i] = random.nextLong() | 1;
+            HASH_INCREMENTS[i] = random.nextLong();
+        }
+    }
+
+    private DuplicateReleaseNotes() {}
+
+    /**
+     * Groups of at least two notes of the same section whose similarity to another note of the group is at least
+     * {@code similarity}, in the order of their first note in {@code items}.
+     */
+    public static List<List<ReleaseNoteItem>> find(List<ReleaseNoteItem> items, double similarity)
+    {
+        checkArgument(similarity > 0 && similarity <= 1, "similarity must be in (0, 1]: %s", similarity);
+        List<Set<Integer>> shingles = items.stream()
+                .map(item -> shingle(item.getLine()))
+                .collect(toImmutableList());
+
+        Map<BandKey, List<Integer>> buckets = new HashMap<>();
+        for (int index = 0; index < items.size(); index++) {
+            int[] signature = signature(shingles.get(index));
+            for (int band = 0; band < BANDS; band++) {
+                buckets.computeIfAbsent(new BandKey(items.get(index).getSection(), band, signature), key -> new ArrayList<>(1)).add(index);
+            }
+        }
+
+        int[] parents = new int[items.size()];
+        for (int index = 0; index < parents.length; index++) {
+            parents[index] = index;
+        }
+        Set<Long> comparedPairs = new HashSet<>();
+        for (List<Integer> bucket : buckets.values()) {
+            for (int i = 1; i < bucket.size(); i++) {
+                for (int j = 0; j < i; j++) {
+                    int left = bucket.get(j);
+                    int right = bucket.get(i);
+                    // notes already grouped, e.g. identical notes sharing every band, and pairs sharing several bands are compared once
+                    if (find(parents, left) != find(parents, right) &&
+                            comparedPairs.add(((long) left << 32) | right) &&
+                            jaccard(shingles.get(left), shingles.get(right)) >= similarity) {
+                        parents[find(parents, right)] = find(parents, left);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, List<ReleaseNoteItem>> groups = new HashMap<>();
+        List<Integer> roots = new ArrayList<>();
+        for (int index = 0; index < items.size(); index++) {
+            int root = find(parents, index);
+            if (!groups.containsKey(root)) {
+                roots.add(root);
+            }
+            groups.computeIfAbsent(root, key -> new ArrayList<>()).add(items.get(index));
+        }
+        return roots.stream()
+                .map(groups::get)
+                .filter(group -> group.size() > 1)
+                .map(ImmutableList::copyOf)
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Hashes of the {@link #SHINGLE_LENGTH} character substrings of the lower cased words of {@code line}.
+     */
+    static Set<Integer> shingle(String line)
+    {
+        String normalized = String.join(" ", line.toLowerCase(ENGLISH).split("[^\\p{Alnum}]+")).trim();
+        Set<Integer> shingles = new HashSet<>();
+        for (int start = 0; start + SHINGLE_LENGTH <= normalized.length(); start++) {
+            shingles.add(normalized.substring(start, start + SHINGLE_LENGTH).hashCode());
+        }
+        if (shingles.isEmpty()) {
+            shingles.add(normalized.hashCode());
+        }
+        return shingles;
+    }
+
+    static double jaccard(Set<Integer> left, Set<Integer> right)
+    {
+        Set<Integer> smaller = left.size() <= right.size() ? left : right;
+        Set<Integer> larger = smaller == left ? right : left;
+        int intersection = 0;
+        for (Integer shingle : smaller) {
+            if (larger.contains(shingle)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (left.size() + right.size() - intersection);
+    }
+
+    private static int[] signature(Set<Integer> shingles)
+    {
+        int[] signature = new int[HASH_MULTIPLIERS.length];
+        for (int i = 0; i < signature.length; i++) {
+            int minimum = Integer.MAX_VALUE;
+            for (int shingle : shingles) {
+                minimum = Math.min(minimum, (int) ((shingle * HASH_MULTIPLIERS[i] + HASH_INCREMENTS[i]) >>> 32));
+            }
+            signature[i] = minimum;
+        }
+        return signature;
+    }
+
+    private static int find(int[] parents, int index)
+    {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private static final class BandKey
+    {
+        private final String section;
+        private final int band;
+        private final int[] rows;
+        private final int hashCode;
+
+        private BandKey(String section, int band, int[] signature)
+        {
+            this.section = section;
+            this.band = band;
+            this.rows = new int[ROWS];
+            System.arraycopy(signature, band * ROWS, rows, 0, ROWS);
+            int hash = 31 * section.hashCode() + band;
+            for (int row : rows) {
+                hash = 31 * hash + row;
+            }
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            BandKey that = (BandKey) obj;
+            return band == that.band &&
+                    section.equals(that.section) &&
+                    Arrays.equals(rows, that.rows);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+}
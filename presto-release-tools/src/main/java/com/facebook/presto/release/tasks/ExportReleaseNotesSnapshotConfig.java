@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.Optional;
+
+public class ExportReleaseNotesSnapshotConfig
+{
+    private Optional<String> version = Optional.empty();
+    private Optional<String> outputFile = Optional.empty();
+
+    @NotNull
+    public Optional<String> getVersion()
+    {
+        return version;
+    }
+
+    @Config("release-notes-snapshot.version")
+    public ExportReleaseNotesSnapshotConfig setVersion(String version)
+    {
+        this.version = Optional.ofNullable(version);
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getOutputFile()
+    {
+        return outputFile;
+    }
+
+    @Config("release-notes-snapshot.output-file")
+    @ConfigDescription("Snapshot file to write, defaults to release-notes-snapshot-<version>.json.gz in the working directory")
+    public ExportReleaseNotesSnapshotConfig setOutputFile(String outputFile)
+    {
+        this.outputFile = Optional.ofNullable(outputFile);
+        return this;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.ForPresto;
+import com.facebook.presto.release.git.Git;
+import com.facebook.presto.release.maven.MavenVersion;
+import com.facebook.presto.release.maven.PrestoVersion;
+
+import javax.inject.Inject;
+
+import java.io.File;
+import java.util.Optional;
+
+import static com.facebook.presto.release.maven.MavenVersionUtil.getVersionFromPom;
+import static com.facebook.presto.release.stats.ReleaseStats.startStage;
+import static com.facebook.presto.release.tasks.GenerateReleaseNotesTask.fetchSnapshot;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+public class ExportReleaseNotesSnapshotTask
+        implements ReleaseTask
+{
+    private static final Logger log = Logger.get(ExportReleaseNotesSnapshotTask.class);
+
+    private final Git git;
+    private final CommitFetchPlanner commitFetchPlanner;
+    private final ContributorResolver contributorResolver;
+    private final Optional<MavenVersion> version;
+    private final Optional<File> outputFile;
+
+    @Inject
+    public ExportReleaseNotesSnapshotTask(
+            @ForPresto Git git,
+            CommitFetchPlanner commitFetchPlanner,
+            ContributorResolver contributorResolver,
+            ExportReleaseNotesSnapshotConfig config)
+    {
+        this.git = requireNonNull(git, "git is null");
+        this.commitFetchPlanner = requireNonNull(commitFetchPlanner, "commitFetchPlanner is null");
+        this.contributorResolver = requireNonNull(contributorResolver, "contributorResolver is null");
+        this.version = config.getVersion().map(PrestoVersion::create);
+        this.outputFile = config.getOutputFile().map(File::new);
+    }
+
+    @Override
+    public void run()
+    {
+        // The local checkout is only read, so there is no need to sanitize it
+        startStage("fetch-upstream");
+        git.fetchUpstream(Optional.empty());
+        MavenVersion version = this.version.orElseGet(() -> PrestoVersion.create(getVersionFromPom(git.getRepository().getDirectory())).getLastMajorVersion());
+
+        startStage("fetch-commits");
+        ReleaseNotesSnapshot snapshot = fetchSnapshot(git, commitFetchPlanner, contributorResolver, version);
+        File file = outputFile.orElseGet(() -> new File(format("release-notes-snapshot-%s.json.gz", version.getVersion())));
+        startStage("write-snapshot");
+        snapshot.write(file);
+        log.info("Exported %s commits and %s pull requests to %s", snapshot.getCommitTable().getCommitCount(), snapshot.getCommitTable().getPullRequestCount(), file.getAbsolutePath());
+    }
+}
@@ -34,6 +34,34 @@ public class GenerateReleaseNotesCommand
     @ConfigProperty("release-notes.version")
     public String version;
 
+    @Option(name = "--sparse-worktree", description = "Generate release notes in a temporary sparse worktree, leaving the local checkout untouched.")
+    @ConfigProperty("release-notes.sparse-worktree")
+    public Boolean sparseWorktree;
+
+    @Option(name = "--from-snapshot", title = "Snapshot file", description = "Generate release notes locally from a snapshot created by export-release-notes, without network access.")
+    @ConfigProperty("release-notes.from-snapshot")
+    public String fromSnapshot;
+
+    @Option(name = "--mailmap", title = "file", description = "File of 'Display Name <login>' lines overriding the names of contributors in the credits.")
+    @ConfigProperty("release-notes.mailmap-file")
+    public String mailmapFile;
+
+    @Option(name = "--update", description = "Add the commits merged since the last run to the existing release notes branch and pull request, keeping manual edits.")
+    @ConfigProperty("release-notes.update")
+    public Boolean update;
+
+    @Option(name = "--docs-index-cache", title = "file", description = "File caching the documented properties linked from release notes, reused while the docs are unchanged.")
+    @ConfigProperty("release-notes.docs-index-cache-file")
+    public String docsIndexCacheFile;
+
+    @Option(name = "--author-index", title = "file", description = "File indexing the authors of the history, created on the first run, to call out first-time contributors in the credits.")
+    @ConfigProperty("release-notes.author-index-file")
+    public String authorIndexFile;
+
+    @Option(name = "--companion-repositories", title = "directories", description = "Comma separated checkouts of the repositories released with Presto, fetched and rendered concurrently into sections of the release notes.")
+    @ConfigProperty("release-notes.companion-repositories")
+    public String companionRepositories;
+
     @Inject
     public PrestoRepositoryOptions repositoryOptions = new PrestoRepositoryOptions();
 
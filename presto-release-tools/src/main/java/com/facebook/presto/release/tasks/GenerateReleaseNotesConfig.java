@@ -14,14 +14,25 @@
 package com.facebook.presto.release.tasks;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 
 import javax.validation.constraints.NotNull;
 
+import java.util.List;
 import java.util.Optional;
 
 public class GenerateReleaseNotesConfig
 {
     private Optional<String> version = Optional.empty();
+    private boolean sparseWorktree;
+    private Optional<String> fromSnapshot = Optional.empty();
+    private Optional<String> mailmapFile = Optional.empty();
+    private boolean update;
+    private Optional<String> docsIndexCacheFile = Optional.empty();
+    private Optional<String> authorIndexFile = Optional.empty();
+    private List<String> companionRepositories = ImmutableList.of();
 
     @NotNull
     public Optional<String> getVersion()
@@ -35,4 +46,100 @@ public class GenerateReleaseNotesConfig
         this.version = Optional.ofNullable(version);
         return this;
     }
+
+    public boolean isSparseWorktree()
+    {
+        return sparseWorktree;
+    }
+
+    @Config("release-notes.sparse-worktree")
+    @ConfigDescription("Generate release notes in a temporary sparse worktree of upstream master instead of the local checkout")
+    public GenerateReleaseNotesConfig setSparseWorktree(boolean sparseWorktree)
+    {
+        this.sparseWorktree = sparseWorktree;
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getFromSnapshot()
+    {
+        return fromSnapshot;
+    }
+
+    @Config("release-notes.from-snapshot")
+    @ConfigDescription("Generate release notes from a snapshot file without accessing Git remotes or Github")
+    public GenerateReleaseNotesConfig setFromSnapshot(String fromSnapshot)
+    {
+        this.fromSnapshot = Optional.ofNullable(fromSnapshot);
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getMailmapFile()
+    {
+        return mailmapFile;
+    }
+
+    @Config("release-notes.mailmap-file")
+    @ConfigDescription("File of 'Display Name <login>' lines overriding the names of contributors")
+    public GenerateReleaseNotesConfig setMailmapFile(String mailmapFile)
+    {
+        this.mailmapFile = Optional.ofNullable(mailmapFile);
+        return this;
+    }
+
+    public boolean isUpdate()
+    {
+        return update;
+    }
+
+    @Config("release-notes.update")
+    @ConfigDescription("Add the commits merged since the last run to the existing release notes branch and pull request")
+    public GenerateReleaseNotesConfig setUpdate(boolean update)
+    {
+        this.update = update;
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getDocsIndexCacheFile()
+    {
+        return docsIndexCacheFile;
+    }
+
+    @Config("release-notes.docs-index-cache-file")
+    @ConfigDescription("File caching the documented properties linked from release notes, reused while the docs are unchanged")
+    public GenerateReleaseNotesConfig setDocsIndexCacheFile(String docsIndexCacheFile)
+    {
+        this.docsIndexCacheFile = Optional.ofNullable(docsIndexCacheFile);
+        return this;
+    }
+
+    @NotNull
+    public Optional<String> getAuthorIndexFile()
+    {
+        return authorIndexFile;
+    }
+
+    @Config("release-notes.author-index-file")
+    @ConfigDescription("File indexing the authors of the history, to credit first-time contributors")
+    public GenerateReleaseNotesConfig setAuthorIndexFile(String authorIndexFile)
+    {
+        this.authorIndexFile = Optional.ofNullable(authorIndexFile);
+        return this;
+    }
+
+    @NotNull
+    public List<String> getCompanionRepositories()
+    {
+        return companionRepositories;
+    }
+
+    @Config("release-notes.companion-repositories")
+    @ConfigDescription("Comma separated directories of the repositories released with Presto, whose release notes get a section each")
+    public GenerateReleaseNotesConfig setCompanionRepositories(String companionRepositories)
+    {
+        this.companionRepositories = companionRepositories == null ? ImmutableList.of() : Splitter.on(',').trimResults().omitEmptyStrings().splitToList(companionRepositories);
+        return this;
+    }
 }
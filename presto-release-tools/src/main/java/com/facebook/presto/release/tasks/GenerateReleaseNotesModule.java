@@ -26,6 +26,8 @@ public class GenerateReleaseNotesModule
     public void configure(Binder binder)
     {
         configBinder(binder).bindConfig(GenerateReleaseNotesConfig.class);
+        binder.bind(CommitFetchPlanner.class).in(SINGLETON);
+        binder.bind(ContributorResolver.class).in(SINGLETON);
         binder.bind(GenerateReleaseNotesTask.class).in(SINGLETON);
     }
 }
@@ -15,30 +15,44 @@ package com.facebook.presto.release.tasks;
 
 import com.facebook.airlift.log.Logger;
 import com.facebook.presto.release.ForPresto;
-import com.facebook.presto.release.git.Commit;
 import com.facebook.presto.release.git.Git;
+import com.facebook.presto.release.git.GitCommands;
+import com.facebook.presto.release.git.GitConfig;
 import com.facebook.presto.release.git.GitRepository;
+import com.facebook.presto.release.git.GitRepositoryConfig;
 import com.facebook.presto.release.git.GithubAction;
+import com.facebook.presto.release.git.LocalCommit;
 import com.facebook.presto.release.git.PullRequest;
 import com.facebook.presto.release.maven.MavenVersion;
 import com.facebook.presto.release.maven.PrestoVersion;
+import com.facebook.presto.release.stats.TraceSpan;
+import com.facebook.presto.release.tasks.ChangeStatistics.Counts;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import javax.inject.Inject;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +60,10 @@ import java.util.Optional;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
@@ -53,25 +71,39 @@ import java.util.stream.IntStream;
 import static com.facebook.presto.release.ReleaseUtil.sanitizeRepository;
 import static com.facebook.presto.release.git.Git.RemoteType.ORIGIN;
 import static com.facebook.presto.release.maven.MavenVersionUtil.getVersionFromPom;
+import static com.facebook.presto.release.stats.ReleaseStats.endStage;
+import static com.facebook.presto.release.stats.ReleaseStats.startStage;
+import static com.facebook.presto.release.stats.ReleaseTrace.startSpan;
+import static com.facebook.presto.release.tasks.ContributorResolver.readNameOverrides;
 import static com.facebook.presto.release.tasks.GenerateReleaseNotesTask.ExtractionStatus.EXPECT_DASHES_OR_RELEASE_NOTE;
 import static com.facebook.presto.release.tasks.GenerateReleaseNotesTask.ExtractionStatus.EXPECT_LINE;
 import static com.facebook.presto.release.tasks.GenerateReleaseNotesTask.ExtractionStatus.EXPECT_SECTION_HEADER;
+import static com.facebook.presto.release.tasks.SectionSuggester.CHANGED_FILES_FORMAT;
 import static com.google.common.base.Functions.identity;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableListMultimap.toImmutableListMultimap;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.io.FileWriteMode.APPEND;
 import static com.google.common.io.Files.asCharSink;
 import static com.google.common.io.Files.asCharSource;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
 import static java.lang.Character.toUpperCase;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
 import static java.util.Collections.nCopies;
 import static java.util.Collections.sort;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.regex.Pattern.DOTALL;
+import static java.util.regex.Pattern.MULTILINE;
 import static java.util.stream.Collectors.joining;
 
 public class GenerateReleaseNotesTask
@@ -81,6 +113,8 @@ public class GenerateReleaseNotesTask
 
     public static final String RELEASE_NOTES_FILE = "presto-docs/src/main/sphinx/release/release-%s.rst";
     public static final String RELEASE_NOTES_LIST_FILE = "presto-docs/src/main/sphinx/release.rst";
+    private static final String DOCS_DIRECTORY = "presto-docs";
+    private static final String GITHUB_DIRECTORY = ".github";
 
     private static final Pattern IGNORED_COMMITS_PATTERN = Pattern.compile("\\[maven-release-plugin]|add release note(s)? for|prepare for next development iteration", CASE_INSENSITIVE);
     protected static final Pattern NO_RELEASE_NOTE_PATTERN = Pattern.compile("```[^\\n]*\\s*== no release note(s)? ==\\s*```", CASE_INSENSITIVE | DOTALL);
@@ -102,89 +136,167 @@ public class GenerateReleaseNotesTask
             .collect(toImmutableList());
     private static final Pattern DASHES = Pattern.compile("-+$");
     private static final String RELEASE_NOTES_FOOTER = "\n\n## Release Notes\n```\n== NO RELEASE NOTE ==\n```";
+    private static final int PULL_REQUEST_BODY_LIMIT = 65000; // Github allows 65536 characters, leave some buffer
+    private static final String LAST_COMMIT_TRAILER = "Release-Notes-Last-Commit";
+    private static final Pattern LAST_COMMIT_PATTERN = Pattern.compile("^" + LAST_COMMIT_TRAILER + ": ([0-9a-f]{40})$", MULTILINE);
+    private static final Pattern SECTION_UNDERLINE = Pattern.compile("_+");
+    private static final Pattern CREDITS_UNDERLINE = Pattern.compile("=+");
+    private static final Pattern PULL_REQUEST_LINK = Pattern.compile("`#\\d+ <([^>]+)>`");
+    private static final String CREDITS_HEADER = "**Credits**";
+    private static final String FIRST_TIME_CONTRIBUTORS = "First-time contributors: ";
 
     private final Git git;
     private final GitRepository repository;
     private final GithubAction githubAction;
+    private final CommitFetchPlanner commitFetchPlanner;
+    private final ContributorResolver contributorResolver;
     private final Optional<MavenVersion> version;
+    private final boolean sparseWorktree;
+    private final Optional<File> fromSnapshot;
+    private final Optional<File> mailmapFile;
+    private final boolean update;
+    private final Optional<File> docsIndexCacheFile;
+    private final Optional<File> authorIndexFile;
+    private final List<Git> companions;
 
     @Inject
     public GenerateReleaseNotesTask(
             @ForPresto Git git,
             GithubAction githubAction,
+            CommitFetchPlanner commitFetchPlanner,
+            ContributorResolver contributorResolver,
+            GitConfig gitConfig,
             GenerateReleaseNotesConfig config)
+    {
+        this(
+                git,
+                githubAction,
+                commitFetchPlanner,
+                contributorResolver,
+                config,
+                config.getCompanionRepositories().stream()
+                        .map(directory -> createCompanion(git.getRepository(), directory, gitConfig))
+                        .collect(toImmutableList()));
+    }
+
+    @VisibleForTesting
+    GenerateReleaseNotesTask(
+            Git git,
+            GithubAction githubAction,
+            CommitFetchPlanner commitFetchPlanner,
+            ContributorResolver contributorResolver,
+            GenerateReleaseNotesConfig config,
+            List<Git> companions)
     {
         this.git = requireNonNull(git, "git is null");
         this.repository = requireNonNull(git.getRepository(), "repository is null");
         this.githubAction = requireNonNull(githubAction, "githubAction is null");
+        this.commitFetchPlanner = requireNonNull(commitFetchPlanner, "commitFetchPlanner is null");
+        this.contributorResolver = requireNonNull(contributorResolver, "contributorResolver is null");
         this.version = config.getVersion().map(PrestoVersion::create);
+        this.sparseWorktree = config.isSparseWorktree();
+        this.fromSnapshot = config.getFromSnapshot().map(File::new);
+        this.mailmapFile = config.getMailmapFile().map(File::new);
+        this.update = config.isUpdate();
+        this.docsIndexCacheFile = config.getDocsIndexCacheFile().map(File::new);
+        this.authorIndexFile = config.getAuthorIndexFile().map(File::new);
+        this.companions = ImmutableList.copyOf(requireNonNull(companions, "companions is null"));
+        checkArgument(!(sparseWorktree && fromSnapshot.isPresent()), "Sparse worktree cannot be used when generating release notes from a snapshot");
+        checkArgument(!(update && fromSnapshot.isPresent()), "Release notes cannot be updated from a snapshot");
+        checkArgument(companions.isEmpty() || !(update || fromSnapshot.isPresent()), "Companion repositories are only supported when generating new release notes");
+    }
+
+    /**
+     * A repository released with Presto, checked out at {@code directory} with the same remote names as Presto.
+     */
+    private static Git createCompanion(GitRepository repository, String directory, GitConfig gitConfig)
+    {
+        GitRepositoryConfig repositoryConfig = new GitRepositoryConfig()
+                .setDirectory(directory)
+                .setCheckDirectoryName(false)
+                .setUpstreamName(repository.getUpstreamName())
+                .setOriginName(repository.getOriginName());
+        return new GitCommands(GitRepository.create(new File(directory).getName(), repositoryConfig, gitConfig), gitConfig);
     }
 
     @Override
     public void run()
     {
-        sanitizeRepository(git);
-        MavenVersion version = this.version.orElseGet(() -> PrestoVersion.create(getVersionFromPom(repository.getDirectory())).getLastMajorVersion());
-
-        String upstreamName = repository.getUpstreamName();
-        String upstreamUrl = git.remoteUrl(upstreamName);
-        String upstreamRepo = GitRepository.getRepositoryFromUrl(upstreamUrl);
-        log.info("upstream url: %s, repo: %s", upstreamUrl, upstreamRepo);
-
-        log.info("Release version: %s, Last Version: %s", version.getVersion(), version.getLastMajorVersion().getVersion());
-        List<String> commitIds = Splitter.on("\n")
-                .trimResults()
-                .omitEmptyStrings()
-                .splitToList(git.log(
-                        format(
-                                "%s/release-%s..%s/release-%s",
-                                upstreamName,
-                                version.getLastMajorVersion().getVersion(),
-                                upstreamName,
-                                version.getVersion()),
-                        "--format=%H",
-                        "--date-order"));
-
-        log.info("Fetching Github commits");
-        List<Commit> commits = githubAction.listCommits(upstreamRepo, "release-" + version.getVersion(), commitIds.get(commitIds.size() - 1));
-
-        log.info("Fetched %s commits", commits.size());
-        commits = commits.stream()
-                .filter(commit -> !IGNORED_COMMITS_PATTERN.matcher(commit.getTitle()).find())
-                .collect(toImmutableList());
-
-        log.info("Processing %s commits", commits.size());
-        List<PullRequest> pullRequests = commits.stream()
-                .flatMap(commit -> commit.getAssociatedPullRequests().stream())
-                .distinct()
-                .collect(toImmutableList());
-        Map<PullRequest, Optional<List<ReleaseNoteItem>>> releaseNoteItems = pullRequests.stream()
-                .collect(toImmutableMap(identity(), GenerateReleaseNotesTask::extractReleaseNotes));
+        if (fromSnapshot.isPresent()) {
+            generateFromSnapshot(fromSnapshot.get());
+            return;
+        }
+        if (!sparseWorktree) {
+            startStage("preflight");
+            sanitizeRepository(git);
+            generate(git);
+            return;
+        }
 
-        log.info("Collecting author information");
-        Map<String, String> userByLogin = new HashMap<>();
-        for (Commit commit : commits) {
-            for (PullRequest pullRequest : commit.getAssociatedPullRequests()) {
-                userByLogin.putIfAbsent(pullRequest.getAuthorLogin(), commit.getAuthor());
+        // Only presto-docs is touched, so work in a sparse worktree of upstream master and leave the user's checkout alone
+        startStage("prepare-worktree");
+        git.fetchUpstream(Optional.empty());
+        Path worktreeParent;
+        try {
+            worktreeParent = createTempDirectory("presto-release-notes");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        File worktreeDirectory = worktreeParent.resolve(repository.getDirectory().getName()).toFile();
+        git.addWorktree(worktreeDirectory, format("%s/master", repository.getUpstreamName()));
+        try {
+            Git worktreeGit = git.forWorktree(worktreeDirectory);
+            // The root directory is always checked out, .github is needed for its CODEOWNERS
+            worktreeGit.sparseCheckout(ImmutableList.of(DOCS_DIRECTORY, GITHUB_DIRECTORY));
+            generate(worktreeGit);
+        }
+        finally {
+            git.removeWorktree(worktreeDirectory);
+            try {
+                deleteRecursively(worktreeParent, ALLOW_INSECURE);
+            }
+            catch (IOException e) {
+                log.warn(e, "Failed to delete worktree directory: %s", worktreeParent);
             }
         }
+    }
 
-        log.info("Collecting committer information");
-        for (PullRequest pullRequest : pullRequests) {
-            if (pullRequest.getMergedBy().isPresent()) {
-                String login = pullRequest.getMergedBy().get().getLogin();
-                userByLogin.putIfAbsent(login, pullRequest.getMergedBy().get().getName().orElse(login));
+    private void generate(Git targetGit)
+    {
+        MavenVersion version = this.version.orElseGet(() -> PrestoVersion.create(getVersionFromPom(targetGit.getRepository().getDirectory())).getLastMajorVersion());
+        if (update) {
+            update(targetGit, version);
+            return;
+        }
+        startStage("fetch-commits");
+        ExecutorService executor = newFixedThreadPool(Math.max(companions.size(), 1), new ThreadFactoryBuilder().setNameFormat("release-notes-companion-%s").setDaemon(true).build());
+        ReleaseNotesSnapshot snapshot;
+        RenderedReleaseNotes rendered;
+        String head;
+        try {
+            // Companion repositories are fetched and rendered while Presto is, sharing the Github client and caches
+            List<Future<RenderedReleaseNotes>> companionReleaseNotes = companions.stream()
+                    .map(companion -> executor.submit(() -> renderCompanion(companion, version)))
+                    .collect(toImmutableList());
+            head = resolveCommit(git, getReleaseBranch(git, version));
+            String since = getReleaseBranch(git, version.getLastMajorVersion());
+            snapshot = fetchSnapshot(git, commitFetchPlanner, contributorResolver, version, since, head);
+            startStage("list-changed-files");
+            ChangedFiles changedFiles = logChangedFiles(git, since, head);
+            Set<String> firstTimeCommits = findFirstTimeContributorCommits(git, since, since, head);
+            PropertyLinker propertyLinker = readPropertyLinks(targetGit);
+            startStage("render");
+            rendered = render(snapshot, changedFiles, readKnownSections(targetGit), CodeOwners.read(targetGit.getRepository().getDirectory()), propertyLinker, firstTimeCommits, Optional.empty());
+            if (!companionReleaseNotes.isEmpty()) {
+                startStage("merge-companion-release-notes");
+                rendered = mergeCompanions(rendered, companionReleaseNotes.stream().map(future -> getUnchecked(future)).collect(toImmutableList()));
             }
         }
-        userByLogin = ImmutableMap.copyOf(userByLogin);
-
-        log.info("Generating release notes");
-        String releaseNotes = generateReleaseNotes(version, releaseNoteItems, userByLogin.values());
-        String releaseNotesSummary = format(
-                "%s\n%s\n%s",
-                generateMissingReleaseNotes(releaseNoteItems, commits, userByLogin),
-                generateExtractedReleaseNotes(releaseNoteItems, userByLogin),
-                generateCommits(commits));
+        finally {
+            executor.shutdownNow();
+        }
+        String releaseNotesSummary = rendered.getSummary();
 
         log.info("Generating release notes pull request");
         String releaseNotesBranch = "release-notes-" + version.getVersion();
@@ -195,9 +307,8 @@ public class GenerateReleaseNotesTask
         // Check if body exceeds GitHub's limit and handle accordingly
         String prBody;
         boolean summaryFileCreated = false;
-        final int githubPrBodyLimit = 65000; // Use 65000 to leave some buffer
 
-        if (fullSummary.length() > githubPrBodyLimit) {
+        if (fullSummary.length() > PULL_REQUEST_BODY_LIMIT) {
             log.info("PR body exceeds GitHub limit (%d chars), creating summary file", fullSummary.length());
             summaryFileCreated = true;
 
@@ -211,7 +322,7 @@ public class GenerateReleaseNotesTask
                     version.getVersion(),
                     version.getVersion());
 
-            int availableSpace = Math.max(0, githubPrBodyLimit - truncationMessage.length() - RELEASE_NOTES_FOOTER.length() - 100);
+            int availableSpace = Math.max(0, PULL_REQUEST_BODY_LIMIT - truncationMessage.length() - RELEASE_NOTES_FOOTER.length() - 100);
             String truncatedSummary = releaseNotesSummary.substring(0, Math.min(availableSpace, releaseNotesSummary.length()));
             prBody = truncatedSummary + RELEASE_NOTES_FOOTER + truncationMessage;
         }
@@ -219,9 +330,12 @@ public class GenerateReleaseNotesTask
             prBody = fullSummary;
         }
 
-        createReleaseNotesCommit(version.getVersion(), releaseNotesBranch, releaseNotes, summaryFileCreated ? Optional.of(fullSummary) : Optional.empty());
-        git.push(ORIGIN, releaseNotesBranch, false);
+        startStage("commit-and-push");
+        createReleaseNotesCommit(targetGit, version.getVersion(), releaseNotesBranch, rendered.getReleaseNotes(), summaryFileCreated ? Optional.of(fullSummary) : Optional.empty(), head);
+        targetGit.push(ORIGIN, releaseNotesBranch, false);
 
+        startStage("create-pull-request");
+        String upstreamRepo = snapshot.getRepository();
         String originName = repository.getOriginName();
         String originUrl = git.remoteUrl(originName);
         String originRepo = GitRepository.getRepositoryFromUrl(originUrl);
@@ -236,6 +350,386 @@ public class GenerateReleaseNotesTask
         log.info("Release notes pull request created: %s", releaseNotesPullRequest.getUrl());
     }
 
+    /**
+     * Add the release notes of the commits merged since the last run to the existing release notes branch, leaving the
+     * lines already there untouched, and append their summary to the description of the pull request. Only the new
+     * commits are fetched from Github, so the cost of an update is proportional to the commits it adds.
+     */
+    private void update(Git targetGit, MavenVersion version)
+    {
+        String releaseNotesBranch = "release-notes-" + version.getVersion();
+        String originBranch = format("%s/%s", repository.getOriginName(), releaseNotesBranch);
+
+        startStage("fetch-commits");
+        targetGit.fetchOrigin(releaseNotesBranch);
+        String lastCommit = getLastCommit(targetGit, originBranch);
+        String head = resolveCommit(git, getReleaseBranch(git, version));
+        if (head.equals(lastCommit)) {
+            log.info("Release notes on %s are up to date with %s", originBranch, head);
+            return;
+        }
+        String upstreamRepo = GitRepository.getRepositoryFromUrl(git.remoteUrl(repository.getUpstreamName()));
+        PullRequest pullRequest = githubAction.getOpenPullRequest(upstreamRepo, releaseNotesBranch)
+                .orElseThrow(() -> new IllegalStateException(format("No open pull request for %s, generate the release notes without --update", releaseNotesBranch)));
+        ReleaseNotesSnapshot snapshot = fetchSnapshot(git, commitFetchPlanner, contributorResolver, version, lastCommit, head);
+        startStage("list-changed-files");
+        ChangedFiles changedFiles = logChangedFiles(git, lastCommit, head);
+        Set<String> firstTimeCommits = findFirstTimeContributorCommits(git, getReleaseBranch(git, version.getLastMajorVersion()), lastCommit, head);
+
+        PropertyLinker propertyLinker = readPropertyLinks(targetGit);
+        startStage("render");
+        RenderedReleaseNotes rendered = render(snapshot, changedFiles, readKnownSections(targetGit), CodeOwners.read(targetGit.getRepository().getDirectory()), propertyLinker, firstTimeCommits, Optional.empty());
+        String range = format("%s..%s", lastCommit.substring(0, 10), head.substring(0, 10));
+        String summaryFileName = format("release-notes-missing-%s.md", version.getVersion());
+        String update = format("\n\n# Update %s\n%s", range, rendered.getSummary());
+        String description = pullRequest.getDescription();
+        int footer = description.lastIndexOf(RELEASE_NOTES_FOOTER);
+        Optional<String> summaryFileUpdate = Optional.empty();
+        if (description.length() + update.length() > PULL_REQUEST_BODY_LIMIT) {
+            log.info("Update of the PR body exceeds GitHub limit (%d chars), adding it to the summary file", description.length() + update.length());
+            summaryFileUpdate = Optional.of(update);
+            update = format("\n\n# Update %s\nThe summary of the new commits has been added to `%s` in this pull request.", range, summaryFileName);
+        }
+        String body = footer < 0 ? description + update : description.substring(0, footer) + update + description.substring(footer);
+
+        startStage("commit-and-push");
+        targetGit.checkoutBranch(releaseNotesBranch, originBranch);
+        File directory = targetGit.getRepository().getDirectory();
+        try {
+            File releaseNotesFile = Paths.get(directory.getAbsolutePath(), format(RELEASE_NOTES_FILE, version.getVersion())).toFile();
+            asCharSink(releaseNotesFile, UTF_8).write(mergeReleaseNotes(asCharSource(releaseNotesFile, UTF_8).read(), rendered.getReleaseNotes()));
+            if (summaryFileUpdate.isPresent()) {
+                asCharSink(new File(directory, summaryFileName), UTF_8, APPEND).write(summaryFileUpdate.get());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        targetGit.add(".");
+        // The trailer is recorded even when no release note was added, so the next update starts after these commits
+        targetGit.commit(format("Update release notes for %s\n\n%s: %s", version.getVersion(), LAST_COMMIT_TRAILER, head), true);
+        targetGit.push(ORIGIN, releaseNotesBranch, false);
+
+        startStage("update-pull-request");
+        PullRequest updated = githubAction.updatePullRequest(upstreamRepo, pullRequest.getId(), body);
+        log.info("Release notes pull request updated with %s commits: %s", snapshot.getCommitTable().getCommitCount(), updated.getUrl());
+    }
+
+    private static String getLastCommit(Git git, String branch)
+    {
+        String message = git.log(branch, "-1", "--format=%B", format("--grep=^%s: ", LAST_COMMIT_TRAILER));
+        Matcher matcher = LAST_COMMIT_PATTERN.matcher(message);
+        if (!matcher.find()) {
+            throw new IllegalStateException(format("No commit on %s records the last commit of the release notes, generate them again without --update", branch));
+        }
+        return matcher.group(1);
+    }
+
+    private static String getReleaseBranch(Git git, MavenVersion version)
+    {
+        return format("%s/release-%s", git.getRepository().getUpstreamName(), version.getVersion());
+    }
+
+    /**
+     * Files changed by each commit reachable from {@code until} but not from {@code since}, with their insertions and
+     * deletions, listed by a single {@code git log} over the whole range and collected as git writes them.
+     */
+    private static ChangedFiles logChangedFiles(Git git, String since, String until)
+    {
+        ChangedFiles.Collector changedFiles = new ChangedFiles.Collector();
+        git.log(format("%s..%s", since, until), changedFiles, "--numstat", "--no-renames", CHANGED_FILES_FORMAT);
+        return changedFiles.build();
+    }
+
+    private static Set<String> readKnownSections(Git git)
+    {
+        File releaseNotesDirectory = Paths.get(git.getRepository().getDirectory().getAbsolutePath(), RELEASE_NOTES_FILE).toFile().getParentFile();
+        return SectionSuggester.readKnownSections(releaseNotesDirectory);
+    }
+
+    /**
+     * Commits between {@code since} and {@code until} whose author has no commit before the start of the release,
+     * {@code base}, according to the author index, which is extended up to {@code base}.
+     */
+    private Set<String> findFirstTimeContributorCommits(Git git, String base, String since, String until)
+    {
+        if (!authorIndexFile.isPresent()) {
+            return ImmutableSet.of();
+        }
+        startStage("index-authors");
+        AuthorIndex index = AuthorIndex.read(authorIndexFile.get()).orElseGet(AuthorIndex::empty);
+        index.extend(git, resolveCommit(git, base));
+        index.write(authorIndexFile.get());
+
+        ImmutableSet.Builder<String> commits = ImmutableSet.builder();
+        for (String line : Splitter.on('\n').omitEmptyStrings().split(git.log(format("%s..%s", since, until), "--format=%H%x00%ae"))) {
+            List<String> fields = Splitter.on('\0').limit(2).splitToList(line);
+            if (fields.size() == 2 && !index.contains(fields.get(1))) {
+                commits.add(fields.get(0));
+            }
+        }
+        return commits.build();
+    }
+
+    /**
+     * Render the release notes of a companion repository of the release, whose branches are named as Presto's, with all
+     * its items in a section named after the repository.
+     */
+    private RenderedReleaseNotes renderCompanion(Git companion, MavenVersion version)
+    {
+        File directory = companion.getRepository().getDirectory();
+        // Timed as a stage of the companion thread, while the main thread goes through its own stages
+        startStage("render-companion");
+        try (TraceSpan ignored = startSpan("companion", directory.getName())) {
+            companion.fetchUpstream(Optional.empty());
+            String head = resolveCommit(companion, getReleaseBranch(companion, version));
+            String since = getReleaseBranch(companion, version.getLastMajorVersion());
+            ReleaseNotesSnapshot snapshot = fetchSnapshot(companion, commitFetchPlanner, contributorResolver, version, since, head);
+            String repository = snapshot.getRepository();
+            String section = repository.substring(repository.indexOf('/') + 1).replace('-', ' ');
+            RenderedReleaseNotes rendered = render(
+                    snapshot,
+                    logChangedFiles(companion, since, head),
+                    ImmutableSet.of(),
+                    CodeOwners.read(directory),
+                    new PropertyLinker(ImmutableMap.of()),
+                    ImmutableSet.of(),
+                    Optional.of(section));
+            return new RenderedReleaseNotes(rendered.getReleaseNotes(), format("# %s\n%s", repository, rendered.getSummary()));
+        }
+        finally {
+            endStage();
+        }
+    }
+
+    /**
+     * Add the sections and credits of the companion repositories to the Presto release notes, and their summaries after
+     * the Presto summary.
+     */
+    private static RenderedReleaseNotes mergeCompanions(RenderedReleaseNotes rendered, List<RenderedReleaseNotes> companions)
+    {
+        String releaseNotes = rendered.getReleaseNotes();
+        StringBuilder summary = new StringBuilder(rendered.getSummary());
+        for (RenderedReleaseNotes companion : companions) {
+            releaseNotes = mergeReleaseNotes(releaseNotes, companion.getReleaseNotes());
+            summary.append("\n\n").append(companion.getSummary());
+        }
+        return new RenderedReleaseNotes(releaseNotes, summary.toString());
+    }
+
+    private PropertyLinker readPropertyLinks(Git git)
+    {
+        startStage("index-documented-properties");
+        return new PropertyLinker(DocumentedProperties.read(git, docsIndexCacheFile));
+    }
+
+    private static String resolveCommit(Git git, String ref)
+    {
+        return git.log(ref, "-1", "--format=%H").trim();
+    }
+
+    private void generateFromSnapshot(File snapshotFile)
+    {
+        log.info("Loading release notes snapshot: %s", snapshotFile);
+        startStage("load-snapshot");
+        ReleaseNotesSnapshot snapshot = ReleaseNotesSnapshot.read(snapshotFile);
+        version.ifPresent(specified -> checkArgument(
+                specified.getVersion().equals(snapshot.getVersion()),
+                "Specified release version (%s) mismatches snapshot version (%s)",
+                specified.getVersion(),
+                snapshot.getVersion()));
+        PropertyLinker propertyLinker = readPropertyLinks(git);
+        startStage("render");
+        RenderedReleaseNotes rendered = render(snapshot, ChangedFiles.parse(""), ImmutableSet.of(), Optional.empty(), propertyLinker, ImmutableSet.of(), Optional.empty());
+
+        startStage("write-release-notes");
+        writeReleaseNotes(repository.getDirectory(), snapshot.getVersion(), rendered.getReleaseNotes());
+        File summaryFile = new File(snapshotFile.getAbsoluteFile().getParentFile(), format("release-notes-summary-%s.md", snapshot.getVersion()));
+        try {
+            asCharSink(summaryFile, UTF_8).write(rendered.getSummary());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Release notes written to %s, summary written to %s", repository.getDirectory(), summaryFile);
+    }
+
+    /**
+     * Fetch the commits and pull requests of a release, and the names of their contributors, from Github. The upstream
+     * remote must already be fetched.
+     */
+    public static ReleaseNotesSnapshot fetchSnapshot(Git git, CommitFetchPlanner commitFetchPlanner, ContributorResolver contributorResolver, MavenVersion version)
+    {
+        return fetchSnapshot(git, commitFetchPlanner, contributorResolver, version, getReleaseBranch(git, version.getLastMajorVersion()), getReleaseBranch(git, version));
+    }
+
+    /**
+     * Fetch the commits of the release reachable from {@code until} but not from {@code since}.
+     */
+    private static ReleaseNotesSnapshot fetchSnapshot(Git git, CommitFetchPlanner commitFetchPlanner, ContributorResolver contributorResolver, MavenVersion version, String since, String until)
+    {
+        String upstreamName = git.getRepository().getUpstreamName();
+        String upstreamUrl = git.remoteUrl(upstreamName);
+        String upstreamRepo = GitRepository.getRepositoryFromUrl(upstreamUrl);
+        log.info("upstream url: %s, repo: %s", upstreamUrl, upstreamRepo);
+
+        log.info("Release version: %s, Last Version: %s", version.getVersion(), version.getLastMajorVersion().getVersion());
+        List<LocalCommit> localCommits = LocalCommit.parseLog(git.log(format("%s..%s", since, until), LocalCommit.LOG_FORMAT, "--date-order"));
+        Set<String> shallowCommits = git.getShallowCommits();
+        for (LocalCommit commit : localCommits) {
+            checkState(
+                    !shallowCommits.contains(commit.getId()),
+                    "Release range %s..%s reaches past the history of the shallow clone at commit %s, increase the clone depth or fetch the missing history",
+                    since,
+                    until,
+                    commit.getId());
+        }
+
+        log.info("Fetching Github commits");
+        ReleaseNotesSnapshot snapshot = commitFetchPlanner.fetchSnapshot(version.getVersion(), upstreamRepo, "release-" + version.getVersion(), localCommits);
+        log.info("Fetched %s commits", snapshot.getCommitTable().getCommitCount());
+        return snapshot.withContributors(contributorResolver.resolve(snapshot.getContributorLogins()));
+    }
+
+    private RenderedReleaseNotes render(
+            ReleaseNotesSnapshot snapshot,
+            ChangedFiles changes,
+            Set<String> knownSections,
+            Optional<CodeOwners> codeOwners,
+            PropertyLinker propertyLinker,
+            Set<String> firstTimeCommits,
+            Optional<String> repositorySection)
+    {
+        MavenVersion version = PrestoVersion.create(snapshot.getVersion());
+        // The commits are rows of the table, and only the pull requests of the rendered commits are built, once each
+        CommitTable table = snapshot.getCommitTable();
+        int[] commits = IntStream.range(0, table.getCommitCount())
+                .filter(commit -> !IGNORED_COMMITS_PATTERN.matcher(table.getCommitTitle(commit)).find())
+                .toArray();
+        PullRequest[] pullRequestsByIndex = new PullRequest[table.getPullRequestCount()];
+
+        log.info("Processing %s commits", commits.length);
+        ImmutableList.Builder<PullRequest> pullRequestsBuilder = ImmutableList.builder();
+        for (int pullRequest : Arrays.stream(commits).flatMap(table::getPullRequests).distinct().toArray()) {
+            pullRequestsByIndex[pullRequest] = table.getPullRequest(pullRequest);
+            pullRequestsBuilder.add(pullRequestsByIndex[pullRequest]);
+        }
+        List<PullRequest> pullRequests = pullRequestsBuilder.build();
+        Map<PullRequest, Optional<List<ReleaseNoteItem>>> releaseNoteItems;
+        try (TraceSpan ignored = startSpan("render", "extract-release-notes")) {
+            releaseNoteItems = pullRequests.stream()
+                    .collect(toImmutableMap(identity(), pullRequest -> extractReleaseNotes(pullRequest)
+                            .map(items -> repositorySection.isPresent() ? withSection(items, repositorySection.get()) : items)));
+        }
+
+        Map<String, String> userByLogin = new HashMap<>();
+        try (TraceSpan ignored = startSpan("render", "collect-authors")) {
+            // Overridden names take precedence over the Github names, which take precedence over the commit authors
+            Map<String, String> knownNames = new HashMap<>(snapshot.getContributors());
+            mailmapFile.ifPresent(file -> knownNames.putAll(readNameOverrides(file)));
+
+            log.info("Collecting author information");
+            for (int commit : commits) {
+                String author = table.getCommitAuthor(commit);
+                for (int pullRequest : table.getPullRequests(commit).toArray()) {
+                    String login = table.getPullRequestAuthorLogin(pullRequest);
+                    userByLogin.putIfAbsent(login, knownNames.getOrDefault(login, author));
+                }
+            }
+
+            log.info("Collecting committer information");
+            for (PullRequest pullRequest : pullRequests) {
+                if (pullRequest.getMergedBy().isPresent()) {
+                    String login = pullRequest.getMergedBy().get().getLogin();
+                    userByLogin.putIfAbsent(login, knownNames.getOrDefault(login, pullRequest.getMergedBy().get().getName().orElse(login)));
+                }
+            }
+            userByLogin = ImmutableMap.copyOf(userByLogin);
+        }
+
+        Set<String> firstTimeContributors = new TreeSet<>();
+        for (int commit : commits) {
+            if (firstTimeCommits.contains(table.getCommitId(commit))) {
+                if (!table.hasPullRequests(commit)) {
+                    firstTimeContributors.add(table.getCommitAuthor(commit));
+                }
+                for (int pullRequest : table.getPullRequests(commit).toArray()) {
+                    firstTimeContributors.add(userByLogin.get(table.getPullRequestAuthorLogin(pullRequest)));
+                }
+            }
+        }
+
+        Map<String, List<String>> changedFiles = changes.getFilesByCommit();
+        Map<PullRequest, List<String>> changedFilesByPullRequest = new HashMap<>();
+        for (int commit : commits) {
+            List<String> files = changedFiles.getOrDefault(table.getCommitId(commit), ImmutableList.of());
+            table.getPullRequests(commit).forEach(pullRequest -> changedFilesByPullRequest.computeIfAbsent(pullRequestsByIndex[pullRequest], key -> new ArrayList<>())
+                    .addAll(files));
+        }
+        Map<PullRequest, String> suggestedSections = new HashMap<>();
+        SectionSuggester suggester;
+        try (TraceSpan ignored = startSpan("render", "suggest-sections")) {
+            suggester = SectionSuggester.create(
+                    changedFiles.values().stream().flatMap(List::stream).collect(toImmutableSet()),
+                    knownSections);
+            releaseNoteItems.forEach((pullRequest, items) -> {
+                if (!items.isPresent() && !repositorySection.isPresent()) {
+                    suggester.suggest(changedFilesByPullRequest.getOrDefault(pullRequest, ImmutableList.of()))
+                            .ifPresent(section -> suggestedSections.put(pullRequest, section + " Changes"));
+                }
+            });
+        }
+
+        // Each path is matched once, however many pull requests changed it
+        Map<String, Set<PullRequest>> missingByOwner = new TreeMap<>();
+        if (codeOwners.isPresent()) {
+            try (TraceSpan ignored = startSpan("render", "match-code-owners")) {
+                Map<String, List<String>> ownersByPath = new HashMap<>();
+                releaseNoteItems.forEach((pullRequest, items) -> {
+                    if (!items.isPresent()) {
+                        for (String path : changedFilesByPullRequest.getOrDefault(pullRequest, ImmutableList.of())) {
+                            for (String owner : ownersByPath.computeIfAbsent(path, codeOwners.get()::getOwners)) {
+                                missingByOwner.computeIfAbsent(owner, key -> new TreeSet<>(Comparator.comparing(PullRequest::getId))).add(pullRequest);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+
+        List<List<ReleaseNoteItem>> duplicates;
+        try (TraceSpan ignored = startSpan("render", "find-duplicate-release-notes")) {
+            duplicates = DuplicateReleaseNotes.find(
+                    pullRequests.stream()
+                            .map(releaseNoteItems::get)
+                            .filter(Optional::isPresent)
+                            .flatMap(items -> items.get().stream())
+                            .collect(toImmutableList()),
+                    DuplicateReleaseNotes.DEFAULT_SIMILARITY);
+        }
+
+        ChangeStatistics statistics = changes.getStatistics();
+
+        String releaseNotes;
+        try (TraceSpan ignored = startSpan("render", "generate-release-notes")) {
+            log.info("Generating release notes");
+            releaseNotes = generateReleaseNotes(version, releaseNoteItems, userByLogin.values(), firstTimeContributors, propertyLinker);
+        }
+        String releaseNotesSummary;
+        try (TraceSpan ignored = startSpan("render", "generate-summary")) {
+            releaseNotesSummary = format(
+                    "%s%s%s%s\n%s\n%s",
+                    generateMissingReleaseNotes(releaseNoteItems, table, commits, userByLogin, suggestedSections),
+                    generateMissingReleaseNotesByOwner(missingByOwner),
+                    generateDuplicateReleaseNotes(duplicates),
+                    generateChangeStatistics(statistics, module -> repositorySection.isPresent() ? repositorySection : suggester.getSection(module)),
+                    generateExtractedReleaseNotes(releaseNoteItems, userByLogin),
+                    generateCommits(table, commits));
+        }
+
+        return new RenderedReleaseNotes(releaseNotes, releaseNotesSummary);
+    }
+
     enum ExtractionStatus
     {
         EXPECT_SECTION_HEADER,
@@ -318,6 +812,13 @@ public class GenerateReleaseNotesTask
         return Optional.of(releaseNoteItems.build());
     }
 
+    private static List<ReleaseNoteItem> withSection(List<ReleaseNoteItem> items, String section)
+    {
+        return items.stream()
+                .map(item -> new ReleaseNoteItem(item.getPullRequest(), section, item.getLine()))
+                .collect(toImmutableList());
+    }
+
     private static Optional<String> extractSection(String line)
     {
         Matcher matcher = HEADER_PATTERN.matcher(line);
@@ -334,7 +835,9 @@ public class GenerateReleaseNotesTask
     private String generateReleaseNotes(
             MavenVersion version,
             Map<PullRequest, Optional<List<ReleaseNoteItem>>> releaseNoteItems,
-            Collection<String> contributors)
+            Collection<String> contributors,
+            Collection<String> firstTimeContributors,
+            PropertyLinker propertyLinker)
     {
         StringBuilder document = new StringBuilder(format("=============\nRelease %s\n=============\n\n", version.getVersion()));
         document.append("**Breaking Changes**\n====================\n\n");
@@ -358,7 +861,7 @@ public class GenerateReleaseNotesTask
             List<ReleaseNoteItem> items = new ArrayList<>(releaseNotesByCategory.get(category));
             sort(items, new ReleaseNoteItemComparator());
             for (ReleaseNoteItem item : items) {
-                document.append("\n").append(item.getFormatted("*", 0)).append(format(" `#%1$d <https://github.com/prestodb/presto/pull/%1$d>`_", item.pullRequest.getId()));
+                document.append("\n").append(item.withLine(propertyLinker.link(item.getLine())).getFormatted("*", 0)).append(format(" `#%d <%s>`_", item.pullRequest.getId(), item.pullRequest.getUrl()));
             }
             document.append("\n\n");
         }
@@ -367,18 +870,23 @@ public class GenerateReleaseNotesTask
         sort(names);
         document.append("**Credits**\n===========\n\n")
                 .append(Joiner.on(", ").join(names));
+        if (!firstTimeContributors.isEmpty()) {
+            document.append("\n\n").append(FIRST_TIME_CONTRIBUTORS).append(Joiner.on(", ").join(firstTimeContributors));
+        }
         return document.toString().trim() + "\n";
     }
 
-    private String generateMissingReleaseNotes(Map<PullRequest, Optional<List<ReleaseNoteItem>>> releaseNoteItems, List<Commit> commits, Map<String, String> authorByLogin)
+    private String generateMissingReleaseNotes(
+            Map<PullRequest, Optional<List<ReleaseNoteItem>>> releaseNoteItems,
+            CommitTable table,
+            int[] commits,
+            Map<String, String> authorByLogin,
+            Map<PullRequest, String> suggestedSections)
     {
         List<PullRequest> pullRequestsMissingReleaseNotes = releaseNoteItems.entrySet().stream()
                 .filter(entry -> !entry.getValue().isPresent())
                 .map(Map.Entry::getKey)
                 .collect(toImmutableList());
-        List<Commit> dissociatedCommits = commits.stream()
-                .filter(commit -> commit.getAssociatedPullRequests().isEmpty())
-                .collect(toImmutableList());
 
         Map<String, StringBuilder> missingByAuthor = new TreeMap<>();
         for (PullRequest pullRequest : pullRequestsMissingReleaseNotes) {
@@ -391,19 +899,27 @@ public class GenerateReleaseNotesTask
                     .append(pullRequest.getTitle());
             if (pullRequest.getMergedBy().isPresent()) {
                 missing.append(" (Merged by: ")
-                        .append(pullRequest.getMergedBy().get().getName().orElse(pullRequest.getMergedBy().get().getLogin()))
+                        .append(authorByLogin.get(pullRequest.getMergedBy().get().getLogin()))
+                        .append(")");
+            }
+            if (suggestedSections.containsKey(pullRequest)) {
+                missing.append(" (Suggested section: ")
+                        .append(suggestedSections.get(pullRequest))
                         .append(")");
             }
             missing.append("\n");
         }
-        for (Commit commit : dissociatedCommits) {
-            String author = commit.getAuthor();
+        for (int commit : commits) {
+            if (table.hasPullRequests(commit)) {
+                continue;
+            }
+            String author = table.getCommitAuthor(commit);
             missingByAuthor.putIfAbsent(author, new StringBuilder("## ").append(author).append("\n"));
             missingByAuthor.get(author)
                     .append("- [ ] ")
-                    .append(commit.getId())
+                    .append(table.getCommitId(commit))
                     .append(" ")
-                    .append(commit.getTitle())
+                    .append(table.getCommitTitle(commit))
                     .append("\n");
         }
         return "# Missing Release Notes\n" +
@@ -412,6 +928,58 @@ public class GenerateReleaseNotesTask
                         .collect(joining("\n"));
     }
 
+    private static String generateMissingReleaseNotesByOwner(Map<String, Set<PullRequest>> missingByOwner)
+    {
+        if (missingByOwner.isEmpty()) {
+            return "";
+        }
+        StringBuilder document = new StringBuilder("\n# Code Owners of Missing Release Notes\n");
+        missingByOwner.forEach((owner, pullRequests) -> {
+            document.append("## ").append(owner).append("\n");
+            for (PullRequest pullRequest : pullRequests) {
+                document.append("- ").append(pullRequest.getUrl()).append(" ").append(pullRequest.getTitle()).append("\n");
+            }
+        });
+        return document.toString();
+    }
+
+    private static String generateDuplicateReleaseNotes(List<List<ReleaseNoteItem>> duplicates)
+    {
+        if (duplicates.isEmpty()) {
+            return "";
+        }
+        StringBuilder document = new StringBuilder("\n# Possible Duplicate Release Notes\n");
+        for (List<ReleaseNoteItem> group : duplicates) {
+            document.append("## ").append(group.get(0).getSection()).append("\n");
+            for (ReleaseNoteItem item : group) {
+                document.append("- #").append(item.getPullRequest().getId()).append(": ").append(item.getLine()).append("\n");
+            }
+        }
+        return document.toString();
+    }
+
+    private static String generateChangeStatistics(ChangeStatistics statistics, Function<String, Optional<String>> sectionOfModule)
+    {
+        if (statistics.isEmpty()) {
+            return "";
+        }
+        Map<String, Counts> sections = statistics.getSections(sectionOfModule, new CategoryComparator());
+        StringBuilder document = new StringBuilder("\n# Change Statistics\n");
+        if (!sections.isEmpty()) {
+            appendChangeStatistics(document, "Section", sections);
+            document.append("\n");
+        }
+        appendChangeStatistics(document, "Module", statistics.getModules());
+        return document.toString();
+    }
+
+    private static void appendChangeStatistics(StringBuilder document, String header, Map<String, Counts> counts)
+    {
+        document.append("| ").append(header).append(" | Files | Insertions | Deletions |\n")
+                .append("| --- | ---: | ---: | ---: |\n");
+        counts.forEach((name, count) -> document.append(format("| %s | %s | %s | %s |\n", name, count.getFiles(), count.getInsertions(), count.getDeletions())));
+    }
+
     private String generateExtractedReleaseNotes(Map<PullRequest, Optional<List<ReleaseNoteItem>>> releaseNoteItems, Map<String, String> authorByLogin)
     {
         StringBuilder document = new StringBuilder("# Extracted Release Notes\n");
@@ -438,24 +1006,21 @@ public class GenerateReleaseNotesTask
         return document.toString();
     }
 
-    private String generateCommits(List<Commit> commits)
+    private String generateCommits(CommitTable table, int[] commits)
     {
         return "# All Commits\n" +
-                commits.stream()
-                        .map(commit -> format("- %s %s (%s)", commit.getId(), commit.getTitle(), commit.getAuthor()))
+                Arrays.stream(commits)
+                        .mapToObj(commit -> format("- %s %s (%s)", table.getCommitId(commit), table.getCommitTitle(commit), table.getCommitAuthor(commit)))
                         .collect(joining("\n"));
     }
 
-    private void createReleaseNotesCommit(String version, String branch, String releaseNotes, Optional<String> fullSummary)
+    private static void createReleaseNotesCommit(Git git, String version, String branch, String releaseNotes, Optional<String> fullSummary, String lastCommit)
     {
         git.checkout(Optional.empty(), Optional.of(branch));
 
+        writeReleaseNotes(git.getRepository().getDirectory(), version, releaseNotes);
         try {
-            String gitDirectory = repository.getDirectory().getAbsolutePath();
-            asCharSink(Paths.get(gitDirectory, format(RELEASE_NOTES_FILE, version)).toFile(), UTF_8).write(releaseNotes);
-            List<String> lines = new LinkedList<>(asCharSource(Paths.get(gitDirectory, RELEASE_NOTES_LIST_FILE).toFile(), UTF_8).readLines());
-            lines.add(7, format("    Release-%s [%tF] <release/release-%s>", version, new Date(), version));
-            asCharSink(Paths.get(gitDirectory, RELEASE_NOTES_LIST_FILE).toFile(), UTF_8).write(Joiner.on("\n").join(lines) + "\n");
+            String gitDirectory = git.getRepository().getDirectory().getAbsolutePath();
 
             // Write full summary to file if it was too large for PR body
             if (fullSummary.isPresent()) {
@@ -469,7 +1034,211 @@ public class GenerateReleaseNotesTask
         }
 
         git.add(".");
-        git.commit(format("Add release notes for %s", version));
+        git.commit(format("Add release notes for %s\n\n%s: %s", version, LAST_COMMIT_TRAILER, lastCommit));
+    }
+
+    private static void writeReleaseNotes(File directory, String version, String releaseNotes)
+    {
+        try {
+            String gitDirectory = directory.getAbsolutePath();
+            asCharSink(Paths.get(gitDirectory, format(RELEASE_NOTES_FILE, version)).toFile(), UTF_8).write(releaseNotes);
+            List<String> lines = new LinkedList<>(asCharSource(Paths.get(gitDirectory, RELEASE_NOTES_LIST_FILE).toFile(), UTF_8).readLines());
+            String listEntry = format("<release/release-%s>", version);
+            // Regenerating from a snapshot must not list the release twice
+            if (lines.stream().noneMatch(line -> line.endsWith(listEntry))) {
+                lines.add(7, format("    Release-%s [%tF] %s", version, new Date(), listEntry));
+                asCharSink(Paths.get(gitDirectory, RELEASE_NOTES_LIST_FILE).toFile(), UTF_8).write(Joiner.on("\n").join(lines) + "\n");
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Merge the items and credits of {@code additions}, as rendered by {@link #generateReleaseNotes}, into the possibly
+     * edited {@code existing} release notes. Existing lines are never changed or reordered: new items are appended to the
+     * section of their category, which is added in category order when missing, items of pull requests already linked
+     * are skipped, and new names are inserted into the credits before the first name sorting after them.
+     */
+    static String mergeReleaseNotes(String existing, String additions)
+    {
+        List<String> lines = new ArrayList<>(Splitter.on('\n').splitToList(existing.endsWith("\n") ? existing.substring(0, existing.length() - 1) : existing));
+        Set<String> linkedPullRequests = new HashSet<>();
+        for (String line : lines) {
+            Matcher matcher = PULL_REQUEST_LINK.matcher(line);
+            while (matcher.find()) {
+                linkedPullRequests.add(matcher.group(1));
+            }
+        }
+
+        List<String> additionLines = Splitter.on('\n').splitToList(additions);
+        for (int i = 0; i + 1 < additionLines.size(); i++) {
+            if (!isSectionHeader(additionLines, i)) {
+                continue;
+            }
+            String header = additionLines.get(i);
+            List<String> items = new ArrayList<>();
+            for (int j = i + 2; j < additionLines.size() && !additionLines.get(j).isEmpty(); j++) {
+                Matcher matcher = PULL_REQUEST_LINK.matcher(additionLines.get(j));
+                if (!matcher.find() || !linkedPullRequests.contains(matcher.group(1))) {
+                    items.add(additionLines.get(j));
+                }
+            }
+            if (!items.isEmpty()) {
+                addSectionItems(lines, header, items);
+            }
+        }
+
+        int additionCredits = additionLines.indexOf(CREDITS_HEADER);
+        if (additionCredits >= 0) {
+            List<String> creditLines = additionLines.subList(additionCredits + 1, additionLines.size()).stream()
+                    .filter(line -> !line.isEmpty() && !CREDITS_UNDERLINE.matcher(line).matches())
+                    .collect(toImmutableList());
+            addCredits(lines, creditLines.stream()
+                    .filter(line -> !line.startsWith(FIRST_TIME_CONTRIBUTORS))
+                    .flatMap(line -> Splitter.on(',').trimResults().omitEmptyStrings().splitToList(line).stream())
+                    .collect(toImmutableList()));
+            addFirstTimeContributors(lines, creditLines.stream()
+                    .filter(line -> line.startsWith(FIRST_TIME_CONTRIBUTORS))
+                    .flatMap(line -> Splitter.on(',').trimResults().omitEmptyStrings().splitToList(line.substring(FIRST_TIME_CONTRIBUTORS.length())).stream())
+                    .collect(toImmutableList()));
+        }
+        return Joiner.on('\n').join(lines) + "\n";
+    }
+
+    private static boolean isSectionHeader(List<String> lines, int index)
+    {
+        return index + 1 < lines.size()
+                && HEADER_PATTERN.matcher(lines.get(index).trim()).matches()
+                && SECTION_UNDERLINE.matcher(lines.get(index + 1).trim()).matches();
+    }
+
+    private static void addSectionItems(List<String> lines, String header, List<String> items)
+    {
+        for (int i = 0; i < lines.size(); i++) {
+            if (isSectionHeader(lines, i) && lines.get(i).trim().equalsIgnoreCase(header)) {
+                int end = i + 2;
+                while (end < lines.size() && !lines.get(end).trim().isEmpty()) {
+                    end++;
+                }
+                lines.addAll(end, items);
+                return;
+            }
+        }
+
+        // Add the missing section before the first section sorting after it, or before the credits
+        String category = header.substring(0, header.length() - " Changes".length());
+        CategoryComparator comparator = new CategoryComparator();
+        int position = lines.indexOf(CREDITS_HEADER);
+        for (int i = 0; i < lines.size(); i++) {
+            if (isSectionHeader(lines, i)) {
+                Matcher matcher = HEADER_PATTERN.matcher(lines.get(i).trim());
+                if (matcher.matches() && comparator.compare(matcher.group(1), category) > 0) {
+                    position = i;
+                    break;
+                }
+            }
+        }
+        List<String> section = ImmutableList.<String>builder()
+                .add(header)
+                .add(Strings.repeat("_", header.length()))
+                .addAll(items)
+                .add("")
+                .build();
+        if (position < 0) {
+            lines.add("");
+            lines.addAll(section.subList(0, section.size() - 1));
+        }
+        else {
+            lines.addAll(position, section);
+        }
+    }
+
+    private static void addCredits(List<String> lines, List<String> names)
+    {
+        int credits = lines.indexOf(CREDITS_HEADER);
+        if (credits < 0) {
+            lines.add("");
+            lines.add(CREDITS_HEADER);
+            lines.add(Strings.repeat("=", CREDITS_HEADER.length()));
+            lines.add("");
+            lines.add(Joiner.on(", ").join(names));
+            return;
+        }
+        int nameLine = credits + 1;
+        while (nameLine < lines.size() && (lines.get(nameLine).trim().isEmpty() || CREDITS_UNDERLINE.matcher(lines.get(nameLine).trim()).matches())) {
+            nameLine++;
+        }
+        if (nameLine == lines.size()) {
+            lines.add(Joiner.on(", ").join(names));
+            return;
+        }
+        lines.set(nameLine, Joiner.on(", ").join(mergeNames(lines.get(nameLine), names)));
+    }
+
+    /**
+     * Add the first-time contributors to the line listing them after the credits, which is created if needed.
+     */
+    private static void addFirstTimeContributors(List<String> lines, List<String> names)
+    {
+        if (names.isEmpty()) {
+            return;
+        }
+        int credits = lines.indexOf(CREDITS_HEADER);
+        for (int line = credits + 1; line < lines.size(); line++) {
+            if (lines.get(line).startsWith(FIRST_TIME_CONTRIBUTORS)) {
+                lines.set(line, FIRST_TIME_CONTRIBUTORS + Joiner.on(", ").join(mergeNames(lines.get(line).substring(FIRST_TIME_CONTRIBUTORS.length()), names)));
+                return;
+            }
+        }
+        int end = lines.size();
+        while (end > credits && lines.get(end - 1).trim().isEmpty()) {
+            end--;
+        }
+        lines.add(end, FIRST_TIME_CONTRIBUTORS + Joiner.on(", ").join(names));
+        lines.add(end, "");
+    }
+
+    /**
+     * Insert the {@code names} missing from the comma separated {@code line} at their sorted position.
+     */
+    private static List<String> mergeNames(String line, List<String> names)
+    {
+        List<String> merged = new ArrayList<>(Splitter.on(',').trimResults().omitEmptyStrings().splitToList(line));
+        for (String name : names) {
+            if (merged.contains(name)) {
+                continue;
+            }
+            int position = 0;
+            while (position < merged.size() && merged.get(position).compareTo(name) < 0) {
+                position++;
+            }
+            merged.add(position, name);
+        }
+        return merged;
+    }
+
+    private static class RenderedReleaseNotes
+    {
+        private final String releaseNotes;
+        private final String summary;
+
+        public RenderedReleaseNotes(String releaseNotes, String summary)
+        {
+            this.releaseNotes = requireNonNull(releaseNotes, "releaseNotes is null");
+            this.summary = requireNonNull(summary, "summary is null");
+        }
+
+        public String getReleaseNotes()
+        {
+            return releaseNotes;
+        }
+
+        public String getSummary()
+        {
+            return summary;
+        }
     }
 
     public static class CategoryComparator
@@ -498,6 +1267,8 @@ public class GenerateReleaseNotesTask
     public static class ReleaseNoteItem
     {
         private static final Set<String> ALL_UPPER_WORDS = ImmutableSet.of("jdbc", "spi", "ui");
+        // The same few sections are repeated by thousands of release notes
+        private static final Interner<String> SECTIONS = Interners.newWeakInterner();
 
         private final String section;
         private final String line;
@@ -505,7 +1276,7 @@ public class GenerateReleaseNotesTask
 
         public ReleaseNoteItem(PullRequest pullRequest, String section, String line)
         {
-            this.section = formatCategory(requireNonNull(section, "section is null"));
+            this.section = SECTIONS.intern(formatCategory(requireNonNull(section, "section is null")));
             checkArgument(!Strings.isNullOrEmpty(line), "line is null or empty");
             this.line = toUpperCase(line.charAt(0)) + line.substring(1);
             this.pullRequest = requireNonNull(pullRequest, "pull request is null");
@@ -521,6 +1292,16 @@ public class GenerateReleaseNotesTask
             return line;
         }
 
+        public PullRequest getPullRequest()
+        {
+            return pullRequest;
+        }
+
+        public ReleaseNoteItem withLine(String line)
+        {
+            return new ReleaseNoteItem(pullRequest, section, line);
+        }
+
         public String getFormatted(String marking, int indent)
         {
             return format("%s%s %s%s", Joiner.on("").join(nCopies(indent, " ")), marking, line, line.endsWith(".") ? "" : ".");
@@ -24,4 +24,8 @@ public class GitOptions
     @Option(name = "--git-ssh-key-file", title = "file", description = "Git SSH key file")
     @ConfigProperty("git.ssh-key-file")
     public String sshKeyFile;
+
+    @Option(name = "--git-command-timeout", title = "duration", description = "Time after which a git command is killed")
+    @ConfigProperty("git.command-timeout")
+    public String commandTimeout;
 }
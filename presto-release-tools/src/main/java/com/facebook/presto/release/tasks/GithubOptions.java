@@ -24,4 +24,20 @@ public class GithubOptions
     @Option(name = "--github-access-token", title = "token", description = "Github Personal Access Token", required = true)
     @ConfigProperty("github.access-token")
     public String accessToken;
+
+    @Option(name = "--github-api-uri", title = "uri", description = "Github GraphQL API endpoint")
+    @ConfigProperty("github.api-uri")
+    public String apiUri;
+
+    @Option(name = "--fetch-strategy", title = "strategy", description = "How release commits are fetched from Github: AUTO, SNAPSHOT, HISTORY, BATCH or SEARCH")
+    @ConfigProperty("github.fetch-strategy")
+    public String fetchStrategy;
+
+    @Option(name = "--snapshot-cache", title = "directory", description = "Directory of release notes snapshots to reuse, fetched snapshots are added to it")
+    @ConfigProperty("github.snapshot-cache-directory")
+    public String snapshotCacheDirectory;
+
+    @Option(name = "--contributor-cache", title = "file", description = "File caching the display names of Github users credited in release notes")
+    @ConfigProperty("github.contributor-cache-file")
+    public String contributorCacheFile;
 }
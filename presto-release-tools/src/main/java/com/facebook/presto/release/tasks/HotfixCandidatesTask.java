@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.ForPresto;
+import com.facebook.presto.release.git.Commit;
+import com.facebook.presto.release.git.Git;
+import com.facebook.presto.release.git.GitRepository;
+import com.facebook.presto.release.git.GithubAction;
+import com.facebook.presto.release.git.PullRequest;
+import com.facebook.presto.release.maven.MavenVersion;
+import com.facebook.presto.release.maven.PrestoVersion;
+import com.facebook.presto.release.tasks.GenerateReleaseNotesTask.ReleaseNoteItem;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import javax.inject.Inject;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.release.ReleaseUtil.getReleaseBranch;
+import static com.facebook.presto.release.maven.MavenVersionUtil.getVersionFromPom;
+import static com.facebook.presto.release.stats.ReleaseStats.startStage;
+import static com.facebook.presto.release.tasks.GenerateReleaseNotesTask.extractReleaseNotes;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * List the pull requests merged into master but not picked into the release branch, whose release notes are fixes. A
+ * commit is picked when a commit of the release branch has the same patch id, so cherry-picks match whatever their
+ * commit id and message.
+ */
+public class HotfixCandidatesTask
+        implements ReleaseTask
+{
+    private static final Logger log = Logger.get(HotfixCandidatesTask.class);
+
+    private static final Splitter LINE_SPLITTER = Splitter.on('\n').trimResults().omitEmptyStrings();
+    private static final Splitter FIELD_SPLITTER = Splitter.on(' ').limit(2);
+    private static final String FIX_PREFIX = "Fix";
+
+    private final Git git;
+    private final GithubAction githubAction;
+    private final Optional<MavenVersion> version;
+
+    @Inject
+    public HotfixCandidatesTask(@ForPresto Git git, GithubAction githubAction, VersionConfig config)
+    {
+        this.git = requireNonNull(git, "git is null");
+        this.githubAction = requireNonNull(githubAction, "githubAction is null");
+        this.version = config.getReleaseVersion().map(PrestoVersion::create);
+    }
+
+    @Override
+    public void run()
+    {
+        // The local checkout is only read, so there is no need to sanitize it
+        startStage("fetch-upstream");
+        git.fetchUpstream(Optional.empty());
+        MavenVersion version = this.version.orElseGet(() -> PrestoVersion.create(getVersionFromPom(git.getRepository().getDirectory())).getLastMajorVersion());
+        String upstreamName = git.getRepository().getUpstreamName();
+        String releaseBranch = format("%s/%s", upstreamName, getReleaseBranch(version));
+        String masterBranch = format("%s/master", upstreamName);
+
+        startStage("compute-patch-ids");
+        List<String> unpicked = findUnpickedCommits(
+                git.patchIds(format("%s..%s", releaseBranch, masterBranch)),
+                git.patchIds(format("%s..%s", masterBranch, releaseBranch)));
+        log.info("%s commits of %s are not on %s", unpicked.size(), masterBranch, releaseBranch);
+
+        startStage("fetch-pull-requests");
+        String repository = GitRepository.getRepositoryFromUrl(git.remoteUrl(upstreamName));
+        List<Commit> commits = unpicked.isEmpty() ? ImmutableList.of() : githubAction.getCommits(repository, unpicked);
+
+        startStage("find-fixes");
+        Map<PullRequest, List<ReleaseNoteItem>> fixes = findFixes(commits);
+        StringBuilder report = new StringBuilder(format("%s hotfix candidates for %s", fixes.size(), version.getVersion()));
+        fixes.forEach((pullRequest, items) -> {
+            report.append("\n- ").append(pullRequest.getUrl()).append(" ").append(pullRequest.getTitle());
+            for (ReleaseNoteItem item : items) {
+                report.append("\n  - ").append(item.getSection()).append(": ").append(item.getLine());
+            }
+        });
+        log.info(report.toString());
+    }
+
+    /**
+     * Commits of {@code sourcePatchIds} whose patch id is not in {@code targetPatchIds}, both formatted as by
+     * {@link Git#patchIds}, in the order of the source.
+     */
+    @VisibleForTesting
+    static List<String> findUnpickedCommits(String sourcePatchIds, String targetPatchIds)
+    {
+        Set<String> picked = new HashSet<>();
+        for (String line : LINE_SPLITTER.split(targetPatchIds)) {
+            picked.add(FIELD_SPLITTER.splitToList(line).get(0));
+        }
+        ImmutableList.Builder<String> commits = ImmutableList.builder();
+        for (String line : LINE_SPLITTER.split(sourcePatchIds)) {
+            List<String> fields = FIELD_SPLITTER.splitToList(line);
+            if (fields.size() == 2 && !picked.contains(fields.get(0))) {
+                commits.add(fields.get(1));
+            }
+        }
+        return commits.build();
+    }
+
+    /**
+     * Release notes starting with "Fix" of the pull requests of {@code commits}, in the order of their first commit.
+     */
+    @VisibleForTesting
+    static Map<PullRequest, List<ReleaseNoteItem>> findFixes(List<Commit> commits)
+    {
+        Map<PullRequest, List<ReleaseNoteItem>> fixes = new LinkedHashMap<>();
+        commits.stream()
+                .flatMap(commit -> commit.getAssociatedPullRequests().stream())
+                .distinct()
+                .forEach(pullRequest -> extractReleaseNotes(pullRequest).ifPresent(items -> {
+                    List<ReleaseNoteItem> fixItems = items.stream()
+                            .filter(item -> item.getLine().startsWith(FIX_PREFIX))
+                            .collect(toImmutableList());
+                    if (!fixItems.isEmpty()) {
+                        fixes.put(pullRequest, fixItems);
+                    }
+                }));
+        return fixes;
+    }
+}
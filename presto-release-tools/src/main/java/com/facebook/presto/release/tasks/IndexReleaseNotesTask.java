@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.ForPresto;
+import com.facebook.presto.release.git.Git;
+
+import javax.inject.Inject;
+
+import java.io.File;
+import java.util.Optional;
+
+import static com.facebook.presto.release.stats.ReleaseStats.startStage;
+import static com.facebook.presto.release.tasks.ReleaseNotesIndex.RELEASE_DIRECTORY;
+import static java.util.Objects.requireNonNull;
+
+public class IndexReleaseNotesTask
+        implements ReleaseTask
+{
+    private static final Logger log = Logger.get(IndexReleaseNotesTask.class);
+
+    private final Git git;
+    private final File indexFile;
+
+    @Inject
+    public IndexReleaseNotesTask(@ForPresto Git git, ReleaseNotesIndexConfig config)
+    {
+        this.git = requireNonNull(git, "git is null");
+        this.indexFile = new File(config.getIndexFile());
+    }
+
+    @Override
+    public void run()
+    {
+        // The local checkout is only read, the release notes of the current branch are indexed
+        startStage("read-index");
+        Optional<ReleaseNotesIndex> previous = ReleaseNotesIndex.read(indexFile);
+        startStage("index-release-notes");
+        ReleaseNotesIndex index = ReleaseNotesIndex.build(new File(git.getRepository().getDirectory(), RELEASE_DIRECTORY), previous);
+        startStage("write-index");
+        index.write(indexFile);
+        log.info("Wrote release notes index to %s", indexFile.getAbsolutePath());
+    }
+}
@@ -24,4 +24,8 @@ public class MavenOptions
     @Option(name = "--maven-options", title = "options", description = "Maven options")
     @ConfigProperty("maven.options")
     public String options;
+
+    @Option(name = "--maven-command-timeout", title = "duration", description = "Time after which a Maven command is killed")
+    @ConfigProperty("maven.command-timeout")
+    public String commandTimeout;
 }
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable trie of {@code /} separated path prefixes, matching a path to the value of its longest prefix in one walk
+ * over its directories, whatever the number of prefixes.
+ */
+public final class PathTrie<V>
+{
+    private final Node<V> root;
+
+    private PathTrie(Node<V> root)
+    {
+        this.root = requireNonNull(root, "root is null");
+    }
+
+    public static <V> Builder<V> builder()
+    {
+        return new Builder<>();
+    }
+
+    /**
+     * Value of the longest prefix of {@code path} made of whole directories, e.g. {@code presto-hive/src} is a prefix of
+     * {@code presto-hive/src/Foo.java}, but {@code presto-hive} is not a prefix of {@code presto-hive-metastore/pom.xml}.
+     */
+    public Optional<V> getLongestPrefixMatch(String path)
+    {
+        Node<V> node = root;
+        V match = node.value;
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                match = node.value;
+            }
+            start = end + 1;
+        }
+        return Optional.ofNullable(match);
+    }
+
+    private static final class Node<V>
+    {
+        private final V value;
+        private final Map<String, Node<V>> children;
+
+        private Node(V value, Map<String, Node<V>> children)
+        {
+            this.value = value;
+            this.children = ImmutableMap.copyOf(children);
+        }
+    }
+
+    public static final class Builder<V>
+    {
+        private final MutableNode<V> root = new MutableNode<>();
+
+        private Builder() {}
+
+        public Builder<V> put(String prefix, V value)
+        {
+            requireNonNull(prefix, "prefix is null");
+            requireNonNull(value, "value is null");
+            MutableNode<V> node = root;
+            for (String directory : prefix.split("/")) {
+                checkArgument(!directory.isEmpty() || prefix.isEmpty(), "Invalid path prefix: %s", prefix);
+                if (!directory.isEmpty()) {
+                    node = node.children.computeIfAbsent(directory, ignored -> new MutableNode<>());
+                }
+            }
+            node.value = value;
+            return this;
+        }
+
+        public PathTrie<V> build()
+        {
+            return new PathTrie<>(root.compile());
+        }
+    }
+
+    private static final class MutableNode<V>
+    {
+        private V value;
+        private final Map<String, MutableNode<V>> children = new HashMap<>();
+
+        private Node<V> compile()
+        {
+            Map<String, Node<V>> compiled = new HashMap<>();
+            children.forEach((directory, child) -> compiled.put(directory, child.compile()));
+            return new Node<>(value, compiled);
+        }
+    }
+}
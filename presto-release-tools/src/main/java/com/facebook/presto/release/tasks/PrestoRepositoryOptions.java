@@ -52,4 +52,16 @@ public class PrestoRepositoryOptions
     @Option(name = "--access-token", title = "token", description = "Github personal access token.")
     @ConfigProperty("presto.git.access-token")
     public String accessToken;
+
+    @Option(name = "--git-clone-filter", title = "filter", description = "Partial clone filter when initializing from remote, e.g. blob:none.")
+    @ConfigProperty("presto.git.clone-filter")
+    public String cloneFilter;
+
+    @Option(name = "--git-clone-depth", title = "depth", description = "Shallow clone depth when initializing from remote.")
+    @ConfigProperty("presto.git.clone-depth")
+    public Integer cloneDepth;
+
+    @Option(name = "--git-reference-mirror", title = "dir", description = "Local mirror of the upstream repository to clone with --reference. Created or updated on each run.")
+    @ConfigProperty("presto.git.reference-mirror")
+    public String referenceMirror;
 }
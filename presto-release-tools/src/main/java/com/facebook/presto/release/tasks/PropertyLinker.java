@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Replace the mentions of documented properties in release note lines by their links. All the property names are
+ * matched in a single scan of each line with an Aho-Corasick automaton, so the cost does not grow with the number of
+ * documented properties.
+ */
+public final class PropertyLinker
+{
+    private final List<String> names;
+    private final List<String> links;
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<Integer> failures = new ArrayList<>();
+    private final List<Integer> outputs = new ArrayList<>();
+    // nearest state on the failure chain with an output, or -1
+    private final List<Integer> outputLinks = new ArrayList<>();
+
+    public PropertyLinker(Map<String, String> linksByName)
+    {
+        requireNonNull(linksByName, "linksByName is null");
+        this.names = ImmutableList.copyOf(linksByName.keySet());
+        this.links = ImmutableList.copyOf(linksByName.values());
+
+        addState();
+        for (int pattern = 0; pattern < names.size(); pattern++) {
+            int state = 0;
+            for (char c : names.get(pattern).toCharArray()) {
+                Integer next = transitions.get(state).get(c);
+                if (next == null) {
+                    next = addState();
+                    transitions.get(state).put(c, next);
+                }
+                state = next;
+            }
+            outputs.set(state, pattern);
+        }
+
+        Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            int failure = failures.get(state);
+            outputLinks.set(state, outputs.get(failure) >= 0 ? failure : outputLinks.get(failure));
+            for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+                int child = transition.getValue();
+                failures.set(child, next(failure, transition.getKey()));
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Link the first mention of each documented property in {@code line}. A mention is a whole name, optionally quoted
+     * with double backticks, that is not already part of a link.
+     */
+    public String link(String line)
+    {
+        List<Match> matches = new ArrayList<>();
+        int state = 0;
+        for (int end = 1; end <= line.length(); end++) {
+            state = next(state, line.charAt(end - 1));
+            for (int output = outputs.get(state) >= 0 ? state : outputLinks.get(state); output > 0; output = outputLinks.get(output)) {
+                int pattern = outputs.get(output);
+                int start = end - names.get(pattern).length();
+                if (isMention(line, start, end)) {
+                    matches.add(new Match(pattern, start, end));
+                }
+            }
+        }
+        if (matches.isEmpty()) {
+            return line;
+        }
+
+        // leftmost longest mentions, without overlaps
+        matches.sort(Comparator.<Match>comparingInt(match -> match.start).thenComparing(match -> -match.end));
+        StringBuilder linked = new StringBuilder();
+        Set<Integer> linkedPatterns = new HashSet<>();
+        int position = 0;
+        for (Match match : matches) {
+            int start = match.start;
+            int end = match.end;
+            if (start < position || !linkedPatterns.add(match.pattern)) {
+                continue;
+            }
+            if (line.startsWith("``", start - 2) && line.startsWith("``", end)) {
+                start -= 2;
+                end += 2;
+            }
+            linked.append(line, position, start).append(links.get(match.pattern));
+            position = end;
+        }
+        return linked.append(line.substring(position)).toString();
+    }
+
+    private int addState()
+    {
+        transitions.add(new HashMap<>());
+        failures.add(0);
+        outputs.add(-1);
+        outputLinks.add(-1);
+        return transitions.size() - 1;
+    }
+
+    /**
+     * Follow the transition on {@code c}, falling back along the failure links.
+     */
+    private int next(int state, char c)
+    {
+        while (true) {
+            Integer next = transitions.get(state).get(c);
+            if (next != null) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failures.get(state);
+        }
+    }
+
+    private static boolean isMention(String line, int start, int end)
+    {
+        boolean quoted = start > 0 && line.charAt(start - 1) == '`';
+        if (quoted || (end < line.length() && line.charAt(end) == '`')) {
+            // a name next to a backtick may be part of a role or a link, and is only linked when quoted as a literal
+            return line.startsWith("``", start - 2) && (start < 3 || line.charAt(start - 3) != '`') && line.startsWith("``", end) && !line.startsWith("```", end);
+        }
+        if (start > 0 && (isNameCharacter(line.charAt(start - 1)) || line.charAt(start - 1) == '<')) {
+            return false;
+        }
+        if (end < line.length() && isNameCharacter(line.charAt(end))) {
+            // a period followed by the end of the word ends the sentence
+            return line.charAt(end) == '.' && (end + 1 == line.length() || !isNameCharacter(line.charAt(end + 1)));
+        }
+        return true;
+    }
+
+    private static boolean isNameCharacter(char c)
+    {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-';
+    }
+
+    private static class Match
+    {
+        private final int pattern;
+        private final int start;
+        private final int end;
+
+        public Match(int pattern, int start, int end)
+        {
+            this.pattern = pattern;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.log.Logger;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.facebook.presto.release.tasks.DocumentedProperties.ADORNMENT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.asByteSource;
+import static com.google.common.io.Files.createParentDirs;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Inverted index of the release notes in {@code presto-docs/src/main/sphinx/release}. Every note is an item with its
+ * version, section and pull requests, and every term maps to the sorted ids of the items containing it. The index is
+ * stored as a gzipped binary file, with the postings delta and variable length encoded, and is updated incrementally:
+ * only the release notes files whose hash changed are parsed again.
+ */
+public class ReleaseNotesIndex
+{
+    public static final String RELEASE_DIRECTORY = "presto-docs/src/main/sphinx/release";
+
+    private static final Logger log = Logger.get(ReleaseNotesIndex.class);
+    private static final int MAGIC = 0x524e4958;
+    private static final int FORMAT_VERSION = 1;
+    private static final Pattern RELEASE_FILE = Pattern.compile("release-(.+)\\.rst");
+    private static final Pattern BULLET = Pattern.compile("^[*-] +(.*)$");
+    private static final Pattern PULL_REQUEST_LINK = Pattern.compile("\\s*`#(\\d+) <[^>]*/pull/\\d+/?>`_");
+    private static final Pattern TERM = Pattern.compile("[\\p{Alnum}_]+");
+
+    private final List<ReleaseFile> files;
+    private final List<Item> items;
+    private final Map<String, int[]> postings;
+
+    private ReleaseNotesIndex(List<ReleaseFile> files, List<Item> items, Map<String, int[]> postings)
+    {
+        this.files = ImmutableList.copyOf(requireNonNull(files, "files is null"));
+        this.items = ImmutableList.copyOf(requireNonNull(items, "items is null"));
+        this.postings = ImmutableMap.copyOf(requireNonNull(postings, "postings is null"));
+    }
+
+    public List<Item> getItems()
+    {
+        return items;
+    }
+
+    public int getTermCount()
+    {
+        return postings.size();
+    }
+
+    /**
+     * Index the {@code release-*.rst} files of {@code releaseDirectory}, reusing the items of the files of
+     * {@code previous} whose hash is unchanged.
+     */
+    public static ReleaseNotesIndex build(File releaseDirectory, Optional<ReleaseNotesIndex> previous)
+    {
+        Map<String, ReleaseFile> previousFiles = new HashMap<>();
+        previous.ifPresent(index -> index.files.forEach(file -> previousFiles.put(file.getName(), file)));
+
+        File[] releaseFiles = releaseDirectory.listFiles((directory, name) -> RELEASE_FILE.matcher(name).matches());
+        checkArgument(releaseFiles != null, "Not a directory: %s", releaseDirectory);
+        Arrays.sort(releaseFiles);
+
+        ImmutableList.Builder<ReleaseFile> files = ImmutableList.builder();
+        int parsed = 0;
+        for (File releaseFile : releaseFiles) {
+            try {
+                byte[] content = asByteSource(releaseFile).read();
+                String hash = Hashing.sha256().hashBytes(content).toString();
+                ReleaseFile previousFile = previousFiles.get(releaseFile.getName());
+                if (previousFile != null && previousFile.getHash().equals(hash)) {
+                    files.add(previousFile);
+                    continue;
+                }
+                Matcher matcher = RELEASE_FILE.matcher(releaseFile.getName());
+                checkArgument(matcher.matches(), "Not a release notes file: %s", releaseFile);
+                files.add(new ReleaseFile(releaseFile.getName(), matcher.group(1), hash, parseReleaseNotes(matcher.group(1), new String(content, UTF_8))));
+                parsed++;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        ReleaseNotesIndex index = create(files.build());
+        log.info("Indexed %s release notes files, %s of them parsed, with %s items and %s terms", releaseFiles.length, parsed, index.items.size(), index.postings.size());
+        return index;
+    }
+
+    private static ReleaseNotesIndex create(List<ReleaseFile> files)
+    {
+        List<Item> items = files.stream()
+                .flatMap(file -> file.getItems().stream())
+                .collect(toImmutableList());
+        Map<String, List<Integer>> itemsByTerm = new TreeMap<>();
+        for (int id = 0; id < items.size(); id++) {
+            for (String term : new LinkedHashSet<>(tokenize(items.get(id).getText()))) {
+                itemsByTerm.computeIfAbsent(term, key -> new ArrayList<>()).add(id);
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>();
+        itemsByTerm.forEach((term, ids) -> postings.put(term, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return new ReleaseNotesIndex(files, items, postings);
+    }
+
+    /**
+     * Parse the notes of a release: each top level bullet, with its indented continuation lines, is an item of the
+     * section whose title precedes it, without the {@code Changes} suffix.
+     */
+    static List<Item> parseReleaseNotes(String version, String content)
+    {
+        List<String> lines = Arrays.asList(content.split("\r?\n"));
+        ImmutableList.Builder<Item> items = ImmutableList.builder();
+        String section = "";
+        StringBuilder text = null;
+        for (int index = 0; index < lines.size(); index++) {
+            String line = lines.get(index);
+            boolean title = !line.trim().isEmpty() && !ADORNMENT.matcher(line).matches() &&
+                    index + 1 < lines.size() && ADORNMENT.matcher(lines.get(index + 1)).matches();
+            Matcher bullet = BULLET.matcher(line);
+            if (text != null && (title || bullet.matches() || line.trim().isEmpty() || !Character.isWhitespace(line.charAt(0)))) {
+                items.add(createItem(version, section, text.toString()));
+                text = null;
+            }
+            if (title) {
+                section = line.replace("*", "").trim().replaceFirst(" Changes$", "");
+                index++;
+            }
+            else if (bullet.matches()) {
+                text = new StringBuilder(bullet.group(1).trim());
+            }
+            else if (text != null) {
+                text.append(' ').append(line.trim());
+            }
+        }
+        if (text != null) {
+            items.add(createItem(version, section, text.toString()));
+        }
+        return items.build();
+    }
+
+    private static Item createItem(String version, String section, String text)
+    {
+        ImmutableList.Builder<Integer> pullRequests = ImmutableList.builder();
+        Matcher matcher = PULL_REQUEST_LINK.matcher(text);
+        while (matcher.find()) {
+            pullRequests.add(Integer.parseInt(matcher.group(1)));
+        }
+        return new Item(version, section, matcher.replaceAll("").trim(), pullRequests.build());
+    }
+
+    static List<String> tokenize(String text)
+    {
+        ImmutableList.Builder<String> terms = ImmutableList.builder();
+        Matcher matcher = TERM.matcher(text.toLowerCase(ENGLISH));
+        while (matcher.find()) {
+            terms.add(matcher.group());
+        }
+        return terms.build();
+    }
+
+    /**
+     * Items matching {@code query}, newest release first, in the order of the release notes within a release.
+     */
+    public List<Item> search(ReleaseNotesQuery query, int limit)
+    {
+        int[] candidates = null;
+        List<String> terms = query.getTerms().stream()
+                .sorted(Comparator.comparingInt(term -> postings.getOrDefault(term, new int[0]).length))
+                .collect(toImmutableList());
+        for (String term : terms) {
+            int[] ids = postings.getOrDefault(term, new int[0]);
+            candidates = candidates == null ? ids : intersect(candidates, ids);
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        int count = candidates == null ? items.size() : candidates.length;
+        for (int index = 0; index < count; index++) {
+            int id = candidates == null ? index : candidates[index];
+            if (query.matches(items.get(id))) {
+                matches.add(id);
+            }
+        }
+        return matches.stream()
+                .sorted(Comparator.<Integer, String>comparing(id -> items.get(id).getVersion(), ReleaseNotesIndex::compareVersions).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .map(items::get)
+                .collect(toImmutableList());
+    }
+
+    private static int[] intersect(int[] left, int[] right)
+    {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            }
+            else if (left[i] > right[j]) {
+                j++;
+            }
+            else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    static int compareVersions(String left, String right)
+    {
+        String[] leftParts = left.split("\\.");
+        String[] rightParts = right.split("\\.");
+        for (int index = 0; index < Math.min(leftParts.length, rightParts.length); index++) {
+            int result = leftParts[index].matches("\\d+") && rightParts[index].matches("\\d+")
+                    ? Long.compare(Long.parseLong(leftParts[index]), Long.parseLong(rightParts[index]))
+                    : leftParts[index].compareTo(rightParts[index]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(leftParts.length, rightParts.length);
+    }
+
+    public static Optional<ReleaseNotesIndex> read(File file)
+    {
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                log.warn("Ignoring release notes index in an unknown format: %s", file);
+                return Optional.empty();
+            }
+            int fileCount = input.readInt();
+            ImmutableList.Builder<ReleaseFile> files = ImmutableList.builder();
+            for (int fileIndex = 0; fileIndex < fileCount; fileIndex++) {
+                String name = input.readUTF();
+                String hash = input.readUTF();
+                String version = input.readUTF();
+                int itemCount = readVariableLength(input);
+                ImmutableList.Builder<Item> items = ImmutableList.builder();
+                for (int itemIndex = 0; itemIndex < itemCount; itemIndex++) {
+                    String section = input.readUTF();
+                    String text = input.readUTF();
+                    int pullRequestCount = readVariableLength(input);
+                    ImmutableList.Builder<Integer> pullRequests = ImmutableList.builder();
+                    for (int pullRequest = 0; pullRequest < pullRequestCount; pullRequest++) {
+                        pullRequests.add(readVariableLength(input));
+                    }
+                    items.add(new Item(version, section, text, pullRequests.build()));
+                }
+                files.add(new ReleaseFile(name, version, hash, items.build()));
+            }
+
+            int termCount = readVariableLength(input);
+            Map<String, int[]> postings = new HashMap<>(termCount * 2);
+            for (int term = 0; term < termCount; term++) {
+                String value = input.readUTF();
+                int[] ids = new int[readVariableLength(input)];
+                int previous = 0;
+                for (int index = 0; index < ids.length; index++) {
+                    previous += readVariableLength(input);
+                    ids[index] = previous;
+                }
+                postings.put(value, ids);
+            }
+            List<ReleaseFile> releaseFiles = files.build();
+            return Optional.of(new ReleaseNotesIndex(
+                    releaseFiles,
+                    releaseFiles.stream().flatMap(releaseFile -> releaseFile.getItems().stream()).collect(toImmutableList()),
+                    postings));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(File file)
+    {
+        try {
+            createParentDirs(file);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(files.size());
+                for (ReleaseFile releaseFile : files) {
+                    output.writeUTF(releaseFile.getName());
+                    output.writeUTF(releaseFile.getHash());
+                    output.writeUTF(releaseFile.getVersion());
+                    writeVariableLength(output, releaseFile.getItems().size());
+                    for (Item item : releaseFile.getItems()) {
+                        output.writeUTF(item.getSection());
+                        output.writeUTF(item.getText());
+                        writeVariableLength(output, item.getPullRequests().size());
+                        for (int pullRequest : item.getPullRequests()) {
+                            writeVariableLength(output, pullRequest);
+                        }
+                    }
+                }
+
+                writeVariableLength(output, postings.size());
+                for (Map.Entry<String, int[]> entry : new TreeMap<>(postings).entrySet()) {
+                    output.writeUTF(entry.getKey());
+                    writeVariableLength(output, entry.getValue().length);
+                    int previous = 0;
+                    for (int id : entry.getValue()) {
+                        writeVariableLength(output, id - previous);
+                        previous = id;
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeVariableLength(DataOutputStream output, int value)
+            throws IOException
+    {
+        while ((value & ~0x7f) != 0) {
+            output.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVariableLength(DataInputStream input)
+            throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = input.readByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static class ReleaseFile
+    {
+        private final String name;
+        private final String version;
+        private final String hash;
+        private final List<Item> items;
+
+        public ReleaseFile(String name, String version, String hash, List<Item> items)
+        {
+            this.name = requireNonNull(name, "name is null");
+            this.version = requireNonNull(version, "version is null");
+            this.hash = requireNonNull(hash, "hash is null");
+            this.items = ImmutableList.copyOf(requireNonNull(items, "items is null"));
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getVersion()
+        {
+            return version;
+        }
+
+        public String getHash()
+        {
+            return hash;
+        }
+
+        public List<Item> getItems()
+        {
+            return items;
+        }
+    }
+
+    public static class Item
+    {
+        private final String version;
+        private final String section;
+        private final String text;
+        private final List<Integer> pullRequests;
+
+        public Item(String version, String section, String text, List<Integer> pullRequests)
+        {
+            this.version = requireNonNull(version, "version is null");
+            this.section = requireNonNull(section, "section is null");
+            this.text = requireNonNull(text, "text is null");
+            this.pullRequests = ImmutableList.copyOf(requireNonNull(pullRequests, "pullRequests is null"));
+        }
+
+        public String getVersion()
+        {
+            return version;
+        }
+
+        public String getSection()
+        {
+            return section;
+        }
+
+        public String getText()
+        {
+            return text;
+        }
+
+        public List<Integer> getPullRequests()
+        {
+            return pullRequests;
+        }
+
+        @Override
+        public String toString()
+        {
+            return version + " " + section + ": " + text;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+
+import javax.validation.constraints.NotNull;
+
+public class ReleaseNotesIndexConfig
+{
+    private String indexFile = "release-notes-index.bin.gz";
+
+    @NotNull
+    public String getIndexFile()
+    {
+        return indexFile;
+    }
+
+    @Config("release-notes-index.file")
+    @ConfigDescription("Inverted index of the release notes, written by index-release-notes and read by search-release-notes")
+    public ReleaseNotesIndexConfig setIndexFile(String indexFile)
+    {
+        this.indexFile = indexFile;
+        return this;
+    }
+}
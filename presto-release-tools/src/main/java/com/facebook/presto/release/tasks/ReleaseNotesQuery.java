@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.tasks.ReleaseNotesIndex.Item;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.facebook.presto.release.tasks.ReleaseNotesIndex.tokenize;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.indexOfSubList;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Query of the {@link ReleaseNotesIndex}: the words and {@code "quoted phrases"} all have to be found in a note, and
+ * the {@code section:}, {@code version:} and {@code pr:} filters restrict the notes to a section whose name contains
+ * the value, a release, or a pull request, e.g. {@code section:"hive connector" "max partitions" version:0.231}.
+ */
+public class ReleaseNotesQuery
+{
+    private static final Pattern TOKEN = Pattern.compile("(?:(section|version|pr):)?(?:\"([^\"]*)\"|(\\S+))");
+
+    private final Set<String> terms;
+    private final List<List<String>> phrases;
+    private final Optional<String> section;
+    private final Optional<String> version;
+    private final OptionalInt pullRequest;
+
+    private ReleaseNotesQuery(Set<String> terms, List<List<String>> phrases, Optional<String> section, Optional<String> version, OptionalInt pullRequest)
+    {
+        this.terms = ImmutableSet.copyOf(requireNonNull(terms, "terms is null"));
+        this.phrases = ImmutableList.copyOf(requireNonNull(phrases, "phrases is null"));
+        this.section = requireNonNull(section, "section is null");
+        this.version = requireNonNull(version, "version is null");
+        this.pullRequest = requireNonNull(pullRequest, "pullRequest is null");
+    }
+
+    public static ReleaseNotesQuery parse(String query)
+    {
+        ImmutableSet.Builder<String> terms = ImmutableSet.builder();
+        ImmutableList.Builder<List<String>> phrases = ImmutableList.builder();
+        Optional<String> section = Optional.empty();
+        Optional<String> version = Optional.empty();
+        OptionalInt pullRequest = OptionalInt.empty();
+
+        Matcher matcher = TOKEN.matcher(query);
+        while (matcher.find()) {
+            String value = matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
+            if (matcher.group(1) == null) {
+                List<String> words = tokenize(value);
+                terms.addAll(words);
+                if (matcher.group(2) != null && words.size() > 1) {
+                    phrases.add(words);
+                }
+                continue;
+            }
+            switch (matcher.group(1)) {
+                case "section":
+                    section = Optional.of(value.toLowerCase(ENGLISH));
+                    break;
+                case "version":
+                    version = Optional.of(value);
+                    break;
+                case "pr":
+                    checkArgument(value.matches("#?\\d+"), "Invalid pull request number: %s", value);
+                    pullRequest = OptionalInt.of(Integer.parseInt(value.replace("#", "")));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown filter: " + matcher.group(1));
+            }
+        }
+        return new ReleaseNotesQuery(terms.build(), phrases.build(), section, version, pullRequest);
+    }
+
+    /**
+     * Terms that every matching note contains.
+     */
+    public Set<String> getTerms()
+    {
+        return terms;
+    }
+
+    /**
+     * Check the filters and phrases of the query on a note containing all its terms.
+     */
+    public boolean matches(Item item)
+    {
+        if (section.isPresent() && !item.getSection().toLowerCase(ENGLISH).contains(section.get())) {
+            return false;
+        }
+        if (version.isPresent() && !item.getVersion().equals(version.get())) {
+            return false;
+        }
+        if (pullRequest.isPresent() && !item.getPullRequests().contains(pullRequest.getAsInt())) {
+            return false;
+        }
+        if (phrases.isEmpty()) {
+            return true;
+        }
+        List<String> words = tokenize(item.getText());
+        return phrases.stream().allMatch(phrase -> indexOfSubList(words, phrase) >= 0);
+    }
+}
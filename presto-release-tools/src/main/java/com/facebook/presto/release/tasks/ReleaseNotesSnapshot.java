@@ -0,0 +1,455 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.json.ObjectMapperProvider;
+import com.facebook.presto.release.git.Actor;
+import com.facebook.presto.release.git.Commit;
+import com.facebook.presto.release.git.PullRequest;
+import com.facebook.presto.release.git.User;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Everything {@link GenerateReleaseNotesTask} fetches from Github for a release, stored as gzipped JSON.
+ * Pull requests are stored once and referenced by number from the commits. Display names of the pull request
+ * authors and committers are stored by login, and are empty in snapshots written before they were resolved.
+ * In memory, the commits and pull requests are only held by a {@link CommitTable}, which the snapshot file is
+ * streamed into and out of one commit or pull request at a time.
+ */
+public class ReleaseNotesSnapshot
+{
+    private static final ObjectMapper MAPPER = new ObjectMapperProvider().get().disable(FLUSH_AFTER_WRITE_VALUE);
+
+    private final String version;
+    private final String repository;
+    private final CommitTable table;
+    private final Map<String, String> contributors;
+
+    public ReleaseNotesSnapshot(String version, String repository, List<SnapshotCommit> commits, List<SnapshotPullRequest> pullRequests)
+    {
+        this(version, repository, commits, pullRequests, ImmutableMap.of());
+    }
+
+    public ReleaseNotesSnapshot(String version, String repository, List<SnapshotCommit> commits, List<SnapshotPullRequest> pullRequests, Map<String, String> contributors)
+    {
+        this(version, repository, createTable(requireNonNull(commits, "commits is null"), requireNonNull(pullRequests, "pullRequests is null")), contributors);
+    }
+
+    private ReleaseNotesSnapshot(String version, String repository, CommitTable table, Map<String, String> contributors)
+    {
+        this.version = requireNonNull(version, "version is null");
+        this.repository = requireNonNull(repository, "repository is null");
+        this.table = requireNonNull(table, "table is null");
+        this.contributors = contributors == null ? ImmutableMap.of() : ImmutableMap.copyOf(contributors);
+    }
+
+    public static ReleaseNotesSnapshot create(String version, String repository, List<Commit> commits)
+    {
+        CommitTable.Builder table = CommitTable.builder();
+        commits.forEach(table::addCommit);
+        return create(version, repository, table.build());
+    }
+
+    public static ReleaseNotesSnapshot create(String version, String repository, CommitTable table)
+    {
+        return new ReleaseNotesSnapshot(version, repository, table, ImmutableMap.of());
+    }
+
+    public static ReleaseNotesSnapshot read(File file)
+    {
+        return read(file, commit -> true);
+    }
+
+    /**
+     * Read the commits of {@code file} accepted by {@code commitFilter}, and the pull requests of the accepted commits.
+     */
+    public static ReleaseNotesSnapshot read(File file, Predicate<String> commitFilter)
+    {
+        String version = null;
+        String repository = null;
+        Map<String, String> contributors = null;
+        CommitTable.Builder table = CommitTable.builder();
+        // Snapshots list the commits before the pull requests, so the pull requests of the filtered out commits are skipped
+        Optional<Set<Integer>> referencedPullRequests = Optional.empty();
+        try (JsonParser parser = MAPPER.getFactory().createParser(new GZIPInputStream(new FileInputStream(file)))) {
+            checkToken(parser.nextToken(), START_OBJECT, file);
+            while (parser.nextToken() == FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "version":
+                        version = parser.getValueAsString();
+                        break;
+                    case "repository":
+                        repository = parser.getValueAsString();
+                        break;
+                    case "contributors":
+                        contributors = MAPPER.readValue(parser, new TypeReference<Map<String, String>>() {});
+                        break;
+                    case "commits":
+                        checkToken(value, START_ARRAY, file);
+                        Set<Integer> referenced = new HashSet<>();
+                        while (parser.nextToken() != END_ARRAY) {
+                            SnapshotCommit commit = MAPPER.readValue(parser, SnapshotCommit.class);
+                            if (commitFilter.test(commit.getId())) {
+                                referenced.addAll(commit.getPullRequests());
+                                table.addCommit(commit.getId(), commit.getAuthor(), commit.getTitle(), commit.getPullRequests().stream().mapToInt(Integer::intValue).toArray());
+                            }
+                        }
+                        referencedPullRequests = Optional.of(referenced);
+                        break;
+                    case "pullRequests":
+                        checkToken(value, START_ARRAY, file);
+                        while (parser.nextToken() != END_ARRAY) {
+                            SnapshotPullRequest pullRequest = MAPPER.readValue(parser, SnapshotPullRequest.class);
+                            if (!referencedPullRequests.isPresent() || referencedPullRequests.get().contains(pullRequest.getNumber())) {
+                                addPullRequest(table, pullRequest);
+                            }
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        checkArgument(version != null && repository != null, "Snapshot %s is missing its version or repository", file);
+        return new ReleaseNotesSnapshot(version, repository, table.build(), contributors);
+    }
+
+    private static void checkToken(JsonToken token, JsonToken expected, File file)
+    {
+        checkArgument(token == expected, "Expected %s but found %s in snapshot %s", expected, token, file);
+    }
+
+    /**
+     * Write the snapshot one commit and pull request at a time, so that only the table is held in memory.
+     */
+    public void write(File file)
+    {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(new GZIPOutputStream(new FileOutputStream(file)))) {
+            generator.writeStartObject();
+            generator.writeStringField("version", version);
+            generator.writeStringField("repository", repository);
+            generator.writeArrayFieldStart("commits");
+            for (int commit = 0; commit < table.getCommitCount(); commit++) {
+                MAPPER.writeValue(generator, getSnapshotCommit(commit));
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("pullRequests");
+            for (int pullRequest = 0; pullRequest < table.getPullRequestCount(); pullRequest++) {
+                MAPPER.writeValue(generator, SnapshotPullRequest.from(table.getPullRequest(pullRequest)));
+            }
+            generator.writeEndArray();
+            generator.writeFieldName("contributors");
+            MAPPER.writeValue(generator, contributors);
+            generator.writeEndObject();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String getVersion()
+    {
+        return version;
+    }
+
+    public String getRepository()
+    {
+        return repository;
+    }
+
+    /**
+     * The commits as stored in the snapshot file, built from the table on each call.
+     */
+    public List<SnapshotCommit> getSnapshotCommits()
+    {
+        return IntStream.range(0, table.getCommitCount())
+                .mapToObj(this::getSnapshotCommit)
+                .collect(toImmutableList());
+    }
+
+    private SnapshotCommit getSnapshotCommit(int commit)
+    {
+        return new SnapshotCommit(
+                table.getCommitId(commit),
+                table.getCommitAuthor(commit),
+                table.getCommitTitle(commit),
+                table.getPullRequests(commit).mapToObj(table::getPullRequestNumber).collect(toImmutableList()));
+    }
+
+    /**
+     * The pull requests as stored in the snapshot file, built from the table on each call.
+     */
+    public List<SnapshotPullRequest> getSnapshotPullRequests()
+    {
+        return IntStream.range(0, table.getPullRequestCount())
+                .mapToObj(pullRequest -> SnapshotPullRequest.from(table.getPullRequest(pullRequest)))
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Display names of the pull request authors and committers, keyed by login.
+     */
+    public Map<String, String> getContributors()
+    {
+        return contributors;
+    }
+
+    public ReleaseNotesSnapshot withContributors(Map<String, String> contributors)
+    {
+        return new ReleaseNotesSnapshot(version, repository, table, contributors);
+    }
+
+    /**
+     * Logins of the pull request authors and committers.
+     */
+    public Set<String> getContributorLogins()
+    {
+        ImmutableSet.Builder<String> logins = ImmutableSet.builder();
+        for (int pullRequest = 0; pullRequest < table.getPullRequestCount(); pullRequest++) {
+            logins.add(table.getPullRequestAuthorLogin(pullRequest));
+            table.getPullRequestMergedByLogin(pullRequest).ifPresent(logins::add);
+        }
+        return logins.build();
+    }
+
+    /**
+     * Rebuild the commits in their original order, sharing one {@link PullRequest} instance per pull request.
+     */
+    public List<Commit> getCommits()
+    {
+        PullRequest[] pullRequests = new PullRequest[table.getPullRequestCount()];
+        return IntStream.range(0, table.getCommitCount())
+                .mapToObj(commit -> new Commit(
+                        table.getCommitId(commit),
+                        table.getCommitAuthor(commit),
+                        table.getCommitTitle(commit),
+                        table.getPullRequests(commit)
+                                .mapToObj(pullRequest -> {
+                                    if (pullRequests[pullRequest] == null) {
+                                        pullRequests[pullRequest] = table.getPullRequest(pullRequest);
+                                    }
+                                    return pullRequests[pullRequest];
+                                })
+                                .collect(toImmutableList())))
+                .collect(toImmutableList());
+    }
+
+    /**
+     * The commits and pull requests, in their original order.
+     */
+    public CommitTable getCommitTable()
+    {
+        return table;
+    }
+
+    private static CommitTable createTable(List<SnapshotCommit> commits, List<SnapshotPullRequest> pullRequests)
+    {
+        CommitTable.Builder table = CommitTable.builder();
+        pullRequests.forEach(pullRequest -> addPullRequest(table, pullRequest));
+        for (SnapshotCommit commit : commits) {
+            table.addCommit(commit.getId(), commit.getAuthor(), commit.getTitle(), commit.getPullRequests().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return table.build();
+    }
+
+    private static void addPullRequest(CommitTable.Builder table, SnapshotPullRequest pullRequest)
+    {
+        table.addPullRequest(
+                pullRequest.getNumber(),
+                pullRequest.getTitle(),
+                pullRequest.getUrl(),
+                pullRequest.getBody(),
+                pullRequest.getAuthorLogin(),
+                pullRequest.getMergedByLogin(),
+                pullRequest.getMergedByName());
+    }
+
+    public static class SnapshotCommit
+    {
+        private final String id;
+        private final String author;
+        private final String title;
+        private final List<Integer> pullRequests;
+
+        @JsonCreator
+        public SnapshotCommit(
+                @JsonProperty("id") String id,
+                @JsonProperty("author") String author,
+                @JsonProperty("title") String title,
+                @JsonProperty("pullRequests") List<Integer> pullRequests)
+        {
+            this.id = requireNonNull(id, "id is null");
+            this.author = requireNonNull(author, "author is null");
+            this.title = requireNonNull(title, "title is null");
+            this.pullRequests = ImmutableList.copyOf(requireNonNull(pullRequests, "pullRequests is null"));
+        }
+
+        @JsonProperty
+        public String getId()
+        {
+            return id;
+        }
+
+        @JsonProperty
+        public String getAuthor()
+        {
+            return author;
+        }
+
+        @JsonProperty
+        public String getTitle()
+        {
+            return title;
+        }
+
+        @JsonProperty
+        public List<Integer> getPullRequests()
+        {
+            return pullRequests;
+        }
+    }
+
+    public static class SnapshotPullRequest
+    {
+        private final int number;
+        private final String title;
+        private final String url;
+        private final String body;
+        private final String authorLogin;
+        private final Optional<String> mergedByLogin;
+        private final Optional<String> mergedByName;
+
+        @JsonCreator
+        public SnapshotPullRequest(
+                @JsonProperty("number") int number,
+                @JsonProperty("title") String title,
+                @JsonProperty("url") String url,
+                @JsonProperty("body") String body,
+                @JsonProperty("authorLogin") String authorLogin,
+                @JsonProperty("mergedByLogin") Optional<String> mergedByLogin,
+                @JsonProperty("mergedByName") Optional<String> mergedByName)
+        {
+            this.number = number;
+            this.title = requireNonNull(title, "title is null");
+            this.url = requireNonNull(url, "url is null");
+            this.body = requireNonNull(body, "body is null");
+            this.authorLogin = requireNonNull(authorLogin, "authorLogin is null");
+            this.mergedByLogin = requireNonNull(mergedByLogin, "mergedByLogin is null");
+            this.mergedByName = requireNonNull(mergedByName, "mergedByName is null");
+        }
+
+        public static SnapshotPullRequest from(PullRequest pullRequest)
+        {
+            return new SnapshotPullRequest(
+                    pullRequest.getId(),
+                    pullRequest.getTitle(),
+                    pullRequest.getUrl(),
+                    pullRequest.getDescription(),
+                    pullRequest.getAuthorLogin(),
+                    pullRequest.getMergedBy().map(User::getLogin),
+                    pullRequest.getMergedBy().flatMap(User::getName));
+        }
+
+        public PullRequest toPullRequest()
+        {
+            return new PullRequest(
+                    number,
+                    title,
+                    url,
+                    body,
+                    new Actor(authorLogin),
+                    mergedByLogin.map(login -> new User(login, mergedByName.orElse(null))).orElse(null));
+        }
+
+        @JsonProperty
+        public int getNumber()
+        {
+            return number;
+        }
+
+        @JsonProperty
+        public String getTitle()
+        {
+            return title;
+        }
+
+        @JsonProperty
+        public String getUrl()
+        {
+            return url;
+        }
+
+        @JsonProperty
+        public String getBody()
+        {
+            return body;
+        }
+
+        @JsonProperty
+        public String getAuthorLogin()
+        {
+            return authorLogin;
+        }
+
+        @JsonProperty
+        public Optional<String> getMergedByLogin()
+        {
+            return mergedByLogin;
+        }
+
+        @JsonProperty
+        public Optional<String> getMergedByName()
+        {
+            return mergedByName;
+        }
+    }
+}
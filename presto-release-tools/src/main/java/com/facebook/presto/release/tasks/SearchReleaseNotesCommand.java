@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Module;
+import io.airlift.airline.Command;
+import io.airlift.airline.Option;
+
+import javax.inject.Inject;
+
+import java.util.List;
+
+@Command(name = "search-release-notes", description = "Search the release notes indexed by index-release-notes")
+public class SearchReleaseNotesCommand
+        extends AbstractReleaseCommand
+{
+    @Option(name = "--query", title = "query", description = "Words, \"quoted phrases\" and section:, version: or pr: filters, e.g. section:hive \"max partitions\"", required = true)
+    @ConfigProperty("release-notes-search.query")
+    public String query;
+
+    @Option(name = "--limit", title = "count", description = "Maximum number of release notes to list, newest first")
+    @ConfigProperty("release-notes-search.limit")
+    public Integer limit;
+
+    @Inject
+    public ReleaseNotesIndexOptions indexOptions = new ReleaseNotesIndexOptions();
+
+    @Override
+    protected List<Module> getModules()
+    {
+        return ImmutableList.of(new SearchReleaseNotesModule());
+    }
+
+    @Override
+    protected Class<? extends ReleaseTask> getReleaseTask()
+    {
+        return SearchReleaseNotesTask.class;
+    }
+}
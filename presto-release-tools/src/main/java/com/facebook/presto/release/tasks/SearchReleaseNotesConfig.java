@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+public class SearchReleaseNotesConfig
+{
+    private String query;
+    private int limit = 20;
+
+    @NotNull
+    public String getQuery()
+    {
+        return query;
+    }
+
+    @Config("release-notes-search.query")
+    @ConfigDescription("Words, \"quoted phrases\" and section:, version: or pr: filters the release notes must match")
+    public SearchReleaseNotesConfig setQuery(String query)
+    {
+        this.query = query;
+        return this;
+    }
+
+    @Min(1)
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    @Config("release-notes-search.limit")
+    @ConfigDescription("Maximum number of release notes to list, newest first")
+    public SearchReleaseNotesConfig setLimit(int limit)
+    {
+        this.limit = limit;
+        return this;
+    }
+}
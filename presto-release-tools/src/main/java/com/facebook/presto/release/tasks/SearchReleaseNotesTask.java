@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.release.tasks.ReleaseNotesIndex.Item;
+
+import javax.inject.Inject;
+
+import java.io.File;
+import java.util.List;
+
+import static com.facebook.presto.release.stats.ReleaseStats.startStage;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+public class SearchReleaseNotesTask
+        implements ReleaseTask
+{
+    private static final Logger log = Logger.get(SearchReleaseNotesTask.class);
+
+    private final File indexFile;
+    private final ReleaseNotesQuery query;
+    private final int limit;
+
+    @Inject
+    public SearchReleaseNotesTask(ReleaseNotesIndexConfig indexConfig, SearchReleaseNotesConfig config)
+    {
+        this.indexFile = new File(requireNonNull(indexConfig, "indexConfig is null").getIndexFile());
+        this.query = ReleaseNotesQuery.parse(config.getQuery());
+        this.limit = config.getLimit();
+    }
+
+    @Override
+    public void run()
+    {
+        startStage("read-index");
+        ReleaseNotesIndex index = ReleaseNotesIndex.read(indexFile)
+                .orElseThrow(() -> new IllegalStateException("Release notes index not found, run index-release-notes first: " + indexFile.getAbsolutePath()));
+        startStage("search");
+        List<Item> items = index.search(query, limit);
+        log.info("Found %s release notes", items.size());
+        for (Item item : items) {
+            log.info("%s %s: %s%s",
+                    item.getVersion(),
+                    item.getSection(),
+                    item.getText(),
+                    item.getPullRequests().stream().map(pullRequest -> " #" + pullRequest).collect(joining()));
+        }
+    }
+}
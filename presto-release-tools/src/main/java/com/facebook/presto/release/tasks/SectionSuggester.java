@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.tasks.GenerateReleaseNotesTask.CategoryComparator;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.facebook.presto.release.tasks.GenerateReleaseNotesTask.HEADER_PATTERN;
+import static com.google.common.io.Files.asCharSource;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+/**
+ * Suggest the release notes section of a pull request from the files it changes. Each module directory is mapped to a
+ * section, either one of the fixed sections of {@link GenerateReleaseNotesTask#VALID_SECTION_HEADERS} or a connector
+ * or plugin section found in earlier release notes, and the paths are matched with a {@link PathTrie} of the modules.
+ */
+public class SectionSuggester
+{
+    /**
+     * {@code git log --numstat} format collected by {@link ChangedFiles}.
+     */
+    public static final String CHANGED_FILES_FORMAT = "--format=%x00%H";
+
+    private static final String MODULE_PREFIX = "presto-";
+    private static final Pattern QUALIFIED_SECTION = Pattern.compile(" (connector|plugin)$", CASE_INSENSITIVE);
+    private static final Map<String, String> MODULE_SECTIONS = ImmutableMap.<String, String>builder()
+            .put("presto-main", "General")
+            .put("presto-main-base", "General")
+            .put("presto-common", "General")
+            .put("presto-parser", "General")
+            .put("presto-analyzer", "General")
+            .put("presto-client", "General")
+            .put("presto-cli", "General")
+            .put("presto-server", "General")
+            .put("presto-native-execution", "Prestissimo (Native Execution)")
+            .put("presto-password-authenticators", "Security")
+            .put("presto-jdbc", "JDBC Driver")
+            .put("presto-ui", "Web UI")
+            .put("presto-verifier", "Verifier")
+            .put("presto-resource-group-managers", "Resource Groups")
+            .put("presto-spi", "SPI")
+            .put("presto-docs", "Documentation")
+            .build();
+
+    private final PathTrie<String> sections;
+
+    public SectionSuggester(PathTrie<String> sections)
+    {
+        this.sections = requireNonNull(sections, "sections is null");
+    }
+
+    /**
+     * Map the module directories of {@code paths} to sections. Modules not in the fixed list are matched to the
+     * {@code knownSections} by the longest leading words of their name, e.g. {@code presto-hive-metastore} to
+     * {@code Hive Connector}.
+     */
+    public static SectionSuggester create(Collection<String> paths, Collection<String> knownSections)
+    {
+        Map<String, String> sectionByName = new HashMap<>();
+        for (String section : knownSections) {
+            String name = QUALIFIED_SECTION.matcher(section).replaceAll("").replaceAll("[^A-Za-z0-9]", "").toLowerCase(ENGLISH);
+            sectionByName.merge(name, section, SectionSuggester::preferredSection);
+        }
+
+        PathTrie.Builder<String> trie = PathTrie.builder();
+        Set<String> modules = new TreeSet<>();
+        for (String path : paths) {
+            int slash = path.indexOf('/');
+            if (slash > 0 && path.startsWith(MODULE_PREFIX)) {
+                modules.add(path.substring(0, slash));
+            }
+        }
+        for (String module : modules) {
+            getModuleSection(module, sectionByName).ifPresent(section -> trie.put(module, section));
+        }
+        return new SectionSuggester(trie.build());
+    }
+
+    /**
+     * Prefer the current {@code <Name> Connector} and {@code <Name> Plugin} headers over the older {@code <Name>} ones,
+     * and connectors over plugins.
+     */
+    private static String preferredSection(String first, String second)
+    {
+        boolean firstQualified = QUALIFIED_SECTION.matcher(first).find();
+        if (firstQualified != QUALIFIED_SECTION.matcher(second).find()) {
+            return firstQualified ? first : second;
+        }
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    private static Optional<String> getModuleSection(String module, Map<String, String> sectionByName)
+    {
+        if (MODULE_SECTIONS.containsKey(module)) {
+            return Optional.of(MODULE_SECTIONS.get(module));
+        }
+        List<String> words = Splitter.on('-').splitToList(module.substring(MODULE_PREFIX.length()));
+        for (int count = words.size(); count > 0; count--) {
+            String section = sectionByName.get(String.join("", words.subList(0, count)).toLowerCase(ENGLISH));
+            if (section != null) {
+                return Optional.of(section);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The section of most of the {@code paths}, ties going to the section listed first in the release notes. Paths
+     * outside of the known modules, such as the root {@code pom.xml}, are ignored.
+     */
+    public Optional<String> suggest(Collection<String> paths)
+    {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String path : paths) {
+            getSection(path).ifPresent(section -> counts.merge(section, 1, Integer::sum));
+        }
+        return counts.entrySet().stream()
+                .min(Comparator.<Map.Entry<String, Integer>>comparingInt(entry -> -entry.getValue())
+                        .thenComparing(Map.Entry::getKey, new CategoryComparator()))
+                .map(Map.Entry::getKey);
+    }
+
+    /**
+     * The section of the module of {@code path}, which may be the module directory itself.
+     */
+    public Optional<String> getSection(String path)
+    {
+        return sections.getLongestPrefixMatch(path);
+    }
+
+    /**
+     * Changed files by commit id, from the output of {@code git log --numstat} or {@code git log --name-only} with
+     * {@link #CHANGED_FILES_FORMAT}.
+     */
+    public static Map<String, List<String>> parseChangedFiles(String log)
+    {
+        return ChangedFiles.parse(log).getFilesByCommit();
+    }
+
+    /**
+     * The {@code <Category> Changes} section headers of the release notes in {@code directory}, without the
+     * {@code Changes} suffix.
+     */
+    public static Set<String> readKnownSections(File directory)
+    {
+        ImmutableSet.Builder<String> sections = ImmutableSet.builder();
+        File[] files = directory.listFiles((parent, name) -> name.endsWith(".rst"));
+        for (File file : files == null ? new File[0] : files) {
+            try {
+                List<String> lines = asCharSource(file, UTF_8).readLines();
+                for (int i = 0; i + 1 < lines.size(); i++) {
+                    Matcher matcher = HEADER_PATTERN.matcher(lines.get(i).trim());
+                    if (matcher.matches() && lines.get(i + 1).trim().matches("[_-]+")) {
+                        sections.add(matcher.group(1));
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return sections.build();
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import io.airlift.airline.Option;
+
+public class StatsOptions
+{
+    @Option(name = "--stats-report", title = "file", description = "Write the timings of git, Maven and Github operations and task stages to a JSON file")
+    @ConfigProperty("stats.report-file")
+    public String reportFile;
+
+    @Option(name = "--record", title = "file", description = "Record the run with Java Flight Recorder to a .jfr file")
+    @ConfigProperty("stats.recording-file")
+    public String recordingFile;
+
+    @Option(name = "--trace", title = "file", description = "Write the timeline of the run to a Chrome Trace Event JSON file")
+    @ConfigProperty("stats.trace-file")
+    public String traceFile;
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.ImmutableIntArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Strings stored back to back as UTF-8 in blocks of bytes, so a column of many strings costs their encoded bytes and a
+ * few ints each, instead of a {@link String} and a char array each. The column grows a block at a time rather than by
+ * copying, so building it never needs more than one block on top of the strings added.
+ */
+final class StringColumn
+{
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final List<byte[]> blocks;
+    private final ImmutableIntArray blockIndexes;
+    private final ImmutableIntArray starts;
+    private final ImmutableIntArray lengths;
+
+    private StringColumn(List<byte[]> blocks, ImmutableIntArray blockIndexes, ImmutableIntArray starts, ImmutableIntArray lengths)
+    {
+        this.blocks = ImmutableList.copyOf(requireNonNull(blocks, "blocks is null"));
+        this.blockIndexes = requireNonNull(blockIndexes, "blockIndexes is null");
+        this.starts = requireNonNull(starts, "starts is null");
+        this.lengths = requireNonNull(lengths, "lengths is null");
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public int size()
+    {
+        return lengths.length();
+    }
+
+    /**
+     * Decode string {@code index}. Every call decodes a new instance.
+     */
+    public String get(int index)
+    {
+        checkElementIndex(index, size());
+        return new String(blocks.get(blockIndexes.get(index)), starts.get(index), lengths.get(index), UTF_8);
+    }
+
+    public static class Builder
+    {
+        private final List<byte[]> blocks = new ArrayList<>();
+        private int blockSize;
+        private final ImmutableIntArray.Builder blockIndexes = ImmutableIntArray.builder();
+        private final ImmutableIntArray.Builder starts = ImmutableIntArray.builder();
+        private final ImmutableIntArray.Builder lengths = ImmutableIntArray.builder();
+
+        private Builder()
+        {
+        }
+
+        public Builder add(String value)
+        {
+            byte[] encoded = requireNonNull(value, "value is null").getBytes(UTF_8);
+            if (blocks.isEmpty() || blockSize + encoded.length > blocks.get(blocks.size() - 1).length) {
+                // Strings larger than a block get a block of their own
+                blocks.add(new byte[Math.max(BLOCK_SIZE, encoded.length)]);
+                blockSize = 0;
+            }
+            System.arraycopy(encoded, 0, blocks.get(blocks.size() - 1), blockSize, encoded.length);
+            blockIndexes.add(blocks.size() - 1);
+            starts.add(blockSize);
+            lengths.add(encoded.length);
+            blockSize += encoded.length;
+            return this;
+        }
+
+        public StringColumn build()
+        {
+            List<byte[]> trimmed = new ArrayList<>(blocks);
+            if (!trimmed.isEmpty()) {
+                trimmed.set(trimmed.size() - 1, Arrays.copyOf(trimmed.get(trimmed.size() - 1), blockSize));
+            }
+            return new StringColumn(trimmed, blockIndexes.build(), starts.build(), lengths.build());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.facebook.presto.release.AbstractCommands.command;
+import static com.facebook.presto.release.AbstractCommands.pipe;
+import static com.facebook.presto.release.stats.ReleaseStats.getCommandCategory;
+import static com.facebook.presto.release.stats.ReleaseStats.getCommandName;
+import static com.facebook.presto.release.stats.ReleaseStats.getOperationStats;
+import static com.google.common.io.Files.asCharSource;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestAbstractCommands
+{
+    private static final Duration TIMEOUT = new Duration(1, MINUTES);
+
+    private File directory;
+
+    @BeforeClass
+    public void setup()
+    {
+        directory = createTempDir();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testCommand()
+    {
+        assertEquals(command(ImmutableList.of("echo", "hello"), ImmutableMap.of(), directory, TIMEOUT), "hello\n");
+        assertEquals(pipe(ImmutableList.of("echo", "hello"), ImmutableList.of("tr", "a-z", "A-Z"), ImmutableMap.of(), directory, TIMEOUT), "HELLO\n");
+    }
+
+    @Test
+    public void testStreamedCommand()
+    {
+        List<String> lines = new ArrayList<>();
+        command(ImmutableList.of("printf", "first\\nsecond\\n"), lines::add, ImmutableMap.of(), directory, TIMEOUT);
+        assertEquals(lines, ImmutableList.of("first", "second"));
+
+        // a failing consumer stops the command and fails it
+        try {
+            command(ImmutableList.of("yes"), line -> {
+                throw new IllegalStateException("Unexpected line: " + line);
+            }, ImmutableMap.of(), directory, TIMEOUT);
+            fail("expected IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "Unexpected line: y");
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void testTimeout()
+            throws Exception
+    {
+        File pidFile = new File(directory, "timeout.pid");
+        List<String> command = startChild(pidFile);
+        long timeouts = getOperationStats(getCommandCategory(command), getCommandName(command)).getReport().getTimeouts();
+        try {
+            command(command, ImmutableMap.of(), directory, new Duration(1, SECONDS));
+            fail("expected timeout");
+        }
+        catch (CommandTimeoutException e) {
+            assertTrue(e.getMessage().startsWith("Command timed out after 1.00s: sh -c"), e.getMessage());
+        }
+        assertDestroyed(pidFile);
+        assertEquals(getOperationStats(getCommandCategory(command), getCommandName(command)).getReport().getTimeouts(), timeouts + 1);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testPipeTimeout()
+    {
+        // the pipeline is recorded under the names of both commands
+        long timeouts = getOperationStats("sh", "sleep 60 | cat").getReport().getTimeouts();
+        try {
+            pipe(ImmutableList.of("sh", "-c", "sleep 60"), ImmutableList.of("sh", "-c", "cat"), ImmutableMap.of(), directory, new Duration(1, SECONDS));
+            fail("expected timeout");
+        }
+        catch (CommandTimeoutException e) {
+            assertTrue(e.getMessage().endsWith(": sh -c \"sleep 60\" | sh -c cat"), e.getMessage());
+        }
+        assertEquals(getOperationStats("sh", "sleep 60 | cat").getReport().getTimeouts(), timeouts + 1);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testInterrupt()
+            throws Exception
+    {
+        File pidFile = new File(directory, "interrupt.pid");
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                command(startChild(pidFile), ImmutableMap.of(), directory, TIMEOUT);
+            }
+            catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        thread.start();
+        while (!pidFile.isFile() || asCharSource(pidFile, UTF_8).read().trim().isEmpty()) {
+            Thread.sleep(10);
+        }
+        thread.interrupt();
+        thread.join();
+
+        assertTrue(failure.get().getCause() instanceof InterruptedException, String.valueOf(failure.get()));
+        assertDestroyed(pidFile);
+    }
+
+    private static List<String> startChild(File pidFile)
+    {
+        // The shell waits for a child, which is not killed with the shell
+        return ImmutableList.of("sh", "-c", "sleep 60 & echo $! > " + pidFile.getAbsolutePath() + "; wait");
+    }
+
+    private static void assertDestroyed(File pidFile)
+            throws Exception
+    {
+        String pid = asCharSource(pidFile, UTF_8).read().trim();
+        long deadline = System.nanoTime() + SECONDS.toNanos(10);
+        while (isRunning(pid) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(isRunning(pid), "child process is still running");
+    }
+
+    private static boolean isRunning(String pid)
+    {
+        // Killed processes may linger as zombies until they are reaped
+        String state = command(ImmutableList.of("sh", "-c", "ps -o stat= -p " + pid + " || true"), ImmutableMap.of(), new File("."), TIMEOUT).trim();
+        return !state.isEmpty() && !state.startsWith("Z");
+    }
+}
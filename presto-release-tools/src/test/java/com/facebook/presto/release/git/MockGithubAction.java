@@ -15,30 +15,104 @@ package com.facebook.presto.release.git;
 
 import com.google.common.collect.ImmutableList;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 
 public class MockGithubAction
         implements GithubAction
 {
     private final List<Commit> commits;
+    private final Map<String, List<Commit>> repositoryCommits = new HashMap<>();
     private String pullRequestRepository;
     private String listCommitsRepository;
     private PullRequest pullRequest;
+    private Optional<PullRequest> openPullRequest = Optional.empty();
+    private final List<String> openPullRequestLookups = new ArrayList<>();
+    private PullRequest updatedPullRequest;
+    private List<User> users = ImmutableList.of();
+    private final List<List<String>> userLookups = new ArrayList<>();
 
     public MockGithubAction(List<Commit> commits)
     {
         this.commits = ImmutableList.copyOf(commits);
     }
 
+    public MockGithubAction setRepositoryCommits(String repository, List<Commit> commits)
+    {
+        repositoryCommits.put(repository, ImmutableList.copyOf(commits));
+        return this;
+    }
+
     @Override
     public List<Commit> listCommits(String repository, String latest, String earliest)
     {
+        if (repositoryCommits.containsKey(repository)) {
+            return repositoryCommits.get(repository);
+        }
         this.listCommitsRepository = repository;
         return commits;
     }
 
+    @Override
+    public List<MergedPullRequest> searchMergedPullRequests(String repository, String baseBranch, Instant mergedAfter, Instant mergedBefore)
+    {
+        return commits.stream()
+                .filter(commit -> !commit.getAssociatedPullRequests().isEmpty())
+                .map(commit -> new MergedPullRequest(commit.getAssociatedPullRequests().get(0), Optional.of(commit.getId())))
+                .collect(toImmutableList());
+    }
+
+    @Override
+    public List<Commit> getCommits(String repository, List<String> commitIds)
+    {
+        return commits.stream()
+                .filter(commit -> commitIds.contains(commit.getId()))
+                .collect(toImmutableList());
+    }
+
+    @Override
+    public List<PullRequest> getPullRequests(String repository, List<Integer> numbers)
+    {
+        return commits.stream()
+                .flatMap(commit -> commit.getAssociatedPullRequests().stream())
+                .filter(pullRequest -> numbers.contains(pullRequest.getId()))
+                .distinct()
+                .collect(toImmutableList());
+    }
+
+    @Override
+    public List<User> getUsers(List<String> logins)
+    {
+        userLookups.add(ImmutableList.copyOf(logins));
+        return users.stream()
+                .filter(user -> logins.stream().anyMatch(login -> login.equalsIgnoreCase(user.getLogin())))
+                .collect(toImmutableList());
+    }
+
+    public MockGithubAction setUsers(List<User> users)
+    {
+        this.users = ImmutableList.copyOf(users);
+        return this;
+    }
+
+    public List<List<String>> getUserLookups()
+    {
+        return userLookups;
+    }
+
+    @Override
+    public int getRemainingRateLimit()
+    {
+        return 5000;
+    }
+
     @Override
     public PullRequest createPullRequest(String repository, String baseRef, String headRef, String title, String body)
     {
@@ -48,6 +122,39 @@ public class MockGithubAction
         return pullRequest;
     }
 
+    @Override
+    public Optional<PullRequest> getOpenPullRequest(String repository, String headRefName)
+    {
+        openPullRequestLookups.add(headRefName);
+        return openPullRequest;
+    }
+
+    public MockGithubAction setOpenPullRequest(PullRequest openPullRequest)
+    {
+        this.openPullRequest = Optional.of(openPullRequest);
+        return this;
+    }
+
+    public List<String> getOpenPullRequestLookups()
+    {
+        return openPullRequestLookups;
+    }
+
+    @Override
+    public PullRequest updatePullRequest(String repository, int number, String body)
+    {
+        this.pullRequestRepository = repository;
+        checkState(openPullRequest.isPresent() && openPullRequest.get().getId() == number, "Unknown pull request #%s", number);
+        PullRequest existing = openPullRequest.get();
+        updatedPullRequest = new PullRequest(number, existing.getTitle(), existing.getUrl(), body, new Actor(existing.getAuthorLogin()), null);
+        return updatedPullRequest;
+    }
+
+    public PullRequest getUpdatedPullRequest()
+    {
+        return updatedPullRequest;
+    }
+
     public PullRequest getCreatedPullRequest()
     {
         return pullRequest;
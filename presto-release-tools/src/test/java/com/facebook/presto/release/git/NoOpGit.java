@@ -15,7 +15,9 @@ package com.facebook.presto.release.git;
 
 import com.facebook.presto.release.CommandLogger;
 
+import java.io.File;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
 
@@ -35,10 +37,30 @@ public class NoOpGit
         this.commandLogger = requireNonNull(commandLogger, "commandLogger is null");
     }
 
+    @Override
+    public Git forWorktree(File directory)
+    {
+        return new NoOpGit(getRepository().withDirectory(directory), commandLogger);
+    }
+
     @Override
     protected String command(List<String> arguments)
     {
         commandLogger.log("git", arguments);
         return "";
     }
+
+    @Override
+    protected void command(List<String> arguments, Consumer<String> lines)
+    {
+        commandLogger.log("git", arguments);
+    }
+
+    @Override
+    protected String pipe(List<String> producerArguments, List<String> consumerArguments)
+    {
+        commandLogger.log("git", producerArguments);
+        commandLogger.log("git", consumerArguments);
+        return "";
+    }
 }
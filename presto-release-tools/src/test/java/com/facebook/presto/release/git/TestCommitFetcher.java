@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.facebook.airlift.http.client.HttpClient;
+import com.facebook.airlift.http.client.jetty.JettyHttpClient;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.release.git.CommitFetchStrategy.BATCH;
+import static com.facebook.presto.release.git.CommitFetchStrategy.HISTORY;
+import static com.facebook.presto.release.git.CommitFetchStrategy.SEARCH;
+import static com.facebook.presto.release.git.TestingGithubServer.getCommitId;
+import static com.facebook.presto.release.git.TestingGithubServer.getCommitTime;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestCommitFetcher
+{
+    private HttpClient httpClient;
+
+    @BeforeClass
+    public void setup()
+    {
+        httpClient = new JettyHttpClient();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+    {
+        httpClient.close();
+    }
+
+    @Test
+    public void testSearchMatchesHistory()
+            throws IOException
+    {
+        List<LocalCommit> localCommits = localCommits(300, 10);
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(1_000)
+                .setCommitsPerPullRequest(3)
+                .build()) {
+            List<Commit> history = createFetcher(server).fetchCommits(HISTORY, "org/presto", "release-0.231", localCommits);
+            assertEquals(server.getRequestCount(), 10);
+
+            List<Commit> search = createFetcher(server).fetchCommits(SEARCH, "org/presto", "release-0.231", localCommits);
+            // the padded search range covers all 334 pull requests in 4 pages, and the 200 commits that are not merge
+            // commits are looked up in 4 batches
+            assertEquals(server.getRequestCount() - 10, 4 + 4);
+
+            assertEquals(search.size(), localCommits.size());
+            for (int i = 0; i < localCommits.size(); i++) {
+                assertEquals(search.get(i).getId(), history.get(i).getId());
+                assertEquals(search.get(i).getAssociatedPullRequests(), history.get(i).getAssociatedPullRequests());
+            }
+        }
+    }
+
+    @Test
+    public void testSearchMatchesPullRequestNumber()
+            throws IOException
+    {
+        // squash merged commits reference their pull request in the title, even when they are not the merge commit
+        List<LocalCommit> localCommits = IntStream.range(0, 30)
+                .mapToObj(index -> new LocalCommit(format("%040x", 10_000 + index), "Author", getCommitTime(index), format("Change (#%s)", index / 3 + 1)))
+                .collect(toImmutableList());
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(30)
+                .setCommitsPerPullRequest(3)
+                .build()) {
+            List<Commit> commits = createFetcher(server).fetchCommits(SEARCH, "org/presto", "release-0.231", localCommits);
+
+            assertEquals(server.getRequestCount(), 1);
+            assertEquals(commits.size(), 30);
+            assertEquals(commits.get(29).getTitle(), "Change (#10)");
+            assertEquals(commits.get(29).getAssociatedPullRequests().get(0).getId(), 10);
+        }
+    }
+
+    @Test
+    public void testBatchLookup()
+            throws IOException
+    {
+        // 60 commits reference 20 pull requests, the other 40 are looked up by id
+        List<LocalCommit> localCommits = IntStream.range(0, 100)
+                .mapToObj(index -> new LocalCommit(getCommitId(index), "Author", getCommitTime(index), index % 5 < 3 ? format("Change (#%s)", index / 5 + 1) : "Rebased change"))
+                .collect(toImmutableList());
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(100)
+                .setCommitsPerPullRequest(5)
+                .build()) {
+            List<Commit> commits = createFetcher(server).fetchCommits(BATCH, "org/presto", "release-0.231", localCommits);
+
+            assertEquals(server.getRequestCount(), 1 + 1);
+            assertEquals(commits.size(), 100);
+            assertEquals(commits.get(12).getTitle(), "Change (#3)");
+            assertEquals(commits.get(12).getAssociatedPullRequests().get(0).getId(), 3);
+            assertEquals(commits.get(14).getTitle(), "Synthetic commit 14");
+            assertEquals(commits.get(14).getAssociatedPullRequests().get(0).getId(), 3);
+        }
+    }
+
+    @Test
+    public void testUnknownCommits()
+            throws IOException
+    {
+        List<LocalCommit> localCommits = ImmutableList.of(new LocalCommit(getCommitId(5_000), "Author", getCommitTime(0), "Unpushed commit"));
+        try (TestingGithubServer server = TestingGithubServer.builder().build()) {
+            List<Commit> commits = createFetcher(server).fetchCommits(SEARCH, "org/presto", "release-0.231", localCommits);
+
+            assertEquals(commits.size(), 1);
+            assertEquals(commits.get(0).getTitle(), "Unpushed commit");
+            assertEquals(commits.get(0).getAssociatedPullRequests(), ImmutableList.of());
+        }
+    }
+
+    @Test
+    public void testParseLog()
+    {
+        List<LocalCommit> commits = LocalCommit.parseLog(
+                Joiner.on('\0').join("abc", "Jane Doe", "1580000000", "Add feature (#12)") + "\n" +
+                        Joiner.on('\0').join("def", "John Doe", "1570000000", "Fix bug") + "\n");
+        assertEquals(commits.size(), 2);
+        assertEquals(commits.get(0).getId(), "abc");
+        assertEquals(commits.get(0).getAuthor(), "Jane Doe");
+        assertEquals(commits.get(0).getCommitTime().getEpochSecond(), 1_580_000_000);
+        assertEquals(commits.get(1).getTitle(), "Fix bug");
+    }
+
+    private static List<LocalCommit> localCommits(int count, int authorCount)
+    {
+        return IntStream.range(0, count)
+                .mapToObj(index -> new LocalCommit(getCommitId(index), "Author " + (index % authorCount), getCommitTime(index), format("Synthetic commit %s", index)))
+                .collect(toImmutableList());
+    }
+
+    private CommitFetcher createFetcher(TestingGithubServer server)
+    {
+        GithubAction action = new GithubGraphQlAction(
+                httpClient,
+                new GithubConfig()
+                        .setUser("testUser")
+                        .setAccessToken("testToken")
+                        .setApiUri(server.getUri()));
+        return new CommitFetcher(action);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.release.AbstractCommands.command;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Splitter.on;
+import static com.google.common.io.Files.asCharSink;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestGitCommands
+{
+    private static final Duration TIMEOUT = new Duration(1, MINUTES);
+
+    private File directory;
+    private File upstreamDirectory;
+    private File localDirectory;
+
+    @BeforeMethod
+    public void setup()
+            throws IOException
+    {
+        directory = createTempDir();
+        upstreamDirectory = new File(directory, "upstream");
+        localDirectory = new File(directory, "presto");
+        checkState(upstreamDirectory.mkdirs());
+
+        git(upstreamDirectory, "init", "--quiet");
+        write(upstreamDirectory, "pom.xml", "<project/>");
+        write(upstreamDirectory, "presto-docs/src/main/sphinx/release.rst", "Release Notes");
+        write(upstreamDirectory, "presto-main/src/main/java/Main.java", "class Main {}");
+        git(upstreamDirectory, "add", ".");
+        git(upstreamDirectory, "-c", "user.name=Test", "-c", "user.email=test@example.com", "commit", "--quiet", "-m", "Initial commit");
+        git(upstreamDirectory, "branch", "-M", "master");
+
+        git(directory, "clone", "--quiet", "--origin", "upstream", upstreamDirectory.getAbsolutePath(), localDirectory.getAbsolutePath());
+        git(localDirectory, "config", "user.name", "Test");
+        git(localDirectory, "config", "user.email", "test@example.com");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+            throws IOException
+    {
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testSparseWorktree()
+            throws IOException
+    {
+        GitCommands git = createGit(localDirectory);
+        File worktreeDirectory = new File(directory, "worktree");
+        git.fetchUpstream(Optional.empty());
+        git.addWorktree(worktreeDirectory, "upstream/master");
+        Git worktreeGit = git.forWorktree(worktreeDirectory);
+        worktreeGit.sparseCheckout(ImmutableList.of("presto-docs", ".github"));
+
+        assertTrue(new File(worktreeDirectory, "pom.xml").isFile());
+        assertTrue(new File(worktreeDirectory, "presto-docs/src/main/sphinx/release.rst").isFile());
+        assertFalse(new File(worktreeDirectory, "presto-main").exists());
+        assertEquals(worktreeGit.status("--porcelain"), "");
+
+        worktreeGit.checkout(Optional.empty(), Optional.of("release-notes-0.231"));
+        write(worktreeDirectory, "presto-docs/src/main/sphinx/release/release-0.231.rst", "Release 0.231");
+        worktreeGit.add(".");
+        worktreeGit.commit("Add release notes for 0.231");
+
+        assertEquals(
+                changedFiles(worktreeDirectory),
+                ImmutableList.of("A\tpresto-docs/src/main/sphinx/release/release-0.231.rst"));
+        git.removeWorktree(worktreeDirectory);
+    }
+
+    @Test
+    public void testShallowCommits()
+            throws IOException
+    {
+        write(upstreamDirectory, "presto-main/src/main/java/Main.java", "class Main { }");
+        git(upstreamDirectory, "-c", "user.name=Test", "-c", "user.email=test@example.com", "commit", "--quiet", "-a", "-m", "Second commit");
+        File shallowDirectory = new File(directory, "shallow/presto");
+        git(directory, "clone", "--quiet", "--depth", "1", "file://" + upstreamDirectory.getAbsolutePath(), shallowDirectory.getAbsolutePath());
+
+        assertEquals(createGit(localDirectory).getShallowCommits(), ImmutableSet.of());
+        assertEquals(createGit(shallowDirectory).getShallowCommits(), ImmutableSet.of(git(shallowDirectory, "rev-parse", "HEAD").trim()));
+    }
+
+    private static GitCommands createGit(File directory)
+    {
+        return new GitCommands(
+                GitRepository.create("presto", new GitRepositoryConfig().setDirectory(directory.getAbsolutePath()), new GitConfig()),
+                new GitConfig());
+    }
+
+    private static List<String> changedFiles(File directory)
+    {
+        return on('\n').omitEmptyStrings().splitToList(git(directory, "show", "--name-status", "--format=", "HEAD"));
+    }
+
+    private static String git(File directory, String... arguments)
+    {
+        return command(ImmutableList.<String>builder().add("git").add(arguments).build(), ImmutableMap.of(), directory, TIMEOUT);
+    }
+
+    private static void write(File directory, String path, String content)
+            throws IOException
+    {
+        File file = new File(directory, path);
+        checkState(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        asCharSink(file, UTF_8).write(content);
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.release.git;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -22,6 +23,8 @@ import java.util.Map;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class TestGitConfig
 {
@@ -30,7 +33,8 @@ public class TestGitConfig
     {
         assertRecordedDefaults(recordDefaults(GitConfig.class)
                 .setExecutable("git")
-                .setSshKeyFile(null));
+                .setSshKeyFile(null)
+                .setCommandTimeout(new Duration(1, HOURS)));
     }
 
     @Test
@@ -39,10 +43,12 @@ public class TestGitConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("git.executable", "/bin/git")
                 .put("git.ssh-key-file", "~/.ssh/id_rsa")
+                .put("git.command-timeout", "10m")
                 .build();
         GitConfig expected = new GitConfig()
                 .setExecutable("/bin/git")
-                .setSshKeyFile(new File("~/.ssh/id_rsa"));
+                .setSshKeyFile(new File("~/.ssh/id_rsa"))
+                .setCommandTimeout(new Duration(10, MINUTES));
 
         assertFullMapping(properties, expected);
     }
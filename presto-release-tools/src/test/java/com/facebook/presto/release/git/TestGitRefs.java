@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestGitRefs
+{
+    @Test
+    public void testParseLsRemote()
+    {
+        GitRefs refs = GitRefs.parseLsRemote(
+                "0e4bd8a3bd8e2fba6b9c3de5ad2bb0d7d1b52c11\trefs/heads/master\n" +
+                        "6e1bd8a3bd8e2fba6b9c3de5ad2bb0d7d1b52c12\trefs/heads/release-0.231\n" +
+                        "7f2bd8a3bd8e2fba6b9c3de5ad2bb0d7d1b52c13\trefs/tags/0.230\n" +
+                        "8a3bd8a3bd8e2fba6b9c3de5ad2bb0d7d1b52c14\trefs/tags/0.230^{}\n" +
+                        "9b4bd8a3bd8e2fba6b9c3de5ad2bb0d7d1b52c15\trefs/pull/1/head\n" +
+                        "\n");
+
+        assertEquals(refs.getHeads(), ImmutableSet.of("master", "release-0.231"));
+        assertTrue(refs.hasHead("release-0.231"));
+        assertFalse(refs.hasHead("release-0.232"));
+    }
+
+    @Test
+    public void testParseEmpty()
+    {
+        GitRefs refs = GitRefs.parseLsRemote("");
+        assertTrue(refs.getHeads().isEmpty());
+    }
+}
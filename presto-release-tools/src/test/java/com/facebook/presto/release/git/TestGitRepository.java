@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static com.facebook.presto.release.git.GitRepository.getCloneCommand;
+import static org.testng.Assert.assertEquals;
+
+public class TestGitRepository
+{
+    private static final String ORIGIN_URL = "https://github.com/user/presto.git";
+    private static final File DIRECTORY = new File("/tmp/presto");
+
+    @Test
+    public void testFullClone()
+    {
+        assertEquals(
+                getCloneCommand("git", ORIGIN_URL, DIRECTORY, new GitRepositoryConfig()),
+                ImmutableList.of("git", "clone", ORIGIN_URL, "/tmp/presto"));
+    }
+
+    @Test
+    public void testPartialClone()
+    {
+        GitRepositoryConfig config = new GitRepositoryConfig()
+                .setCloneFilter("blob:none")
+                .setCloneDepth(500)
+                .setReferenceMirror("/tmp/presto-mirror.git");
+        assertEquals(
+                getCloneCommand("git", ORIGIN_URL, DIRECTORY, config),
+                ImmutableList.of(
+                        "git",
+                        "clone",
+                        "--filter=blob:none",
+                        "--depth",
+                        "500",
+                        "--no-single-branch",
+                        "--reference",
+                        "/tmp/presto-mirror.git",
+                        "--dissociate",
+                        ORIGIN_URL,
+                        "/tmp/presto"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Invalid clone depth: 0")
+    public void testInvalidCloneDepth()
+    {
+        getCloneCommand("git", ORIGIN_URL, DIRECTORY, new GitRepositoryConfig().setCloneDepth(0));
+    }
+}
@@ -36,7 +36,10 @@ public class TestGitRepositoryConfig
                 .setUpstreamRepository(null)
                 .setOriginRepository(null)
                 .setProtocol("https")
-                .setAccessToken(null));
+                .setAccessToken(null)
+                .setCloneFilter(null)
+                .setCloneDepth(null)
+                .setReferenceMirror(null));
     }
 
     @Test
@@ -52,6 +55,9 @@ public class TestGitRepositoryConfig
                 .put("git.origin-repository", "user/presto")
                 .put("git.protocol", "ssh")
                 .put("git.access-token", "abc")
+                .put("git.clone-filter", "blob:none")
+                .put("git.clone-depth", "1000")
+                .put("git.reference-mirror", "/tmp/presto-mirror.git")
                 .build();
         GitRepositoryConfig expected = new GitRepositoryConfig()
                 .setUpstreamName("u")
@@ -62,7 +68,10 @@ public class TestGitRepositoryConfig
                 .setUpstreamRepository("prestodb/presto")
                 .setOriginRepository("user/presto")
                 .setProtocol("ssh")
-                .setAccessToken("abc");
+                .setAccessToken("abc")
+                .setCloneFilter("blob:none")
+                .setCloneDepth(1000)
+                .setReferenceMirror("/tmp/presto-mirror.git");
 
         assertFullMapping(properties, expected);
     }
@@ -14,13 +14,16 @@
 package com.facebook.presto.release.git;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.net.URI;
 import java.util.Map;
 
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static java.util.concurrent.TimeUnit.DAYS;
 
 public class TestGithubConfig
 {
@@ -29,7 +32,12 @@ public class TestGithubConfig
     {
         assertRecordedDefaults(recordDefaults(GithubConfig.class)
                 .setUser(null)
-                .setAccessToken(null));
+                .setAccessToken(null)
+                .setApiUri(URI.create("https://api.github.com/graphql"))
+                .setFetchStrategy(CommitFetchStrategy.AUTO)
+                .setSnapshotCacheDirectory(null)
+                .setContributorCacheFile(null)
+                .setContributorCacheTtl(new Duration(30, DAYS)));
     }
 
     @Test
@@ -38,10 +46,20 @@ public class TestGithubConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("github.user", "bot")
                 .put("github.access-token", "abc")
+                .put("github.api-uri", "http://localhost:8080/graphql")
+                .put("github.fetch-strategy", "SEARCH")
+                .put("github.snapshot-cache-directory", "/tmp/snapshots")
+                .put("github.contributor-cache-file", "/tmp/contributors.json")
+                .put("github.contributor-cache-ttl", "7d")
                 .build();
         GithubConfig expected = new GithubConfig()
                 .setUser("bot")
-                .setAccessToken("abc");
+                .setAccessToken("abc")
+                .setApiUri(URI.create("http://localhost:8080/graphql"))
+                .setFetchStrategy(CommitFetchStrategy.SEARCH)
+                .setSnapshotCacheDirectory("/tmp/snapshots")
+                .setContributorCacheFile("/tmp/contributors.json")
+                .setContributorCacheTtl(new Duration(7, DAYS));
 
         assertFullMapping(properties, expected);
     }
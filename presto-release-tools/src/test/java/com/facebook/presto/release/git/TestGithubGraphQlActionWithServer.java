@@ -0,0 +1,334 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.facebook.airlift.http.client.HttpClient;
+import com.facebook.airlift.http.client.jetty.JettyHttpClient;
+import com.facebook.presto.release.stats.ReleaseStatsReport;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.release.git.TestingGithubServer.getCommitId;
+import static com.facebook.presto.release.git.TestingGithubServer.getCommitTime;
+import static com.facebook.presto.release.stats.ReleaseStats.getOperationStats;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestGithubGraphQlActionWithServer
+{
+    private HttpClient httpClient;
+    private File directory;
+
+    @BeforeClass
+    public void setup()
+    {
+        httpClient = new JettyHttpClient();
+        directory = createTempDir();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+            throws IOException
+    {
+        httpClient.close();
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testListCommits()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(5_000)
+                .setCommitsPerPullRequest(2)
+                .build()) {
+            List<Commit> commits = createAction(server).listCommits("org/presto", "release-0.231", getCommitId(3_000));
+
+            assertEquals(commits.size(), 3_001);
+            assertEquals(commits.get(0).getId(), getCommitId(0));
+            assertEquals(commits.get(3_000).getId(), getCommitId(3_000));
+            assertEquals(commits.get(3).getTitle(), "Synthetic commit 3");
+            assertEquals(commits.get(2).getAssociatedPullRequests(), commits.get(3).getAssociatedPullRequests());
+            assertEquals(commits.get(3).getAssociatedPullRequests().get(0).getId(), 2);
+            assertEquals(commits.stream().flatMap(commit -> commit.getAssociatedPullRequests().stream()).distinct().count(), 1_501);
+            // 30 commits per page
+            assertEquals(server.getRequestCount(), 101);
+        }
+    }
+
+    @Test
+    public void testListAllCommits()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(95)
+                .build()) {
+            assertEquals(createAction(server).listCommits("org/presto", "master", "unknown").size(), 95);
+            assertEquals(server.getRequestCount(), 4);
+        }
+    }
+
+    @Test
+    public void testCompression()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(300)
+                .build()) {
+            ReleaseStatsReport.OperationReport before = getOperationStats("github", "listCommits").getReport();
+            assertEquals(createAction(server).listCommits("org/presto", "master", "unknown").size(), 300);
+            ReleaseStatsReport.OperationReport after = getOperationStats("github", "listCommits").getReport();
+
+            long transferredBytes = after.getTransferredBytes() - before.getTransferredBytes();
+            long outputBytes = after.getOutputBytes() - before.getOutputBytes();
+            assertEquals(transferredBytes, server.getResponseBytes());
+            assertTrue(transferredBytes * 3 < outputBytes, format("%s bytes transferred for %s bytes of responses", transferredBytes, outputBytes));
+        }
+    }
+
+    @Test
+    public void testCreatePullRequest()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder().build()) {
+            PullRequest pullRequest = createAction(server).createPullRequest("org/presto", "master", "user:release-notes-0.231", "Release notes", "Body");
+
+            assertEquals(pullRequest.getId(), 101);
+            assertEquals(pullRequest.getTitle(), "Release notes");
+            assertEquals(pullRequest.getDescription(), "Body");
+            assertEquals(pullRequest.getAuthorLogin(), TestingGithubServer.BOT_LOGIN);
+
+            List<Map<String, Object>> created = server.getCreatedPullRequests();
+            assertEquals(created.size(), 1);
+            assertEquals(created.get(0).get("baseRefName"), "master");
+            assertEquals(created.get(0).get("headRefName"), "user:release-notes-0.231");
+        }
+    }
+
+    @Test
+    public void testUpdatePullRequest()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder().build()) {
+            GithubGraphQlAction action = createAction(server);
+            assertFalse(action.getOpenPullRequest("org/presto", "release-notes-0.231").isPresent());
+            action.createPullRequest("org/presto", "master", "user:release-notes-0.231", "Release notes", "Body");
+
+            PullRequest open = action.getOpenPullRequest("org/presto", "release-notes-0.231").get();
+            assertEquals(open.getId(), 101);
+            assertEquals(open.getDescription(), "Body");
+
+            PullRequest updated = action.updatePullRequest("org/presto", open.getId(), "Updated body");
+            assertEquals(updated.getId(), 101);
+            assertEquals(updated.getTitle(), "Release notes");
+            assertEquals(updated.getDescription(), "Updated body");
+            assertEquals(action.getOpenPullRequest("org/presto", "release-notes-0.231").get().getDescription(), "Updated body");
+
+            try {
+                action.updatePullRequest("org/presto", 102, "Body");
+                fail("expected unknown pull request failure");
+            }
+            catch (IllegalStateException e) {
+                assertEquals(e.getMessage(), "Pull request #102 not found in org/presto");
+            }
+        }
+    }
+
+    @Test
+    public void testRateLimit()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(100)
+                .setRateLimit(2, 1, TimeUnit.HOURS)
+                .build()) {
+            GithubGraphQlAction action = createAction(server);
+            try {
+                action.listCommits("org/presto", "master", "unknown");
+                fail("expected rate limit failure");
+            }
+            catch (RuntimeException e) {
+                assertTrue(e.getMessage().startsWith("GraphQL request failed: 429"), e.getMessage());
+            }
+            assertEquals(server.getRequestCount(), 3);
+        }
+    }
+
+    @Test
+    public void testFailures()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setFailures(1, 502, 0)
+                .build()) {
+            try {
+                createAction(server).listCommits("org/presto", "master", "unknown");
+                fail("expected injected failure");
+            }
+            catch (RuntimeException e) {
+                assertTrue(e.getMessage().startsWith("GraphQL request failed: 502"), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testLatency()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(60)
+                .setLatency(50, TimeUnit.MILLISECONDS)
+                .build()) {
+            long start = System.nanoTime();
+            createAction(server).listCommits("org/presto", "master", "unknown");
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+
+    @Test
+    public void testRecordReplay()
+            throws IOException
+    {
+        File recording = new File(directory, "recording.jsonl");
+        List<Commit> recorded;
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(100)
+                .setRecordFile(recording)
+                .build()) {
+            recorded = createAction(server).listCommits("org/presto", "release-0.231", "unknown");
+        }
+
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setReplayFile(recording)
+                .build()) {
+            List<Commit> replayed = createAction(server).listCommits("org/presto", "release-0.231", "unknown");
+            assertEquals(replayed.size(), recorded.size());
+            for (int i = 0; i < recorded.size(); i++) {
+                assertEquals(replayed.get(i).getId(), recorded.get(i).getId());
+                assertEquals(replayed.get(i).getAssociatedPullRequests(), recorded.get(i).getAssociatedPullRequests());
+            }
+            assertEquals(ImmutableSet.copyOf(server.getCreatedPullRequests()), ImmutableSet.of());
+        }
+    }
+
+    @Test
+    public void testSearchMergedPullRequests()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(5_000)
+                .setCommitsPerPullRequest(2)
+                .build()) {
+            List<MergedPullRequest> pullRequests = createAction(server).searchMergedPullRequests("org/presto", "master", getCommitTime(4_999), getCommitTime(0));
+
+            assertEquals(pullRequests.size(), 2_500);
+            assertEquals(pullRequests.stream().map(pullRequest -> pullRequest.getPullRequest().getId()).distinct().count(), 2_500);
+            MergedPullRequest pullRequest = pullRequests.stream().filter(merged -> merged.getPullRequest().getId() == 2).findFirst().get();
+            assertEquals(pullRequest.getMergeCommitId(), Optional.of(getCommitId(2)));
+            assertEquals(pullRequest.getPullRequest().getTitle(), "Synthetic pull request 2");
+            // 2500 results exceed the search limit of 1000, so the range is split in four searches of 7 pages each
+            assertEquals(server.getRequestCount(), 3 + 4 * 7);
+        }
+    }
+
+    @Test
+    public void testGetCommits()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(200)
+                .build()) {
+            List<String> commitIds = ImmutableList.<String>builder()
+                    .addAll(IntStream.range(0, 120).mapToObj(TestingGithubServer::getCommitId).collect(toImmutableList()))
+                    .add(getCommitId(1_000))
+                    .build();
+            List<Commit> commits = createAction(server).getCommits("org/presto", commitIds);
+
+            assertEquals(commits.size(), 120);
+            assertEquals(commits.get(119).getId(), getCommitId(119));
+            assertEquals(commits.get(119).getAssociatedPullRequests().get(0).getId(), 120);
+            // 50 commits per request
+            assertEquals(server.getRequestCount(), 3);
+        }
+    }
+
+    @Test
+    public void testGetPullRequests()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(100)
+                .setRateLimit(10, 1, TimeUnit.HOURS)
+                .build()) {
+            GithubGraphQlAction action = createAction(server);
+            List<PullRequest> pullRequests = action.getPullRequests("org/presto", ImmutableList.of(7, 1_000, 3));
+
+            assertEquals(pullRequests.size(), 2);
+            assertEquals(pullRequests.get(0).getId(), 7);
+            assertEquals(pullRequests.get(1).getTitle(), "Synthetic pull request 3");
+            assertEquals(action.getRemainingRateLimit(), 8);
+            assertEquals(server.getRequestCount(), 2);
+        }
+    }
+
+    @Test
+    public void testGetUsers()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setAuthorCount(150)
+                .build()) {
+            List<String> logins = ImmutableList.<String>builder()
+                    .addAll(IntStream.range(0, 150).mapToObj(index -> "user" + index).collect(toImmutableList()))
+                    .add("committer1", "dependabot")
+                    .build();
+            List<User> users = createAction(server).getUsers(logins);
+
+            assertEquals(users.size(), 151);
+            assertEquals(users.get(0), new User("user0", "User 0"));
+            assertEquals(users.get(150), new User("committer1", "Committer 1"));
+            // 100 logins per request
+            assertEquals(server.getRequestCount(), 2);
+        }
+    }
+
+    private GithubGraphQlAction createAction(TestingGithubServer server)
+    {
+        return new GithubGraphQlAction(
+                httpClient,
+                new GithubConfig()
+                        .setUser("testUser")
+                        .setAccessToken("testToken")
+                        .setApiUri(server.getUri()));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.facebook.presto.release.git.GithubGraphQlAction.GraphQlQuery;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.release.git.GraphQlField.field;
+import static com.facebook.presto.release.git.GraphQlField.fields;
+import static com.facebook.presto.release.git.GraphQlField.on;
+import static com.facebook.presto.release.git.GraphQlQueryBuilder.mutation;
+import static com.facebook.presto.release.git.GraphQlQueryBuilder.query;
+import static org.testng.Assert.assertEquals;
+
+public class TestGraphQlQueryBuilder
+{
+    @Test
+    public void testQuery()
+    {
+        GraphQlQueryBuilder builder = query();
+        GraphQlVariable owner = builder.variable("owner", "String!", "prestodb");
+        GraphQlVariable name = builder.variable("name", "String!", "presto");
+        GraphQlVariable cursor = builder.variable("cursor", "String", null);
+        GraphQlQuery query = builder
+                .select(
+                        field("repository",
+                                field("ref", field("target", on("Commit", field("history", field("pageInfo", fields("hasNextPage", "endCursor")))
+                                        .withArgument("first", 30)
+                                        .withArgument("after", cursor))))
+                                        .withAlias("master"))
+                                .withArgument("owner", owner)
+                                .withArgument("name", name),
+                        field("search", field("issueCount")).withEnumArgument("type", "ISSUE"))
+                .build();
+
+        assertEquals(
+                query.getQuery(),
+                "query($owner: String!, $name: String!, $cursor: String) {\n" +
+                        "  repository(owner: $owner, name: $name) {\n" +
+                        "    master: ref {\n" +
+                        "      target {\n" +
+                        "        ... on Commit {\n" +
+                        "          history(first: 30, after: $cursor) {\n" +
+                        "            pageInfo {\n" +
+                        "              hasNextPage\n" +
+                        "              endCursor\n" +
+                        "            }\n" +
+                        "          }\n" +
+                        "        }\n" +
+                        "      }\n" +
+                        "    }\n" +
+                        "  }\n" +
+                        "  search(type: ISSUE) {\n" +
+                        "    issueCount\n" +
+                        "  }\n" +
+                        "}\n");
+        assertEquals(query.getVariables(), Optional.of("{\"owner\":\"prestodb\",\"name\":\"presto\",\"cursor\":null}"));
+    }
+
+    @Test
+    public void testWithoutVariables()
+    {
+        GraphQlQuery query = query().select(field("rateLimit", fields("cost", "remaining"))).build();
+        assertEquals(query.getQuery(), "query {\n  rateLimit {\n    cost\n    remaining\n  }\n}\n");
+        assertEquals(query.getVariables(), Optional.empty());
+    }
+
+    @Test
+    public void testMutation()
+    {
+        GraphQlQueryBuilder builder = mutation();
+        GraphQlVariable input = builder.variable("pr", "CreatePullRequestInput!", new Title("Release notes for 0.231"));
+        GraphQlQuery query = builder.select(field("createPullRequest", field("pullRequest", field("number"))).withArgument("input", input)).build();
+        assertEquals(query.getQuery(), "mutation($pr: CreatePullRequestInput!) {\n  createPullRequest(input: $pr) {\n    pullRequest {\n      number\n    }\n  }\n}\n");
+        assertEquals(query.getVariables(), Optional.of("{\"pr\":{\"title\":\"Release notes for 0.231\"}}"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Duplicate variable owner")
+    public void testDuplicateVariable()
+    {
+        GraphQlQueryBuilder builder = query();
+        builder.variable("owner", "String!", "prestodb");
+        builder.variable("owner", "String!", "prestodb");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Variable ref of non-null type String! is null")
+    public void testNullVariable()
+    {
+        query().variable("ref", "String!", null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Invalid GraphQL name: ISSUE\\) \\{ x")
+    public void testInvalidEnumArgument()
+    {
+        field("search").withEnumArgument("type", "ISSUE) { x");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Duplicate argument first of history")
+    public void testDuplicateArgument()
+    {
+        field("history").withArgument("first", 30).withArgument("first", 10);
+    }
+
+    public static class Title
+    {
+        private final String title;
+
+        public Title(String title)
+        {
+            this.title = title;
+        }
+
+        public String getTitle()
+        {
+            return title;
+        }
+    }
+}
@@ -15,6 +15,7 @@ package com.facebook.presto.release.git;
 
 import com.facebook.presto.release.CommandLogger;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import java.util.List;
 import java.util.Optional;
@@ -51,10 +52,10 @@ public class TestingGit
     }
 
     @Override
-    public List<String> listUpstreamHeads(String branch)
+    public GitRefs getUpstreamRefs()
     {
-        super.listUpstreamHeads(branch);
-        return upstreamHeads;
+        super.getUpstreamRefs();
+        return new GitRefs(ImmutableSet.copyOf(upstreamHeads));
     }
 
     @Override
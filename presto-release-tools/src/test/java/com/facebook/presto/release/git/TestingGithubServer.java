@@ -0,0 +1,784 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.git;
+
+import com.facebook.airlift.log.Logger;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.nullToEmpty;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.ByteStreams.toByteArray;
+import static com.google.common.io.FileWriteMode.APPEND;
+import static com.google.common.io.Files.asCharSink;
+import static com.google.common.io.Files.asCharSource;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+/**
+ * Local stand-in for the Github GraphQL API, implementing the subset of the schema used by {@link GithubGraphQlAction}:
+ * {@code history} pagination with {@code associatedPullRequests}, searches for merged pull requests, lookups of commits
+ * by {@code object(oid:)} and of pull requests by number, {@code rateLimit}, {@code repository.id}, {@code createPullRequest},
+ * and the lookup of the open pull requests created by a branch and {@code updatePullRequest}.
+ * <p>
+ * Commits are generated on demand from their position in the history, so repositories with hundreds of thousands of
+ * commits cost no memory. Latency, rate limits and failures can be injected. Exchanges can be recorded to a file,
+ * either from the synthetic repository or from a real endpoint, and replayed later.
+ */
+public class TestingGithubServer
+        implements Closeable
+{
+    private static final Logger log = Logger.get(TestingGithubServer.class);
+
+    public static final String REPOSITORY_ID = "MDEwOlJlcG9zaXRvcnkx";
+    public static final String BOT_LOGIN = "testing-bot";
+
+    private static final Pattern REPOSITORY_PATTERN = Pattern.compile("repository\\(owner: \"([^\"]+)\", name: \"([^\"]+)\"\\)");
+    private static final Pattern HISTORY_PATTERN = Pattern.compile("history\\(first: (\\d+), after: (?:null|\"cursor:(\\d+)\")\\)");
+    private static final Pattern SEARCH_PATTERN = Pattern.compile("search\\(type: ISSUE, query: \"([^\"]*)\", first: (\\d+), after: (?:null|\"cursor:(\\d+)\")\\)");
+    private static final Pattern MERGED_PATTERN = Pattern.compile("merged:(\\S+)\\.\\.(\\S+)");
+    private static final Pattern PULL_REQUEST_PATTERN = Pattern.compile("(\\w+): pullRequest\\(number: (\\d+)\\)");
+    private static final Pattern OPEN_PULL_REQUESTS_PATTERN = Pattern.compile("pullRequests\\(headRefName: \"([^\"]+)\", states: OPEN, first: 1\\)");
+    private static final Pattern PULL_REQUEST_ID_PATTERN = Pattern.compile("pullRequest\\(number: (\\d+)\\) \\{\\s*id\\s*}");
+    private static final Pattern USER_PATTERN = Pattern.compile("(\\w+): user\\(login: \"([^\"]+)\"\\)");
+    private static final Pattern USER_LOGIN_PATTERN = Pattern.compile("(user|committer)(\\d+)");
+    private static final Pattern OBJECT_PATTERN = Pattern.compile("(\\w+): object\\(oid: \"([0-9a-f]+)\"\\)");
+    private static final Instant HEAD_COMMIT_TIME = Instant.parse("2020-01-01T00:00:00Z");
+    private static final int SEARCH_RESULT_LIMIT = 1000;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int commitCount;
+    private final int commitsPerPullRequest;
+    private final int authorCount;
+    private final long latencyMillis;
+    private final int rateLimit;
+    private final long rateLimitWindowMillis;
+    private final double failureRate;
+    private final int failureStatus;
+    private final Random random;
+    private final Optional<URI> upstream;
+    private final Optional<File> recordFile;
+    private final Optional<Map<String, Queue<Exchange>>> replay;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private final AtomicInteger nextPullRequestNumber;
+    private final List<Map<String, Object>> createdPullRequests = new ArrayList<>();
+
+    private long rateLimitWindowStart;
+    private int rateLimitUsed;
+
+    private TestingGithubServer(Builder builder)
+            throws IOException
+    {
+        this.commitCount = builder.commitCount;
+        this.commitsPerPullRequest = builder.commitsPerPullRequest;
+        this.authorCount = builder.authorCount;
+        this.latencyMillis = builder.latencyMillis;
+        this.rateLimit = builder.rateLimit;
+        this.rateLimitWindowMillis = builder.rateLimitWindowMillis;
+        this.failureRate = builder.failureRate;
+        this.failureStatus = builder.failureStatus;
+        this.random = new Random(builder.seed);
+        this.upstream = builder.upstream;
+        this.recordFile = builder.recordFile;
+        this.replay = builder.replayFile.map(this::loadExchanges);
+        this.nextPullRequestNumber = new AtomicInteger(getPullRequestNumber(commitCount - 1) + 1);
+
+        this.executor = newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("testing-github-%s").setDaemon(true).build());
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", builder.port), 0);
+        server.createContext("/graphql", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("Github GraphQL stand-in listening at %s", getUri());
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public URI getUri()
+    {
+        return URI.create(format("http://127.0.0.1:%s/graphql", server.getAddress().getPort()));
+    }
+
+    public int getRequestCount()
+    {
+        return requestCount.get();
+    }
+
+    /**
+     * Size of the response bodies sent, after compression.
+     */
+    public long getResponseBytes()
+    {
+        return responseBytes.get();
+    }
+
+    public synchronized List<Map<String, Object>> getCreatedPullRequests()
+    {
+        return ImmutableList.copyOf(createdPullRequests);
+    }
+
+    /**
+     * Id of the commit at {@code index} of the history, where 0 is the head of the branch.
+     */
+    public static String getCommitId(int index)
+    {
+        return format("%040x", index + 1);
+    }
+
+    /**
+     * Commit time of the commit at {@code index} of the history, one minute before its parent. A pull request is merged
+     * at the time of its newest commit.
+     */
+    public static Instant getCommitTime(int index)
+    {
+        return HEAD_COMMIT_TIME.minusSeconds(60L * index);
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange)
+            throws IOException
+    {
+        try {
+            requestCount.incrementAndGet();
+            byte[] requestBody = toByteArray(exchange.getRequestBody());
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, new Exchange("", Optional.empty(), 405, "{\"message\":\"Method not allowed\"}"));
+                return;
+            }
+            if (!acquireRateLimit(exchange)) {
+                respond(exchange, new Exchange("", Optional.empty(), 429, "{\"message\":\"API rate limit exceeded\"}"));
+                return;
+            }
+            if (failureRate > 0 && nextDouble() < failureRate) {
+                respond(exchange, new Exchange("", Optional.empty(), failureStatus, "{\"message\":\"Injected failure\"}"));
+                return;
+            }
+
+            Map<String, Object> request = mapper.readValue(requestBody, MAP_TYPE);
+            String query = (String) requireNonNull(request.get("query"), "query is null");
+            Optional<String> variables = Optional.ofNullable((String) request.get("variables"));
+
+            Exchange response;
+            if (replay.isPresent()) {
+                response = replay(query, variables);
+            }
+            else if (upstream.isPresent()) {
+                response = forward(upstream.get(), exchange.getRequestHeaders().getFirst("Authorization"), query, variables, requestBody);
+            }
+            else {
+                response = new Exchange(query, variables, 200, mapper.writeValueAsString(execute(query, variables)));
+            }
+            record(response);
+            respond(exchange, response);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (RuntimeException | IOException e) {
+            log.error(e, "Failed to handle request");
+            respond(exchange, new Exchange("", Optional.empty(), 500, mapper.writeValueAsString(ImmutableMap.of("message", String.valueOf(e.getMessage())))));
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private Map<String, Object> execute(String query, Optional<String> variables)
+            throws IOException
+    {
+        if (query.contains("createPullRequest")) {
+            checkArgument(variables.isPresent(), "createPullRequest requires variables");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> input = (Map<String, Object>) mapper.<Map<String, Object>>readValue(variables.get(), MAP_TYPE).get("pr");
+            checkArgument(REPOSITORY_ID.equals(input.get("repositoryId")), "Unknown repository id: %s", input.get("repositoryId"));
+            int number = nextPullRequestNumber.getAndIncrement();
+            Map<String, Object> created = ImmutableMap.<String, Object>builder()
+                    .putAll(input)
+                    .put("number", number)
+                    .build();
+            synchronized (this) {
+                createdPullRequests.add(created);
+            }
+            return data(ImmutableMap.of("createPullRequest", ImmutableMap.of("pullRequest", createdPullRequest(created))));
+        }
+
+        if (query.contains("updatePullRequest")) {
+            checkArgument(variables.isPresent(), "updatePullRequest requires variables");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> input = (Map<String, Object>) mapper.<Map<String, Object>>readValue(variables.get(), MAP_TYPE).get("pr");
+            synchronized (this) {
+                for (int i = 0; i < createdPullRequests.size(); i++) {
+                    Map<String, Object> created = createdPullRequests.get(i);
+                    if (getPullRequestId((int) created.get("number")).equals(input.get("pullRequestId"))) {
+                        Map<String, Object> updated = new LinkedHashMap<>(created);
+                        updated.put("body", input.get("body"));
+                        createdPullRequests.set(i, ImmutableMap.copyOf(updated));
+                        return data(ImmutableMap.of("updatePullRequest", ImmutableMap.of("pullRequest", createdPullRequest(updated))));
+                    }
+                }
+            }
+            return ImmutableMap.of("errors", ImmutableList.of(ImmutableMap.of("type", "NOT_FOUND", "message", "Could not resolve to a node with the global id of '" + input.get("pullRequestId") + "'")));
+        }
+
+        query = bindVariables(query, variables);
+
+        Matcher search = SEARCH_PATTERN.matcher(query);
+        if (search.find()) {
+            Matcher merged = MERGED_PATTERN.matcher(search.group(1));
+            checkArgument(merged.find(), "Unsupported search: %s", search.group(1));
+            Instant mergedAfter = Instant.parse(merged.group(1));
+            Instant mergedBefore = Instant.parse(merged.group(2));
+            List<Integer> mergeCommits = new ArrayList<>();
+            for (int index = 0; index < commitCount; index += commitsPerPullRequest) {
+                Instant mergedAt = getCommitTime(index);
+                if (!mergedAt.isBefore(mergedAfter) && !mergedAt.isAfter(mergedBefore)) {
+                    mergeCommits.add(index);
+                }
+            }
+            // like Github, only the first 1000 results of a search can be paged through
+            int available = Math.min(mergeCommits.size(), SEARCH_RESULT_LIMIT);
+            int start = search.group(3) == null ? 0 : Integer.parseInt(search.group(3));
+            int end = Math.min(start + Integer.parseInt(search.group(2)), available);
+            ImmutableList.Builder<Map<String, Object>> nodes = ImmutableList.builder();
+            for (int index : mergeCommits.subList(Math.min(start, end), end)) {
+                nodes.add(ImmutableMap.<String, Object>builder()
+                        .putAll(pullRequest(getPullRequestNumber(index)))
+                        .put("mergeCommit", ImmutableMap.of("oid", getCommitId(index)))
+                        .build());
+            }
+            Map<String, Object> pageInfo = ImmutableMap.of("hasNextPage", end < available, "endCursor", "cursor:" + end);
+            return data(query, ImmutableMap.of("search", ImmutableMap.of("issueCount", mergeCommits.size(), "pageInfo", pageInfo, "nodes", nodes.build())));
+        }
+
+        Matcher user = USER_PATTERN.matcher(query);
+        if (user.find()) {
+            // like Github, unknown logins are null and reported as errors next to the data
+            Map<String, Object> users = new LinkedHashMap<>();
+            ImmutableList.Builder<Map<String, Object>> errors = ImmutableList.builder();
+            do {
+                Optional<String> name = getUserName(user.group(2));
+                users.put(user.group(1), name.map(value -> ImmutableMap.of("login", user.group(2), "name", value)).orElse(null));
+                if (!name.isPresent()) {
+                    errors.add(ImmutableMap.of("type", "NOT_FOUND", "path", ImmutableList.of(user.group(1)), "message", "Could not resolve to a User with the login of '" + user.group(2) + "'."));
+                }
+            }
+            while (user.find());
+            Map<String, Object> response = new LinkedHashMap<>(data(query, users));
+            List<Map<String, Object>> notFound = errors.build();
+            if (!notFound.isEmpty()) {
+                response.put("errors", notFound);
+            }
+            return response;
+        }
+
+        Matcher repository = REPOSITORY_PATTERN.matcher(query);
+        if (!repository.find()) {
+            if (query.contains("rateLimit {")) {
+                return data(query, ImmutableMap.of());
+            }
+            return ImmutableMap.of("errors", ImmutableList.of(ImmutableMap.of("message", "Unsupported query: " + query)));
+        }
+
+        Matcher openPullRequests = OPEN_PULL_REQUESTS_PATTERN.matcher(query);
+        if (openPullRequests.find()) {
+            String headRefName = openPullRequests.group(1);
+            List<Map<String, Object>> nodes;
+            synchronized (this) {
+                // like Github, the head branch is matched by name, whichever fork it is in
+                nodes = createdPullRequests.stream()
+                        .filter(created -> created.get("headRefName").equals(headRefName) || ((String) created.get("headRefName")).endsWith(":" + headRefName))
+                        .limit(1)
+                        .map(TestingGithubServer::createdPullRequest)
+                        .collect(toImmutableList());
+            }
+            return data(query, ImmutableMap.of("repository", ImmutableMap.of("pullRequests", ImmutableMap.of("nodes", nodes))));
+        }
+
+        Matcher pullRequestId = PULL_REQUEST_ID_PATTERN.matcher(query);
+        if (pullRequestId.find()) {
+            int number = Integer.parseInt(pullRequestId.group(1));
+            Map<String, Object> found;
+            synchronized (this) {
+                found = createdPullRequests.stream().anyMatch(created -> created.get("number").equals(number)) ? ImmutableMap.of("id", getPullRequestId(number)) : null;
+            }
+            Map<String, Object> pullRequest = new LinkedHashMap<>();
+            pullRequest.put("pullRequest", found);
+            return data(query, ImmutableMap.of("repository", pullRequest));
+        }
+
+        Matcher history = HISTORY_PATTERN.matcher(query);
+        if (history.find()) {
+            int first = Integer.parseInt(history.group(1));
+            int start = history.group(2) == null ? 0 : Integer.parseInt(history.group(2));
+            int end = Math.min(start + first, commitCount);
+            ImmutableList.Builder<Map<String, Object>> edges = ImmutableList.builder();
+            for (int index = start; index < end; index++) {
+                edges.add(ImmutableMap.of("node", commit(index)));
+            }
+            Map<String, Object> pageInfo = ImmutableMap.of("hasNextPage", end < commitCount, "endCursor", "cursor:" + end);
+            return data(query, ImmutableMap.of("repository", ImmutableMap.of("ref", ImmutableMap.of("target", ImmutableMap.of(
+                    "history", ImmutableMap.of("pageInfo", pageInfo, "edges", edges.build()))))));
+        }
+
+        Matcher pullRequest = PULL_REQUEST_PATTERN.matcher(query);
+        if (pullRequest.find()) {
+            Map<String, Object> pullRequests = new LinkedHashMap<>();
+            do {
+                int number = Integer.parseInt(pullRequest.group(2));
+                pullRequests.put(pullRequest.group(1), number >= 1 && number <= getPullRequestNumber(commitCount - 1) ? pullRequest(number) : null);
+            }
+            while (pullRequest.find());
+            return data(query, ImmutableMap.of("repository", pullRequests));
+        }
+
+        Matcher object = OBJECT_PATTERN.matcher(query);
+        if (object.find()) {
+            Map<String, Object> objects = new LinkedHashMap<>();
+            do {
+                long index = Long.parseLong(object.group(2), 16) - 1;
+                objects.put(object.group(1), index >= 0 && index < commitCount ? commit((int) index) : null);
+            }
+            while (object.find());
+            return data(query, ImmutableMap.of("repository", objects));
+        }
+
+        return data(query, ImmutableMap.of("repository", ImmutableMap.of("id", REPOSITORY_ID)));
+    }
+
+    /**
+     * Substitute the scalar variables into the query, so the synthetic repository can match their values as literals.
+     */
+    private String bindVariables(String query, Optional<String> variables)
+            throws IOException
+    {
+        if (!variables.isPresent()) {
+            return query;
+        }
+        for (Map.Entry<String, Object> variable : mapper.<Map<String, Object>>readValue(variables.get(), MAP_TYPE).entrySet()) {
+            if (!(variable.getValue() instanceof Map) && !(variable.getValue() instanceof List)) {
+                String value = mapper.writeValueAsString(variable.getValue());
+                query = query.replaceAll("\\$" + variable.getKey() + "\\b(?!:)", Matcher.quoteReplacement(value));
+            }
+        }
+        return query;
+    }
+
+    private static Map<String, Object> createdPullRequest(Map<String, Object> created)
+    {
+        Map<String, Object> pullRequest = new LinkedHashMap<>();
+        pullRequest.put("number", created.get("number"));
+        pullRequest.put("title", created.get("title"));
+        pullRequest.put("url", format("https://github.com/testing/repository/pull/%s", created.get("number")));
+        pullRequest.put("body", created.get("body"));
+        pullRequest.put("author", ImmutableMap.of("login", BOT_LOGIN));
+        pullRequest.put("mergedBy", null);
+        return pullRequest;
+    }
+
+    private static String getPullRequestId(int number)
+    {
+        return "PR_" + number;
+    }
+
+    private Map<String, Object> commit(int index)
+    {
+        return ImmutableMap.of(
+                "oid", getCommitId(index),
+                "message", format("Synthetic commit %s\n\nCommit body", index),
+                "author", ImmutableMap.of("name", "Author " + (index % authorCount)),
+                "associatedPullRequests", ImmutableMap.of("nodes", ImmutableList.of(pullRequest(getPullRequestNumber(index)))));
+    }
+
+    private Map<String, Object> pullRequest(int number)
+    {
+        return ImmutableMap.<String, Object>builder()
+                .put("number", number)
+                .put("title", format("Synthetic pull request %s", number))
+                .put("url", format("https://github.com/testing/repository/pull/%s", number))
+                .put("body", number % 2 == 0
+                        ? format("Change %s\n\n```\n== RELEASE NOTE ==\nGeneral Changes\n* Add synthetic change %s.\n```\n", number, number)
+                        : format("Change %s\n\n```\n== NO RELEASE NOTE ==\n```\n", number))
+                .put("author", ImmutableMap.of("login", "user" + (number % authorCount)))
+                .put("mergedBy", ImmutableMap.of("login", "committer" + (number % 3), "name", "Committer " + (number % 3)))
+                .build();
+    }
+
+    /**
+     * Pull request authors {@code user<N>} are named {@code User <N>}, committers {@code committer<N>} are named {@code Committer <N>}.
+     */
+    private Optional<String> getUserName(String login)
+    {
+        Matcher matcher = USER_LOGIN_PATTERN.matcher(login);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        int number = Integer.parseInt(matcher.group(2));
+        if (matcher.group(1).equals("user")) {
+            return number < authorCount ? Optional.of("User " + number) : Optional.empty();
+        }
+        return number < 3 ? Optional.of("Committer " + number) : Optional.empty();
+    }
+
+    private int getPullRequestNumber(int index)
+    {
+        return index / commitsPerPullRequest + 1;
+    }
+
+    private static Map<String, Object> data(Map<String, Object> data)
+    {
+        return ImmutableMap.of("data", data);
+    }
+
+    private synchronized Map<String, Object> data(String query, Map<String, Object> data)
+    {
+        if (!query.contains("rateLimit {")) {
+            return data(data);
+        }
+        // the data may contain nulls for unknown objects
+        Map<String, Object> withRateLimit = new LinkedHashMap<>(data);
+        withRateLimit.put("rateLimit", ImmutableMap.of("cost", 1, "remaining", rateLimit > 0 ? rateLimit - rateLimitUsed : 5000));
+        return data(withRateLimit);
+    }
+
+    private synchronized double nextDouble()
+    {
+        return random.nextDouble();
+    }
+
+    private synchronized boolean acquireRateLimit(HttpExchange exchange)
+    {
+        if (rateLimit <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - rateLimitWindowStart >= rateLimitWindowMillis) {
+            rateLimitWindowStart = now;
+            rateLimitUsed = 0;
+        }
+        boolean acquired = rateLimitUsed < rateLimit;
+        if (acquired) {
+            rateLimitUsed++;
+        }
+        exchange.getResponseHeaders().add("X-RateLimit-Limit", String.valueOf(rateLimit));
+        exchange.getResponseHeaders().add("X-RateLimit-Remaining", String.valueOf(rateLimit - rateLimitUsed));
+        exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(rateLimitWindowStart + rateLimitWindowMillis)));
+        if (!acquired) {
+            exchange.getResponseHeaders().add("Retry-After", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(rateLimitWindowStart + rateLimitWindowMillis - now)));
+        }
+        return acquired;
+    }
+
+    private Exchange forward(URI uri, String authorization, String query, Optional<String> variables, byte[] requestBody)
+            throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty("User-Agent", "Presto");
+            if (authorization != null) {
+                connection.setRequestProperty("Authorization", authorization);
+            }
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(requestBody);
+            }
+            int status = connection.getResponseCode();
+            InputStream input = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            String body = input == null ? "" : new String(toByteArray(input), UTF_8);
+            return new Exchange(query, variables, status, body);
+        }
+        finally {
+            connection.disconnect();
+        }
+    }
+
+    private synchronized Exchange replay(String query, Optional<String> variables)
+    {
+        Queue<Exchange> exchanges = replay.get().get(getReplayKey(query, variables));
+        if (exchanges == null || exchanges.isEmpty()) {
+            return new Exchange(query, variables, 500, "{\"message\":\"No recorded response\"}");
+        }
+        return exchanges.poll();
+    }
+
+    private static String getReplayKey(String query, Optional<String> variables)
+    {
+        return query + "\n" + variables.orElse("");
+    }
+
+    private synchronized void record(Exchange exchange)
+            throws IOException
+    {
+        if (recordFile.isPresent()) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("query", exchange.getQuery());
+            line.put("variables", exchange.getVariables().orElse(null));
+            line.put("status", exchange.getStatus());
+            line.put("body", exchange.getBody());
+            asCharSink(recordFile.get(), UTF_8, APPEND).write(mapper.writeValueAsString(line) + "\n");
+        }
+    }
+
+    private Map<String, Queue<Exchange>> loadExchanges(File file)
+    {
+        try {
+            Map<String, Queue<Exchange>> exchanges = new HashMap<>();
+            for (String line : asCharSource(file, UTF_8).readLines()) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Map<String, Object> values = mapper.readValue(line, MAP_TYPE);
+                Exchange exchange = new Exchange(
+                        (String) values.get("query"),
+                        Optional.ofNullable((String) values.get("variables")),
+                        (Integer) values.get("status"),
+                        (String) values.get("body"));
+                exchanges.computeIfAbsent(getReplayKey(exchange.getQuery(), exchange.getVariables()), key -> new ArrayDeque<>()).add(exchange);
+            }
+            return exchanges;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void respond(HttpExchange exchange, Exchange response)
+            throws IOException
+    {
+        byte[] body = response.getBody().getBytes(UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        String acceptEncoding = nullToEmpty(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        if (acceptEncoding.contains("gzip") || acceptEncoding.contains("deflate")) {
+            String encoding = acceptEncoding.contains("gzip") ? "gzip" : "deflate";
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream output = encoding.equals("gzip") ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+                output.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", encoding);
+        }
+        responseBytes.addAndGet(body.length);
+        exchange.sendResponseHeaders(response.getStatus(), body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    /**
+     * Serve a synthetic repository until killed, for load testing the release tools with {@code --github-api-uri}.
+     */
+    public static void main(String[] args)
+            throws Exception
+    {
+        Builder builder = builder()
+                .setPort(args.length > 1 ? Integer.parseInt(args[1]) : 8080)
+                .setCommitCount(args.length > 0 ? Integer.parseInt(args[0]) : 100_000);
+        try (TestingGithubServer server = builder.build()) {
+            log.info("Serving %s synthetic commits at %s", builder.commitCount, server.getUri());
+            Thread.currentThread().join();
+        }
+    }
+
+    private static class Exchange
+    {
+        private final String query;
+        private final Optional<String> variables;
+        private final int status;
+        private final String body;
+
+        public Exchange(String query, Optional<String> variables, int status, String body)
+        {
+            this.query = requireNonNull(query, "query is null");
+            this.variables = requireNonNull(variables, "variables is null");
+            this.status = status;
+            this.body = requireNonNull(body, "body is null");
+        }
+
+        public String getQuery()
+        {
+            return query;
+        }
+
+        public Optional<String> getVariables()
+        {
+            return variables;
+        }
+
+        public int getStatus()
+        {
+            return status;
+        }
+
+        public String getBody()
+        {
+            return body;
+        }
+    }
+
+    public static class Builder
+    {
+        private int port;
+        private int commitCount = 100;
+        private int commitsPerPullRequest = 1;
+        private int authorCount = 10;
+        private long latencyMillis;
+        private int rateLimit;
+        private long rateLimitWindowMillis = TimeUnit.HOURS.toMillis(1);
+        private double failureRate;
+        private int failureStatus = 502;
+        private long seed;
+        private Optional<URI> upstream = Optional.empty();
+        private Optional<File> recordFile = Optional.empty();
+        private Optional<File> replayFile = Optional.empty();
+
+        private Builder() {}
+
+        public Builder setPort(int port)
+        {
+            this.port = port;
+            return this;
+        }
+
+        public Builder setCommitCount(int commitCount)
+        {
+            checkArgument(commitCount > 0, "commitCount must be positive");
+            this.commitCount = commitCount;
+            return this;
+        }
+
+        public Builder setCommitsPerPullRequest(int commitsPerPullRequest)
+        {
+            checkArgument(commitsPerPullRequest > 0, "commitsPerPullRequest must be positive");
+            this.commitsPerPullRequest = commitsPerPullRequest;
+            return this;
+        }
+
+        public Builder setAuthorCount(int authorCount)
+        {
+            checkArgument(authorCount > 0, "authorCount must be positive");
+            this.authorCount = authorCount;
+            return this;
+        }
+
+        public Builder setLatency(long latency, TimeUnit unit)
+        {
+            this.latencyMillis = unit.toMillis(latency);
+            return this;
+        }
+
+        /**
+         * Allow {@code requests} requests per {@code window}, answering further requests with 429.
+         */
+        public Builder setRateLimit(int requests, long window, TimeUnit unit)
+        {
+            this.rateLimit = requests;
+            this.rateLimitWindowMillis = unit.toMillis(window);
+            return this;
+        }
+
+        /**
+         * Fail a random {@code failureRate} fraction of the requests with {@code status}.
+         */
+        public Builder setFailures(double failureRate, int status, long seed)
+        {
+            checkArgument(failureRate >= 0 && failureRate <= 1, "failureRate must be between 0 and 1");
+            this.failureRate = failureRate;
+            this.failureStatus = status;
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Forward requests to a real endpoint instead of serving the synthetic repository, typically while recording.
+         */
+        public Builder setUpstream(URI upstream)
+        {
+            this.upstream = Optional.of(upstream);
+            return this;
+        }
+
+        public Builder setRecordFile(File recordFile)
+        {
+            this.recordFile = Optional.of(recordFile);
+            return this;
+        }
+
+        public Builder setReplayFile(File replayFile)
+        {
+            this.replayFile = Optional.of(replayFile);
+            return this;
+        }
+
+        public TestingGithubServer build()
+                throws IOException
+        {
+            checkArgument(!(upstream.isPresent() && replayFile.isPresent()), "upstream and replay file are mutually exclusive");
+            return new TestingGithubServer(this);
+        }
+    }
+}
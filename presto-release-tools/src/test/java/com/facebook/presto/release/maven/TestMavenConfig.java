@@ -14,6 +14,7 @@
 package com.facebook.presto.release.maven;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
 import java.util.Map;
@@ -21,6 +22,8 @@ import java.util.Map;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class TestMavenConfig
 {
@@ -29,7 +32,8 @@ public class TestMavenConfig
     {
         assertRecordedDefaults(recordDefaults(MavenConfig.class)
                 .setExecutable("mvn")
-                .setOptions(null));
+                .setOptions(null)
+                .setCommandTimeout(new Duration(3, HOURS)));
     }
 
     @Test
@@ -38,10 +42,12 @@ public class TestMavenConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("maven.executable", "/bin/mvn")
                 .put("maven.options", "-Djava.net.preferIPv6Addresses,--settings=/Users/root/.m2/settings.xml")
+                .put("maven.command-timeout", "30m")
                 .build();
         MavenConfig expected = new MavenConfig()
                 .setExecutable("/bin/mvn")
-                .setOptions("-Djava.net.preferIPv6Addresses,--settings=/Users/root/.m2/settings.xml");
+                .setOptions("-Djava.net.preferIPv6Addresses,--settings=/Users/root/.m2/settings.xml")
+                .setCommandTimeout(new Duration(30, MINUTES));
 
         assertFullMapping(properties, expected);
     }
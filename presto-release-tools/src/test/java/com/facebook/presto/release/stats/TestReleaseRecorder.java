@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.google.common.collect.ImmutableList;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestReleaseRecorder
+{
+    @Test
+    public void testRecording()
+            throws Exception
+    {
+        File directory = createTempDir();
+        try {
+            File file = new File(directory, "release.jfr");
+            ReleaseRecorder recorder = new ReleaseRecorder(new ReleaseStatsConfig().setRecordingFile(file.getAbsolutePath()));
+            recorder.start();
+
+            try (Operation operation = ReleaseStats.startCommand(ImmutableList.of("git", "status", "-s"))) {
+                operation.setStatus(0);
+                operation.addOutputBytes(42);
+                operation.succeeded();
+            }
+            try (Operation operation = ReleaseStats.startCommand(ImmutableList.of("git", "clone", "https://token@github.com/user/presto.git", "presto"))) {
+                operation.setStatus(0);
+                operation.succeeded();
+            }
+            try (Operation operation = ReleaseStats.startGithubRequest("listCommits", 3)) {
+                operation.setStatus(502);
+                operation.addRetry();
+            }
+            recorder.stop();
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            RecordedEvent command = getEvent(events, "com.facebook.presto.release.Command", "status");
+            assertEquals(command.getString("executable"), "git");
+            assertEquals(command.getString("arguments"), "git status -s");
+            assertEquals(command.getInt("exitCode"), 0);
+            assertEquals(command.getLong("outputBytes"), 42);
+            assertTrue(command.getBoolean("succeeded"));
+            assertEquals(getEvent(events, "com.facebook.presto.release.Command", "clone").getString("arguments"), "git clone https://github.com/user/presto.git presto");
+
+            RecordedEvent request = getEvent(events, "com.facebook.presto.release.GraphQlRequest", "listCommits");
+            assertEquals(request.getInt("page"), 3);
+            assertEquals(request.getInt("status"), 502);
+            assertEquals(request.getInt("retries"), 1);
+            assertEquals(request.getBoolean("succeeded"), false);
+        }
+        finally {
+            deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    private static RecordedEvent getEvent(List<RecordedEvent> events, String type, String operation)
+    {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(type))
+                .filter(event -> event.getString("operation").equals(operation))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Missing event " + type + " for " + operation));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+
+public class TestReleaseStatsConfig
+{
+    @Test
+    public void testDefault()
+    {
+        assertRecordedDefaults(recordDefaults(ReleaseStatsConfig.class)
+                .setReportFile(null)
+                .setRecordingFile(null)
+                .setTraceFile(null));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("stats.report-file", "/tmp/report.json")
+                .put("stats.recording-file", "/tmp/release.jfr")
+                .put("stats.trace-file", "/tmp/trace.json")
+                .build();
+        ReleaseStatsConfig expected = new ReleaseStatsConfig()
+                .setReportFile("/tmp/report.json")
+                .setRecordingFile("/tmp/release.jfr")
+                .setTraceFile("/tmp/trace.json");
+
+        assertFullMapping(properties, expected);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.stats;
+
+import com.facebook.presto.release.CommandException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.facebook.presto.release.AbstractCommands.command;
+import static com.facebook.presto.release.stats.ReleaseStats.endStage;
+import static com.facebook.presto.release.stats.ReleaseStats.startGithubRequest;
+import static com.facebook.presto.release.stats.ReleaseStats.startStage;
+import static com.facebook.presto.release.stats.ReleaseTrace.startSpan;
+import static com.google.common.io.Files.asCharSource;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestReleaseTrace
+{
+    @BeforeMethod
+    @AfterMethod(alwaysRun = true)
+    public void reset()
+    {
+        ReleaseStats.reset();
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        startStage("preflight");
+        endStage();
+        assertFalse(ReleaseTrace.isEnabled());
+        assertTrue(ReleaseTrace.getEvents().stream().noneMatch(event -> "X".equals(event.get("ph"))));
+    }
+
+    @Test
+    public void testTrace()
+            throws Exception
+    {
+        ReleaseTrace.enable();
+        try (TraceSpan command = startSpan("command", "release-notes")) {
+            startStage("fetch-commits");
+            try (Operation operation = startGithubRequest("listCommits", 1)) {
+                operation.setStatus(200);
+                operation.succeeded();
+            }
+            Thread thread = new Thread(() -> startSpan("render", "extract-release-notes").close(), "render-worker");
+            thread.start();
+            thread.join();
+            endStage();
+        }
+
+        File file = Files.createTempFile("release-trace", ".json").toFile();
+        try {
+            ReleaseTrace.write(file);
+            JsonNode trace = new ObjectMapper().readTree(file);
+
+            Map<String, JsonNode> spans = new HashMap<>();
+            Set<String> threads = new HashSet<>();
+            for (JsonNode event : trace.get("traceEvents")) {
+                if (event.get("ph").asText().equals("X")) {
+                    spans.put(event.get("name").asText(), event);
+                }
+                else if (event.get("name").asText().equals("thread_name")) {
+                    threads.add(event.get("args").get("name").asText());
+                }
+            }
+            assertEquals(spans.keySet(), ImmutableSet.of("release-notes", "fetch-commits", "github listCommits", "extract-release-notes"));
+            assertTrue(threads.contains("render-worker"), threads.toString());
+            assertTrue(threads.contains(Thread.currentThread().getName()), threads.toString());
+
+            JsonNode request = spans.get("github listCommits");
+            assertEquals(request.get("cat").asText(), "github");
+            assertEquals(request.get("args").get("page").asInt(), 1);
+            assertEquals(request.get("args").get("status").asInt(), 200);
+            assertTrue(request.get("args").get("succeeded").asBoolean());
+            assertEquals(request.get("tid").asLong(), Thread.currentThread().getId());
+            assertTrue(spans.get("extract-release-notes").get("tid").asLong() != Thread.currentThread().getId());
+
+            assertContains(spans.get("release-notes"), spans.get("fetch-commits"));
+            assertContains(spans.get("fetch-commits"), request);
+            assertContains(spans.get("fetch-commits"), spans.get("extract-release-notes"));
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testCredentialsRedacted()
+            throws Exception
+    {
+        ReleaseTrace.enable();
+        File directory = createTempDir();
+        File file = new File(directory, "release-trace.json");
+        try {
+            // nothing listens on port 1, so the clone fails without prompting for credentials
+            assertThrows(CommandException.class, () -> command(
+                    ImmutableList.of("git", "clone", "https://secret-token@127.0.0.1:1/user/presto.git", new File(directory, "presto").getAbsolutePath()),
+                    ImmutableMap.of("GIT_TERMINAL_PROMPT", "0"),
+                    directory,
+                    new Duration(1, MINUTES)));
+            ReleaseTrace.write(file);
+
+            String trace = asCharSource(file, UTF_8).read();
+            assertTrue(trace.contains("git clone https://127.0.0.1:1/user/presto.git"), trace);
+            assertFalse(trace.contains("secret-token"), trace);
+        }
+        finally {
+            deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    private static void assertContains(JsonNode outer, JsonNode inner)
+    {
+        double outerStart = outer.get("ts").asDouble();
+        double innerStart = inner.get("ts").asDouble();
+        assertTrue(outerStart <= innerStart, outer + " does not contain " + inner);
+        assertTrue(innerStart + inner.get("dur").asDouble() <= outerStart + outer.get("dur").asDouble(), outer + " does not contain " + inner);
+    }
+}
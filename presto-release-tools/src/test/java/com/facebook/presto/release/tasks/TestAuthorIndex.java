@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.git.GitConfig;
+import com.facebook.presto.release.git.GitRepository;
+import com.facebook.presto.release.git.GitRepositoryConfig;
+import com.facebook.presto.release.git.NoOpGit;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.lang.String.format;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.stream.Collectors.joining;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestAuthorIndex
+{
+    @Test
+    public void testExtend()
+            throws IOException
+    {
+        File directory = createTempDirectory(null).toFile();
+        try {
+            HistoryGit git = new HistoryGit(directory);
+            AuthorIndex index = AuthorIndex.empty();
+            git.authors = "a@example.com\nB@Example.com\n";
+            index.extend(git, "commit1");
+            git.authors = "c@example.com\n";
+            index.extend(git, "commit2");
+            index.extend(git, "commit2");
+            assertEquals(git.ranges, ImmutableList.of("commit1", "commit1..commit2"));
+            assertTrue(index.contains("b@example.com"));
+            assertTrue(index.contains(" C@example.com"));
+            assertFalse(index.contains("d@example.com"));
+
+            File file = new File(directory, "index/authors.bin");
+            index.write(file);
+            AuthorIndex read = AuthorIndex.read(file).get();
+            assertEquals(read.getLastCommit(), Optional.of("commit2"));
+            assertEquals(read.size(), 3);
+            assertTrue(read.contains("a@example.com"));
+            assertFalse(read.contains("d@example.com"));
+            assertEquals(AuthorIndex.read(new File(directory, "missing.bin")), Optional.empty());
+        }
+        finally {
+            deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testRewrittenHistory()
+            throws IOException
+    {
+        File directory = createTempDirectory(null).toFile();
+        try {
+            HistoryGit git = new HistoryGit(directory);
+            AuthorIndex index = AuthorIndex.empty();
+            git.authors = "a@example.com\nb@example.com\n";
+            index.extend(git, "commit1");
+
+            // commit1 was force pushed away, so its authors are dropped and the history of commit2 is indexed again
+            git.unreachable.add("commit1");
+            git.authors = "a@example.com\nc@example.com\n";
+            index.extend(git, "commit2");
+            assertEquals(git.ranges, ImmutableList.of("commit1", "commit2"));
+            assertEquals(index.getLastCommit(), Optional.of("commit2"));
+            assertEquals(index.size(), 2);
+            assertTrue(index.contains("c@example.com"));
+            assertFalse(index.contains("b@example.com"));
+        }
+        finally {
+            deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testManyAuthors()
+            throws IOException
+    {
+        File directory = createTempDirectory(null).toFile();
+        try {
+            HistoryGit git = new HistoryGit(directory);
+            git.authors = IntStream.range(0, 100_000)
+                    .mapToObj(author -> format("author%s@example.com", author))
+                    .collect(joining("\n"));
+            AuthorIndex index = AuthorIndex.empty();
+            index.extend(git, "head");
+            File file = new File(directory, "authors.bin");
+            index.write(file);
+            assertEquals(file.length(), 100_000 * 8 + 4 + 4 + 2 + "head".length() + 4);
+
+            AuthorIndex read = AuthorIndex.read(file).get();
+            assertEquals(read.size(), 100_000);
+            for (int author = 0; author < 100_000; author++) {
+                assertTrue(read.contains(format("author%s@example.com", author)));
+                assertFalse(read.contains(format("other%s@example.com", author)));
+            }
+        }
+        finally {
+            deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    private static class HistoryGit
+            extends NoOpGit
+    {
+        private final List<String> ranges = new ArrayList<>();
+        private final Set<String> unreachable = new HashSet<>();
+        private String authors = "";
+
+        public HistoryGit(File directory)
+        {
+            super(GitRepository.create(directory.getName(), new GitRepositoryConfig().setDirectory(directory.getAbsolutePath()), new GitConfig()));
+        }
+
+        @Override
+        public boolean isAncestor(String ancestor, String commit)
+        {
+            return !unreachable.contains(ancestor);
+        }
+
+        @Override
+        public String log(String revisionRange, String... options)
+        {
+            assertEquals(options, new String[] {AuthorIndex.LOG_FORMAT});
+            ranges.add(revisionRange);
+            return authors;
+        }
+    }
+}
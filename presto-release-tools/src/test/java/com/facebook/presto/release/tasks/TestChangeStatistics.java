@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.tasks.ChangeStatistics.Counts;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestChangeStatistics
+{
+    @Test
+    public void testParse()
+    {
+        String log = "\0" + commitId(1) + "\n\n10\t2\tpresto-hive/src/main/java/HiveMetadata.java\n1\t1\tpom.xml\n" +
+                "\0" + commitId(2) + "\n" +
+                "\0" + commitId(3) + "\n\n4\t0\tpresto-hive/pom.xml\n-\t-\tpresto-docs/src/main/sphinx/logo.png\n3\t30\tpresto-spi/src/main/java/Connector.java\n";
+        ChangeStatistics statistics = ChangeStatistics.parse(log);
+
+        assertEquals(ImmutableList.copyOf(statistics.getModules().entrySet()), ImmutableList.copyOf(ImmutableMap.of(
+                "presto-spi", new Counts(1, 3, 30),
+                "presto-hive", new Counts(2, 14, 2),
+                ChangeStatistics.ROOT_MODULE, new Counts(1, 1, 1),
+                "presto-docs", new Counts(1, 0, 0)).entrySet()));
+        assertTrue(ChangeStatistics.parse("").isEmpty());
+        assertTrue(ChangeStatistics.parse("\0" + commitId(1) + "\n\npresto-hive/pom.xml\n").isEmpty());
+    }
+
+    @Test
+    public void testChangedFiles()
+    {
+        ChangedFiles.Collector collector = new ChangedFiles.Collector();
+        ImmutableList.of("\0" + commitId(1), "", "10\t2\tpresto-hive/src/main/java/HiveMetadata.java", "1\t1\tpom.xml", "\0" + commitId(2))
+                .forEach(collector);
+        ChangedFiles changedFiles = collector.build();
+
+        assertEquals(changedFiles.getFilesByCommit(), ImmutableMap.of(
+                commitId(1), ImmutableList.of("presto-hive/src/main/java/HiveMetadata.java", "pom.xml"),
+                commitId(2), ImmutableList.of()));
+        assertEquals(changedFiles.getStatistics().getModules(), ImmutableMap.of(
+                "presto-hive", new Counts(1, 10, 2),
+                ChangeStatistics.ROOT_MODULE, new Counts(1, 1, 1)));
+    }
+
+    @Test
+    public void testGetSections()
+    {
+        ChangeStatistics statistics = new ChangeStatistics(ImmutableMap.of(
+                "presto-hive", new Counts(2, 14, 2),
+                "presto-hive-metastore", new Counts(1, 1, 0),
+                "presto-spi", new Counts(1, 3, 30),
+                ChangeStatistics.ROOT_MODULE, new Counts(1, 1, 1)));
+        Map<String, Optional<String>> sections = ImmutableMap.of(
+                "presto-hive", Optional.of("Hive Connector"),
+                "presto-hive-metastore", Optional.of("Hive Connector"),
+                "presto-spi", Optional.of("SPI"),
+                ChangeStatistics.ROOT_MODULE, Optional.empty());
+
+        assertEquals(ImmutableList.copyOf(statistics.getSections(sections::get, new GenerateReleaseNotesTask.CategoryComparator()).entrySet()), ImmutableList.copyOf(ImmutableMap.of(
+                "Hive Connector", new Counts(3, 15, 2),
+                "SPI", new Counts(1, 3, 30)).entrySet()));
+        // the counts of the modules are left unchanged
+        assertEquals(statistics.getModules().get("presto-hive"), new Counts(2, 14, 2));
+    }
+
+    @Test
+    public void testManyCommits()
+    {
+        // a release of thousands of commits is aggregated into a counter per module
+        StringBuilder log = new StringBuilder();
+        for (int commit = 0; commit < 5_000; commit++) {
+            log.append('\0').append(commitId(commit)).append("\n\n");
+            for (int file = 0; file < 10; file++) {
+                log.append(format("%s\t%s\tpresto-module%s/src/main/java/File%s.java\n", file, 1, (commit + file) % 200, file));
+            }
+        }
+        Map<String, Counts> modules = ChangeStatistics.parse(log.toString()).getModules();
+        assertEquals(modules.size(), 200);
+        assertEquals(modules.values().stream().mapToLong(Counts::getFiles).sum(), 50_000);
+        assertEquals(modules.values().stream().mapToLong(Counts::getInsertions).sum(), 5_000 * 45);
+        assertEquals(modules.values().stream().mapToLong(Counts::getDeletions).sum(), 50_000);
+    }
+
+    private static String commitId(int index)
+    {
+        return format("%040x", index);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+
+public class TestCodeOwners
+{
+    @Test
+    public void testLastMatchWins()
+    {
+        CodeOwners codeOwners = CodeOwners.parse(ImmutableList.of(
+                "# Default owners",
+                "*       @org/committers",
+                "",
+                "*.md    @org/docs # inline comment",
+                "/presto-hive/    @org/hive @alice",
+                "presto-spi/src/  @org/spi",
+                "/presto-hive/src/test/",
+                "docs/*  @org/docs-root",
+                "**/resources/**  @org/resources",
+                "/build\\#1.txt   @org/escaped"));
+
+        assertEquals(codeOwners.getOwners("pom.xml"), ImmutableList.of("@org/committers"));
+        assertEquals(codeOwners.getOwners("README.md"), ImmutableList.of("@org/docs"));
+        assertEquals(codeOwners.getOwners("presto-hive/README.md"), ImmutableList.of("@org/hive", "@alice"));
+        assertEquals(codeOwners.getOwners("presto-hive/src/main/java/Hive.java"), ImmutableList.of("@org/hive", "@alice"));
+        assertEquals(codeOwners.getOwners("presto-hive-metastore/pom.xml"), ImmutableList.of("@org/committers"));
+        // a rule without owners removes the ownership
+        assertEquals(codeOwners.getOwners("presto-hive/src/test/java/TestHive.java"), ImmutableList.of());
+        assertEquals(codeOwners.getOwners("presto-spi/src/main/java/Plugin.java"), ImmutableList.of("@org/spi"));
+        assertEquals(codeOwners.getOwners("presto-spi/pom.xml"), ImmutableList.of("@org/committers"));
+        // "docs/*" only matches the files directly in a docs directory
+        assertEquals(codeOwners.getOwners("docs/index.rst"), ImmutableList.of("@org/docs-root"));
+        assertEquals(codeOwners.getOwners("docs/api/index.rst"), ImmutableList.of("@org/committers"));
+        assertEquals(codeOwners.getOwners("presto-main/src/main/resources/a/b.json"), ImmutableList.of("@org/resources"));
+        assertEquals(codeOwners.getOwners("build#1.txt"), ImmutableList.of("@org/escaped"));
+    }
+
+    @Test
+    public void testGlobs()
+    {
+        assertMatches("*.java", "Foo.java", true);
+        assertMatches("*.java", "a/b/Foo.java", true);
+        assertMatches("*.java", "a/Foo.javax", false);
+        assertMatches("/pom.xml", "pom.xml", true);
+        assertMatches("/pom.xml", "presto-main/pom.xml", false);
+        assertMatches("pom.xml", "presto-main/pom.xml", true);
+        assertMatches("apps/", "a/apps/b.js", true);
+        assertMatches("presto-*/pom.xml", "presto-main/pom.xml", true);
+        assertMatches("presto-*/pom.xml", "a/presto-main/pom.xml", false);
+        assertMatches("presto-?ain/", "presto-main/x", true);
+        assertMatches("/a/**/b", "a/b", true);
+        assertMatches("/a/**/b", "a/x/y/b/c", true);
+        assertMatches("a.b", "axb", false);
+        assertEquals(CodeOwners.parse(ImmutableList.of()).getOwners("pom.xml"), ImmutableList.of());
+    }
+
+    @Test
+    public void testAnchoredAndUnanchoredRules()
+    {
+        CodeOwners codeOwners = CodeOwners.parse(ImmutableList.of(
+                "/presto-hive/ @hive",
+                "*.md @docs",
+                "/presto-hive/src/ @hive-src",
+                "presto-*/pom.xml @build"));
+        assertEquals(codeOwners.getOwners("presto-hive/README.md"), ImmutableList.of("@docs"));
+        assertEquals(codeOwners.getOwners("presto-hive/src/README.md"), ImmutableList.of("@hive-src"));
+        assertEquals(codeOwners.getOwners("presto-hive/pom.xml"), ImmutableList.of("@build"));
+        assertEquals(codeOwners.getOwners("presto-main/pom.xml"), ImmutableList.of("@build"));
+        assertEquals(codeOwners.getOwners("presto-main/README.md"), ImmutableList.of("@docs"));
+        assertEquals(codeOwners.getOwners("presto-main/Foo.java"), ImmutableList.of());
+    }
+
+    @Test
+    public void testManyRulesAndPaths()
+    {
+        List<String> lines = IntStream.range(0, 1_000)
+                .mapToObj(index -> format("/presto-module%s/src/main/ @org/team%s", index, index))
+                .collect(toImmutableList());
+        CodeOwners codeOwners = CodeOwners.parse(ImmutableList.<String>builder().add("* @org/committers").addAll(lines).build());
+        for (int index = 0; index < 20_000; index++) {
+            assertEquals(codeOwners.getOwners(format("presto-module%s/src/main/java/File%s.java", index % 1_000, index)), ImmutableList.of("@org/team" + (index % 1_000)));
+        }
+        assertEquals(codeOwners.getOwners("presto-module1/pom.xml"), ImmutableList.of("@org/committers"));
+    }
+
+    private static void assertMatches(String glob, String path, boolean matches)
+    {
+        assertEquals(CodeOwners.parse(ImmutableList.of(glob + " @owner")).getOwners(path).isEmpty(), !matches, format("%s matching %s", glob, path));
+    }
+}
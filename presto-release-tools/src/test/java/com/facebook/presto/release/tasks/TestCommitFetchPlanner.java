@@ -0,0 +1,420 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.airlift.http.client.HttpClient;
+import com.facebook.airlift.http.client.jetty.JettyHttpClient;
+import com.facebook.presto.release.git.Actor;
+import com.facebook.presto.release.git.Commit;
+import com.facebook.presto.release.git.CommitFetchStrategy;
+import com.facebook.presto.release.git.CommitFetcher;
+import com.facebook.presto.release.git.GithubAction;
+import com.facebook.presto.release.git.GithubConfig;
+import com.facebook.presto.release.git.GithubGraphQlAction;
+import com.facebook.presto.release.git.LocalCommit;
+import com.facebook.presto.release.git.MergedPullRequest;
+import com.facebook.presto.release.git.PullRequest;
+import com.facebook.presto.release.git.TestingGithubServer;
+import com.facebook.presto.release.git.User;
+import com.facebook.presto.release.tasks.CommitFetchPlanner.FetchPlan;
+import com.facebook.presto.release.tasks.ReleaseNotesSnapshot.SnapshotPullRequest;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.release.git.CommitFetchStrategy.AUTO;
+import static com.facebook.presto.release.git.CommitFetchStrategy.BATCH;
+import static com.facebook.presto.release.git.CommitFetchStrategy.HISTORY;
+import static com.facebook.presto.release.git.CommitFetchStrategy.SEARCH;
+import static com.facebook.presto.release.git.CommitFetchStrategy.SNAPSHOT;
+import static com.facebook.presto.release.git.TestingGithubServer.getCommitId;
+import static com.facebook.presto.release.git.TestingGithubServer.getCommitTime;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.asCharSource;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestCommitFetchPlanner
+{
+    private static final String LARGE_RANGE_HEAP_SIZE = "128m";
+
+    private HttpClient httpClient;
+    private File directory;
+
+    @BeforeClass
+    public void setup()
+    {
+        httpClient = new JettyHttpClient();
+        directory = createTempDir();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+            throws IOException
+    {
+        httpClient.close();
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testPlan()
+    {
+        // squash merged: 300 commits of 100 pull requests, all referenced in the titles
+        List<LocalCommit> squashed = localCommits(300, index -> format("Change (#%s)", index / 3 + 1));
+        assertPlan(squashed, squashed, OptionalInt.of(5000), SEARCH, 1);
+        assertEquals(CommitFetchPlanner.estimate(HISTORY, squashed, squashed, Optional.empty()).getRequests(), 10);
+        assertEquals(CommitFetchPlanner.estimate(BATCH, squashed, squashed, Optional.empty()).getRequests(), 2);
+
+        // rebase merged: no commit references a pull request
+        List<LocalCommit> rebased = localCommits(300, index -> "Rebased change " + index);
+        assertPlan(rebased, rebased, OptionalInt.of(5000), BATCH, 6);
+        assertEquals(CommitFetchPlanner.estimate(HISTORY, rebased, rebased, Optional.empty()).getRequests(), 10);
+        assertEquals(CommitFetchPlanner.estimate(SEARCH, rebased, rebased, Optional.empty()).getRequests(), 9);
+
+        // only the newest commits are missing from the cache, so the walk stops early
+        assertPlan(rebased, rebased.subList(0, 20), OptionalInt.empty(), HISTORY, 1);
+
+        FetchPlan plan = CommitFetchPlanner.plan(rebased, rebased, 0, OptionalInt.of(6), Optional.of(new Duration(200, MILLISECONDS)));
+        assertEquals(plan.getStrategy(), BATCH);
+        assertEquals(plan.getEstimatedTime().get().toMillis(), 1_200);
+
+        // refreshing the pull requests of the cached commits is part of every plan
+        plan = CommitFetchPlanner.plan(rebased, rebased.subList(0, 20), 2, OptionalInt.of(5000), Optional.of(new Duration(200, MILLISECONDS)));
+        assertEquals(plan.getStrategy(), HISTORY);
+        assertEquals(plan.getRequests(), 3);
+        assertEquals(plan.getEstimatedTime().get().toMillis(), 600);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "The cheapest fetch plan, BATCH \\(6 requests\\), needs more requests than the 5 remaining Github rate limit points.*")
+    public void testPlanOverRateLimit()
+    {
+        List<LocalCommit> rebased = localCommits(300, index -> "Rebased change " + index);
+        CommitFetchPlanner.plan(rebased, rebased, 0, OptionalInt.of(5), Optional.empty());
+    }
+
+    @Test
+    public void testSnapshotCache()
+            throws IOException
+    {
+        File cacheDirectory = new File(directory, "cache");
+        List<LocalCommit> commits = localCommits(310, index -> "Synthetic commit " + index);
+        try (TestingGithubServer server = TestingGithubServer.builder()
+                .setCommitCount(1_000)
+                .setCommitsPerPullRequest(2)
+                .build()) {
+            List<Commit> expected = createPlanner(server, HISTORY, Optional.empty()).fetchSnapshot("0.231", "org/presto", "release-0.231", commits).getCommits();
+            int requests = server.getRequestCount();
+
+            // the first run fetches the older commits and caches them
+            createPlanner(server, AUTO, Optional.of(cacheDirectory)).fetchSnapshot("0.231", "org/presto", "release-0.231", commits.subList(10, 310));
+            // the cache file is written to a temporary file and moved into place
+            assertEquals(cacheDirectory.list(), new String[] {"release-notes-snapshot-presto-0.231.json.gz"});
+            assertTrue(server.getRequestCount() > requests);
+
+            // the rerun only walks the first page of history for the 10 new commits, after probing the rate limit, and
+            // refreshes the 150 pull requests of the cached commits in 3 batches
+            requests = server.getRequestCount();
+            List<Commit> actual = createPlanner(server, AUTO, Optional.of(cacheDirectory)).fetchSnapshot("0.231", "org/presto", "release-0.231", commits).getCommits();
+            assertEquals(server.getRequestCount() - requests, 5);
+            assertCommits(actual, expected);
+
+            // descriptions edited since the commits were cached are refreshed
+            File cacheFile = new File(cacheDirectory, "release-notes-snapshot-presto-0.231.json.gz");
+            ReleaseNotesSnapshot cached = ReleaseNotesSnapshot.read(cacheFile);
+            new ReleaseNotesSnapshot(
+                    cached.getVersion(),
+                    cached.getRepository(),
+                    cached.getSnapshotCommits(),
+                    cached.getSnapshotPullRequests().stream()
+                            .map(pullRequest -> new SnapshotPullRequest(
+                                    pullRequest.getNumber(),
+                                    pullRequest.getTitle(),
+                                    pullRequest.getUrl(),
+                                    "Stale description",
+                                    pullRequest.getAuthorLogin(),
+                                    pullRequest.getMergedByLogin(),
+                                    pullRequest.getMergedByName()))
+                            .collect(toImmutableList()))
+                    .write(cacheFile);
+
+            // everything is cached now, only the 155 pull requests are fetched
+            requests = server.getRequestCount();
+            actual = createPlanner(server, AUTO, Optional.of(cacheDirectory)).fetchSnapshot("0.231", "org/presto", "release-0.231", commits).getCommits();
+            assertEquals(server.getRequestCount() - requests, 4);
+            assertCommits(actual, expected);
+
+            // the snapshot strategy does not access Github
+            requests = server.getRequestCount();
+            actual = createPlanner(server, SNAPSHOT, Optional.of(cacheDirectory)).fetchSnapshot("0.231", "org/presto", "release-0.231", commits).getCommits();
+            assertEquals(server.getRequestCount(), requests);
+            assertEquals(actual.stream().map(Commit::getId).collect(toImmutableList()), expected.stream().map(Commit::getId).collect(toImmutableList()));
+            assertTrue(actual.stream().allMatch(commit -> commit.getAssociatedPullRequests().get(0).getDescription().equals("Stale description")));
+        }
+    }
+
+    @Test
+    public void testRateLimitBudget()
+    {
+        List<LocalCommit> rebased = localCommits(300, index -> "Rebased change " + index);
+        CommitFetchPlanner.RateLimitBudget budget = new CommitFetchPlanner.RateLimitBudget();
+        FetchPlan first = budget.reserve(rebased, rebased, 0, OptionalInt.of(10), Optional.empty());
+        assertEquals(first.getRequests(), 6);
+        assertEquals(budget.getReserved(), 6);
+
+        // a concurrent fetch only has the points the first one has not reserved
+        try {
+            budget.reserve(rebased, rebased, 0, OptionalInt.of(10), Optional.empty());
+            fail("expected IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("needs more requests than the 4 remaining Github rate limit points"), e.getMessage());
+        }
+        assertEquals(budget.getReserved(), 6);
+
+        budget.release(first);
+        assertEquals(budget.reserve(rebased, rebased, 0, OptionalInt.of(10), Optional.empty()).getRequests(), 6);
+    }
+
+    @Test
+    public void testCacheFilesOfOtherRepositories()
+            throws IOException
+    {
+        // a snapshot of presto saved under the name of presto-hive is not read when loading presto
+        File cacheDirectory = new File(directory, "other-repository-cache");
+        assertTrue(cacheDirectory.mkdirs());
+        List<LocalCommit> commits = localCommits(2, index -> "Commit " + index);
+        ReleaseNotesSnapshot.create("0.231", "org/presto", commits.stream()
+                .map(commit -> new Commit(commit.getId(), commit.getAuthor(), commit.getTitle(), ImmutableList.of()))
+                .collect(toImmutableList()))
+                .write(new File(cacheDirectory, "release-notes-snapshot-presto-hive-0.231.json.gz"));
+        try (TestingGithubServer server = TestingGithubServer.builder().build()) {
+            createPlanner(server, SNAPSHOT, Optional.of(cacheDirectory)).fetchSnapshot("0.231", "org/presto", "release-0.231", commits);
+            fail("expected IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("2 commits are missing from the snapshot cache"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCacheFileOrder()
+            throws IOException
+    {
+        // the snapshot of the release is read first, then the other versions newest first until every commit is found
+        File cacheDirectory = new File(directory, "version-cache");
+        assertTrue(cacheDirectory.mkdirs());
+        List<LocalCommit> commits = localCommits(3, index -> "Commit " + index);
+        writeCacheFile(cacheDirectory, "0.229", commits.subList(0, 3), "0.229 commit");
+        writeCacheFile(cacheDirectory, "0.230", commits.subList(0, 3), "0.230 commit");
+        writeCacheFile(cacheDirectory, "0.231", commits.subList(0, 1), "0.231 commit");
+        writeCacheFile(cacheDirectory, "0.232", commits.subList(0, 2), "0.232 commit");
+        try (TestingGithubServer server = TestingGithubServer.builder().build()) {
+            List<Commit> actual = createPlanner(server, SNAPSHOT, Optional.of(cacheDirectory)).fetchSnapshot("0.231", "org/presto", "release-0.231", commits).getCommits();
+            assertEquals(actual.stream().map(Commit::getTitle).collect(toImmutableList()), ImmutableList.of("0.231 commit", "0.232 commit", "0.230 commit"));
+        }
+    }
+
+    private static void writeCacheFile(File cacheDirectory, String version, List<LocalCommit> commits, String title)
+    {
+        ReleaseNotesSnapshot.create(version, "org/presto", commits.stream()
+                .map(commit -> new Commit(commit.getId(), commit.getAuthor(), title, ImmutableList.of()))
+                .collect(toImmutableList()))
+                .write(new File(cacheDirectory, format("release-notes-snapshot-presto-%s.json.gz", version)));
+    }
+
+    @Test
+    public void testSnapshotMissingCommits()
+            throws IOException
+    {
+        try (TestingGithubServer server = TestingGithubServer.builder().build()) {
+            createPlanner(server, SNAPSHOT, Optional.of(new File(directory, "empty"))).fetchSnapshot("0.231", "org/presto", "release-0.231", localCommits(10, index -> "Commit"));
+            fail("expected IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("10 commits are missing from the snapshot cache"), e.getMessage());
+        }
+        assertFalse(new File(directory, "empty").exists());
+    }
+
+    @Test
+    public void testFetchLargeRangeInSmallHeap()
+            throws Exception
+    {
+        // 50k commits of 25k pull requests, fetched and cached, then fetched again from the cache, in a JVM with a small heap
+        File output = new File(directory, "large-fetch.log");
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + LARGE_RANGE_HEAP_SIZE,
+                "-cp",
+                System.getProperty("java.class.path"),
+                LargeRangeFetch.class.getName(),
+                new File(directory, "large-cache").getAbsolutePath())
+                .redirectErrorStream(true)
+                .redirectOutput(output)
+                .start();
+        if (!process.waitFor(5, MINUTES)) {
+            process.destroyForcibly();
+            fail("The fetch did not finish");
+        }
+        assertEquals(process.exitValue(), 0, asCharSource(output, UTF_8).read());
+    }
+
+    public static class LargeRangeFetch
+    {
+        private LargeRangeFetch()
+        {
+        }
+
+        public static void main(String[] args)
+        {
+            File cacheDirectory = new File(args[0]);
+            List<LocalCommit> commits = IntStream.range(0, 50_000)
+                    .mapToObj(index -> new LocalCommit(getCommitId(index), "Author " + (index % 500), getCommitTime(index), format("Commit %s (#%s)", index, index / 2)))
+                    .collect(toImmutableList());
+            GithubAction action = new GeneratedGithubAction();
+            // the first run caches the older commits, the second one reuses them and refreshes their pull requests
+            new CommitFetchPlanner(action, new CommitFetcher(action), BATCH, Optional.of(cacheDirectory))
+                    .fetchSnapshot("0.231", "org/presto", "release-0.231", commits.subList(1_000, commits.size()));
+            CommitTable table = new CommitFetchPlanner(action, new CommitFetcher(action), AUTO, Optional.of(cacheDirectory))
+                    .fetchSnapshot("0.231", "org/presto", "release-0.231", commits)
+                    .getCommitTable();
+            checkState(table.getCommitCount() == 50_000 && table.getPullRequestCount() == 25_000, "Fetched %s commits of %s pull requests", table.getCommitCount(), table.getPullRequestCount());
+        }
+    }
+
+    /**
+     * Github with a pull request for every number, generated on each lookup.
+     */
+    private static class GeneratedGithubAction
+            implements GithubAction
+    {
+        @Override
+        public List<Commit> listCommits(String repository, String branch, String earliest)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<MergedPullRequest> searchMergedPullRequests(String repository, String baseBranch, Instant mergedAfter, Instant mergedBefore)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Commit> getCommits(String repository, List<String> commitIds)
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public List<PullRequest> getPullRequests(String repository, List<Integer> numbers)
+        {
+            return numbers.stream()
+                    .map(number -> new PullRequest(
+                            number,
+                            "Pull request " + number,
+                            "https://github.com/org/presto/pull/" + number,
+                            format("%01024d\n\n== RELEASE NOTES ==\n\nGeneral Changes\n* Fix %s.\n", number, number),
+                            new Actor("login" + (number % 500)),
+                            new User("committer" + (number % 20), null)))
+                    .collect(toImmutableList());
+        }
+
+        @Override
+        public List<User> getUsers(List<String> logins)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getRemainingRateLimit()
+        {
+            return 5_000;
+        }
+
+        @Override
+        public PullRequest createPullRequest(String repository, String baseRef, String headRef, String title, String body)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<PullRequest> getOpenPullRequest(String repository, String headRefName)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PullRequest updatePullRequest(String repository, int number, String body)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static void assertPlan(List<LocalCommit> localCommits, List<LocalCommit> missing, OptionalInt remainingRateLimit, CommitFetchStrategy strategy, int requests)
+    {
+        FetchPlan plan = CommitFetchPlanner.plan(localCommits, missing, 0, remainingRateLimit, Optional.empty());
+        assertEquals(plan.getStrategy(), strategy);
+        assertEquals(plan.getRequests(), requests);
+    }
+
+    private static void assertCommits(List<Commit> actual, List<Commit> expected)
+    {
+        assertEquals(actual.stream().map(Commit::getId).collect(toImmutableList()), expected.stream().map(Commit::getId).collect(toImmutableList()));
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(actual.get(i).getAssociatedPullRequests(), expected.get(i).getAssociatedPullRequests());
+        }
+    }
+
+    private static List<LocalCommit> localCommits(int count, IntFunction<String> title)
+    {
+        return IntStream.range(0, count)
+                .mapToObj(index -> new LocalCommit(getCommitId(index), "Author " + (index % 10), getCommitTime(index), title.apply(index)))
+                .collect(toImmutableList());
+    }
+
+    private CommitFetchPlanner createPlanner(TestingGithubServer server, CommitFetchStrategy strategy, Optional<File> cacheDirectory)
+    {
+        GithubAction action = new GithubGraphQlAction(
+                httpClient,
+                new GithubConfig()
+                        .setUser("testUser")
+                        .setAccessToken("testToken")
+                        .setApiUri(server.getUri()));
+        return new CommitFetchPlanner(action, new CommitFetcher(action), strategy, cacheDirectory);
+    }
+}
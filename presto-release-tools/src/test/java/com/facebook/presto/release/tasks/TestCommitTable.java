@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.git.Actor;
+import com.facebook.presto.release.git.Commit;
+import com.facebook.presto.release.git.PullRequest;
+import com.facebook.presto.release.git.User;
+import com.facebook.presto.release.tasks.ReleaseNotesSnapshot.SnapshotCommit;
+import com.facebook.presto.release.tasks.ReleaseNotesSnapshot.SnapshotPullRequest;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestCommitTable
+{
+    private static final PullRequest PULL_REQUEST_1 = new PullRequest(1, "Fix bug", "https://github.com/org/presto/pull/1", "body 1", new Actor("user1"), new User("user2", "B Jones"));
+    private static final PullRequest PULL_REQUEST_2 = new PullRequest(2, "Add feature", "https://github.com/org/presto/pull/2", "body 2", new Actor("user3"), null);
+
+    private static final List<Commit> COMMITS = ImmutableList.of(
+            new Commit("c1", "A Smith", "Fix bug part 1", ImmutableList.of(PULL_REQUEST_1)),
+            new Commit("c2", "A Smith", "Fix bug part 2", ImmutableList.of(PULL_REQUEST_1)),
+            new Commit("c3", "C Brown", "Add feature", ImmutableList.of(PULL_REQUEST_2, PULL_REQUEST_1)),
+            new Commit("c4", "D Green", "Direct push", ImmutableList.of()));
+
+    @Test
+    public void testFromSnapshot()
+    {
+        CommitTable table = ReleaseNotesSnapshot.create("0.231", "org/presto", COMMITS).getCommitTable();
+
+        assertEquals(table.getCommitCount(), 4);
+        assertEquals(table.getPullRequestCount(), 2);
+        for (int commit = 0; commit < COMMITS.size(); commit++) {
+            assertEquals(table.getCommitId(commit), COMMITS.get(commit).getId());
+            assertEquals(table.getCommitAuthor(commit), COMMITS.get(commit).getAuthor());
+            assertEquals(table.getCommitTitle(commit), COMMITS.get(commit).getTitle());
+            assertEquals(
+                    table.getPullRequests(commit).mapToObj(table::getPullRequest).collect(toImmutableList()),
+                    COMMITS.get(commit).getAssociatedPullRequests());
+        }
+        assertTrue(table.hasPullRequests(2));
+        assertFalse(table.hasPullRequests(3));
+        assertEquals(table.getPullRequest(0), PULL_REQUEST_1);
+        assertEquals(table.getPullRequest(1), PULL_REQUEST_2);
+        assertEquals(table.getPullRequestMergedByLogin(0), Optional.of("user2"));
+        assertFalse(table.getPullRequestMergedByLogin(1).isPresent());
+        assertEquals(table.getPullRequestNumber(1), 2);
+        assertEquals(table.getPullRequestAuthorLogin(1), "user3");
+
+        // the authors are interned, and the pull request of several commits is stored once
+        assertSame(table.getCommitAuthor(0), table.getCommitAuthor(1));
+        assertEquals(table.getPullRequests(0).toArray(), table.getPullRequests(1).toArray());
+    }
+
+    @Test
+    public void testBuilder()
+    {
+        CommitTable table = CommitTable.builder()
+                // the pull requests of a commit may be added after it
+                .addCommit("c1", new String("user1"), "Fix bug", 7)
+                .addPullRequest(7, "Fix bug", "url", "body", new String("user1"), Optional.of(new String("user1")), Optional.empty())
+                // a pull request already added is kept as it was added
+                .addPullRequest(7, "Fix other bug", "url", "body", "user1", Optional.empty(), Optional.empty())
+                .addCommit("c2", "A Smith", "Direct push")
+                .build();
+
+        assertEquals(table.getPullRequestCount(), 1);
+        assertEquals(table.getPullRequest(0).getTitle(), "Fix bug");
+        assertSame(table.getCommitAuthor(0), table.getPullRequestAuthorLogin(0));
+        assertSame(table.getPullRequest(0).getMergedBy().get().getLogin(), table.getPullRequestAuthorLogin(0));
+        assertFalse(table.getPullRequest(0).getMergedBy().get().getName().isPresent());
+        assertEquals(table.getPullRequests(1).count(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Pull request #3 of commit c1 is missing from snapshot")
+    public void testMissingPullRequest()
+    {
+        new ReleaseNotesSnapshot(
+                "0.231",
+                "org/presto",
+                ImmutableList.of(new SnapshotCommit("c1", "A Smith", "Fix bug", ImmutableList.of(3))),
+                ImmutableList.of())
+                .getCommitTable();
+    }
+
+    @Test
+    public void testCopyCommit()
+    {
+        CommitTable snapshot = ReleaseNotesSnapshot.create("0.231", "org/presto", COMMITS).getCommitTable();
+        PullRequest refreshed = new PullRequest(1, "Fix bug", "https://github.com/org/presto/pull/1", "edited body", new Actor("user1"), null);
+        CommitTable table = CommitTable.builder()
+                .addPullRequest(refreshed)
+                .addCommit(snapshot, 2)
+                .addCommit(snapshot, 3)
+                .build();
+
+        assertEquals(table.getCommitCount(), 2);
+        assertEquals(table.getCommitId(0), "c3");
+        assertEquals(table.getPullRequests(0).mapToObj(table::getPullRequest).collect(toImmutableList()), ImmutableList.of(PULL_REQUEST_2, refreshed));
+        assertFalse(table.hasPullRequests(1));
+    }
+
+    @Test
+    public void testLargeRange()
+    {
+        // 50k commits of 25k pull requests, by 500 authors
+        List<SnapshotPullRequest> pullRequests = IntStream.range(0, 25_000)
+                .mapToObj(number -> new SnapshotPullRequest(
+                        number,
+                        "Pull request " + number,
+                        "https://github.com/org/presto/pull/" + number,
+                        format("== RELEASE NOTES ==\n\nGeneral Changes\n* Fix %s.\n%0512d", number, number),
+                        "login" + (number % 500),
+                        Optional.of("committer" + (number % 20)),
+                        Optional.empty()))
+                .collect(toImmutableList());
+        List<SnapshotCommit> commits = IntStream.range(0, 50_000)
+                .mapToObj(index -> new SnapshotCommit(format("%040x", index), "Author " + (index % 500), "Commit " + index, ImmutableList.of(index / 2)))
+                .collect(toImmutableList());
+        CommitTable table = new ReleaseNotesSnapshot("0.231", "org/presto", commits, pullRequests).getCommitTable();
+
+        assertEquals(table.getCommitCount(), 50_000);
+        assertEquals(table.getPullRequestCount(), 25_000);
+        assertEquals(IntStream.range(0, table.getCommitCount()).flatMap(table::getPullRequests).distinct().count(), 25_000);
+        assertEquals(table.getPullRequests(49_999).toArray(), new int[] {24_999});
+        assertSame(table.getCommitAuthor(0), table.getCommitAuthor(500));
+        assertEquals(table.getCommitTitle(49_999), "Commit 49999");
+        assertEquals(table.getPullRequest(24_999).getTitle(), "Pull request 24999");
+    }
+}
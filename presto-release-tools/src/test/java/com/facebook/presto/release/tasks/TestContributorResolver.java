@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.git.MockGithubAction;
+import com.facebook.presto.release.git.User;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static org.testng.Assert.assertEquals;
+
+public class TestContributorResolver
+{
+    private static final Instant NOW = Instant.parse("2020-01-01T00:00:00Z");
+
+    private File directory;
+
+    @BeforeClass
+    public void setup()
+    {
+        directory = createTempDir();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardown()
+            throws IOException
+    {
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testResolve()
+    {
+        File cacheFile = new File(directory, "cache/contributors.json");
+        MockGithubAction githubAction = new MockGithubAction(ImmutableList.of())
+                .setUsers(ImmutableList.of(new User("Alice", "Alice Smith"), new User("bob", null), new User("carol", "Carol Jones")));
+
+        // one lookup for all logins, case insensitive, users without a name and unknown logins are omitted
+        ContributorResolver resolver = createResolver(githubAction, cacheFile, NOW);
+        assertEquals(resolver.resolve(ImmutableList.of("alice", "bob", "dependabot", "alice")), ImmutableMap.of("alice", "Alice Smith"));
+        assertEquals(githubAction.getUserLookups(), ImmutableList.of(ImmutableList.of("alice", "bob", "dependabot")));
+
+        // cached names and misses are reused, only the new login is looked up
+        resolver = createResolver(githubAction, cacheFile, NOW.plusSeconds(3600));
+        assertEquals(resolver.resolve(ImmutableList.of("alice", "bob", "carol")), ImmutableMap.of("alice", "Alice Smith", "carol", "Carol Jones"));
+        assertEquals(githubAction.getUserLookups().size(), 2);
+        assertEquals(githubAction.getUserLookups().get(1), ImmutableList.of("carol"));
+
+        resolver = createResolver(githubAction, cacheFile, NOW.plusSeconds(7200));
+        assertEquals(resolver.resolve(ImmutableList.of("alice", "carol")), ImmutableMap.of("alice", "Alice Smith", "carol", "Carol Jones"));
+        assertEquals(githubAction.getUserLookups().size(), 2);
+
+        // expired names are looked up again
+        resolver = createResolver(githubAction, cacheFile, NOW.plusSeconds(DAYS.toSeconds(30)));
+        assertEquals(resolver.resolve(ImmutableList.of("alice", "carol")), ImmutableMap.of("alice", "Alice Smith", "carol", "Carol Jones"));
+        assertEquals(githubAction.getUserLookups().get(2), ImmutableList.of("alice"));
+    }
+
+    @Test
+    public void testWithoutCacheFile()
+    {
+        MockGithubAction githubAction = new MockGithubAction(ImmutableList.of()).setUsers(ImmutableList.of(new User("alice", "Alice Smith")));
+        ContributorResolver resolver = new ContributorResolver(githubAction, Optional.empty(), new Duration(30, DAYS), Clock.fixed(NOW, UTC));
+        assertEquals(resolver.resolve(ImmutableList.of("alice")), ImmutableMap.of("alice", "Alice Smith"));
+        assertEquals(resolver.resolve(ImmutableList.of()), ImmutableMap.of());
+        assertEquals(githubAction.getUserLookups().size(), 1);
+    }
+
+    @Test
+    public void testParseNameOverrides()
+    {
+        assertEquals(
+                ContributorResolver.parseNameOverrides(ImmutableList.of(
+                        "# display names",
+                        "",
+                        "Alice Smith <alice>",
+                        "  Bob B. Brown   <bob> Bob <bob@example.com>")),
+                ImmutableMap.of("alice", "Alice Smith", "bob", "Bob B. Brown"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Invalid name override on line 2, expected 'Display Name <login>': alice")
+    public void testInvalidNameOverride()
+    {
+        ContributorResolver.parseNameOverrides(ImmutableList.of("Bob <bob>", "alice"));
+    }
+
+    private static ContributorResolver createResolver(MockGithubAction githubAction, File cacheFile, Instant now)
+    {
+        return new ContributorResolver(githubAction, Optional.of(cacheFile), new Duration(30, DAYS), Clock.fixed(now, UTC));
+    }
+}
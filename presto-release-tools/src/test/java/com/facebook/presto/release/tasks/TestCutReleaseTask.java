@@ -104,7 +104,7 @@ public class TestCutReleaseTask
                         "git pull --ff-only upstream master",
                         "git fetch upstream",
                         "git tag",
-                        "git ls-remote --heads upstream release-0.232",
+                        "git ls-remote --heads upstream",
                         "mvn versions:set -DnewVersion=0.233-SNAPSHOT",
                         "git add .",
                         "git commit -m \"Prepare for next development iteration - 0.233-SNAPSHOT\"",
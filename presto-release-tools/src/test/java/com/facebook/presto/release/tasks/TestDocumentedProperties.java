@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.git.GitConfig;
+import com.facebook.presto.release.git.GitRepository;
+import com.facebook.presto.release.git.GitRepositoryConfig;
+import com.facebook.presto.release.git.NoOpGit;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.facebook.presto.release.tasks.DocumentedProperties.SPHINX_DIRECTORY;
+import static com.google.common.io.Files.asCharSink;
+import static com.google.common.io.Files.createParentDirs;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+
+public class TestDocumentedProperties
+{
+    private File directory;
+
+    @BeforeMethod
+    public void setup()
+            throws IOException
+    {
+        directory = createTempDirectory(null).toFile();
+        write("admin/properties.rst",
+                "==================",
+                "General Properties",
+                "==================",
+                "",
+                ".. _join-distribution-type:",
+                "",
+                "``join_distribution_type``",
+                "^^^^^^^^^^^^^^^^^^^^^^^^^^",
+                "",
+                "Sets the join distribution type.",
+                "",
+                "``query.max-memory``",
+                "^^^^^^^^^^^^^^^^^^^^");
+        write("connector/hive.rst",
+                ".. _hive-configuration:",
+                "",
+                "Configuration Properties",
+                "------------------------",
+                "",
+                "================================ ============",
+                "Property Name                    Description",
+                "================================ ============",
+                "``hive.max-partitions-per-scan`` Maximum partitions",
+                "``join_distribution_type``       Mentioned in a table",
+                "================================ ============",
+                "",
+                "Uses ``hive.not-a-definition`` in a sentence.",
+                "",
+                ".. list-table::",
+                "",
+                "  * - ``hive.orc.use-column-names``",
+                "    - Access ORC columns by name");
+        write("release/release-0.231.rst",
+                "``release.not-a-definition``",
+                "^^^^^^^^^^^^^^^^^^^^^^^^^^^^");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+            throws IOException
+    {
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testScan()
+    {
+        assertEquals(DocumentedProperties.scan(new File(directory, SPHINX_DIRECTORY)), ImmutableMap.of(
+                "hive.max-partitions-per-scan", ":ref:`hive.max-partitions-per-scan <hive-configuration>`",
+                "hive.orc.use-column-names", ":ref:`hive.orc.use-column-names <hive-configuration>`",
+                "join_distribution_type", ":ref:`join_distribution_type <join-distribution-type>`",
+                "query.max-memory", ":doc:`query.max-memory </admin/properties>`"));
+    }
+
+    @Test
+    public void testCacheByTreeHash()
+            throws IOException
+    {
+        File cacheFile = new File(directory, "cache/docs-index.json");
+        TreeHashGit git = new TreeHashGit(directory);
+        git.treeHash = "tree1";
+        assertEquals(DocumentedProperties.read(git, Optional.of(cacheFile)).size(), 4);
+
+        // uncommitted docs are scanned, and not cached under the committed tree
+        write("admin/more.rst", "``task.concurrency``", "^^^^^^^^^^^^^^^^^^^^");
+        git.status = "?? " + SPHINX_DIRECTORY + "/admin/more.rst\n";
+        assertEquals(DocumentedProperties.read(git, Optional.of(cacheFile)).size(), 5);
+
+        // clean docs with an unchanged tree are not scanned again
+        git.status = "";
+        assertEquals(DocumentedProperties.read(git, Optional.of(cacheFile)).size(), 4);
+
+        git.treeHash = "tree2";
+        assertEquals(DocumentedProperties.read(git, Optional.of(cacheFile)).get("task.concurrency"), ":doc:`task.concurrency </admin/more>`");
+        assertEquals(DocumentedProperties.read(git, Optional.empty()).size(), 5);
+    }
+
+    private void write(String path, String... lines)
+            throws IOException
+    {
+        File file = new File(directory, SPHINX_DIRECTORY + "/" + path);
+        createParentDirs(file);
+        asCharSink(file, UTF_8).write(String.join("\n", lines) + "\n");
+    }
+
+    private static class TreeHashGit
+            extends NoOpGit
+    {
+        private String treeHash;
+        private String status = "";
+
+        public TreeHashGit(File directory)
+        {
+            super(GitRepository.create(directory.getName(), new GitRepositoryConfig().setDirectory(directory.getAbsolutePath()), new GitConfig()));
+        }
+
+        @Override
+        public String revParse(String revision)
+        {
+            assertEquals(revision, "HEAD:" + SPHINX_DIRECTORY);
+            return treeHash;
+        }
+
+        @Override
+        public String status(String... options)
+        {
+            assertEquals(options, new String[] {"--porcelain", "--", SPHINX_DIRECTORY});
+            return status;
+        }
+    }
+}
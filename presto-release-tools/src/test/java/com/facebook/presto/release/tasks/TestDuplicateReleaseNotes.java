@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.git.Actor;
+import com.facebook.presto.release.git.PullRequest;
+import com.facebook.presto.release.tasks.GenerateReleaseNotesTask.ReleaseNoteItem;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.release.tasks.DuplicateReleaseNotes.DEFAULT_SIMILARITY;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestDuplicateReleaseNotes
+{
+    @Test
+    public void testNearDuplicates()
+    {
+        ReleaseNoteItem first = item(1, "Hive", "Add support for reading ORC files with ZSTD compression");
+        ReleaseNoteItem second = item(2, "Hive", "Add support for reading ORC files with ZSTD compression.");
+        ReleaseNoteItem third = item(3, "Hive", "add support for reading orc files with zstd compression (part 3)");
+        ReleaseNoteItem otherSection = item(4, "Iceberg", "Add support for reading ORC files with ZSTD compression");
+        ReleaseNoteItem different = item(5, "Hive", "Fix a failure when dropping a partitioned table");
+        List<List<ReleaseNoteItem>> duplicates = DuplicateReleaseNotes.find(ImmutableList.of(first, different, otherSection, second, third), DEFAULT_SIMILARITY);
+        assertEquals(duplicates, ImmutableList.of(ImmutableList.of(first, second, third)));
+    }
+
+    @Test
+    public void testSimilarity()
+    {
+        assertEquals(DuplicateReleaseNotes.jaccard(DuplicateReleaseNotes.shingle("Fix a bug"), DuplicateReleaseNotes.shingle("fix a BUG!")), 1.0);
+        assertTrue(DuplicateReleaseNotes.jaccard(DuplicateReleaseNotes.shingle("Add the foo function"), DuplicateReleaseNotes.shingle("Remove the bar session property")) < 0.2);
+        assertEquals(DuplicateReleaseNotes.find(ImmutableList.of(item(1, "General", "x"), item(2, "General", "y")), DEFAULT_SIMILARITY), ImmutableList.of());
+    }
+
+    @Test
+    public void testManyNotes()
+    {
+        // distinct notes of random words, plus one note copied across a stack of pull requests
+        Random random = new Random(0);
+        List<String> words = IntStream.range(0, 2_000)
+                .mapToObj(index -> Integer.toString(index * 7919, 36))
+                .collect(toImmutableList());
+        List<ReleaseNoteItem> items = IntStream.range(0, 20_000)
+                .mapToObj(index -> index % 1_000 == 0
+                        ? item(index, "General", "Improve the performance of the hash join operator")
+                        : item(index, "General", format("Add %s %s %s %s", words.get(random.nextInt(2_000)), words.get(random.nextInt(2_000)), words.get(random.nextInt(2_000)), words.get(random.nextInt(2_000)))))
+                .collect(toImmutableList());
+        List<List<ReleaseNoteItem>> duplicates = DuplicateReleaseNotes.find(items, DEFAULT_SIMILARITY);
+        assertEquals(duplicates.size(), 1);
+        assertEquals(duplicates.get(0).size(), 20);
+    }
+
+    private static ReleaseNoteItem item(int pullRequest, String section, String line)
+    {
+        return new ReleaseNoteItem(new PullRequest(pullRequest, "title", "https://github.com/prestodb/presto/pull/" + pullRequest, "", new Actor("user"), null), section, line);
+    }
+}
@@ -75,7 +75,7 @@ public class TestFinalizeReleaseTask
     @Test
     public void testFinalizeRelease()
     {
-        git.setCheckoutAction(getCheckoutReleaseBranchAction(pomFile, create("0.231"))).setUpstreamHeads("0.231").setTags("0.230");
+        git.setCheckoutAction(getCheckoutReleaseBranchAction(pomFile, create("0.231"))).setUpstreamHeads("release-0.231").setTags("0.230");
         createTask(new VersionConfig()).run();
         assertCommands(commandLogger);
     }
@@ -83,7 +83,7 @@ public class TestFinalizeReleaseTask
     @Test
     public void testFinalizeReleaseExplicit()
     {
-        git.setCheckoutAction(getCheckoutReleaseBranchAction(pomFile, create("0.231"))).setUpstreamHeads("0.231").setTags("0.230");
+        git.setCheckoutAction(getCheckoutReleaseBranchAction(pomFile, create("0.231"))).setUpstreamHeads("release-0.231").setTags("0.230");
         createTask(new VersionConfig().setReleaseVersion("0.231")).run();
         assertCommands(commandLogger);
     }
@@ -91,7 +91,7 @@ public class TestFinalizeReleaseTask
     @Test
     public void testFinalizeReleaseHotFix()
     {
-        git.setCheckoutAction(getCheckoutReleaseBranchAction(pomFile, create("0.231.1"))).setUpstreamHeads("0.231").setTags("0.231");
+        git.setCheckoutAction(getCheckoutReleaseBranchAction(pomFile, create("0.231.1"))).setUpstreamHeads("release-0.231").setTags("0.231");
         createTask(new VersionConfig().setReleaseVersion("0.231.1")).run();
         assertCommandsHotFix(commandLogger);
     }
@@ -117,7 +117,7 @@ public class TestFinalizeReleaseTask
                         "git pull --ff-only upstream master",
                         "git fetch upstream",
                         "git tag",
-                        "git ls-remote --heads upstream release-0.231",
+                        "git ls-remote --heads upstream",
                         "git branch -D release-0.231",
                         "git checkout -b release-0.231 upstream/release-0.231",
                         "mvn release:prepare -DreleaseVersion=0.231 -DdevelopmentVersion=0.231.1-SNAPSHOT -Dtag=0.231",
@@ -135,7 +135,7 @@ public class TestFinalizeReleaseTask
                         "git pull --ff-only upstream master",
                         "git fetch upstream",
                         "git tag",
-                        "git ls-remote --heads upstream release-0.231",
+                        "git ls-remote --heads upstream",
                         "git branch -D release-0.231",
                         "git checkout -b release-0.231 upstream/release-0.231",
                         "mvn release:prepare -DreleaseVersion=0.231.1 -DdevelopmentVersion=0.231.2-SNAPSHOT -Dtag=0.231.1",
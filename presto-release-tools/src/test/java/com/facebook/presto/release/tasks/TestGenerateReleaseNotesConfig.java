@@ -28,7 +28,14 @@ public class TestGenerateReleaseNotesConfig
     public void testDefault()
     {
         assertRecordedDefaults(recordDefaults(GenerateReleaseNotesConfig.class)
-                .setVersion(null));
+                .setVersion(null)
+                .setSparseWorktree(false)
+                .setFromSnapshot(null)
+                .setMailmapFile(null)
+                .setUpdate(false)
+                .setDocsIndexCacheFile(null)
+                .setAuthorIndexFile(null)
+                .setCompanionRepositories(null));
     }
 
     @Test
@@ -36,9 +43,23 @@ public class TestGenerateReleaseNotesConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("release-notes.version", "0.231")
+                .put("release-notes.sparse-worktree", "true")
+                .put("release-notes.from-snapshot", "snapshot.json.gz")
+                .put("release-notes.mailmap-file", "mailmap")
+                .put("release-notes.update", "true")
+                .put("release-notes.docs-index-cache-file", "docs-index.json")
+                .put("release-notes.author-index-file", "authors.bin")
+                .put("release-notes.companion-repositories", "../presto-python-client, ../presto-go-client")
                 .build();
         GenerateReleaseNotesConfig expected = new GenerateReleaseNotesConfig()
-                .setVersion("0.231");
+                .setVersion("0.231")
+                .setSparseWorktree(true)
+                .setFromSnapshot("snapshot.json.gz")
+                .setMailmapFile("mailmap")
+                .setUpdate(true)
+                .setDocsIndexCacheFile("docs-index.json")
+                .setAuthorIndexFile("authors.bin")
+                .setCompanionRepositories("../presto-python-client,../presto-go-client");
 
         assertFullMapping(properties, expected);
     }
@@ -13,8 +13,11 @@
  */
 package com.facebook.presto.release.tasks;
 
+import com.facebook.presto.release.PrestoReleaseService;
 import com.facebook.presto.release.git.Actor;
 import com.facebook.presto.release.git.Commit;
+import com.facebook.presto.release.git.CommitFetcher;
+import com.facebook.presto.release.git.Git;
 import com.facebook.presto.release.git.GitActor;
 import com.facebook.presto.release.git.GitConfig;
 import com.facebook.presto.release.git.GitRepository;
@@ -23,10 +26,15 @@ import com.facebook.presto.release.git.MockGithubAction;
 import com.facebook.presto.release.git.NoOpGit;
 import com.facebook.presto.release.git.PullRequest;
 import com.facebook.presto.release.git.User;
+import com.facebook.presto.release.tasks.ReleaseNotesSnapshot.SnapshotCommit;
+import com.facebook.presto.release.tasks.ReleaseNotesSnapshot.SnapshotPullRequest;
 import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Resources;
+import io.airlift.units.Duration;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -36,14 +44,21 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.release.git.CommitFetchStrategy.HISTORY;
 import static com.facebook.presto.release.tasks.GenerateReleaseNotesTask.RELEASE_NOTES_FILE;
 import static com.facebook.presto.release.tasks.GenerateReleaseNotesTask.RELEASE_NOTES_LIST_FILE;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.asCharSink;
 import static com.google.common.io.Files.asCharSource;
 import static com.google.common.io.Files.copy;
 import static com.google.common.io.Files.createTempDir;
@@ -51,10 +66,15 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static java.util.Collections.nCopies;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
 public class TestGenerateReleaseNotesTask
@@ -62,15 +82,120 @@ public class TestGenerateReleaseNotesTask
     private static class MockGit
             extends NoOpGit
     {
+        private String worktreeReleaseNotes;
+        private Optional<String> releaseNotesCommitMessage = Optional.empty();
+        private String changedFiles = "";
+        private String historyAuthors = "";
+        private String releaseAuthors = "";
+        private String upstreamRepository = "org/presto";
+        private Set<String> shallowCommits = ImmutableSet.of();
+        private final List<String> logRanges = new ArrayList<>();
+
         public MockGit(GitRepository repository)
         {
             super(repository);
         }
 
+        @Override
+        public void addWorktree(File directory, String ref)
+        {
+            super.addWorktree(directory, ref);
+            try {
+                File releaseNotesList = Paths.get(directory.getAbsolutePath(), RELEASE_NOTES_LIST_FILE).toFile();
+                checkState(Paths.get(directory.getAbsolutePath(), format(RELEASE_NOTES_FILE, VERSION)).toFile().getParentFile().mkdirs());
+                copy(new File(getTestResource("release.rst").getFile()), releaseNotesList);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void removeWorktree(File directory)
+        {
+            super.removeWorktree(directory);
+            try {
+                worktreeReleaseNotes = asCharSource(Paths.get(directory.getAbsolutePath(), format(RELEASE_NOTES_FILE, VERSION)).toFile(), UTF_8).read();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public String getWorktreeReleaseNotes()
+        {
+            return worktreeReleaseNotes;
+        }
+
+        public MockGit setReleaseNotesCommitMessage(String releaseNotesCommitMessage)
+        {
+            this.releaseNotesCommitMessage = Optional.of(releaseNotesCommitMessage);
+            return this;
+        }
+
+        public MockGit setChangedFiles(String changedFiles)
+        {
+            this.changedFiles = changedFiles;
+            return this;
+        }
+
+        public MockGit setAuthors(String historyAuthors, String releaseAuthors)
+        {
+            this.historyAuthors = historyAuthors;
+            this.releaseAuthors = releaseAuthors;
+            return this;
+        }
+
+        public MockGit setUpstreamRepository(String upstreamRepository)
+        {
+            this.upstreamRepository = upstreamRepository;
+            return this;
+        }
+
+        public MockGit setShallowCommits(Set<String> shallowCommits)
+        {
+            this.shallowCommits = ImmutableSet.copyOf(shallowCommits);
+            return this;
+        }
+
+        @Override
+        public Set<String> getShallowCommits()
+        {
+            return shallowCommits;
+        }
+
+        public List<String> getLogRanges()
+        {
+            return logRanges;
+        }
+
         @Override
         public String log(String revisionRange, String... options)
         {
-            return "96d1a0420c46ed6a2442a3598dad5e7c9599e9c1\neacf13484139a85c53901f2045578c659a65a5b2";
+            logRanges.add(revisionRange);
+            if (asList(options).contains("--format=%H")) {
+                return HEAD_COMMIT + "\n";
+            }
+            if (asList(options).contains("--numstat")) {
+                return changedFiles;
+            }
+            if (asList(options).contains("--format=%B")) {
+                return releaseNotesCommitMessage.orElse("");
+            }
+            if (asList(options).contains(AuthorIndex.LOG_FORMAT)) {
+                return historyAuthors;
+            }
+            if (asList(options).contains("--format=%H%x00%ae")) {
+                return releaseAuthors;
+            }
+            return Joiner.on('\0').join(HEAD_COMMIT, "Author", "1581000000", "First commit") + "\n" +
+                    Joiner.on('\0').join("eacf13484139a85c53901f2045578c659a65a5b2", "Author", "1580000000", "Second commit") + "\n";
+        }
+
+        @Override
+        public void log(String revisionRange, Consumer<String> lines, String... options)
+        {
+            Splitter.on('\n').split(log(revisionRange, options)).forEach(lines);
         }
 
         @Override
@@ -78,7 +203,7 @@ public class TestGenerateReleaseNotesTask
         {
             switch (remote) {
                 case "upstream":
-                    return "https://github.com/org/presto.git";
+                    return format("https://github.com/%s.git", upstreamRepository);
                 case "origin":
                     return "https://github.com/user/presto.git";
                 default:
@@ -88,7 +213,9 @@ public class TestGenerateReleaseNotesTask
     }
 
     private static final String RESOURCE_DIRECTORY = "release-notes-test";
+    private static final String LARGE_RANGE_HEAP_SIZE = "256m";
     private static final String VERSION = "0.231";
+    private static final String HEAD_COMMIT = "96d1a0420c46ed6a2442a3598dad5e7c9599e9c1";
     private static final String COMMIT_HASH_PREFIX = Joiner.on("").join(nCopies(30, "a"));
 
     private static final Person USER1 = new Person("user1@gmail.com", "A Brown");
@@ -155,16 +282,363 @@ public class TestGenerateReleaseNotesTask
         assertEquals(githubAction.getListCommitsRepository(), "org/presto");
     }
 
+    @Test
+    public void testGenerateReleaseNotesInSparseWorktree()
+            throws Exception
+    {
+        String releaseNotesList = asCharSource(releaseNotesListFile, UTF_8).read();
+        MockGit git = createGit();
+        GenerateReleaseNotesTask task = initializeTask(git, COMMITS, new GenerateReleaseNotesConfig().setVersion(VERSION).setSparseWorktree(true));
+        task.run();
+
+        assertEquals(git.getWorktreeReleaseNotes(), getTestResourceContent("release-0.231_expected.rst"));
+        assertEquals(asCharSource(releaseNotesListFile, UTF_8).read(), releaseNotesList, "Local checkout should not be modified");
+        assertEquals(githubAction.getCreatedPullRequest().getTitle(), "docs: Add release notes for 0.231");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "Release range .* reaches past the history of the shallow clone at commit eacf13484139a85c53901f2045578c659a65a5b2, .*")
+    public void testReleaseRangePastShallowClone()
+            throws Exception
+    {
+        MockGit git = createGit().setShallowCommits(ImmutableSet.of("eacf13484139a85c53901f2045578c659a65a5b2"));
+        initializeTask(git, COMMITS, new GenerateReleaseNotesConfig().setVersion(VERSION)).run();
+    }
+
+    @Test
+    public void testGenerateReleaseNotesFromSnapshot()
+            throws Exception
+    {
+        File snapshotFile = new File(workingDirectory, "snapshot.json.gz");
+        ReleaseNotesSnapshot.create(VERSION, "org/presto", COMMITS).write(snapshotFile);
+
+        GenerateReleaseNotesTask task = initializeTask(createGit(), ImmutableList.of(), new GenerateReleaseNotesConfig().setFromSnapshot(snapshotFile.getAbsolutePath()));
+        task.run();
+        task.run();
+
+        String releaseNotesList = asCharSource(releaseNotesListFile, UTF_8).read();
+        assertEquals(releaseNotesList.indexOf("<release/release-0.231>"), releaseNotesList.lastIndexOf("<release/release-0.231>"), "Release should be listed once");
+        assertEquals(asCharSource(releaseNotesFile, UTF_8).read(), getTestResourceContent("release-0.231_expected.rst"));
+        String summary = asCharSource(new File(workingDirectory, "release-notes-summary-0.231.md"), UTF_8).read();
+        assertTrue(getTestResourceContent("description_expected.txt").startsWith(summary.trim()), "Unexpected summary");
+        assertNull(githubAction.getListCommitsRepository());
+        assertNull(githubAction.getCreatedPullRequest());
+    }
+
+    @Test
+    public void testGenerateReleaseNotesFromLargeSnapshotInSmallHeap()
+            throws Exception
+    {
+        // 50k commits of 25k pull requests, rendered by the release-notes command in a JVM with a small heap
+        File directory = new File(workingDirectory, "large/presto");
+        File releaseNotesList = Paths.get(directory.getAbsolutePath(), RELEASE_NOTES_LIST_FILE).toFile();
+        File releaseNotes = Paths.get(directory.getAbsolutePath(), format(RELEASE_NOTES_FILE, VERSION)).toFile();
+        checkState(releaseNotes.getParentFile().mkdirs(), "Failed to create directory: %s", releaseNotes.getParentFile());
+        copy(new File(getTestResource("release.rst").getFile()), releaseNotesList);
+        File snapshotFile = new File(workingDirectory, "large/snapshot.json.gz");
+        new ReleaseNotesSnapshot(
+                VERSION,
+                "org/presto",
+                IntStream.range(0, 50_000)
+                        .mapToObj(index -> new SnapshotCommit(format("%040x", index), "Author " + (index % 500), "Commit " + index, ImmutableList.of(index / 2)))
+                        .collect(toImmutableList()),
+                IntStream.range(0, 25_000)
+                        .mapToObj(number -> new SnapshotPullRequest(
+                                number,
+                                "Pull request " + number,
+                                "https://github.com/org/presto/pull/" + number,
+                                format("%0512d\n\n```\n== RELEASE NOTES ==\n\n%s Changes\n* %s.\n```\n", number, number % 3 == 0 ? "Hive" : "General", getReleaseNote(number)),
+                                "login" + (number % 500),
+                                Optional.of("committer" + (number % 20)),
+                                Optional.empty()))
+                        .collect(toImmutableList()))
+                .write(snapshotFile);
+
+        File output = new File(workingDirectory, "large/output.log");
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + LARGE_RANGE_HEAP_SIZE,
+                // Guice needs java.lang opened on newer JVMs, and older JVMs ignore the option
+                "-XX:+IgnoreUnrecognizedVMOptions",
+                "--add-opens=java.base/java.lang=ALL-UNNAMED",
+                "-cp",
+                System.getProperty("java.class.path"),
+                PrestoReleaseService.class.getName(),
+                "release-notes",
+                "--github-user",
+                "user",
+                "--github-access-token",
+                "token",
+                "--from-snapshot",
+                snapshotFile.getAbsolutePath(),
+                "--directory",
+                directory.getAbsolutePath())
+                .redirectErrorStream(true)
+                .redirectOutput(output)
+                .start();
+        if (!process.waitFor(5, MINUTES)) {
+            process.destroyForcibly();
+            fail("release-notes did not finish");
+        }
+        assertEquals(process.exitValue(), 0, asCharSource(output, UTF_8).read());
+        assertTrue(asCharSource(releaseNotes, UTF_8).read().contains(getReleaseNote(24_999)), "Missing release note of the last pull request");
+    }
+
+    /**
+     * A release note made of words unique to {@code number}, so that the notes are not near-duplicates of each other.
+     */
+    private static String getReleaseNote(int number)
+    {
+        long hash = (number + 1) * 0x9E3779B97F4A7C15L;
+        return format("Fix %s in %s", Long.toString(hash >>> 1, 36), Long.toString(Long.reverse(hash) >>> 1, 36));
+    }
+
+    @Test
+    public void testContributorNames()
+            throws Exception
+    {
+        File mailmapFile = new File(workingDirectory, "mailmap");
+        asCharSink(mailmapFile, UTF_8).write("# release notes names\nEve Fisher <user3@gmail.com>\n");
+        GenerateReleaseNotesTask task = initializeTask(createGit(), COMMITS, new GenerateReleaseNotesConfig().setVersion(VERSION).setMailmapFile(mailmapFile.getAbsolutePath()));
+        githubAction.setUsers(ImmutableList.of(new User("user2@gmail.com", "Carol Davis"), new User("user3@gmail.com", "E. Fisher")));
+        task.run();
+
+        assertEquals(githubAction.getUserLookups().size(), 1);
+        assertEquals(ImmutableSet.copyOf(githubAction.getUserLookups().get(0)), ImmutableSet.of("user1@gmail.com", "user2@gmail.com", "user3@gmail.com", "user4@gmail.com"));
+        String releaseNotes = asCharSource(releaseNotesFile, UTF_8).read();
+        assertTrue(releaseNotes.contains("A Brown, Carol Davis, Eve Fisher, G Harris"), releaseNotes);
+    }
+
+    @Test
+    public void testSectionSuggestions()
+            throws Exception
+    {
+        asCharSink(new File(releaseNotesFile.getParentFile(), "release-0.230.rst"), UTF_8).write("Hive Connector Changes\n______________________\n* Fix.\n");
+        // the first commit of "missing release note" only changes the Hive connector, the second one mostly the SPI
+        List<String> commitIds = COMMITS.stream()
+                .filter(commit -> commit.getTitle().startsWith("missing release note"))
+                .map(Commit::getId)
+                .collect(toImmutableList());
+        MockGit git = createGit().setChangedFiles(
+                "\0" + commitIds.get(0) + "\n\n12\t3\tpresto-hive/src/main/java/HiveMetadata.java\n1\t1\tpresto-hive-metastore/pom.xml\n" +
+                "\0" + commitIds.get(1) + "\n\n2\t0\tpom.xml\n40\t8\tpresto-spi/src/main/java/Connector.java\n");
+        initializeTask(git, COMMITS, new GenerateReleaseNotesConfig().setVersion(VERSION)).run();
+
+        String description = githubAction.getCreatedPullRequest().getDescription();
+        assertTrue(description.contains("missing release note (Merged by: C Davis) (Suggested section: Hive Connector Changes)\n"), description);
+        assertTrue(git.getLogRanges().contains("upstream/release-0.230.." + HEAD_COMMIT), git.getLogRanges().toString());
+        assertTrue(description.contains("\n# Change Statistics\n" +
+                "| Section | Files | Insertions | Deletions |\n" +
+                "| --- | ---: | ---: | ---: |\n" +
+                "| Hive Connector | 2 | 13 | 4 |\n" +
+                "| SPI | 1 | 40 | 8 |\n\n" +
+                "| Module | Files | Insertions | Deletions |\n" +
+                "| --- | ---: | ---: | ---: |\n" +
+                "| presto-spi | 1 | 40 | 8 |\n" +
+                "| presto-hive | 1 | 12 | 3 |\n" +
+                "| / | 1 | 2 | 0 |\n" +
+                "| presto-hive-metastore | 1 | 1 | 1 |\n"), description);
+    }
+
+    @Test
+    public void testCodeOwners()
+            throws Exception
+    {
+        File codeOwners = new File(workingDirectory, ".github/CODEOWNERS");
+        checkState(codeOwners.getParentFile().mkdirs(), "Failed to create directory: %s", codeOwners.getParentFile());
+        asCharSink(codeOwners, UTF_8).write("* @org/committers\n/presto-hive*/ @org/hive\n/presto-spi/ @org/spi @org/committers\n");
+        try {
+            Commit commit = COMMITS.stream().filter(candidate -> candidate.getTitle().startsWith("missing release note")).findFirst().get();
+            MockGit git = createGit().setChangedFiles("\0" + commit.getId() + "\n\npresto-hive-metastore/pom.xml\npresto-spi/pom.xml\n");
+            initializeTask(git, COMMITS, new GenerateReleaseNotesConfig().setVersion(VERSION)).run();
+
+            String pullRequest = commit.getAssociatedPullRequests().get(0).getUrl() + " missing release note\n";
+            String description = githubAction.getCreatedPullRequest().getDescription();
+            assertTrue(description.contains("\n# Code Owners of Missing Release Notes\n" +
+                    "## @org/committers\n- " + pullRequest +
+                    "## @org/hive\n- " + pullRequest +
+                    "## @org/spi\n- " + pullRequest + "\n# Extracted Release Notes\n"), description);
+        }
+        finally {
+            deleteRecursively(codeOwners.getParentFile().toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testLinkDocumentedProperties()
+            throws Exception
+    {
+        File docs = new File(workingDirectory, DocumentedProperties.SPHINX_DIRECTORY + "/connector/raptor.rst");
+        checkState(docs.getParentFile().mkdirs(), "Failed to create directory: %s", docs.getParentFile());
+        asCharSink(docs, UTF_8).write(".. _raptor-table-properties:\n\nTable Properties\n----------------\n\n" +
+                "``table_supports_delta_delete``\n^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^\n\n" +
+                "``storage.data-directory``\n^^^^^^^^^^^^^^^^^^^^^^^^^^\n");
+        try {
+            initializeTask(createGit(), COMMITS, new GenerateReleaseNotesConfig().setVersion(VERSION)).run();
+
+            String releaseNotes = asCharSource(releaseNotesFile, UTF_8).read();
+            assertTrue(releaseNotes.contains("* Add :doc:`table_supports_delta_delete </connector/raptor>` property in Raptor"), releaseNotes);
+            // the property is not properly quoted, so it is left unchanged
+            assertTrue(releaseNotes.contains("* Improve ``storage.data-directory` type."), releaseNotes);
+        }
+        finally {
+            deleteRecursively(docs.getParentFile().toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testUpdateReleaseNotes()
+            throws Exception
+    {
+        List<Commit> newCommits = createCommits("release notes 2", USER2, USER1, true, 1);
+        int number = newCommits.get(0).getAssociatedPullRequests().get(0).getId();
+        String existing = "=============\nRelease 0.231\n=============\n\n" +
+                "**Highlights**\n==============\n* A manually written highlight.\n\n" +
+                "**Details**\n===========\n\n" +
+                "Raptor Plugin Changes\n_____________________\n" +
+                "* Fix an issue, edited by hand. `#1 <https://github.com/prestodb/presto/pull/1>`_\n\n" +
+                "**Credits**\n===========\n\nA Brown, Z Young\n";
+        asCharSink(releaseNotesFile, UTF_8).write(existing);
+
+        MockGit git = createGit().setReleaseNotesCommitMessage("Add release notes for 0.231\n\nRelease-Notes-Last-Commit: eacf13484139a85c53901f2045578c659a65a5b2\n");
+        GenerateReleaseNotesTask task = initializeTask(git, newCommits, new GenerateReleaseNotesConfig().setVersion(VERSION).setUpdate(true));
+        githubAction.setOpenPullRequest(new PullRequest(7, "docs: Add release notes for 0.231", "https://github.com/prestodb/presto/pull/7", "# Missing Release Notes\n\n## Release Notes\n```\n== NO RELEASE NOTE ==\n```", new Actor("user"), null));
+        task.run();
+
+        String link = format(" `#%1$d <https://github.com/prestodb/presto/pull/%1$d>`_", number);
+        String expected = "=============\nRelease 0.231\n=============\n\n" +
+                "**Highlights**\n==============\n* A manually written highlight.\n\n" +
+                "**Details**\n===========\n\n" +
+                "SPI Changes\n___________\n" +
+                "* Improve the ``ConnectorMetadata#commitPartition`` operation. Change it into an async operation, and rename it to ``ConnectorMetadata#commitPartitionAsync``." + link + "\n\n" +
+                "Raptor Plugin Changes\n_____________________\n" +
+                "* Fix an issue, edited by hand. `#1 <https://github.com/prestodb/presto/pull/1>`_\n" +
+                "* Improve correctness check for RowType columns. Add specific validation checks for the individual fields when validating a row column." + link + "\n" +
+                "* Add table_supports_delta_delete property in Raptor to allow deletion happening in background. DELETE queries in Raptor can now delete data logically but relying on compactors to delete physical data." + link + "\n" +
+                "* Remove unused FilterVoidLambda interface in ArrayFilterFunction." + link + "\n\n" +
+                "**Credits**\n===========\n\nA Brown, C Davis, Z Young\n";
+        assertEquals(asCharSource(releaseNotesFile, UTF_8).read(), expected);
+        assertTrue(git.getLogRanges().contains("eacf13484139a85c53901f2045578c659a65a5b2.." + HEAD_COMMIT), git.getLogRanges().toString());
+        assertEquals(githubAction.getOpenPullRequestLookups(), ImmutableList.of("release-notes-0.231"));
+        assertNull(githubAction.getCreatedPullRequest());
+        String body = githubAction.getUpdatedPullRequest().getDescription();
+        assertTrue(body.startsWith("# Missing Release Notes\n\n# Update eacf134841..96d1a0420c\n# Missing Release Notes\n"), body);
+        assertTrue(body.contains(format("- #%s (Author: C Davis): release notes 2", number)), body);
+        assertTrue(body.endsWith("## Release Notes\n```\n== NO RELEASE NOTE ==\n```"), body);
+
+        // the items of pull requests already in the release notes are not added again
+        assertEquals(GenerateReleaseNotesTask.mergeReleaseNotes(expected, expected), expected);
+    }
+
+    @Test
+    public void testFirstTimeContributors()
+            throws Exception
+    {
+        File authorIndexFile = new File(workingDirectory, "authors.bin");
+        // E Fisher has no commit before the release
+        MockGit git = createGit().setAuthors(
+                "user1@gmail.com\nUSER2@gmail.com\nuser1@gmail.com\n",
+                COMMITS.get(1).getId() + "\0user2@gmail.com\n" + COMMITS.get(3).getId() + "\0user3@gmail.com\n");
+        GenerateReleaseNotesConfig config = new GenerateReleaseNotesConfig().setVersion(VERSION).setAuthorIndexFile(authorIndexFile.getAbsolutePath());
+        initializeTask(git, COMMITS, config).run();
+
+        String releaseNotes = asCharSource(releaseNotesFile, UTF_8).read();
+        assertTrue(releaseNotes.endsWith("A Brown, C Davis, E Fisher, G Harris\n\nFirst-time contributors: E Fisher\n"), releaseNotes);
+        AuthorIndex index = AuthorIndex.read(authorIndexFile).get();
+        assertEquals(index.getLastCommit(), Optional.of(HEAD_COMMIT));
+        assertEquals(index.size(), 2);
+
+        // the index is up to date, so the history is not read again
+        git.setAuthors("user3@gmail.com\n", "");
+        initializeTask(git, COMMITS, config).run();
+        assertEquals(AuthorIndex.read(authorIndexFile).get().size(), 2);
+
+        String existing = "**Credits**\n===========\n\nA Brown, E Fisher\n\nFirst-time contributors: E Fisher\n";
+        assertEquals(
+                GenerateReleaseNotesTask.mergeReleaseNotes(existing, "**Credits**\n===========\n\nB Young\n\nFirst-time contributors: B Young\n"),
+                "**Credits**\n===========\n\nA Brown, B Young, E Fisher\n\nFirst-time contributors: B Young, E Fisher\n");
+        assertEquals(
+                GenerateReleaseNotesTask.mergeReleaseNotes("**Credits**\n===========\n\nA Brown\n", "**Credits**\n===========\n\nB Young\n\nFirst-time contributors: B Young\n"),
+                "**Credits**\n===========\n\nA Brown, B Young\n\nFirst-time contributors: B Young\n");
+    }
+
+    @Test
+    public void testCompanionRepositories()
+            throws Exception
+    {
+        File companionDirectory = new File(workingDirectory, "presto-python-client");
+        checkState(companionDirectory.isDirectory() || companionDirectory.mkdirs(), "Failed to create directory: %s", companionDirectory);
+        MockGit companion = new MockGit(GitRepository.create(
+                companionDirectory.getName(),
+                new GitRepositoryConfig().setDirectory(companionDirectory.getAbsolutePath()),
+                new GitConfig()))
+                .setUpstreamRepository("org/presto-python-client");
+        // the pull request numbers of the repositories overlap
+        PullRequest pullRequest = new PullRequest(
+                1,
+                "Support prepared statements",
+                "https://github.com/org/presto-python-client/pull/1",
+                "```\n== RELEASE NOTES ==\n\nGeneral Changes\n* Add support for prepared statements.\n```",
+                USER4.getActor(),
+                USER2.getUser());
+        Commit commit = new Commit(COMMIT_HASH_PREFIX + "99", USER4.getGitActor(), "Support prepared statements", ImmutableMap.of("nodes", ImmutableList.of(pullRequest)));
+        MockGithubAction githubAction = new MockGithubAction(COMMITS).setRepositoryCommits("org/presto-python-client", ImmutableList.of(commit));
+        initializeTask(createGit(), githubAction, new GenerateReleaseNotesConfig().setVersion(VERSION), ImmutableList.of(companion)).run();
+
+        String releaseNotes = asCharSource(releaseNotesFile, UTF_8).read();
+        String expected = getTestResourceContent("release-0.231_expected.rst");
+        assertTrue(releaseNotes.contains(
+                "Presto Python Client Changes\n" +
+                        "____________________________\n" +
+                        "* Add support for prepared statements. `#1 <https://github.com/org/presto-python-client/pull/1>`_\n\n" +
+                        "**Credits**"),
+                releaseNotes);
+        assertTrue(releaseNotes.startsWith(expected.substring(0, expected.indexOf("**Credits**"))), releaseNotes);
+        assertTrue(releaseNotes.endsWith("A Brown, C Davis, E Fisher, G Harris\n"), releaseNotes);
+        String description = githubAction.getCreatedPullRequest().getDescription();
+        assertTrue(description.contains("# org/presto-python-client\n# Missing Release Notes\n"), description);
+        assertTrue(description.contains("- #1 (Author: G Harris): Support prepared statements\n  - Add support for prepared statements.\n"), description);
+        assertEquals(githubAction.getListCommitsRepository(), "org/presto");
+    }
+
+    @Test
+    public void testUpdateUpToDateReleaseNotes()
+    {
+        MockGit git = createGit().setReleaseNotesCommitMessage(format("Update release notes for 0.231\n\nRelease-Notes-Last-Commit: %s\n", HEAD_COMMIT));
+        initializeTask(git, COMMITS, new GenerateReleaseNotesConfig().setVersion(VERSION).setUpdate(true)).run();
+
+        assertNull(githubAction.getListCommitsRepository());
+        assertEquals(githubAction.getOpenPullRequestLookups(), ImmutableList.of());
+        assertNull(githubAction.getUpdatedPullRequest());
+    }
+
     private GenerateReleaseNotesTask initializeTask(List<Commit> commits)
     {
-        this.githubAction = new MockGithubAction(commits);
+        return initializeTask(createGit(), commits, new GenerateReleaseNotesConfig().setVersion(VERSION));
+    }
+
+    private GenerateReleaseNotesTask initializeTask(MockGit git, List<Commit> commits, GenerateReleaseNotesConfig config)
+    {
+        return initializeTask(git, new MockGithubAction(commits), config, ImmutableList.of());
+    }
+
+    private GenerateReleaseNotesTask initializeTask(MockGit git, MockGithubAction githubAction, GenerateReleaseNotesConfig config, List<Git> companions)
+    {
+        this.githubAction = githubAction;
         return new GenerateReleaseNotesTask(
-                new MockGit(GitRepository.create(
-                        workingDirectory.getName(),
-                        new GitRepositoryConfig().setDirectory(workingDirectory.getAbsolutePath()),
-                        new GitConfig())),
+                git,
                 githubAction,
-                new GenerateReleaseNotesConfig().setVersion(VERSION));
+                new CommitFetchPlanner(githubAction, new CommitFetcher(githubAction), HISTORY, Optional.empty()),
+                new ContributorResolver(githubAction, Optional.empty(), new Duration(30, DAYS), Clock.systemUTC()),
+                config,
+                companions);
+    }
+
+    private MockGit createGit()
+    {
+        return new MockGit(GitRepository.create(
+                workingDirectory.getName(),
+                new GitRepositoryConfig().setDirectory(workingDirectory.getAbsolutePath()),
+                new GitConfig()));
     }
 
     private static PullRequest loadPullRequest(int id, String title, Person author, Person mergedBy)
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.git.Actor;
+import com.facebook.presto.release.git.Commit;
+import com.facebook.presto.release.git.GitActor;
+import com.facebook.presto.release.git.GitConfig;
+import com.facebook.presto.release.git.GitRepository;
+import com.facebook.presto.release.git.GitRepositoryConfig;
+import com.facebook.presto.release.git.MockGithubAction;
+import com.facebook.presto.release.git.NoOpGit;
+import com.facebook.presto.release.git.PullRequest;
+import com.facebook.presto.release.tasks.GenerateReleaseNotesTask.ReleaseNoteItem;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.lang.String.format;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.stream.Collectors.joining;
+import static org.testng.Assert.assertEquals;
+
+public class TestHotfixCandidatesTask
+{
+    @Test
+    public void testFindUnpickedCommits()
+    {
+        // commit2 was cherry-picked as commit5, commit3 was picked with conflicts and has another patch id
+        String master = "patch1 commit1\npatch2 commit2\npatch3 commit3\npatch4 commit4\n";
+        String release = "patch2 commit5\npatch6 commit6\n";
+        assertEquals(HotfixCandidatesTask.findUnpickedCommits(master, release), ImmutableList.of("commit1", "commit3", "commit4"));
+        assertEquals(HotfixCandidatesTask.findUnpickedCommits(master, ""), ImmutableList.of("commit1", "commit2", "commit3", "commit4"));
+        assertEquals(HotfixCandidatesTask.findUnpickedCommits("", release), ImmutableList.of());
+    }
+
+    @Test
+    public void testManyCommits()
+    {
+        String master = IntStream.range(0, 50_000)
+                .mapToObj(index -> format("%040x %040x", index, index + 1_000_000))
+                .collect(joining("\n"));
+        String release = IntStream.range(0, 50_000)
+                .filter(index -> index % 10 != 0)
+                .mapToObj(index -> format("%040x %040x", index, index + 2_000_000))
+                .collect(joining("\n"));
+        List<String> unpicked = HotfixCandidatesTask.findUnpickedCommits(master, release);
+        assertEquals(unpicked.size(), 5_000);
+        assertEquals(unpicked.get(1), format("%040x", 1_000_010));
+    }
+
+    @Test
+    public void testFindFixes()
+    {
+        PullRequest fix = pullRequest(1, "General Changes\n* Fix a failure of ``ORDER BY`` with ``LIMIT``.\n* Add the ``max_size`` session property.");
+        PullRequest improvement = pullRequest(2, "Hive Connector Changes\n* Improve the performance of reading ORC files.");
+        PullRequest noReleaseNote = new PullRequest(3, "Refactor", "https://github.com/prestodb/presto/pull/3", "```\n== NO RELEASE NOTE ==\n```", new Actor("user"), null);
+        List<Commit> commits = ImmutableList.of(
+                commit("commit1", fix),
+                commit("commit2", improvement),
+                commit("commit3", fix),
+                commit("commit4", noReleaseNote));
+
+        Map<PullRequest, List<ReleaseNoteItem>> fixes = HotfixCandidatesTask.findFixes(commits);
+        assertEquals(ImmutableList.copyOf(fixes.keySet()), ImmutableList.of(fix));
+        assertEquals(fixes.get(fix).size(), 1);
+        assertEquals(fixes.get(fix).get(0).getLine(), "Fix a failure of ``ORDER BY`` with ``LIMIT``.");
+    }
+
+    @Test
+    public void testRun()
+            throws IOException
+    {
+        File directory = createTempDirectory(null).toFile();
+        try {
+            PatchIdGit git = new PatchIdGit(directory);
+            MockGithubAction githubAction = new MockGithubAction(ImmutableList.of(commit("commit1", pullRequest(1, "General Changes\n* Fix a failure."))));
+            new HotfixCandidatesTask(git, githubAction, new VersionConfig().setReleaseVersion("0.231.1")).run();
+            assertEquals(git.ranges, ImmutableList.of("upstream/release-0.231..upstream/master", "upstream/master..upstream/release-0.231"));
+        }
+        finally {
+            deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    private static PullRequest pullRequest(int id, String releaseNotes)
+    {
+        return new PullRequest(
+                id,
+                "Pull request " + id,
+                "https://github.com/prestodb/presto/pull/" + id,
+                format("```\n== RELEASE NOTES ==\n\n%s\n```", releaseNotes),
+                new Actor("user"),
+                null);
+    }
+
+    private static Commit commit(String id, PullRequest pullRequest)
+    {
+        return new Commit(id, new GitActor("Author"), pullRequest.getTitle(), ImmutableMap.of("nodes", ImmutableList.of(pullRequest)));
+    }
+
+    private static class PatchIdGit
+            extends NoOpGit
+    {
+        private final List<String> ranges = new ArrayList<>();
+
+        public PatchIdGit(File directory)
+        {
+            super(GitRepository.create("presto", new GitRepositoryConfig().setDirectory(directory.getAbsolutePath()).setCheckDirectoryName(false), new GitConfig()));
+        }
+
+        @Override
+        public String patchIds(String revisionRange)
+        {
+            ranges.add(revisionRange);
+            return revisionRange.endsWith("master") ? "patch1 commit1\npatch2 commit2\n" : "patch2 commit3\n";
+        }
+
+        @Override
+        public String remoteUrl(String remote)
+        {
+            return "https://github.com/prestodb/presto.git";
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+
+public class TestPropertyLinker
+{
+    private static final PropertyLinker LINKER = new PropertyLinker(ImmutableMap.of(
+            "hive.max-partitions-per-scan", ":ref:`hive.max-partitions-per-scan <hive-properties>`",
+            "join_distribution_type", ":doc:`join_distribution_type </admin/properties>`",
+            "distribution_type", ":doc:`distribution_type </admin/other>`",
+            "hive.max", ":doc:`hive.max </connector/hive>`"));
+
+    @Test
+    public void testLink()
+    {
+        assertEquals(
+                LINKER.link("Add ``hive.max-partitions-per-scan`` and the join_distribution_type session property."),
+                "Add :ref:`hive.max-partitions-per-scan <hive-properties>` and the :doc:`join_distribution_type </admin/properties>` session property.");
+        // the longest name wins, and only the first mention of a property is linked
+        assertEquals(
+                LINKER.link("Fix join_distribution_type, distribution_type and join_distribution_type"),
+                "Fix :doc:`join_distribution_type </admin/properties>`, :doc:`distribution_type </admin/other>` and join_distribution_type");
+        assertEquals(LINKER.link("Set hive.max."), "Set :doc:`hive.max </connector/hive>`.");
+    }
+
+    @Test
+    public void testSkipPartialMentions()
+    {
+        assertEquals(LINKER.link("Add hive.max-partitions"), "Add hive.max-partitions");
+        assertEquals(LINKER.link("Add my_join_distribution_type"), "Add my_join_distribution_type");
+        assertEquals(LINKER.link("Fix ``hive.max-partitions-per-scan`"), "Fix ``hive.max-partitions-per-scan`");
+        assertEquals(LINKER.link("See :ref:`hive.max-partitions-per-scan <hive-properties>`"), "See :ref:`hive.max-partitions-per-scan <hive-properties>`");
+        assertEquals(new PropertyLinker(ImmutableMap.of()).link("Add join_distribution_type"), "Add join_distribution_type");
+    }
+
+    @Test
+    public void testManyProperties()
+    {
+        Map<String, String> links = IntStream.range(0, 10_000)
+                .mapToObj(index -> format("connector%s.property-%s", index % 100, index))
+                .collect(toImmutableMap(Function.identity(), name -> format(":doc:`%s </connector>`", name)));
+        PropertyLinker linker = new PropertyLinker(links);
+        for (int index = 0; index < 10_000; index++) {
+            String name = format("connector%s.property-%s", index % 100, index);
+            assertEquals(linker.link(format("Add ``%s``.", name)), format("Add :doc:`%s </connector>`.", name));
+        }
+    }
+}
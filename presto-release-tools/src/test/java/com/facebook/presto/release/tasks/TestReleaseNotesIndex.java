@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.tasks.ReleaseNotesIndex.Item;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.asCharSink;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestReleaseNotesIndex
+{
+    private static final String RELEASE_0_231 = "=============\nRelease 0.231\n=============\n\n" +
+            "**Details**\n===========\n\n" +
+            "General Changes\n_______________\n" +
+            "* Fix an issue with query planning for certain join conditions. `#10 <https://github.com/prestodb/presto/pull/10>`_\n" +
+            "* Add the ``join_distribution_type`` session property. `#11 <https://github.com/prestodb/presto/pull/11>`_\n\n" +
+            "Hive Connector Changes\n______________________\n" +
+            "* Add ``hive.max-partitions-per-scan`` to limit the partitions\n  scanned by a query. `#12 <https://github.com/prestodb/presto/pull/12>`_\n\n" +
+            "**Credits**\n===========\n\nA Brown\n";
+    private static final String RELEASE_0_100 = "=============\nRelease 0.100\n=============\n\n" +
+            "General Changes\n---------------\n\n" +
+            "* Improve query planning performance.\n" +
+            "* Add partitions limit to the Hive connector.\n";
+
+    private File directory;
+    private File indexFile;
+
+    @BeforeMethod
+    public void setup()
+            throws IOException
+    {
+        directory = createTempDirectory(null).toFile();
+        indexFile = new File(directory, "index/release-notes-index.bin.gz");
+        asCharSink(new File(directory, "release-0.231.rst"), UTF_8).write(RELEASE_0_231);
+        asCharSink(new File(directory, "release-0.100.rst"), UTF_8).write(RELEASE_0_100);
+        asCharSink(new File(directory, "release.rst"), UTF_8).write("Release Notes\n=============\n\n* not a release note\n");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+            throws IOException
+    {
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testParseReleaseNotes()
+    {
+        List<Item> items = ReleaseNotesIndex.parseReleaseNotes("0.231", RELEASE_0_231);
+        assertEquals(items.stream().map(Item::toString).collect(toImmutableList()), ImmutableList.of(
+                "0.231 General: Fix an issue with query planning for certain join conditions.",
+                "0.231 General: Add the ``join_distribution_type`` session property.",
+                "0.231 Hive Connector: Add ``hive.max-partitions-per-scan`` to limit the partitions scanned by a query."));
+        assertEquals(items.get(2).getPullRequests(), ImmutableList.of(12));
+    }
+
+    @Test
+    public void testSearch()
+    {
+        ReleaseNotesIndex index = ReleaseNotesIndex.build(directory, Optional.empty());
+        index.write(indexFile);
+        index = ReleaseNotesIndex.read(indexFile).get();
+
+        // newest release first
+        assertEquals(search(index, "query planning"), ImmutableList.of(
+                "0.231 General: Fix an issue with query planning for certain join conditions.",
+                "0.100 General: Improve query planning performance."));
+        assertEquals(search(index, "\"planning performance\""), ImmutableList.of("0.100 General: Improve query planning performance."));
+        assertEquals(search(index, "\"performance planning\""), ImmutableList.of());
+        assertEquals(search(index, "partitions section:\"hive connector\""), ImmutableList.of(
+                "0.231 Hive Connector: Add ``hive.max-partitions-per-scan`` to limit the partitions scanned by a query."));
+        assertEquals(search(index, "\"max-partitions-per-scan\""), search(index, "pr:#12"));
+        assertEquals(search(index, "partitions version:0.100"), ImmutableList.of("0.100 General: Add partitions limit to the Hive connector."));
+        assertEquals(search(index, "join_distribution_type"), ImmutableList.of("0.231 General: Add the ``join_distribution_type`` session property."));
+        assertEquals(search(index, "unknown"), ImmutableList.of());
+        assertEquals(index.search(ReleaseNotesQuery.parse("section:general"), 2).size(), 2);
+    }
+
+    @Test
+    public void testIncrementalUpdate()
+            throws IOException
+    {
+        ReleaseNotesIndex.build(directory, Optional.empty()).write(indexFile);
+
+        asCharSink(new File(directory, "release-0.100.rst"), UTF_8).write(RELEASE_0_100.replace("Improve query planning", "Improve query optimization"));
+        asCharSink(new File(directory, "release-0.232.rst"), UTF_8).write(RELEASE_0_231.replace("0.231", "0.232").replace("planning", "analysis"));
+        ReleaseNotesIndex index = ReleaseNotesIndex.build(directory, ReleaseNotesIndex.read(indexFile));
+        assertEquals(search(index, "planning"), ImmutableList.of("0.231 General: Fix an issue with query planning for certain join conditions."));
+        assertEquals(search(index, "optimization"), ImmutableList.of("0.100 General: Improve query optimization performance."));
+        assertEquals(search(index, "analysis"), ImmutableList.of("0.232 General: Fix an issue with query analysis for certain join conditions."));
+
+        assertTrue(new File(directory, "release-0.231.rst").delete());
+        index = ReleaseNotesIndex.build(directory, Optional.of(index));
+        assertEquals(search(index, "planning"), ImmutableList.of());
+    }
+
+    @Test
+    public void testManyReleases()
+            throws IOException
+    {
+        for (int release = 0; release < 300; release++) {
+            StringBuilder notes = new StringBuilder("General Changes\n_______________\n");
+            for (int item = 0; item < 50; item++) {
+                notes.append(format("* Improve the performance of operator%s in release %s. `#%s <https://github.com/prestodb/presto/pull/%s>`_\n", item, release, release * 50 + item, release * 50 + item));
+            }
+            asCharSink(new File(directory, format("release-1.%s.rst", release)), UTF_8).write(notes);
+        }
+        ReleaseNotesIndex.build(directory, Optional.empty()).write(indexFile);
+        ReleaseNotesIndex index = ReleaseNotesIndex.read(indexFile).get();
+        assertEquals(index.getItems().size(), 300 * 50 + 5);
+
+        assertEquals(search(index, "operator7 \"release 299\""), ImmutableList.of("1.299 General: Improve the performance of operator7 in release 299."));
+        assertEquals(index.search(ReleaseNotesQuery.parse("\"the performance of\""), 3).stream().map(Item::getVersion).collect(toImmutableList()), ImmutableList.of("1.299", "1.299", "1.299"));
+    }
+
+    private static List<String> search(ReleaseNotesIndex index, String query)
+    {
+        return index.search(ReleaseNotesQuery.parse(query), 10).stream()
+                .map(Item::toString)
+                .collect(toImmutableList());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+
+public class TestReleaseNotesIndexConfig
+{
+    @Test
+    public void testDefault()
+    {
+        assertRecordedDefaults(recordDefaults(ReleaseNotesIndexConfig.class)
+                .setIndexFile("release-notes-index.bin.gz"));
+        assertRecordedDefaults(recordDefaults(SearchReleaseNotesConfig.class)
+                .setQuery(null)
+                .setLimit(20));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        assertFullMapping(
+                ImmutableMap.of("release-notes-index.file", "/tmp/index.bin.gz"),
+                new ReleaseNotesIndexConfig().setIndexFile("/tmp/index.bin.gz"));
+
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("release-notes-search.query", "section:hive \"max partitions\"")
+                .put("release-notes-search.limit", "5")
+                .build();
+        SearchReleaseNotesConfig expected = new SearchReleaseNotesConfig()
+                .setQuery("section:hive \"max partitions\"")
+                .setLimit(5);
+
+        assertFullMapping(properties, expected);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.facebook.presto.release.git.Actor;
+import com.facebook.presto.release.git.Commit;
+import com.facebook.presto.release.git.PullRequest;
+import com.facebook.presto.release.git.User;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestReleaseNotesSnapshot
+{
+    private static final PullRequest PULL_REQUEST_1 = new PullRequest(1, "Fix bug", "https://github.com/org/presto/pull/1", "body 1", new Actor("user1"), new User("user2", "B Jones"));
+    private static final PullRequest PULL_REQUEST_2 = new PullRequest(2, "Add feature", "https://github.com/org/presto/pull/2", "body 2", new Actor("user3"), null);
+
+    private static final List<Commit> COMMITS = ImmutableList.of(
+            new Commit("c1", "A Smith", "Fix bug part 1", ImmutableList.of(PULL_REQUEST_1)),
+            new Commit("c2", "A Smith", "Fix bug part 2", ImmutableList.of(PULL_REQUEST_1)),
+            new Commit("c3", "C Brown", "Add feature", ImmutableList.of(PULL_REQUEST_2)),
+            new Commit("c4", "D Green", "Direct push", ImmutableList.of()));
+
+    @Test
+    public void testRoundTrip()
+            throws Exception
+    {
+        File directory = createTempDir();
+        try {
+            File file = new File(directory, "snapshot.json.gz");
+            ReleaseNotesSnapshot.create("0.231", "org/presto", COMMITS).withContributors(ImmutableMap.of("user2", "Bea Jones")).write(file);
+            ReleaseNotesSnapshot snapshot = ReleaseNotesSnapshot.read(file);
+
+            assertEquals(snapshot.getVersion(), "0.231");
+            assertEquals(snapshot.getRepository(), "org/presto");
+            assertEquals(snapshot.getSnapshotPullRequests().size(), 2);
+            assertEquals(snapshot.getContributors(), ImmutableMap.of("user2", "Bea Jones"));
+            assertEquals(snapshot.getContributorLogins(), ImmutableSet.of("user1", "user2", "user3"));
+
+            List<Commit> commits = snapshot.getCommits();
+            assertEquals(commits.size(), COMMITS.size());
+            for (int i = 0; i < commits.size(); i++) {
+                assertEquals(commits.get(i).getId(), COMMITS.get(i).getId());
+                assertEquals(commits.get(i).getAuthor(), COMMITS.get(i).getAuthor());
+                assertEquals(commits.get(i).getTitle(), COMMITS.get(i).getTitle());
+                assertEquals(commits.get(i).getAssociatedPullRequests(), COMMITS.get(i).getAssociatedPullRequests());
+            }
+            assertSame(commits.get(0).getAssociatedPullRequests().get(0), commits.get(1).getAssociatedPullRequests().get(0));
+        }
+        finally {
+            deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Pull request #3 of commit c1 is missing from snapshot")
+    public void testMissingPullRequest()
+    {
+        new ReleaseNotesSnapshot(
+                "0.231",
+                "org/presto",
+                ImmutableList.of(new ReleaseNotesSnapshot.SnapshotCommit("c1", "A Smith", "Fix bug", ImmutableList.of(3))),
+                ImmutableList.of())
+                .getCommits();
+    }
+}
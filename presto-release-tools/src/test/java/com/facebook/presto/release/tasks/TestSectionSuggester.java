@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.release.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestSectionSuggester
+{
+    @Test
+    public void testPathTrie()
+    {
+        PathTrie<String> trie = PathTrie.<String>builder()
+                .put("presto-hive", "hive")
+                .put("presto-hive/src/test", "hive tests")
+                .put("presto-spi/", "spi")
+                .build();
+        assertEquals(trie.getLongestPrefixMatch("presto-hive/pom.xml"), Optional.of("hive"));
+        assertEquals(trie.getLongestPrefixMatch("presto-hive/src/test/java/TestHive.java"), Optional.of("hive tests"));
+        assertEquals(trie.getLongestPrefixMatch("presto-hive/src/main/java/Hive.java"), Optional.of("hive"));
+        assertEquals(trie.getLongestPrefixMatch("presto-hive"), Optional.of("hive"));
+        assertEquals(trie.getLongestPrefixMatch("presto-hive-metastore/pom.xml"), Optional.empty());
+        assertEquals(trie.getLongestPrefixMatch("presto-spi/pom.xml"), Optional.of("spi"));
+        assertEquals(trie.getLongestPrefixMatch("pom.xml"), Optional.empty());
+        assertEquals(PathTrie.<String>builder().put("", "root").build().getLongestPrefixMatch("pom.xml"), Optional.of("root"));
+    }
+
+    @Test
+    public void testSuggest()
+    {
+        List<String> paths = ImmutableList.of(
+                "presto-hive/src/main/java/HiveMetadata.java",
+                "presto-hive-metastore/src/main/java/Metastore.java",
+                "presto-mysql/pom.xml",
+                "presto-geospatial-toolkit/pom.xml",
+                "presto-main/src/main/java/Main.java",
+                "presto-spi/src/main/java/Connector.java",
+                "presto-base-jdbc/pom.xml",
+                "pom.xml");
+        SectionSuggester suggester = SectionSuggester.create(paths, ImmutableSet.of("Hive", "Hive Connector", "Hive Plugin", "MySQL Connector", "Geospatial Plugin"));
+
+        assertEquals(suggester.suggest(ImmutableList.of("presto-hive/src/main/java/HiveMetadata.java", "pom.xml")), Optional.of("Hive Connector"));
+        assertEquals(suggester.suggest(ImmutableList.of("presto-hive-metastore/src/main/java/Metastore.java")), Optional.of("Hive Connector"));
+        assertEquals(suggester.suggest(ImmutableList.of("presto-mysql/pom.xml")), Optional.of("MySQL Connector"));
+        assertEquals(suggester.suggest(ImmutableList.of("presto-geospatial-toolkit/pom.xml")), Optional.of("Geospatial Plugin"));
+        assertEquals(suggester.suggest(ImmutableList.of("presto-base-jdbc/pom.xml", "pom.xml")), Optional.empty());
+        assertEquals(suggester.suggest(ImmutableList.of()), Optional.empty());
+
+        // the section of most files wins, ties go to the section listed first
+        assertEquals(suggester.suggest(ImmutableList.of("presto-spi/src/main/java/Connector.java", "presto-hive/pom.xml", "presto-hive/src/Hive.java")), Optional.of("Hive Connector"));
+        assertEquals(suggester.suggest(ImmutableList.of("presto-spi/src/main/java/Connector.java", "presto-main/src/main/java/Main.java")), Optional.of("General"));
+    }
+
+    @Test
+    public void testParseChangedFiles()
+    {
+        String log = "\0" + commitId(1) + "\n\npresto-hive/pom.xml\npresto-spi/pom.xml\n" +
+                "\0" + commitId(2) + "\n" +
+                "\0" + commitId(3) + "\n\npom.xml\n";
+        assertEquals(SectionSuggester.parseChangedFiles(log), ImmutableMap.of(
+                commitId(1), ImmutableList.of("presto-hive/pom.xml", "presto-spi/pom.xml"),
+                commitId(2), ImmutableList.of(),
+                commitId(3), ImmutableList.of("pom.xml")));
+        assertEquals(SectionSuggester.parseChangedFiles(""), ImmutableMap.of());
+
+        String numstat = "\0" + commitId(1) + "\n\n3\t1\tpresto-hive/pom.xml\n-\t-\tpresto-docs/src/main/sphinx/logo.png\n";
+        assertEquals(SectionSuggester.parseChangedFiles(numstat), ImmutableMap.of(
+                commitId(1), ImmutableList.of("presto-hive/pom.xml", "presto-docs/src/main/sphinx/logo.png")));
+    }
+
+    @Test
+    public void testGetSection()
+    {
+        SectionSuggester suggester = SectionSuggester.create(ImmutableList.of("presto-hive/pom.xml", "presto-spi/pom.xml", "pom.xml"), ImmutableSet.of("Hive Connector"));
+        assertEquals(suggester.getSection("presto-hive"), Optional.of("Hive Connector"));
+        assertEquals(suggester.getSection("presto-spi"), Optional.of("SPI"));
+        assertEquals(suggester.getSection(ChangeStatistics.ROOT_MODULE), Optional.empty());
+    }
+
+    @Test
+    public void testManyPaths()
+    {
+        // a release touching tens of thousands of files in hundreds of modules is matched in one pass
+        List<String> paths = IntStream.range(0, 50_000)
+                .mapToObj(index -> format("presto-module%s/src/main/java/com/facebook/presto/File%s.java", index % 500, index))
+                .collect(toImmutableList());
+        SectionSuggester suggester = SectionSuggester.create(paths, IntStream.range(0, 500).mapToObj(index -> format("Module%s Connector", index)).collect(toImmutableList()));
+        assertEquals(suggester.suggest(paths.subList(0, 1)), Optional.of("Module0 Connector"));
+        assertTrue(suggester.suggest(paths).isPresent());
+    }
+
+    private static String commitId(int index)
+    {
+        return format("%040x", index);
+    }
+}